@@ -0,0 +1,104 @@
+package org.dddml.email.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every task on its own thread from {@code threads}, but lets at most
+ * {@code maxConcurrency} of them run at once. A task waits for a slot on
+ * its own thread, so submitting never blocks the publisher. A task is
+ * turned away when {@code maxWaiting} tasks are already waiting, when no
+ * slot frees up within the admission timeout, or after shutdown; its
+ * email stays in the persistent queue for recovery.
+ */
+@Slf4j
+public class AdmissionControlledExecutor implements TaskExecutor, AutoCloseable {
+
+    private final Executor threads;
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long admissionTimeoutMs;
+    private final EmailExecutorMetrics metrics;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile boolean closed;
+
+    public AdmissionControlledExecutor(
+            Executor threads,
+            int maxConcurrency,
+            int maxWaiting,
+            long admissionTimeoutMs,
+            EmailExecutorMetrics metrics) {
+        this.threads = threads;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxWaiting = maxWaiting;
+        this.admissionTimeoutMs = admissionTimeoutMs;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Runnable tracked = metrics.decorate(task);
+        if (closed) {
+            reject("executor shut down");
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            reject("too many deliveries waiting");
+            return;
+        }
+        try {
+            threads.execute(() -> admit(tracked));
+        } catch (TaskRejectedException exception) {
+            waiting.decrementAndGet();
+            reject("no thread available");
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        closed = true;
+        if (threads instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void admit(Runnable tracked) {
+        boolean acquired = false;
+        try {
+            acquired = !closed
+                && permits.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (!acquired) {
+            reject("no delivery slot within " + admissionTimeoutMs + " ms");
+            return;
+        }
+        try {
+            tracked.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(String reason) {
+        metrics.recordRejected();
+        log.warn(
+            "Email executor unavailable ({}); task remains in the persistent queue for recovery",
+            reason
+        );
+    }
+}
@@ -3,11 +3,13 @@ package org.dddml.email.config;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -15,8 +17,22 @@ import java.util.concurrent.Executor;
 @Slf4j
 public class AsyncConfig {
 
+    /**
+     * Transactional event executor. By default a fixed pool; with
+     * {@code app.mail.event-executor.virtual-threads} each delivery gets a
+     * virtual thread and waits for one of a bounded number of delivery
+     * slots instead of a queue position.
+     */
     @Bean(name = "emailExecutor")
-    public Executor emailExecutor() {
+    public Executor emailExecutor(
+            MailProperties mailProperties,
+            EmailExecutorMetrics executorMetrics) {
+        if (mailProperties.getEventExecutor().isVirtualThreads()) {
+            if (Runtime.version().feature() >= 21) {
+                return virtualThreadEmailExecutor(mailProperties, executorMetrics);
+            }
+            log.warn("Virtual threads need Java 21 or later; email executor keeps its thread pool");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
@@ -24,10 +40,95 @@ public class AsyncConfig {
         executor.setThreadNamePrefix("email-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
+        executor.setTaskDecorator(executorMetrics);
+        executor.setRejectedExecutionHandler((task, threadPool) -> {
+            executorMetrics.recordRejected();
+            log.warn("Email executor unavailable; task remains in the persistent queue for recovery");
+        });
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bulk lane executor, kept apart from {@code emailExecutor} so a large
+     * batch cannot occupy the threads that deliver verification and reset
+     * codes.
+     */
+    @Bean(name = "bulkEmailExecutor")
+    public Executor bulkEmailExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(5);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("email-bulk-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
         executor.setRejectedExecutionHandler((task, threadPool) ->
-            log.warn("Email executor unavailable; task remains in the persistent queue for recovery")
+            log.warn("Bulk email executor unavailable; task remains in the persistent queue for recovery")
         );
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Delivers the SMTP sessions of a recovery drain in parallel. When every
+     * thread is busy the drain thread sends the batch itself, which also
+     * slows claiming to match.
+     */
+    @Bean(name = "emailDrainExecutor")
+    public ThreadPoolTaskExecutor emailDrainExecutor(MailProperties mailProperties) {
+        int parallelism = mailProperties.getRecovery().getDrainParallelism();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism);
+        executor.setThreadNamePrefix("email-drain-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Deliveries are blocking SMTP I/O, so running more at once than the
+     * rate limit grants per minute or than the SMTP pool has connections
+     * only moves the wait somewhere that fails the attempt. With the
+     * defaults this is the SMTP pool's 4 connections: a burst gets through
+     * about {@code 4 * admissionTimeout / sendTime} deliveries before the
+     * rest time out waiting and are left to recovery.
+     */
+    static int deliveryConcurrency(MailProperties mailProperties) {
+        int concurrency = mailProperties.getEventExecutor().getMaxConcurrency();
+        if (mailProperties.getRateLimit().isEnabled()) {
+            concurrency = Math.min(concurrency, mailProperties.getRateLimit().getMaxPerMinute());
+        }
+        if (mailProperties.getSmtpPool().isEnabled()) {
+            concurrency = Math.min(concurrency, mailProperties.getSmtpPool().getMaxConnections());
+        }
+        return concurrency;
+    }
+
+    private Executor virtualThreadEmailExecutor(
+            MailProperties mailProperties,
+            EmailExecutorMetrics executorMetrics) {
+        MailProperties.EventExecutor config = mailProperties.getEventExecutor();
+        SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor("email-vt-");
+        threads.setVirtualThreads(true);
+        threads.setTaskTerminationTimeout(60000);
+        int concurrency = deliveryConcurrency(mailProperties);
+        log.info(
+            "Email executor uses virtual threads [maxConcurrency={}, maxWaiting={}, admissionTimeoutMs={}]",
+            concurrency,
+            config.getMaxWaiting(),
+            config.getAdmissionTimeoutMs()
+        );
+        return new AdmissionControlledExecutor(
+            threads,
+            concurrency,
+            config.getMaxWaiting(),
+            config.getAdmissionTimeoutMs(),
+            executorMetrics
+        );
+    }
 }
@@ -0,0 +1,76 @@
+package org.dddml.email.config;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission counters for the transactional event executor: how many
+ * deliveries started or were turned away, and how long started ones waited
+ * between submission and running. Used as the executor's task decorator,
+ * so the wait is measured the same way in thread pool and virtual thread
+ * mode.
+ */
+@Component
+public class EmailExecutorMetrics implements TaskDecorator {
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        submitted.increment();
+        long submitTime = System.nanoTime();
+        return () -> {
+            long waitNanos = System.nanoTime() - submitTime;
+            started.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Counts a decorated task that will never run.
+     */
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public ExecutorSnapshot snapshot() {
+        long startedCount = started.sum();
+        long rejectedCount = rejected.sum();
+        return new ExecutorSnapshot(
+            startedCount,
+            rejectedCount,
+            Math.max(0, submitted.sum() - startedCount - rejectedCount),
+            active.get(),
+            startedCount == 0
+                ? null
+                : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / startedCount),
+            TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get())
+        );
+    }
+
+    public record ExecutorSnapshot(
+            long started,
+            long rejected,
+            long waiting,
+            int active,
+            Long averageWaitMs,
+            long maxWaitMs) {
+    }
+}
@@ -12,6 +12,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @ConfigurationProperties(prefix = "app.mail")
 @Validated
@@ -42,6 +45,18 @@ public class MailProperties {
     @Valid
     private Recovery recovery = new Recovery();
 
+    @Valid
+    private Template template = new Template();
+
+    @Valid
+    private SmtpPool smtpPool = new SmtpPool();
+
+    @Valid
+    private EventExecutor eventExecutor = new EventExecutor();
+
+    @Valid
+    private Stats stats = new Stats();
+
     @Data
     public static class Queue {
         private boolean enabled = true;
@@ -65,6 +80,29 @@ public class MailProperties {
 
         @Min(1)
         private int maxPerMinute = 60;
+
+        /**
+         * Default per-recipient-domain limit; 0 leaves domains limited only
+         * by the global bucket.
+         */
+        @Min(0)
+        private int domainMaxPerMinute = 0;
+
+        /**
+         * Per-domain overrides keyed by lower-cased domain; 0 exempts a
+         * domain from the default.
+         */
+        private Map<String, @Min(0) Integer> domains = new HashMap<>();
+
+        @Min(1)
+        private int maxTrackedDomains = 10000;
+
+        /**
+         * Share of {@code maxPerMinute} that bulk sends can never use, held
+         * back for the transactional lane; 0 lets both lanes share freely.
+         */
+        @Min(0)
+        private int transactionalReservedPerMinute = 0;
     }
 
     @Data
@@ -78,5 +116,124 @@ public class MailProperties {
         @Min(1)
         @Max(10080)
         private int stuckTimeoutMinutes = 10;
+
+        /**
+         * Keep claiming batches while work remains instead of handling one
+         * page per scan; a scan only ends when the lane is empty or the rate
+         * limiter denies every claimed entry.
+         */
+        private boolean drainEnabled = false;
+
+        @Min(1)
+        @Max(1000)
+        private int drainBatchSize = 100;
+
+        /**
+         * SMTP sessions a drain delivers on at once.
+         */
+        @Min(1)
+        @Max(32)
+        private int drainParallelism = 4;
+
+        /**
+         * Pause while the global bucket is empty before claiming again.
+         */
+        @Min(10)
+        @Max(60000)
+        private int drainThrottleBackoffMs = 1000;
+    }
+
+    @Data
+    public static class Template {
+        /**
+         * Splice variables into pre-rendered segments for templates that
+         * allow it; false renders every email through Thymeleaf.
+         */
+        private boolean compiled = true;
+    }
+
+    @Data
+    public static class SmtpPool {
+        /**
+         * Keep authenticated SMTP connections open between sends; false
+         * opens one connection per message through JavaMailSender.
+         */
+        private boolean enabled = true;
+
+        /**
+         * At least two: bulk sends never take the last connection, which
+         * stays free for transactional mail.
+         */
+        @Min(2)
+        @Max(100)
+        private int maxConnections = 4;
+
+        @Min(1)
+        @Max(3600)
+        private int maxIdleSeconds = 60;
+
+        /**
+         * Connections idle longer than this are checked with NOOP before
+         * reuse.
+         */
+        @Min(0)
+        @Max(3600)
+        private int validateAfterIdleSeconds = 5;
+
+        /**
+         * Connections are closed after this many messages, below the
+         * per-session caps most providers enforce.
+         */
+        @Min(1)
+        @Max(10000)
+        private int maxMessagesPerConnection = 100;
+
+        @Min(1)
+        @Max(600000)
+        private int borrowTimeoutMs = 10000;
+
+        /**
+         * Claimed recovery candidates sent over one SMTP session.
+         */
+        @Min(1)
+        @Max(50)
+        private int sessionBatchSize = 10;
+    }
+
+    @Data
+    public static class EventExecutor {
+        /**
+         * Run each transactional event delivery on its own virtual thread
+         * instead of the fixed pool. Needs Java 21 at runtime; older
+         * runtimes keep the pool.
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * Upper bound on concurrent deliveries; the effective cap is also
+         * held to the global rate limit and the SMTP pool size.
+         */
+        @Min(1)
+        @Max(10000)
+        private int maxConcurrency = 200;
+
+        @Min(1)
+        @Max(1000000)
+        private int maxWaiting = 10000;
+
+        @Min(1)
+        @Max(600000)
+        private int admissionTimeoutMs = 30000;
+    }
+
+    @Data
+    public static class Stats {
+        /**
+         * How often the in-memory queue and send method counters are
+         * reloaded from the database.
+         */
+        @Min(10)
+        @Max(86400)
+        private int reconcileIntervalSeconds = 300;
     }
 }
@@ -14,6 +14,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.dddml.email.config.EmailExecutorMetrics;
 import org.dddml.email.entity.EmailQueue;
 import org.dddml.email.entity.EmailLog;
 import org.dddml.email.repository.EmailLogRepository;
@@ -27,8 +28,10 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -41,6 +44,7 @@ public class EmailController {
     private final EmailService emailService;
     private final EmailQueueService emailQueueService;
     private final EmailLogRepository emailLogRepository;
+    private final EmailExecutorMetrics executorMetrics;
 
     @PostMapping("/simple")
     public ResponseEntity<Map<String, Object>> sendSimpleEmail(
@@ -78,6 +82,57 @@ public class EmailController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/template/batch")
+    public ResponseEntity<Map<String, Object>> sendTemplateEmailBatch(
+            @Valid @RequestBody TemplateBatchRequest request) {
+        List<EmailQueueService.BatchReceipt> receipts =
+            emailService.sendTemplateEmailBatch(
+                request.getEmails().stream()
+                    .map(item -> new EmailService.TemplateEmail(
+                        item.getTo(),
+                        item.getSubject(),
+                        item.getTemplateName(),
+                        item.getVariables(),
+                        item.getEmailType(),
+                        item.getIdempotencyKey()
+                    ))
+                    .toList()
+            );
+
+        List<Map<String, Object>> results = new ArrayList<>(receipts.size());
+        int successCount = 0;
+        for (int index = 0; index < receipts.size(); index++) {
+            EmailQueueService.BatchReceipt receipt = receipts.get(index);
+            Map<String, Object> result = new HashMap<>();
+            result.put("index", index);
+            switch (receipt.outcome()) {
+                case CREATED, EXISTING -> {
+                    result.put("success", true);
+                    result.put("queueId", receipt.queueId());
+                    result.put("status", receipt.status());
+                    successCount++;
+                }
+                case CONFLICT -> {
+                    result.put("success", false);
+                    result.put("error", "IDEMPOTENCY_CONFLICT");
+                }
+                case REJECTED -> {
+                    result.put("success", false);
+                    result.put("error", "INVALID_REQUEST");
+                }
+            }
+            results.add(result);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", successCount == receipts.size());
+        response.put("total", receipts.size());
+        response.put("successCount", successCount);
+        response.put("failCount", receipts.size() - successCount);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/delivery/status")
     public ResponseEntity<Map<String, Object>> getDeliveryStatus(
             @NotBlank
@@ -149,15 +204,14 @@ public class EmailController {
     public ResponseEntity<Map<String, Object>> getQueueStats() {
         EmailQueueService.QueueStats stats = emailQueueService.getStats();
 
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        List<Object[]> sendMethodStats = emailLogRepository.countBySendMethodSince(oneHourAgo);
-
-        Map<String, Long> methodCounts = new HashMap<>();
-        for (Object[] row : sendMethodStats) {
-            methodCounts.put((String) row[0], (Long) row[1]);
-        }
+        Map<String, Long> methodCounts = emailQueueService.getRecentSendMethodCounts();
 
         Map<String, Object> response = new HashMap<>();
+        // Counters are shared through the counter tables; other instances'
+        // changes show up as of syncedTime.
+        response.put("scope", "cluster");
+        response.put("syncedTime", stats.getSyncedTime());
+        response.put("reconciledTime", stats.getReconciledTime());
         response.put("pending", stats.getPending());
         response.put("processing", stats.getProcessing());
         response.put("completed", stats.getCompleted());
@@ -165,6 +219,31 @@ public class EmailController {
         response.put("eventDrivenCount", methodCounts.getOrDefault("EVENT", 0L));
         response.put("scheduledCount", methodCounts.getOrDefault("SCHEDULED", 0L));
 
+        Map<String, Object> lanes = new HashMap<>();
+        emailQueueService.getLaneStats().forEach((lane, laneStats) -> {
+            Map<String, Object> laneResponse = new HashMap<>();
+            laneResponse.put("pending", laneStats.pending());
+            laneResponse.put("processing", laneStats.processing());
+            laneResponse.put("delivered", laneStats.delivered());
+            laneResponse.put("failed", laneStats.failed());
+            laneResponse.put("p50LatencyMs", laneStats.p50LatencyMs());
+            laneResponse.put("p99LatencyMs", laneStats.p99LatencyMs());
+            laneResponse.put("drainRatePerMinute", laneStats.drainRatePerMinute());
+            laneResponse.put("estimatedSecondsToEmpty", laneStats.estimatedSecondsToEmpty());
+            lanes.put(lane.name().toLowerCase(Locale.ROOT), laneResponse);
+        });
+        response.put("lanes", lanes);
+
+        EmailExecutorMetrics.ExecutorSnapshot executor = executorMetrics.snapshot();
+        Map<String, Object> executorResponse = new HashMap<>();
+        executorResponse.put("started", executor.started());
+        executorResponse.put("rejected", executor.rejected());
+        executorResponse.put("waiting", executor.waiting());
+        executorResponse.put("active", executor.active());
+        executorResponse.put("averageWaitMs", executor.averageWaitMs());
+        executorResponse.put("maxWaitMs", executor.maxWaitMs());
+        response.put("eventExecutor", executorResponse);
+
         return ResponseEntity.ok(response);
     }
 
@@ -301,6 +380,15 @@ public class EmailController {
         private String idempotencyKey;
     }
 
+    @Getter
+    @Setter
+    public static class TemplateBatchRequest {
+        @NotEmpty
+        @Size(max = 100)
+        @Valid
+        private List<TemplateEmailRequest> emails;
+    }
+
     @Getter
     @Setter
     public static class ValidateEmailRequest {
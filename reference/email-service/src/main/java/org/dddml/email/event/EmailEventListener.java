@@ -26,9 +26,24 @@ public class EmailEventListener {
     @Async("emailExecutor")
     @TransactionalEventListener(
         phase = TransactionPhase.AFTER_COMMIT,
-        fallbackExecution = true
+        fallbackExecution = true,
+        condition = "!#event.bulk"
     )
     public void handleEmailQueuedEvent(EmailQueuedEvent event) {
+        deliverQueuedEmail(event);
+    }
+
+    @Async("bulkEmailExecutor")
+    @TransactionalEventListener(
+        phase = TransactionPhase.AFTER_COMMIT,
+        fallbackExecution = true,
+        condition = "#event.bulk"
+    )
+    public void handleBulkEmailQueuedEvent(EmailQueuedEvent event) {
+        deliverQueuedEmail(event);
+    }
+
+    private void deliverQueuedEmail(EmailQueuedEvent event) {
         if (!mailProperties.getQueue().isEventDriven()) {
             return;
         }
@@ -36,7 +51,10 @@ public class EmailEventListener {
         EmailRateLimiter.Reservation reservation = null;
         boolean releaseReservation = false;
         try {
-            reservation = rateLimiter.tryAcquire();
+            reservation = rateLimiter.tryAcquire(
+                event.getRecipientDomain(),
+                event.getLane()
+            );
             if (reservation == null) {
                 log.warn("Rate limit reached [ID={}], handing to scheduled task", event.getQueueId());
                 return;
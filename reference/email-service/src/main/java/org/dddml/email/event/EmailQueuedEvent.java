@@ -1,6 +1,7 @@
 package org.dddml.email.event;
 
 import lombok.Getter;
+import org.dddml.email.service.EmailLane;
 import org.springframework.context.ApplicationEvent;
 
 @Getter
@@ -8,8 +9,38 @@ public class EmailQueuedEvent extends ApplicationEvent {
 
     private final Long queueId;
 
+    /**
+     * Lower-cased recipient domain used for per-domain rate limiting, or
+     * {@code null} when the publisher did not supply one.
+     */
+    private final String recipientDomain;
+
+    /**
+     * Lane whose executor delivers the email; transactional unless the
+     * publisher says otherwise.
+     */
+    private final EmailLane lane;
+
     public EmailQueuedEvent(Object source, Long queueId) {
+        this(source, queueId, null);
+    }
+
+    public EmailQueuedEvent(Object source, Long queueId, String recipientDomain) {
+        this(source, queueId, recipientDomain, EmailLane.TRANSACTIONAL);
+    }
+
+    public EmailQueuedEvent(
+            Object source,
+            Long queueId,
+            String recipientDomain,
+            EmailLane lane) {
         super(source);
         this.queueId = queueId;
+        this.recipientDomain = recipientDomain;
+        this.lane = lane;
+    }
+
+    public boolean isBulk() {
+        return lane == EmailLane.BULK;
     }
 }
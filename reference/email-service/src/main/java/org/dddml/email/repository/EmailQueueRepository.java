@@ -26,6 +26,18 @@ public interface EmailQueueRepository extends JpaRepository<EmailQueue, Long> {
         @Param("stuckTime") LocalDateTime stuckTime,
         Pageable pageable);
 
+    @Query("SELECT e FROM EmailQueue e WHERE " +
+           "e.priority BETWEEN :minPriority AND :maxPriority AND (" +
+           "(e.status = 'PENDING' AND (e.nextRetryTime IS NULL OR e.nextRetryTime <= :now)) " +
+           "OR (e.status = 'PROCESSING' AND e.updatedTime < :stuckTime)) " +
+           "ORDER BY e.priority DESC, e.createdTime ASC")
+    Page<EmailQueue> findFailedOrStuckEmailsInLane(
+        @Param("now") LocalDateTime now,
+        @Param("stuckTime") LocalDateTime stuckTime,
+        @Param("minPriority") int minPriority,
+        @Param("maxPriority") int maxPriority,
+        Pageable pageable);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("UPDATE EmailQueue e SET e.status = 'PROCESSING', e.updatedTime = :now, " +
            "e.nextRetryTime = NULL, e.processedTime = NULL, e.errorMessage = NULL " +
@@ -46,6 +58,8 @@ public interface EmailQueueRepository extends JpaRepository<EmailQueue, Long> {
 
     long countByStatus(String status);
 
+    long countByStatusAndPriorityBetween(String status, Integer minPriority, Integer maxPriority);
+
     List<EmailQueue> findByStatus(String status);
 
     List<EmailQueue> findByStatusOrderByPriorityDesc(String status);
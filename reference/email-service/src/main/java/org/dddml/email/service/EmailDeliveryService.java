@@ -5,10 +5,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.dddml.email.config.MailProperties;
 import org.dddml.email.entity.EmailLog;
 import org.dddml.email.entity.EmailQueue;
+import org.dddml.email.repository.EmailLogRepository;
 import org.dddml.email.repository.EmailQueueRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -16,8 +23,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class EmailDeliveryService {
 
     private final EmailQueueRepository emailQueueRepository;
+    private final EmailLogRepository emailLogRepository;
     private final EmailService emailService;
     private final MailProperties mailProperties;
+    private final EmailLaneMetrics laneMetrics;
+    private final EmailQueueStatsService queueStats;
+    private final TransactionOperations transactionOperations;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public DeliveryOutcome deliver(Long queueId, String sendMethod) {
@@ -27,9 +38,67 @@ public class EmailDeliveryService {
         }
 
         EmailLog emailLog = emailService.sendEmailDirectly(emailQueue, sendMethod);
+        return applyResult(emailQueue, emailLog, sendMethod);
+    }
+
+    /**
+     * Delivers several claimed entries over one SMTP session. Each entry is
+     * completed, retried or failed from its own log, exactly as
+     * {@link #deliver(Long, String)} would; outcomes follow the id order.
+     * <p>
+     * No transaction spans the session: each entry's log and status are
+     * committed in their own short transaction right after its send, so a
+     * later failure cannot roll back entries the SMTP server already
+     * accepted. If a commit fails the session stops there, and the entries
+     * not yet sent stay claimed until the recovery worker picks them up.
+     */
+    public List<DeliveryOutcome> deliverBatch(List<Long> queueIds, String sendMethod) {
+        Map<Long, EmailQueue> claimed = new HashMap<>();
+        for (EmailQueue emailQueue : emailQueueRepository.findAllById(queueIds)) {
+            if ("PROCESSING".equals(emailQueue.getStatus())) {
+                claimed.put(emailQueue.getId(), emailQueue);
+            }
+        }
+        List<EmailQueue> sendable = new ArrayList<>(claimed.size());
+        for (Long queueId : queueIds) {
+            EmailQueue emailQueue = claimed.remove(queueId);
+            if (emailQueue != null) {
+                sendable.add(emailQueue);
+            }
+        }
+
+        Map<Long, DeliveryOutcome> outcomes = new HashMap<>();
+        if (!sendable.isEmpty()) {
+            emailService.sendEmailsDirectly(sendable, sendMethod, (emailQueue, emailLog) ->
+                outcomes.put(emailQueue.getId(), transactionOperations.execute(status -> {
+                    emailLogRepository.save(emailLog);
+                    return applyResult(emailQueue, emailLog, sendMethod);
+                }))
+            );
+        }
+
+        List<DeliveryOutcome> ordered = new ArrayList<>(queueIds.size());
+        for (Long queueId : queueIds) {
+            // A repeated id is delivered once and skipped afterwards.
+            DeliveryOutcome outcome = outcomes.remove(queueId);
+            ordered.add(outcome != null ? outcome : DeliveryOutcome.SKIPPED);
+        }
+        return ordered;
+    }
+
+    private DeliveryOutcome applyResult(
+            EmailQueue emailQueue,
+            EmailLog emailLog,
+            String sendMethod) {
+        Long queueId = emailQueue.getId();
+        EmailLane lane = EmailLane.ofPriority(emailQueue.getPriority());
+        String previousStatus = emailQueue.getStatus();
+        queueStats.recordDelivery(emailLog.getSendMethod(), emailLog.getSentTime());
         if ("SUCCESS".equals(emailLog.getStatus())) {
+            laneMetrics.recordDelivered(lane, emailQueue.getCreatedTime());
             emailQueue.markAsCompleted();
             emailQueueRepository.save(emailQueue);
+            queueStats.recordTransition(lane, previousStatus, emailQueue.getStatus());
             log.info("Email delivery completed [ID={}, method={}]", queueId, sendMethod);
             return DeliveryOutcome.SUCCESS;
         }
@@ -46,7 +115,9 @@ public class EmailDeliveryService {
             emailQueue.markAsFailed(emailLog.getErrorMessage());
             log.error("Email delivery permanently failed [ID={}]", queueId);
         }
+        laneMetrics.recordFailed(lane);
         emailQueueRepository.save(emailQueue);
+        queueStats.recordTransition(lane, previousStatus, emailQueue.getStatus());
         return DeliveryOutcome.FAILED;
     }
 
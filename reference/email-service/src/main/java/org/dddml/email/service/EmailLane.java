@@ -0,0 +1,42 @@
+package org.dddml.email.service;
+
+/**
+ * Delivery lane of a queued email, derived from its priority. Template
+ * mail from UniAuth (verification codes, password resets, welcome mail)
+ * runs in the transactional lane; {@code /simple} and {@code /batch} mail
+ * runs in the bulk lane. Each lane has its own executor, recovery scan,
+ * rate limit share and metrics, so a bulk backlog cannot delay codes.
+ */
+public enum EmailLane {
+
+    TRANSACTIONAL(9, 6, Integer.MAX_VALUE),
+    BULK(5, 0, 5);
+
+    private final int enqueuePriority;
+    private final int minPriority;
+    private final int maxPriority;
+
+    EmailLane(int enqueuePriority, int minPriority, int maxPriority) {
+        this.enqueuePriority = enqueuePriority;
+        this.minPriority = minPriority;
+        this.maxPriority = maxPriority;
+    }
+
+    public int enqueuePriority() {
+        return enqueuePriority;
+    }
+
+    public int minPriority() {
+        return minPriority;
+    }
+
+    public int maxPriority() {
+        return maxPriority;
+    }
+
+    public static EmailLane ofPriority(Integer priority) {
+        return priority != null && priority >= TRANSACTIONAL.minPriority
+            ? TRANSACTIONAL
+            : BULK;
+    }
+}
@@ -0,0 +1,123 @@
+package org.dddml.email.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process delivery metrics per lane: how many emails each lane sent or
+ * failed, and the queue-to-SMTP latency of successful sends. Latencies go
+ * into power-of-two millisecond buckets, so percentiles are reported as
+ * the upper bound of the bucket they fall in. Recovery drains also report
+ * their throughput, smoothed across batches.
+ */
+@Component
+public class EmailLaneMetrics {
+
+    // Bucket i holds latencies below 2^i ms; the last bucket is open-ended.
+    private static final int BUCKETS = 24;
+
+    // Weight of the newest batch in the smoothed drain rate.
+    private static final double DRAIN_RATE_WEIGHT = 0.3;
+
+    private final Map<EmailLane, LaneCounters> lanes = new EnumMap<>(EmailLane.class);
+
+    public EmailLaneMetrics() {
+        for (EmailLane lane : EmailLane.values()) {
+            lanes.put(lane, new LaneCounters());
+        }
+    }
+
+    public void recordDelivered(EmailLane lane, LocalDateTime queuedTime) {
+        LaneCounters counters = lanes.get(lane);
+        counters.delivered.increment();
+        if (queuedTime == null) {
+            return;
+        }
+        long latencyMs = Math.max(
+            0,
+            Duration.between(queuedTime, LocalDateTime.now()).toMillis()
+        );
+        counters.latency.incrementAndGet(bucketOf(latencyMs));
+    }
+
+    public void recordFailed(EmailLane lane) {
+        lanes.get(lane).failed.increment();
+    }
+
+    /**
+     * Folds one drained batch into the lane's smoothed drain rate.
+     */
+    public void recordDrained(EmailLane lane, int processed, long elapsedMs) {
+        if (processed <= 0) {
+            return;
+        }
+        double ratePerMinute = processed * 60_000.0 / Math.max(1, elapsedMs);
+        AtomicLong rate = lanes.get(lane).drainRate;
+        rate.updateAndGet(bits -> {
+            double previous = Double.longBitsToDouble(bits);
+            double next = previous == 0
+                ? ratePerMinute
+                : previous + DRAIN_RATE_WEIGHT * (ratePerMinute - previous);
+            return Double.doubleToLongBits(next);
+        });
+    }
+
+    public LaneSnapshot snapshot(EmailLane lane) {
+        LaneCounters counters = lanes.get(lane);
+        long[] histogram = new long[BUCKETS];
+        long samples = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = counters.latency.get(i);
+            samples += histogram[i];
+        }
+        return new LaneSnapshot(
+            counters.delivered.sum(),
+            counters.failed.sum(),
+            percentile(histogram, samples, 0.50),
+            percentile(histogram, samples, 0.99),
+            Math.round(Double.longBitsToDouble(counters.drainRate.get()))
+        );
+    }
+
+    static int bucketOf(long latencyMs) {
+        int bucket = 64 - Long.numberOfLeadingZeros(latencyMs);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static Long percentile(long[] histogram, long samples, double quantile) {
+        if (samples == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(samples * quantile);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (histogram.length - 1);
+    }
+
+    public record LaneSnapshot(
+            long delivered,
+            long failed,
+            Long p50LatencyMs,
+            Long p99LatencyMs,
+            long drainRatePerMinute) {
+    }
+
+    private static final class LaneCounters {
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicLongArray latency = new AtomicLongArray(BUCKETS);
+        private final AtomicLong drainRate = new AtomicLong(Double.doubleToLongBits(0));
+    }
+}
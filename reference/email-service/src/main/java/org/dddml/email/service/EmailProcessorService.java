@@ -1,20 +1,27 @@
 package org.dddml.email.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import lombok.RequiredArgsConstructor;
 import org.dddml.email.config.MailProperties;
 import org.dddml.email.entity.EmailQueue;
 import org.dddml.email.repository.EmailQueueRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class EmailProcessorService {
 
     private final EmailQueueRepository emailQueueRepository;
@@ -22,15 +29,68 @@ public class EmailProcessorService {
     private final EmailDeliveryService deliveryService;
     private final EmailRateLimiter rateLimiter;
     private final MailProperties mailProperties;
+    private final EmailLaneMetrics laneMetrics;
+    private final Executor drainExecutor;
 
+    private volatile boolean stopping;
+
+    public EmailProcessorService(
+            EmailQueueRepository emailQueueRepository,
+            EmailQueueClaimService claimService,
+            EmailDeliveryService deliveryService,
+            EmailRateLimiter rateLimiter,
+            MailProperties mailProperties,
+            EmailLaneMetrics laneMetrics,
+            @Qualifier("emailDrainExecutor") Executor drainExecutor) {
+        this.emailQueueRepository = emailQueueRepository;
+        this.claimService = claimService;
+        this.deliveryService = deliveryService;
+        this.rateLimiter = rateLimiter;
+        this.mailProperties = mailProperties;
+        this.laneMetrics = laneMetrics;
+        this.drainExecutor = drainExecutor;
+    }
+
+    @Scheduled(fixedDelayString = "#{${app.mail.recovery.scan-interval-minutes:5} * 60000L}",
+               initialDelay = 60000)
+    public void recoverTransactionalEmails() {
+        recoverLane(EmailLane.TRANSACTIONAL);
+    }
+
+    /**
+     * Runs as its own scheduled task, so a long bulk scan never delays the
+     * transactional one.
+     */
     @Scheduled(fixedDelayString = "#{${app.mail.recovery.scan-interval-minutes:5} * 60000L}",
                initialDelay = 60000)
+    public void recoverBulkEmails() {
+        recoverLane(EmailLane.BULK);
+    }
+
+    /**
+     * Scans every lane once, transactional first.
+     */
     public void recoverFailedEmails() {
+        for (EmailLane lane : EmailLane.values()) {
+            recoverLane(lane);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private void recoverLane(EmailLane lane) {
         if (!mailProperties.isEnabled()
                 || !mailProperties.getQueue().isEnabled()
                 || !mailProperties.getRecovery().isEnabled()) {
             return;
         }
+        if (mailProperties.getRecovery().isDrainEnabled()) {
+            drainLane(lane);
+            return;
+        }
 
         try {
             LocalDateTime now = LocalDateTime.now();
@@ -38,27 +98,39 @@ public class EmailProcessorService {
                 mailProperties.getRecovery().getStuckTimeoutMinutes()
             );
 
-            List<EmailQueue> failedEmails = emailQueueRepository.findFailedOrStuckEmails(
-                now, stuckTime, PageRequest.of(0, 50)
+            List<EmailQueue> failedEmails = emailQueueRepository.findFailedOrStuckEmailsInLane(
+                now,
+                stuckTime,
+                lane.minPriority(),
+                lane.maxPriority(),
+                PageRequest.of(0, 50)
             ).getContent();
 
             if (failedEmails.isEmpty()) {
-                log.debug("Recovery scan complete, no emails to process");
+                log.debug("Recovery scan complete, no emails to process [lane={}]", lane);
                 return;
             }
 
-            log.info("Recovery scan found {} failed emails", failedEmails.size());
+            log.info("Recovery scan found {} failed emails [lane={}]", failedEmails.size(), lane);
 
-            int successCount = 0, failedCount = 0;
+            RecoveryTally tally = new RecoveryTally();
+            int sessionBatchSize = mailProperties.getSmtpPool().getSessionBatchSize();
+            List<Long> claimedIds = new ArrayList<>(sessionBatchSize);
+            List<EmailRateLimiter.Reservation> reservations = new ArrayList<>(sessionBatchSize);
 
             for (EmailQueue emailQueue : failedEmails) {
                 EmailRateLimiter.Reservation reservation = null;
                 boolean releaseReservation = false;
                 try {
-                    reservation = rateLimiter.tryAcquire();
+                    reservation = rateLimiter.tryAcquire(
+                        EmailRateLimiter.domainOf(emailQueue.getRecipient()),
+                        lane
+                    );
                     if (reservation == null) {
-                        log.warn("Recovery rate limit reached; remaining candidates stay pending");
-                        break;
+                        // A single exhausted domain must not hold back the
+                        // rest of the scan; denied candidates stay pending.
+                        tally.deferred++;
+                        continue;
                     }
                     releaseReservation = true;
 
@@ -73,31 +145,40 @@ public class EmailProcessorService {
 
                     releaseReservation = false;
                     log.info("Recovering email [ID={}]", emailQueue.getId());
-                    EmailDeliveryService.DeliveryOutcome outcome =
-                        deliveryService.deliver(emailQueue.getId(), "SCHEDULED");
-                    if (outcome == EmailDeliveryService.DeliveryOutcome.SUCCESS) {
-                        successCount++;
-                    } else if (outcome == EmailDeliveryService.DeliveryOutcome.FAILED) {
-                        failedCount++;
-                    } else {
-                        releaseReservation = true;
-                    }
+                    claimedIds.add(emailQueue.getId());
+                    reservations.add(reservation);
 
                 } catch (Exception exception) {
                     log.error(
-                        "Recovery send failed [ID={}, error={}]",
+                        "Recovery claim failed [ID={}, error={}]",
                         emailQueue.getId(),
                         exception.getClass().getSimpleName()
                     );
-                    failedCount++;
+                    tally.failed++;
                 } finally {
                     if (releaseReservation) {
                         reservation.release();
                     }
                 }
+
+                if (claimedIds.size() >= sessionBatchSize) {
+                    deliverClaimed(claimedIds, reservations, tally);
+                }
             }
+            deliverClaimed(claimedIds, reservations, tally);
 
-            log.info("Recovery scan complete - success: {}, failed: {}", successCount, failedCount);
+            if (tally.deferred > 0) {
+                log.warn(
+                    "Recovery rate limit reached; {} candidates stay pending",
+                    tally.deferred
+                );
+            }
+            log.info(
+                "Recovery scan complete [lane={}] - success: {}, failed: {}",
+                lane,
+                tally.succeeded,
+                tally.failed
+            );
 
         } catch (Exception exception) {
             log.error(
@@ -107,4 +188,193 @@ public class EmailProcessorService {
         }
     }
 
+    /**
+     * Claims and delivers batches until the lane is empty. Each batch is
+     * sized to what the rate limiter can grant, so claimed entries do not
+     * sit in PROCESSING waiting for tokens; entries a domain limit denies
+     * are handed back to PENDING, not claimable until that domain has a
+     * token again, so a throttled domain at the head of the backlog does
+     * not hold up the others. While the limiter is exhausted and the last
+     * batch came back full, the drain pauses instead of ending.
+     */
+    private void drainLane(EmailLane lane) {
+        MailProperties.Recovery config = mailProperties.getRecovery();
+        int sessionBatchSize = mailProperties.getSmtpPool().getSessionBatchSize();
+        RecoveryTally tally = new RecoveryTally();
+        boolean moreWaiting = false;
+
+        try {
+            while (!stopping && !Thread.currentThread().isInterrupted()) {
+                int budget = Math.min(config.getDrainBatchSize(), rateLimiter.available(lane));
+                if (budget <= 0) {
+                    if (!moreWaiting || !pause(config.getDrainThrottleBackoffMs())) {
+                        break;
+                    }
+                    continue;
+                }
+
+                long batchStart = System.nanoTime();
+                LocalDateTime now = LocalDateTime.now();
+                List<EmailQueueClaimService.ClaimedEmail> claimed = claimService.claimRecoverableBatch(
+                    lane,
+                    now,
+                    now.minusMinutes(config.getStuckTimeoutMinutes()),
+                    budget
+                );
+                if (claimed.isEmpty()) {
+                    break;
+                }
+                moreWaiting = claimed.size() == budget;
+
+                Map<String, List<Long>> deniedByDomain = new HashMap<>();
+                List<CompletableFuture<RecoveryTally>> sessions = new ArrayList<>();
+                List<Long> sessionIds = new ArrayList<>(sessionBatchSize);
+                List<EmailRateLimiter.Reservation> sessionReservations = new ArrayList<>(sessionBatchSize);
+                for (EmailQueueClaimService.ClaimedEmail email : claimed) {
+                    EmailRateLimiter.Reservation reservation =
+                        rateLimiter.tryAcquire(email.recipientDomain(), lane);
+                    if (reservation == null) {
+                        deniedByDomain
+                            .computeIfAbsent(email.recipientDomain(), domain -> new ArrayList<>())
+                            .add(email.id());
+                        continue;
+                    }
+                    sessionIds.add(email.id());
+                    sessionReservations.add(reservation);
+                    if (sessionIds.size() >= sessionBatchSize) {
+                        sessions.add(deliverAsync(sessionIds, sessionReservations));
+                        sessionIds = new ArrayList<>(sessionBatchSize);
+                        sessionReservations = new ArrayList<>(sessionBatchSize);
+                    }
+                }
+                if (!sessionIds.isEmpty()) {
+                    sessions.add(deliverAsync(sessionIds, sessionReservations));
+                }
+                tally.deferred += defer(deniedByDomain, config.getDrainThrottleBackoffMs());
+
+                RecoveryTally batch = new RecoveryTally();
+                for (CompletableFuture<RecoveryTally> session : sessions) {
+                    batch.add(session.join());
+                }
+                tally.add(batch);
+                laneMetrics.recordDrained(
+                    lane,
+                    batch.succeeded + batch.failed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart)
+                );
+            }
+        } catch (Exception exception) {
+            log.error(
+                "Recovery drain error [lane={}, error={}]",
+                lane,
+                exception.getClass().getSimpleName()
+            );
+        }
+
+        if (tally.deferred > 0) {
+            log.warn(
+                "Recovery rate limit reached; {} candidates stay pending",
+                tally.deferred
+            );
+        }
+        log.info(
+            "Recovery drain complete [lane={}] - success: {}, failed: {}",
+            lane,
+            tally.succeeded,
+            tally.failed
+        );
+    }
+
+    /**
+     * Hands domain-denied claims back to PENDING with their retry time set
+     * to when the domain can send again, and at least the throttle backoff
+     * ahead, so the next claim moves on to other rows.
+     */
+    private int defer(Map<String, List<Long>> deniedByDomain, long minimumBackoffMs) {
+        int deferred = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, List<Long>> denied : deniedByDomain.entrySet()) {
+            long waitMs = Math.max(
+                minimumBackoffMs,
+                rateLimiter.domainWait(denied.getKey()).toMillis()
+            );
+            claimService.releaseClaims(
+                denied.getValue(),
+                now,
+                now.plus(Duration.ofMillis(waitMs))
+            );
+            deferred += denied.getValue().size();
+        }
+        return deferred;
+    }
+
+    private CompletableFuture<RecoveryTally> deliverAsync(
+            List<Long> claimedIds,
+            List<EmailRateLimiter.Reservation> reservations) {
+        return CompletableFuture.supplyAsync(() -> {
+            RecoveryTally tally = new RecoveryTally();
+            deliverClaimed(claimedIds, reservations, tally);
+            return tally;
+        }, drainExecutor);
+    }
+
+    private boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return !stopping;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Sends the claimed candidates over one SMTP session. Every delivery
+     * attempt keeps its rate limit slot, including when the batch throws;
+     * only entries the delivery bean skipped give theirs back.
+     */
+    private void deliverClaimed(
+            List<Long> claimedIds,
+            List<EmailRateLimiter.Reservation> reservations,
+            RecoveryTally tally) {
+        if (claimedIds.isEmpty()) {
+            return;
+        }
+        try {
+            List<EmailDeliveryService.DeliveryOutcome> outcomes =
+                deliveryService.deliverBatch(List.copyOf(claimedIds), "SCHEDULED");
+            for (int i = 0; i < outcomes.size(); i++) {
+                EmailDeliveryService.DeliveryOutcome outcome = outcomes.get(i);
+                if (outcome == EmailDeliveryService.DeliveryOutcome.SUCCESS) {
+                    tally.succeeded++;
+                } else if (outcome == EmailDeliveryService.DeliveryOutcome.FAILED) {
+                    tally.failed++;
+                } else {
+                    reservations.get(i).release();
+                }
+            }
+        } catch (Exception exception) {
+            log.error(
+                "Recovery send failed [IDs={}, error={}]",
+                claimedIds,
+                exception.getClass().getSimpleName()
+            );
+            tally.failed += claimedIds.size();
+        } finally {
+            claimedIds.clear();
+            reservations.clear();
+        }
+    }
+
+    private static final class RecoveryTally {
+        private int succeeded;
+        private int failed;
+        private int deferred;
+
+        private void add(RecoveryTally other) {
+            succeeded += other.succeeded;
+            failed += other.failed;
+            deferred += other.deferred;
+        }
+    }
 }
@@ -2,25 +2,158 @@ package org.dddml.email.service;
 
 import lombok.RequiredArgsConstructor;
 import org.dddml.email.repository.EmailQueueRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class EmailQueueClaimService {
 
     private final EmailQueueRepository emailQueueRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EmailQueueStatsService queueStats;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public boolean claimPending(Long queueId, LocalDateTime now) {
-        return emailQueueRepository.claimPending(queueId, now) == 1;
+        LockedRow row = lock(queueId);
+        if (row == null || emailQueueRepository.claimPending(queueId, now) != 1) {
+            return false;
+        }
+        queueStats.recordTransition(row.lane(), row.status(), "PROCESSING");
+        return true;
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public boolean claimRecoverable(Long queueId, LocalDateTime now, LocalDateTime stuckTime) {
-        return emailQueueRepository.claimRecoverable(queueId, now, stuckTime) == 1;
+        LockedRow row = lock(queueId);
+        if (row == null || emailQueueRepository.claimRecoverable(queueId, now, stuckTime) != 1) {
+            return false;
+        }
+        queueStats.recordTransition(row.lane(), row.status(), "PROCESSING");
+        return true;
+    }
+
+    /**
+     * Claims up to {@code limit} recoverable entries of a lane in one
+     * statement. Rows locked by another claimer are skipped rather than
+     * waited on, so concurrent drainers never block each other.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<ClaimedEmail> claimRecoverableBatch(
+            EmailLane lane,
+            LocalDateTime now,
+            LocalDateTime stuckTime,
+            int limit) {
+        List<ClaimedRow> claimed = jdbcTemplate.query(
+            """
+            WITH candidates AS (
+                SELECT id, status
+                FROM email_queue
+                WHERE priority BETWEEN ? AND ?
+                  AND (
+                      (status = 'PENDING'
+                          AND (next_retry_time IS NULL OR next_retry_time <= ?))
+                      OR (status = 'PROCESSING' AND updated_time < ?)
+                  )
+                ORDER BY priority DESC, created_time ASC
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE email_queue
+            SET status = 'PROCESSING',
+                updated_time = ?,
+                next_retry_time = NULL,
+                processed_time = NULL,
+                error_message = NULL
+            FROM candidates
+            WHERE email_queue.id = candidates.id
+            RETURNING email_queue.id, email_queue.recipient, candidates.status AS previous_status
+            """,
+            (resultSet, rowNum) -> new ClaimedRow(
+                new ClaimedEmail(
+                    resultSet.getLong("id"),
+                    EmailRateLimiter.domainOf(resultSet.getString("recipient"))
+                ),
+                resultSet.getString("previous_status")
+            ),
+            lane.minPriority(),
+            lane.maxPriority(),
+            now,
+            stuckTime,
+            limit,
+            now
+        );
+        int fromPending = 0;
+        for (ClaimedRow row : claimed) {
+            if ("PENDING".equals(row.previousStatus())) {
+                fromPending++;
+            }
+        }
+        queueStats.recordTransitions(lane, "PENDING", "PROCESSING", fromPending);
+        return claimed.stream().map(ClaimedRow::email).toList();
+    }
+
+    /**
+     * Returns claimed entries that were not sent to {@code PENDING}
+     * without touching their retry count. They are not claimable again
+     * before {@code retryTime}.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int releaseClaims(List<Long> queueIds, LocalDateTime now, LocalDateTime retryTime) {
+        if (queueIds.isEmpty()) {
+            return 0;
+        }
+        List<Integer> priorities = jdbcTemplate.queryForList(
+            """
+            UPDATE email_queue
+            SET status = 'PENDING', updated_time = ?, next_retry_time = ?
+            WHERE id = ANY(?) AND status = 'PROCESSING'
+            RETURNING priority
+            """,
+            Integer.class,
+            now,
+            retryTime,
+            queueIds.toArray(Long[]::new)
+        );
+        Map<EmailLane, Integer> released = new EnumMap<>(EmailLane.class);
+        for (Integer priority : priorities) {
+            released.merge(EmailLane.ofPriority(priority), 1, Integer::sum);
+        }
+        released.forEach(
+            (lane, count) -> queueStats.recordTransitions(lane, "PROCESSING", "PENDING", count)
+        );
+        return priorities.size();
+    }
+
+    /**
+     * Locks the entry so its status cannot change between this read and
+     * the claim update that follows.
+     */
+    private LockedRow lock(Long queueId) {
+        List<LockedRow> rows = jdbcTemplate.query(
+            "SELECT status, priority FROM email_queue WHERE id = ? FOR UPDATE",
+            (resultSet, rowNum) -> new LockedRow(
+                resultSet.getString("status"),
+                EmailLane.ofPriority(resultSet.getInt("priority"))
+            ),
+            queueId
+        );
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public record ClaimedEmail(long id, String recipientDomain) {
+    }
+
+    private record ClaimedRow(ClaimedEmail email, String previousStatus) {
+    }
+
+    private record LockedRow(String status, EmailLane lane) {
     }
 }
@@ -17,7 +17,16 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +38,8 @@ public class EmailQueueService {
     private final ApplicationEventPublisher eventPublisher;
     private final MailProperties mailProperties;
     private final JdbcTemplate jdbcTemplate;
+    private final EmailLaneMetrics laneMetrics;
+    private final EmailQueueStatsService queueStats;
 
     @Transactional
     public EmailQueue enqueue(String recipient, String subject, String htmlContent,
@@ -45,10 +56,16 @@ public class EmailQueueService {
                 .build();
 
         EmailQueue saved = emailQueueRepository.save(emailQueue);
+        queueStats.recordEnqueued(EmailLane.ofPriority(saved.getPriority()), 1);
         log.info("Email enqueued [ID={}]", saved.getId());
 
         try {
-            EmailQueuedEvent event = new EmailQueuedEvent(this, saved.getId());
+            EmailQueuedEvent event = new EmailQueuedEvent(
+                this,
+                saved.getId(),
+                EmailRateLimiter.domainOf(saved.getRecipient()),
+                EmailLane.ofPriority(saved.getPriority())
+            );
             eventPublisher.publishEvent(event);
         } catch (Exception e) {
             log.error("Event publish failed [ID={}], scheduled task will handle", saved.getId());
@@ -58,16 +75,22 @@ public class EmailQueueService {
     }
 
     public EmailQueue enqueue(String recipient, String subject, String htmlContent, String emailType) {
-        return enqueue(recipient, subject, htmlContent, emailType, 5);
+        return enqueue(recipient, subject, htmlContent, emailType, EmailLane.BULK.enqueuePriority());
     }
 
+    /**
+     * Enqueues once per idempotency key. The insert and the duplicate check
+     * are one statement; only a replayed key costs a second read, which
+     * returns the existing queue entry or a conflict when the payload differs.
+     */
     @Transactional
     public EmailQueue enqueueIdempotent(
             String recipient,
             String subject,
             String htmlContent,
             String emailType,
-            String idempotencyKey) {
+            String idempotencyKey,
+            EmailLane lane) {
         String normalizedType = emailType != null ? emailType : "GENERAL";
         String fingerprint = requestFingerprint(
                 recipient,
@@ -76,7 +99,8 @@ public class EmailQueueService {
                 normalizedType
         );
         LocalDateTime now = LocalDateTime.now();
-        Long queueId = jdbcTemplate.queryForObject(
+        int maxRetries = mailProperties.getRetry().getMaxAttempts();
+        List<Long> inserted = jdbcTemplate.queryForList(
             """
             INSERT INTO email_queue (
                 recipient,
@@ -92,10 +116,10 @@ public class EmailQueueService {
                 idempotency_key,
                 request_fingerprint
             )
-            VALUES (?, ?, ?, ?, 'PENDING', 5, 0, ?, ?, ?, ?, ?)
+            VALUES (?, ?, ?, ?, 'PENDING', ?, 0, ?, ?, ?, ?, ?)
             ON CONFLICT (idempotency_key)
                 WHERE idempotency_key IS NOT NULL
-            DO UPDATE SET idempotency_key = EXCLUDED.idempotency_key
+            DO NOTHING
             RETURNING id
             """,
             Long.class,
@@ -103,29 +127,277 @@ public class EmailQueueService {
             subject,
             htmlContent,
             normalizedType,
-            mailProperties.getRetry().getMaxAttempts(),
+            lane.enqueuePriority(),
+            maxRetries,
             now,
             now,
             idempotencyKey,
             fingerprint
         );
-        EmailQueue queue = emailQueueRepository.findById(queueId).orElseThrow();
-        if (!fingerprint.equals(queue.getRequestFingerprint())) {
-            throw new IdempotencyConflictException();
+        if (inserted.isEmpty()) {
+            EmailQueue existing = emailQueueRepository
+                    .findByIdempotencyKey(idempotencyKey)
+                    .orElseThrow(() -> new IllegalStateException(
+                        "Idempotent email disappeared during enqueue"
+                    ));
+            if (!fingerprint.equals(existing.getRequestFingerprint())) {
+                throw new IdempotencyConflictException();
+            }
+            return existing;
         }
-        eventPublisher.publishEvent(new EmailQueuedEvent(this, queue.getId()));
+        queueStats.recordEnqueued(lane, 1);
+        EmailQueue queue = EmailQueue.builder()
+                .id(inserted.get(0))
+                .recipient(recipient)
+                .subject(subject)
+                .htmlContent(htmlContent)
+                .emailType(normalizedType)
+                .status("PENDING")
+                .priority(lane.enqueuePriority())
+                .retryCount(0)
+                .maxRetries(maxRetries)
+                .createdTime(now)
+                .updatedTime(now)
+                .idempotencyKey(idempotencyKey)
+                .requestFingerprint(fingerprint)
+                .build();
+        log.info("Email enqueued [ID={}]", queue.getId());
+        eventPublisher.publishEvent(new EmailQueuedEvent(
+            this,
+            queue.getId(),
+            EmailRateLimiter.domainOf(recipient),
+            lane
+        ));
         return queue;
     }
 
+    /**
+     * Enqueues a batch in one transaction with a single
+     * {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} statement. Rows go
+     * in sorted by idempotency key, so concurrent batches sharing keys take
+     * their index locks in the same order. Only the keys the insert returns
+     * count as created; the rest are read back once to tell a replay from a
+     * conflict. Receipts are returned in request order.
+     */
+    @Transactional
+    public List<BatchReceipt> enqueueIdempotentBatch(List<BatchItem> items, EmailLane lane) {
+        LocalDateTime now = LocalDateTime.now();
+        int maxRetries = mailProperties.getRetry().getMaxAttempts();
+        int size = items.size();
+        String[] emailTypes = new String[size];
+        String[] fingerprints = new String[size];
+        for (int i = 0; i < size; i++) {
+            BatchItem item = items.get(i);
+            emailTypes[i] = item.emailType() != null ? item.emailType() : "GENERAL";
+            fingerprints[i] = requestFingerprint(
+                    item.recipient(),
+                    item.subject(),
+                    item.htmlContent(),
+                    emailTypes[i]
+            );
+        }
+        // Stable, so duplicate keys keep request order and the first one wins.
+        List<Integer> byKey = IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.comparing(i -> items.get(i).idempotencyKey()))
+                .toList();
+        String[] recipients = new String[size];
+        String[] subjects = new String[size];
+        String[] htmlContents = new String[size];
+        String[] sortedTypes = new String[size];
+        String[] keys = new String[size];
+        String[] sortedFingerprints = new String[size];
+        for (int row = 0; row < size; row++) {
+            int i = byKey.get(row);
+            BatchItem item = items.get(i);
+            recipients[row] = item.recipient();
+            subjects[row] = item.subject();
+            htmlContents[row] = item.htmlContent();
+            sortedTypes[row] = emailTypes[i];
+            keys[row] = item.idempotencyKey();
+            sortedFingerprints[row] = fingerprints[i];
+        }
+
+        Map<String, StoredRow> stored = new HashMap<>();
+        Set<String> createdKeys = new HashSet<>();
+        jdbcTemplate.query(
+            """
+            INSERT INTO email_queue (
+                recipient,
+                subject,
+                html_content,
+                email_type,
+                status,
+                priority,
+                retry_count,
+                max_retries,
+                created_time,
+                updated_time,
+                idempotency_key,
+                request_fingerprint
+            )
+            SELECT
+                item.recipient,
+                item.subject,
+                item.html_content,
+                item.email_type,
+                'PENDING',
+                ?,
+                0,
+                ?,
+                ?,
+                ?,
+                item.idempotency_key,
+                item.request_fingerprint
+            FROM unnest(
+                ?::varchar[],
+                ?::varchar[],
+                ?::text[],
+                ?::varchar[],
+                ?::varchar[],
+                ?::varchar[]
+            ) WITH ORDINALITY AS item(
+                recipient,
+                subject,
+                html_content,
+                email_type,
+                idempotency_key,
+                request_fingerprint,
+                position
+            )
+            ORDER BY item.position
+            ON CONFLICT (idempotency_key)
+                WHERE idempotency_key IS NOT NULL
+            DO NOTHING
+            RETURNING id, idempotency_key, request_fingerprint
+            """,
+            resultSet -> {
+                String key = resultSet.getString("idempotency_key");
+                createdKeys.add(key);
+                stored.put(key, new StoredRow(
+                    resultSet.getLong("id"),
+                    "PENDING",
+                    resultSet.getString("request_fingerprint")
+                ));
+            },
+            lane.enqueuePriority(),
+            maxRetries,
+            now,
+            now,
+            recipients,
+            subjects,
+            htmlContents,
+            sortedTypes,
+            keys,
+            sortedFingerprints
+        );
+
+        String[] replayedKeys = Arrays.stream(keys)
+                .filter(key -> !createdKeys.contains(key))
+                .distinct()
+                .toArray(String[]::new);
+        if (replayedKeys.length > 0) {
+            jdbcTemplate.query(
+                """
+                SELECT id, idempotency_key, status, request_fingerprint
+                FROM email_queue
+                WHERE idempotency_key = ANY(?)
+                """,
+                resultSet -> {
+                    stored.put(
+                        resultSet.getString("idempotency_key"),
+                        new StoredRow(
+                            resultSet.getLong("id"),
+                            resultSet.getString("status"),
+                            resultSet.getString("request_fingerprint")
+                        )
+                    );
+                },
+                (Object) replayedKeys
+            );
+        }
+
+        int created = 0;
+        List<BatchReceipt> receipts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String key = items.get(i).idempotencyKey();
+            StoredRow row = stored.get(key);
+            if (row == null) {
+                throw new IllegalStateException(
+                    "Idempotent email disappeared during enqueue"
+                );
+            }
+            if (!fingerprints[i].equals(row.fingerprint())) {
+                receipts.add(BatchReceipt.conflict());
+            } else if (createdKeys.remove(key)) {
+                created++;
+                receipts.add(new BatchReceipt(
+                    BatchOutcome.CREATED,
+                    row.id(),
+                    row.status()
+                ));
+                eventPublisher.publishEvent(
+                    new EmailQueuedEvent(
+                        this,
+                        row.id(),
+                        EmailRateLimiter.domainOf(items.get(i).recipient()),
+                        lane
+                    )
+                );
+            } else {
+                receipts.add(new BatchReceipt(
+                    BatchOutcome.EXISTING,
+                    row.id(),
+                    row.status()
+                ));
+            }
+        }
+        queueStats.recordEnqueued(lane, created);
+        log.info("Email batch enqueued [items={}]", size);
+        return receipts;
+    }
+
     public QueueStats getStats() {
         return new QueueStats(
-            emailQueueRepository.countByStatus("PENDING"),
-            emailQueueRepository.countByStatus("PROCESSING"),
-            emailQueueRepository.countByStatus("COMPLETED"),
-            emailQueueRepository.countByStatus("FAILED")
+            queueStats.count("PENDING"),
+            queueStats.count("PROCESSING"),
+            queueStats.count("COMPLETED"),
+            queueStats.count("FAILED"),
+            queueStats.lastSyncedTime(),
+            queueStats.lastReconciledTime()
         );
     }
 
+    public Map<String, Long> getRecentSendMethodCounts() {
+        return queueStats.sendMethodCountsLastHour();
+    }
+
+    /**
+     * Backlog from the queue counters plus this instance's delivery counts,
+     * queue-to-SMTP latency and recovery drain rate, per lane. The time to
+     * empty is the pending backlog over the drain rate, and is only known
+     * once a drain has run.
+     */
+    public Map<EmailLane, LaneStats> getLaneStats() {
+        Map<EmailLane, LaneStats> stats = new java.util.EnumMap<>(EmailLane.class);
+        for (EmailLane lane : EmailLane.values()) {
+            EmailLaneMetrics.LaneSnapshot snapshot = laneMetrics.snapshot(lane);
+            long pending = queueStats.count("PENDING", lane);
+            long drainRate = snapshot.drainRatePerMinute();
+            stats.put(lane, new LaneStats(
+                pending,
+                queueStats.count("PROCESSING", lane),
+                snapshot.delivered(),
+                snapshot.failed(),
+                snapshot.p50LatencyMs(),
+                snapshot.p99LatencyMs(),
+                drainRate,
+                drainRate > 0 ? (long) Math.ceil(pending * 60.0 / drainRate) : null
+            ));
+        }
+        return stats;
+    }
+
     public java.util.Optional<EmailQueue> findById(Long id) {
         return emailQueueRepository.findById(id);
     }
@@ -154,6 +426,58 @@ public class EmailQueueService {
         }
     }
 
+    public record BatchItem(
+            String recipient,
+            String subject,
+            String htmlContent,
+            String emailType,
+            String idempotencyKey) {
+
+        @Override
+        public String toString() {
+            return "BatchItem[emailType=" + emailType + "]";
+        }
+    }
+
+    public record BatchReceipt(
+            BatchOutcome outcome,
+            Long queueId,
+            String status) {
+
+        public static BatchReceipt rejected() {
+            return new BatchReceipt(BatchOutcome.REJECTED, null, null);
+        }
+
+        /**
+         * The key names a different request; nothing about that entry is
+         * reported back.
+         */
+        public static BatchReceipt conflict() {
+            return new BatchReceipt(BatchOutcome.CONFLICT, null, null);
+        }
+    }
+
+    public enum BatchOutcome {
+        CREATED,
+        EXISTING,
+        CONFLICT,
+        REJECTED
+    }
+
+    private record StoredRow(long id, String status, String fingerprint) {
+    }
+
+    public record LaneStats(
+            long pending,
+            long processing,
+            long delivered,
+            long failed,
+            Long p50LatencyMs,
+            Long p99LatencyMs,
+            long drainRatePerMinute,
+            Long estimatedSecondsToEmpty) {
+    }
+
     @lombok.Data
     @lombok.AllArgsConstructor
     public static class QueueStats {
@@ -161,5 +485,7 @@ public class EmailQueueService {
         private long processing;
         private long completed;
         private long failed;
+        private LocalDateTime syncedTime;
+        private LocalDateTime reconciledTime;
     }
 }
@@ -0,0 +1,458 @@
+package org.dddml.email.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue status counts per lane and recent delivery counts per send method,
+ * kept in shared counter tables so the stats endpoint never scans the queue
+ * or log tables.
+ * <p>
+ * Status changes and deliveries this instance commits are added to local
+ * deltas once their transaction commits. A periodic flush adds the deltas
+ * to {@code email_queue_status_counts} and {@code email_send_method_counts}
+ * and reloads the cluster-wide totals. Reads return the totals as of
+ * {@link #lastSyncedTime()} plus this instance's unflushed deltas. A
+ * periodic reconciliation recounts both tables from the database, which
+ * corrects drift from crashed instances or changes made by hand. Send
+ * methods are counted in one-minute buckets covering the last hour.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailQueueStatsService {
+
+    static final List<String> STATUSES = List.of("PENDING", "PROCESSING", "COMPLETED", "FAILED");
+
+    private static final int WINDOW_MINUTES = 60;
+    private static final Duration FIRST_LOAD_RETRY = Duration.ofSeconds(1);
+    private static final Duration MAX_LOAD_RETRY = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+
+    private final Map<EmailLane, Map<String, AtomicLong>> sharedCounts = newStatusCounts();
+    private final Map<EmailLane, Map<String, AtomicLong>> unflushedCounts = newStatusCounts();
+    private final SendMethodWindow sharedSendMethods = new SendMethodWindow();
+    private final SendMethodWindow unflushedSendMethods = new SendMethodWindow();
+    private volatile boolean loaded;
+    private volatile long nextLoadAttemptMillis;
+    private Duration loadRetry = FIRST_LOAD_RETRY;
+    private volatile LocalDateTime syncedTime;
+    private volatile LocalDateTime reconciledTime;
+
+    public void recordEnqueued(EmailLane lane, int count) {
+        if (count > 0) {
+            afterCommit(() -> unflushedCounts.get(lane).get("PENDING").addAndGet(count));
+        }
+    }
+
+    public void recordTransition(EmailLane lane, String fromStatus, String toStatus) {
+        recordTransitions(lane, fromStatus, toStatus, 1);
+    }
+
+    public void recordTransitions(EmailLane lane, String fromStatus, String toStatus, int count) {
+        if (count <= 0 || fromStatus.equals(toStatus)) {
+            return;
+        }
+        afterCommit(() -> {
+            Map<String, AtomicLong> counts = unflushedCounts.get(lane);
+            adjust(counts, fromStatus, -count);
+            adjust(counts, toStatus, count);
+        });
+    }
+
+    public void recordDelivery(String sendMethod, LocalDateTime sentTime) {
+        if (sendMethod == null || sentTime == null) {
+            return;
+        }
+        long minute = epochMinute(sentTime);
+        afterCommit(() -> unflushedSendMethods.add(sendMethod, minute, 1, epochMinute(LocalDateTime.now())));
+    }
+
+    public long count(String status) {
+        long total = 0;
+        for (EmailLane lane : EmailLane.values()) {
+            total += count(status, lane);
+        }
+        return total;
+    }
+
+    public long count(String status, EmailLane lane) {
+        ensureLoaded();
+        AtomicLong shared = sharedCounts.get(lane).get(status);
+        AtomicLong unflushed = unflushedCounts.get(lane).get(status);
+        return shared != null ? Math.max(0, shared.get() + unflushed.get()) : 0;
+    }
+
+    /**
+     * Deliveries per send method over the last 60 one-minute buckets.
+     */
+    public Map<String, Long> sendMethodCountsLastHour() {
+        ensureLoaded();
+        long nowMinute = epochMinute(LocalDateTime.now());
+        Map<String, Long> totals = sharedSendMethods.sum(nowMinute);
+        unflushedSendMethods.sum(nowMinute).forEach((sendMethod, count) -> totals.merge(sendMethod, count, Long::sum));
+        return totals;
+    }
+
+    /**
+     * When this instance last loaded the shared totals, or {@code null} if
+     * no load has succeeded yet.
+     */
+    public LocalDateTime lastSyncedTime() {
+        ensureLoaded();
+        return syncedTime;
+    }
+
+    /**
+     * When the counter tables were last recounted by this instance, or
+     * {@code null} if it has not recounted them yet.
+     */
+    public LocalDateTime lastReconciledTime() {
+        return reconciledTime;
+    }
+
+    /**
+     * Adds this instance's committed deltas to the counter tables and
+     * reloads the totals. Deltas stay local until a flush succeeds.
+     */
+    @Scheduled(fixedDelayString = "#{${app.mail.stats.flush-interval-seconds:5} * 1000L}",
+               initialDelayString = "#{${app.mail.stats.flush-interval-seconds:5} * 1000L}")
+    public void flush() {
+        try {
+            sync(false);
+        } catch (Exception exception) {
+            log.error(
+                "Queue stats flush failed [error={}]",
+                exception.getClass().getSimpleName()
+            );
+        }
+    }
+
+    /**
+     * Recounts the counter tables with one grouped query per source table.
+     * A change another instance flushes while the queries run may be counted
+     * twice or not at all until the next reconciliation.
+     */
+    @Scheduled(fixedDelayString = "#{${app.mail.stats.reconcile-interval-seconds:300} * 1000L}",
+               initialDelayString = "#{${app.mail.stats.reconcile-interval-seconds:300} * 1000L}")
+    public void reconcile() {
+        try {
+            sync(true);
+            reconciledTime = syncedTime;
+        } catch (Exception exception) {
+            log.error(
+                "Queue stats reconciliation failed [error={}]",
+                exception.getClass().getSimpleName()
+            );
+        }
+    }
+
+    private synchronized void sync(boolean recount) {
+        LocalDateTime startedTime = LocalDateTime.now();
+        long nowMinute = epochMinute(startedTime);
+        LocalDateTime windowStart = startedTime
+            .truncatedTo(ChronoUnit.MINUTES)
+            .minusMinutes(WINDOW_MINUTES - 1);
+        Map<EmailLane, Map<String, Long>> statusDeltas = snapshot(unflushedCounts);
+        List<SendMethodCount> sendMethodDeltas = unflushedSendMethods.entries(nowMinute);
+
+        transactionOperations.executeWithoutResult(status -> {
+            addStatusCounts(statusDeltas);
+            addSendMethodCounts(sendMethodDeltas);
+            jdbcTemplate.update("DELETE FROM email_send_method_counts WHERE minute < ?", windowStart);
+            if (recount) {
+                recountStatuses();
+                recountSendMethods(windowStart);
+            }
+        });
+        // The deltas are in the tables now; drop them before reloading so a
+        // failed reload cannot lead to them being written twice.
+        statusDeltas.forEach((lane, counts) -> counts.forEach(
+            (status, delta) -> unflushedCounts.get(lane).get(status).addAndGet(-delta)
+        ));
+        for (SendMethodCount delta : sendMethodDeltas) {
+            unflushedSendMethods.add(delta.sendMethod(), delta.minute(), -delta.count(), nowMinute);
+        }
+
+        Map<EmailLane, Map<String, Long>> totals = new EnumMap<>(EmailLane.class);
+        jdbcTemplate.query(
+            "SELECT lane, status, row_count FROM email_queue_status_counts",
+            resultSet -> {
+                totals
+                    .computeIfAbsent(EmailLane.valueOf(resultSet.getString("lane")), lane -> new HashMap<>())
+                    .put(resultSet.getString("status"), resultSet.getLong("row_count"));
+            }
+        );
+        SendMethodWindow reloaded = new SendMethodWindow();
+        jdbcTemplate.query(
+            "SELECT minute, send_method, row_count FROM email_send_method_counts WHERE minute >= ?",
+            resultSet -> {
+                reloaded.add(
+                    resultSet.getString("send_method"),
+                    epochMinute(resultSet.getTimestamp("minute").toLocalDateTime()),
+                    resultSet.getLong("row_count"),
+                    nowMinute
+                );
+            },
+            windowStart
+        );
+        for (EmailLane lane : EmailLane.values()) {
+            Map<String, Long> counts = totals.getOrDefault(lane, Map.of());
+            sharedCounts.get(lane).forEach(
+                (status, counter) -> counter.set(counts.getOrDefault(status, 0L))
+            );
+        }
+        sharedSendMethods.replaceWith(reloaded);
+        syncedTime = startedTime;
+        loaded = true;
+    }
+
+    private void addStatusCounts(Map<EmailLane, Map<String, Long>> deltas) {
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((lane, counts) -> counts.forEach(
+            (status, delta) -> rows.add(new Object[] {lane.name(), status, delta})
+        ));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                """
+                INSERT INTO email_queue_status_counts (lane, status, row_count)
+                VALUES (?, ?, ?)
+                ON CONFLICT (lane, status)
+                DO UPDATE SET row_count = email_queue_status_counts.row_count + EXCLUDED.row_count
+                """,
+                rows
+            );
+        }
+    }
+
+    private void addSendMethodCounts(List<SendMethodCount> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (SendMethodCount delta : deltas) {
+            rows.add(new Object[] {minuteTimestamp(delta.minute()), delta.sendMethod(), delta.count()});
+        }
+        jdbcTemplate.batchUpdate(
+            """
+            INSERT INTO email_send_method_counts (minute, send_method, row_count)
+            VALUES (?, ?, ?)
+            ON CONFLICT (minute, send_method)
+            DO UPDATE SET row_count = email_send_method_counts.row_count + EXCLUDED.row_count
+            """,
+            rows
+        );
+    }
+
+    private void recountStatuses() {
+        Map<EmailLane, Map<String, Long>> queueCounts = new EnumMap<>(EmailLane.class);
+        jdbcTemplate.query(
+            "SELECT status, priority, count(*) AS row_count FROM email_queue GROUP BY status, priority",
+            resultSet -> {
+                queueCounts
+                    .computeIfAbsent(
+                        EmailLane.ofPriority(resultSet.getInt("priority")),
+                        lane -> new HashMap<>()
+                    )
+                    .merge(resultSet.getString("status"), resultSet.getLong("row_count"), Long::sum);
+            }
+        );
+        List<Object[]> rows = new ArrayList<>();
+        for (EmailLane lane : EmailLane.values()) {
+            Map<String, Long> counts = queueCounts.getOrDefault(lane, Map.of());
+            for (String status : STATUSES) {
+                rows.add(new Object[] {lane.name(), status, counts.getOrDefault(status, 0L)});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            """
+            INSERT INTO email_queue_status_counts (lane, status, row_count)
+            VALUES (?, ?, ?)
+            ON CONFLICT (lane, status)
+            DO UPDATE SET row_count = EXCLUDED.row_count
+            """,
+            rows
+        );
+    }
+
+    private void recountSendMethods(LocalDateTime windowStart) {
+        jdbcTemplate.update("DELETE FROM email_send_method_counts");
+        jdbcTemplate.update(
+            """
+            INSERT INTO email_send_method_counts (minute, send_method, row_count)
+            SELECT date_trunc('minute', sent_time), send_method, count(*)
+            FROM email_logs
+            WHERE sent_time >= ? AND send_method IS NOT NULL
+            GROUP BY 1, 2
+            """,
+            windowStart
+        );
+    }
+
+    /**
+     * Loads the shared totals on first use. A failed load is retried with
+     * exponential backoff rather than on every read; until it succeeds reads
+     * return only this instance's own changes.
+     */
+    private void ensureLoaded() {
+        if (loaded || System.currentTimeMillis() < nextLoadAttemptMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded || System.currentTimeMillis() < nextLoadAttemptMillis) {
+                return;
+            }
+            try {
+                sync(false);
+                loadRetry = FIRST_LOAD_RETRY;
+            } catch (Exception exception) {
+                nextLoadAttemptMillis = System.currentTimeMillis() + loadRetry.toMillis();
+                log.error(
+                    "Queue stats load failed [retryInMs={}, error={}]",
+                    loadRetry.toMillis(),
+                    exception.getClass().getSimpleName()
+                );
+                loadRetry = loadRetry.multipliedBy(2).compareTo(MAX_LOAD_RETRY) > 0
+                    ? MAX_LOAD_RETRY
+                    : loadRetry.multipliedBy(2);
+            }
+        }
+    }
+
+    private static Map<EmailLane, Map<String, Long>> snapshot(Map<EmailLane, Map<String, AtomicLong>> counts) {
+        Map<EmailLane, Map<String, Long>> snapshot = new EnumMap<>(EmailLane.class);
+        counts.forEach((lane, byStatus) -> byStatus.forEach((status, counter) -> {
+            long value = counter.get();
+            if (value != 0) {
+                snapshot.computeIfAbsent(lane, ignored -> new HashMap<>()).put(status, value);
+            }
+        }));
+        return snapshot;
+    }
+
+    private static void adjust(Map<String, AtomicLong> counts, String status, long delta) {
+        AtomicLong counter = counts.get(status);
+        if (counter != null) {
+            counter.addAndGet(delta);
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static Timestamp minuteTimestamp(long epochMinute) {
+        return Timestamp.valueOf(LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC));
+    }
+
+    private static Map<EmailLane, Map<String, AtomicLong>> newStatusCounts() {
+        Map<EmailLane, Map<String, AtomicLong>> counts = new EnumMap<>(EmailLane.class);
+        for (EmailLane lane : EmailLane.values()) {
+            Map<String, AtomicLong> byStatus = new HashMap<>();
+            for (String status : STATUSES) {
+                byStatus.put(status, new AtomicLong());
+            }
+            counts.put(lane, Map.copyOf(byStatus));
+        }
+        return counts;
+    }
+
+    private record SendMethodCount(String sendMethod, long minute, long count) {
+    }
+
+    /**
+     * A ring of one-minute buckets per send method. Slot {@code i} holds
+     * the minute recorded in {@code slotMinutes[i]}; a slot is cleared when
+     * a newer minute claims it.
+     */
+    private static final class SendMethodWindow {
+
+        private final long[] slotMinutes = new long[WINDOW_MINUTES];
+        private final Map<String, long[]> counts = new HashMap<>();
+
+        private synchronized void add(String sendMethod, long minute, long count, long nowMinute) {
+            if (minute <= nowMinute - WINDOW_MINUTES || minute > nowMinute) {
+                return;
+            }
+            int slot = (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+            if (slotMinutes[slot] != minute) {
+                slotMinutes[slot] = minute;
+                for (long[] buckets : counts.values()) {
+                    buckets[slot] = 0;
+                }
+            }
+            counts.computeIfAbsent(sendMethod, method -> new long[WINDOW_MINUTES])[slot] += count;
+        }
+
+        private synchronized Map<String, Long> sum(long nowMinute) {
+            Map<String, Long> totals = new HashMap<>();
+            counts.forEach((sendMethod, buckets) -> {
+                long total = 0;
+                for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+                    if (slotMinutes[slot] > nowMinute - WINDOW_MINUTES) {
+                        total += buckets[slot];
+                    }
+                }
+                if (total != 0) {
+                    totals.put(sendMethod, total);
+                }
+            });
+            return totals;
+        }
+
+        private synchronized List<SendMethodCount> entries(long nowMinute) {
+            List<SendMethodCount> entries = new ArrayList<>();
+            counts.forEach((sendMethod, buckets) -> {
+                for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+                    if (buckets[slot] != 0 && slotMinutes[slot] > nowMinute - WINDOW_MINUTES) {
+                        entries.add(new SendMethodCount(sendMethod, slotMinutes[slot], buckets[slot]));
+                    }
+                }
+            });
+            return entries;
+        }
+
+        private void replaceWith(SendMethodWindow other) {
+            synchronized (other) {
+                synchronized (this) {
+                    System.arraycopy(other.slotMinutes, 0, slotMinutes, 0, WINDOW_MINUTES);
+                    counts.clear();
+                    other.counts.forEach((sendMethod, buckets) -> counts.put(sendMethod, buckets.clone()));
+                }
+            }
+        }
+    }
+}
@@ -4,72 +4,360 @@ import org.dddml.email.config.MailProperties;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
+/**
+ * Lock-free send rate limiter with a global bucket and optional
+ * per-recipient-domain buckets.
+ * <p>
+ * Each bucket is a token bucket of {@code maxPerMinute} tokens refilled over
+ * one minute, kept as a single {@code long}: the theoretical arrival time of
+ * the next send (GCRA). Acquiring advances it by one emission interval with
+ * a compare-and-set and fails once it runs more than a full bucket ahead of
+ * the clock. A bucket whose arrival time is in the past is full and carries
+ * no state, so idle domain buckets can be evicted without changing
+ * behaviour.
+ * <p>
+ * Bulk sends also take from a bulk bucket sized {@code maxPerMinute} minus
+ * the transactional reservation, so bulk mail can never drain the global
+ * bucket below the share held back for verification and reset codes.
+ */
 @Component
 public class EmailRateLimiter {
 
-    private static final long WINDOW_NANOS = Duration.ofMinutes(1).toNanos();
+    private static final long MINUTE_NANOS = Duration.ofMinutes(1).toNanos();
+    private static final long DENIED = Long.MIN_VALUE;
     private static final Reservation UNLIMITED_RESERVATION =
-        new Reservation(null, 0, false);
+        new Reservation(null, null, 0, 0, null, 0, 0, null, 0, 0);
 
     private final MailProperties mailProperties;
-
-    private long windowStartedAt = System.nanoTime();
-    private long windowGeneration;
-    private int reserved;
+    private final LongSupplier nanoClock;
+    private final Bucket global;
+    private final Bucket bulk;
+    private final Map<String, Bucket> domains = new ConcurrentHashMap<>();
 
     public EmailRateLimiter(MailProperties mailProperties) {
+        this(mailProperties, System::nanoTime);
+    }
+
+    EmailRateLimiter(MailProperties mailProperties, LongSupplier nanoClock) {
         this.mailProperties = mailProperties;
+        this.nanoClock = nanoClock;
+        this.global = new Bucket(nanoClock.getAsLong());
+        this.bulk = new Bucket(nanoClock.getAsLong());
+    }
+
+    public Reservation tryAcquire() {
+        return tryAcquire(null);
+    }
+
+    public Reservation tryAcquire(String recipientDomain) {
+        return tryAcquire(recipientDomain, EmailLane.TRANSACTIONAL);
     }
 
-    public synchronized Reservation tryAcquire() {
-        if (!mailProperties.getRateLimit().isEnabled()) {
+    /**
+     * Reserves one send against the global bucket and, when a limit applies
+     * to it, the recipient domain's bucket and the bulk bucket. Returns
+     * {@code null} when any of them is exhausted.
+     */
+    public Reservation tryAcquire(String recipientDomain, EmailLane lane) {
+        MailProperties.RateLimit config = mailProperties.getRateLimit();
+        if (!config.isEnabled()) {
             return UNLIMITED_RESERVATION;
         }
-        resetIfNeeded();
-        if (reserved >= mailProperties.getRateLimit().getMaxPerMinute()) {
+        long now = nanoClock.getAsLong();
+
+        Bucket laneBucket = null;
+        long laneInterval = 0;
+        long laneSlotEnd = 0;
+        int reserved = config.getTransactionalReservedPerMinute();
+        if (lane == EmailLane.BULK && reserved > 0) {
+            int bulkLimit = Math.max(1, config.getMaxPerMinute() - reserved);
+            laneBucket = bulk;
+            laneInterval = MINUTE_NANOS / bulkLimit;
+            laneSlotEnd = laneBucket.tryTake(now, laneInterval, bulkLimit);
+            if (laneSlotEnd == DENIED) {
+                return null;
+            }
+        }
+
+        Bucket domainBucket = null;
+        long domainInterval = 0;
+        long domainSlotEnd = 0;
+        int domainLimit = domainLimit(config, recipientDomain);
+        if (domainLimit > 0) {
+            domainBucket = domainBucket(recipientDomain, now, config);
+            domainInterval = MINUTE_NANOS / domainLimit;
+            domainSlotEnd = domainBucket.tryTake(now, domainInterval, domainLimit);
+            if (domainSlotEnd == DENIED) {
+                if (laneBucket != null) {
+                    laneBucket.giveBack(now, laneInterval, laneSlotEnd);
+                }
+                return null;
+            }
+        }
+
+        int globalLimit = config.getMaxPerMinute();
+        long globalInterval = MINUTE_NANOS / globalLimit;
+        long globalSlotEnd = global.tryTake(now, globalInterval, globalLimit);
+        if (globalSlotEnd == DENIED) {
+            if (domainBucket != null) {
+                domainBucket.giveBack(now, domainInterval, domainSlotEnd);
+            }
+            if (laneBucket != null) {
+                laneBucket.giveBack(now, laneInterval, laneSlotEnd);
+            }
             return null;
         }
-        reserved++;
-        return new Reservation(this, windowGeneration, true);
+        return new Reservation(
+            this,
+            global,
+            globalInterval,
+            globalSlotEnd,
+            domainBucket,
+            domainInterval,
+            domainSlotEnd,
+            laneBucket,
+            laneInterval,
+            laneSlotEnd
+        );
+    }
+
+    /**
+     * Sends the global bucket, and for bulk the bulk bucket, would grant
+     * right now, ignoring domain limits. Recovery uses it to size claims;
+     * each send still takes its own reservation.
+     */
+    public int available(EmailLane lane) {
+        MailProperties.RateLimit config = mailProperties.getRateLimit();
+        if (!config.isEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+        long now = nanoClock.getAsLong();
+        int globalLimit = config.getMaxPerMinute();
+        int available = global.available(now, MINUTE_NANOS / globalLimit, globalLimit);
+        int reserved = config.getTransactionalReservedPerMinute();
+        if (lane == EmailLane.BULK && reserved > 0) {
+            int bulkLimit = Math.max(1, globalLimit - reserved);
+            available = Math.min(
+                available,
+                bulk.available(now, MINUTE_NANOS / bulkLimit, bulkLimit)
+            );
+        }
+        return available;
+    }
+
+    /**
+     * How long until the recipient domain's bucket would grant another
+     * send, or zero when no domain limit applies. Recovery defers entries a
+     * domain limit turned away by this much, so they stop coming back at
+     * the head of every claim.
+     */
+    public Duration domainWait(String recipientDomain) {
+        MailProperties.RateLimit config = mailProperties.getRateLimit();
+        int domainLimit = domainLimit(config, recipientDomain);
+        if (!config.isEnabled() || domainLimit <= 0) {
+            return Duration.ZERO;
+        }
+        Bucket bucket = domains.get(recipientDomain);
+        if (bucket == null) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(bucket.waitNanos(
+            nanoClock.getAsLong(),
+            MINUTE_NANOS / domainLimit,
+            domainLimit
+        ));
+    }
+
+    /**
+     * Returns the lower-cased domain of an address, or {@code null} when it
+     * has none.
+     */
+    public static String domainOf(String address) {
+        if (address == null) {
+            return null;
+        }
+        int at = address.lastIndexOf('@');
+        if (at < 0 || at == address.length() - 1) {
+            return null;
+        }
+        return address.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    int trackedDomains() {
+        return domains.size();
+    }
+
+    /**
+     * Gives a reservation's tokens back for as long as they are still owed,
+     * however long it was held: in a backlogged bucket that can be many
+     * emission intervals. A token whose slot the clock has already passed
+     * was repaid by the refill, and returning it as well would hand the
+     * current window a send it never had.
+     */
+    private void release(Reservation reservation) {
+        long now = nanoClock.getAsLong();
+        reservation.global.giveBack(now, reservation.globalInterval, reservation.globalSlotEnd);
+        if (reservation.domain != null) {
+            reservation.domain.giveBack(now, reservation.domainInterval, reservation.domainSlotEnd);
+        }
+        if (reservation.lane != null) {
+            reservation.lane.giveBack(now, reservation.laneInterval, reservation.laneSlotEnd);
+        }
+    }
+
+    private static int domainLimit(MailProperties.RateLimit config, String domain) {
+        if (domain == null) {
+            return 0;
+        }
+        Integer override = config.getDomains().get(domain);
+        return override != null ? override : config.getDomainMaxPerMinute();
     }
 
-    private synchronized void release(long reservationGeneration) {
-        if (windowGeneration == reservationGeneration && reserved > 0) {
-            reserved--;
+    private Bucket domainBucket(
+            String domain,
+            long now,
+            MailProperties.RateLimit config) {
+        Bucket bucket = domains.get(domain);
+        if (bucket != null) {
+            return bucket;
         }
+        if (domains.size() >= config.getMaxTrackedDomains()) {
+            evict(now, config.getMaxTrackedDomains());
+        }
+        return domains.computeIfAbsent(domain, key -> new Bucket(now));
     }
 
-    private void resetIfNeeded() {
-        long now = System.nanoTime();
-        if (now - windowStartedAt >= WINDOW_NANOS) {
-            reserved = 0;
-            windowStartedAt = now;
-            windowGeneration++;
+    /**
+     * Drops full buckets first, which loses nothing. Only if the map is still
+     * at capacity are busy buckets dropped, which lets those domains start
+     * again from a full bucket.
+     */
+    private void evict(long now, int capacity) {
+        domains.values().removeIf(bucket -> bucket.isFull(now));
+        Iterator<Bucket> remaining = domains.values().iterator();
+        while (domains.size() >= capacity && remaining.hasNext()) {
+            remaining.next();
+            remaining.remove();
+        }
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLong theoreticalArrival;
+
+        private Bucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        /**
+         * Takes one token and returns the end of its slot, or
+         * {@link #DENIED} when the bucket is empty.
+         */
+        long tryTake(long now, long interval, int capacity) {
+            long tolerance = interval * (capacity - 1);
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long start = arrival - now > 0 ? arrival : now;
+                if (start - now > tolerance) {
+                    return DENIED;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, start + interval)) {
+                    return start + interval;
+                }
+            }
+        }
+
+        void giveBack(long now, long interval, long slotEnd) {
+            if (slotEnd - now <= 0) {
+                return;
+            }
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                if (arrival - now <= 0) {
+                    return;
+                }
+                long next = arrival - interval;
+                if (next - now < 0) {
+                    next = now;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return;
+                }
+            }
+        }
+
+        int available(long now, long interval, int capacity) {
+            long ahead = theoreticalArrival.get() - now;
+            if (ahead <= 0) {
+                return capacity;
+            }
+            long tolerance = interval * (capacity - 1);
+            if (ahead > tolerance) {
+                return 0;
+            }
+            return (int) ((tolerance - ahead) / interval) + 1;
+        }
+
+        long waitNanos(long now, long interval, int capacity) {
+            long tolerance = interval * (capacity - 1);
+            return Math.max(0, theoreticalArrival.get() - now - tolerance);
+        }
+
+        boolean isFull(long now) {
+            return theoreticalArrival.get() - now <= 0;
         }
     }
 
     public static final class Reservation {
 
         private final EmailRateLimiter owner;
-        private final long windowGeneration;
-        private boolean active;
+        private final Bucket global;
+        private final long globalInterval;
+        private final long globalSlotEnd;
+        private final Bucket domain;
+        private final long domainInterval;
+        private final long domainSlotEnd;
+        private final Bucket lane;
+        private final long laneInterval;
+        private final long laneSlotEnd;
+        private final AtomicBoolean active;
 
         private Reservation(
                 EmailRateLimiter owner,
-                long windowGeneration,
-                boolean active) {
+                Bucket global,
+                long globalInterval,
+                long globalSlotEnd,
+                Bucket domain,
+                long domainInterval,
+                long domainSlotEnd,
+                Bucket lane,
+                long laneInterval,
+                long laneSlotEnd) {
             this.owner = owner;
-            this.windowGeneration = windowGeneration;
-            this.active = active;
+            this.global = global;
+            this.globalInterval = globalInterval;
+            this.globalSlotEnd = globalSlotEnd;
+            this.domain = domain;
+            this.domainInterval = domainInterval;
+            this.domainSlotEnd = domainSlotEnd;
+            this.lane = lane;
+            this.laneInterval = laneInterval;
+            this.laneSlotEnd = laneSlotEnd;
+            this.active = new AtomicBoolean(owner != null);
         }
 
-        public synchronized void release() {
-            if (!active) {
-                return;
+        public void release() {
+            if (active.compareAndSet(true, false)) {
+                owner.release(this);
             }
-            active = false;
-            owner.release(windowGeneration);
         }
     }
 }
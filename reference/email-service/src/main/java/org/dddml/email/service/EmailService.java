@@ -12,16 +12,19 @@ import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
-import java.time.LocalDateTime;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 @Service
 @RequiredArgsConstructor
@@ -41,7 +44,8 @@ public class EmailService {
     private static final String UNKNOWN_SEND_METHOD = "UNKNOWN";
 
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final SmtpTransportPool transportPool;
+    private final EmailTemplateRenderer templateRenderer;
     private final EmailLogRepository emailLogRepository;
     private final EmailQueueService emailQueueService;
     private final MailProperties mailProperties;
@@ -82,9 +86,7 @@ public class EmailService {
             }
             validateTemplateVariables(templateName, variables);
 
-            Context context = new Context();
-            context.setVariables(variables);
-            String htmlContent = templateEngine.process(templateName, context);
+            String htmlContent = templateRenderer.render(templateName, variables);
             validateHtmlContent(htmlContent);
 
             if (idempotencyKey == null) {
@@ -92,7 +94,8 @@ public class EmailService {
                     to,
                     subject,
                     htmlContent,
-                    emailType
+                    emailType,
+                    EmailLane.TRANSACTIONAL.enqueuePriority()
                 );
             }
             return emailQueueService.enqueueIdempotent(
@@ -100,7 +103,8 @@ public class EmailService {
                 subject,
                 htmlContent,
                 emailType,
-                idempotencyKey
+                idempotencyKey,
+                EmailLane.TRANSACTIONAL
             );
 
         } catch (Exception exception) {
@@ -118,6 +122,72 @@ public class EmailService {
         }
     }
 
+    /**
+     * Renders and validates every item, then enqueues the valid ones in a
+     * single transaction. Items that fail validation are rejected on their
+     * own without failing the rest of the batch. Every item must carry an
+     * idempotency key.
+     */
+    public List<EmailQueueService.BatchReceipt> sendTemplateEmailBatch(
+            List<TemplateEmail> emails) {
+        ensureEnqueueEnabled();
+        List<EmailQueueService.BatchReceipt> receipts =
+            new ArrayList<>(emails.size());
+        List<EmailQueueService.BatchItem> accepted = new ArrayList<>();
+        List<Integer> acceptedPositions = new ArrayList<>();
+        for (TemplateEmail email : emails) {
+            try {
+                accepted.add(renderBatchItem(email));
+                acceptedPositions.add(receipts.size());
+                receipts.add(null);
+            } catch (RuntimeException exception) {
+                log.warn(
+                    "Batch template item was rejected [error={}]",
+                    exception.getClass().getSimpleName()
+                );
+                receipts.add(EmailQueueService.BatchReceipt.rejected());
+            }
+        }
+        if (!accepted.isEmpty()) {
+            List<EmailQueueService.BatchReceipt> enqueued =
+                emailQueueService.enqueueIdempotentBatch(
+                    accepted,
+                    EmailLane.TRANSACTIONAL
+                );
+            for (int i = 0; i < enqueued.size(); i++) {
+                receipts.set(acceptedPositions.get(i), enqueued.get(i));
+            }
+        }
+        return receipts;
+    }
+
+    private EmailQueueService.BatchItem renderBatchItem(TemplateEmail email) {
+        if (email.idempotencyKey() == null || email.idempotencyKey().isBlank()) {
+            throw new IllegalArgumentException("Batch items require an idempotency key");
+        }
+        validateEnvelope(email.to(), email.subject());
+        if (!ALLOWED_TEMPLATES.contains(email.templateName())) {
+            throw new IllegalArgumentException("Unsupported email template");
+        }
+        if (email.variables() == null) {
+            throw new IllegalArgumentException("Template variables are required");
+        }
+        validateTemplateVariables(email.templateName(), email.variables());
+
+        String htmlContent = templateRenderer.render(
+            email.templateName(),
+            email.variables()
+        );
+        validateHtmlContent(htmlContent);
+        return new EmailQueueService.BatchItem(
+            email.to(),
+            email.subject(),
+            htmlContent,
+            email.emailType(),
+            email.idempotencyKey()
+        );
+    }
+
     public EmailQueue sendSimpleHtmlEmail(String to, String subject, String htmlContent) {
         ensureEnqueueEnabled();
         validateEnvelope(to, subject);
@@ -126,69 +196,161 @@ public class EmailService {
     }
 
     public EmailLog sendEmailDirectly(EmailQueue emailQueue, String sendMethod) {
-        long startTime = System.currentTimeMillis();
-        String emailType = normalizedEmailType(emailQueue.getEmailType());
+        return sendEmailsDirectly(List.of(emailQueue), sendMethod).get(0);
+    }
 
-        try {
-            validateDeliveryPayload(emailQueue, emailType, sendMethod);
-        } catch (IllegalArgumentException exception) {
-            EmailLog rejectedLog = rejectedDeliveryLog(emailQueue, sendMethod);
-            log.warn("Rejected invalid queued email [ID={}]", emailQueue.getId());
-            return emailLogRepository.save(rejectedLog);
+    /**
+     * Sends the queued emails over one pooled SMTP session and returns one
+     * log per email, in order. Invalid or unformattable entries are logged
+     * as failures without being sent; the rest succeed or fail on their own.
+     */
+    public List<EmailLog> sendEmailsDirectly(List<EmailQueue> emailQueues, String sendMethod) {
+        List<EmailLog> emailLogs = sendEmailsDirectly(emailQueues, sendMethod, (emailQueue, emailLog) -> {
+        });
+        return emailLogRepository.saveAll(emailLogs);
+    }
+
+    /**
+     * Like {@link #sendEmailsDirectly(List, String)}, but hands each email
+     * and its unsaved log to {@code onResult} as soon as its outcome is
+     * known, before the next email is sent, and leaves saving the logs to
+     * the caller. An exception from {@code onResult} stops the session and
+     * propagates; the emails after it are not sent.
+     */
+    public List<EmailLog> sendEmailsDirectly(
+            List<EmailQueue> emailQueues,
+            String sendMethod,
+            BiConsumer<EmailQueue, EmailLog> onResult) {
+        List<EmailLog> emailLogs = new ArrayList<>(emailQueues.size());
+        List<EmailQueue> sendable = new ArrayList<>(emailQueues.size());
+        List<EmailLog> sendableLogs = new ArrayList<>(emailQueues.size());
+        List<MimeMessage> messages = new ArrayList<>(emailQueues.size());
+
+        for (EmailQueue emailQueue : emailQueues) {
+            String emailType = normalizedEmailType(emailQueue.getEmailType());
+            try {
+                validateDeliveryPayload(emailQueue, emailType, sendMethod);
+            } catch (IllegalArgumentException exception) {
+                log.warn("Rejected invalid queued email [ID={}]", emailQueue.getId());
+                EmailLog rejectedLog = rejectedDeliveryLog(emailQueue, sendMethod);
+                emailLogs.add(rejectedLog);
+                onResult.accept(emailQueue, rejectedLog);
+                continue;
+            }
+
+            EmailLog emailLog = deliveryLog(emailQueue, emailType, sendMethod);
+            emailLogs.add(emailLog);
+            try {
+                messages.add(createMessage(emailQueue, emailType, sendMethod));
+                sendable.add(emailQueue);
+                sendableLogs.add(emailLog);
+            } catch (MessagingException e) {
+                emailLog.setStatus("FAILED");
+                emailLog.setErrorMessage("Email format error");
+                log.error("Email format error [ID={}]", emailQueue.getId());
+                onResult.accept(emailQueue, emailLog);
+            } catch (Exception exception) {
+                emailLog.setStatus("FAILED");
+                emailLog.setErrorMessage("Email delivery failed");
+                log.error(
+                    "Email delivery failed [ID={}, error={}]",
+                    emailQueue.getId(),
+                    exception.getClass().getSimpleName()
+                );
+                onResult.accept(emailQueue, emailLog);
+            }
         }
 
-        EmailLog emailLog = deliveryLog(emailQueue, emailType, sendMethod);
+        // Counts the outcomes handed to onResult, and tells a failure of the
+        // transport apart from one thrown by onResult.
+        AtomicInteger settled = new AtomicInteger();
+        AtomicReference<RuntimeException> resultFailure = new AtomicReference<>();
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(new InternetAddress(
-                mailProperties.getFromEmail(),
-                mailProperties.getFromName(), "UTF-8"
-            ));
-            helper.setTo(emailQueue.getRecipient());
-            helper.setSubject(emailQueue.getSubject());
-            helper.setText(emailQueue.getHtmlContent(), true);
-
-            message.addHeader("X-Mailer", "Spring Boot Email System");
-            message.addHeader("X-Environment", activeProfile);
-            message.addHeader("X-Email-Type", emailType);
-            message.addHeader("X-Queue-ID", String.valueOf(emailQueue.getId()));
-            message.addHeader("X-Send-Method", sendMethod);
-
-            mailSender.send(message);
-
-            long duration = System.currentTimeMillis() - startTime;
-            emailLog.setStatus("SUCCESS");
-            emailLog.setDurationMs(duration);
+            transportPool.send(messages, laneOf(sendable), (outcome, index) -> {
+                try {
+                    recordOutcome(sendable.get(index), sendableLogs.get(index), outcome, sendMethod);
+                    onResult.accept(sendable.get(index), sendableLogs.get(index));
+                } catch (RuntimeException exception) {
+                    resultFailure.set(exception);
+                    throw exception;
+                }
+                settled.incrementAndGet();
+            });
+        } catch (RuntimeException exception) {
+            if (resultFailure.get() != null) {
+                throw resultFailure.get();
+            }
+            SmtpTransportPool.SendOutcome failed = new SmtpTransportPool.SendOutcome(exception, 0);
+            for (int i = settled.get(); i < messages.size(); i++) {
+                recordOutcome(sendable.get(i), sendableLogs.get(i), failed, sendMethod);
+                onResult.accept(sendable.get(i), sendableLogs.get(i));
+            }
+        }
+
+        return emailLogs;
+    }
+
+    private EmailLane laneOf(List<EmailQueue> emailQueues) {
+        for (EmailQueue emailQueue : emailQueues) {
+            if (EmailLane.ofPriority(emailQueue.getPriority()) == EmailLane.TRANSACTIONAL) {
+                return EmailLane.TRANSACTIONAL;
+            }
+        }
+        return EmailLane.BULK;
+    }
 
+    private MimeMessage createMessage(
+            EmailQueue emailQueue,
+            String emailType,
+            String sendMethod) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(new InternetAddress(
+            mailProperties.getFromEmail(),
+            mailProperties.getFromName(), "UTF-8"
+        ));
+        helper.setTo(emailQueue.getRecipient());
+        helper.setSubject(emailQueue.getSubject());
+        helper.setText(emailQueue.getHtmlContent(), true);
+
+        message.addHeader("X-Mailer", "Spring Boot Email System");
+        message.addHeader("X-Environment", activeProfile);
+        message.addHeader("X-Email-Type", emailType);
+        message.addHeader("X-Queue-ID", String.valueOf(emailQueue.getId()));
+        message.addHeader("X-Send-Method", sendMethod);
+        return message;
+    }
+
+    private void recordOutcome(
+            EmailQueue emailQueue,
+            EmailLog emailLog,
+            SmtpTransportPool.SendOutcome outcome,
+            String sendMethod) {
+        if (outcome.isSent()) {
+            emailLog.setStatus("SUCCESS");
+            emailLog.setDurationMs(outcome.durationMs());
             log.info(
                 "Email sent successfully [{}][{}][ID={}] (duration: {}ms)",
                 sendMethod,
                 activeProfile,
                 emailQueue.getId(),
-                duration
+                outcome.durationMs()
             );
-
-        } catch (MailSendException e) {
+        } else if (outcome.failure() instanceof MailSendException
+                || outcome.failure() instanceof MessagingException) {
             emailLog.setStatus("FAILED");
             emailLog.setErrorMessage("SMTP delivery failed");
             log.error("Email send failed [ID={}]", emailQueue.getId());
-        } catch (MessagingException e) {
-            emailLog.setStatus("FAILED");
-            emailLog.setErrorMessage("Email format error");
-            log.error("Email format error [ID={}]", emailQueue.getId());
-        } catch (Exception exception) {
+        } else {
             emailLog.setStatus("FAILED");
             emailLog.setErrorMessage("Email delivery failed");
             log.error(
                 "Email delivery failed [ID={}, error={}]",
                 emailQueue.getId(),
-                exception.getClass().getSimpleName()
+                outcome.failure().getClass().getSimpleName()
             );
         }
-
-        return emailLogRepository.save(emailLog);
     }
 
     private EmailLog deliveryLog(
@@ -341,4 +503,18 @@ public class EmailService {
             throw new IllegalArgumentException("Invalid template variable: " + name);
         }
     }
+
+    public record TemplateEmail(
+            String to,
+            String subject,
+            String templateName,
+            Map<String, Object> variables,
+            String emailType,
+            String idempotencyKey) {
+
+        @Override
+        public String toString() {
+            return "TemplateEmail[templateName=" + templateName + "]";
+        }
+    }
 }
@@ -0,0 +1,258 @@
+package org.dddml.email.service;
+
+import org.dddml.email.config.MailProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders email templates, splicing variables into pre-rendered static
+ * segments when the template allows it and falling back to Thymeleaf
+ * otherwise.
+ * <p>
+ * A template can be spliced only if every {@code th:} attribute is
+ * {@code th:text} or a plain attribute such as {@code th:href}, its
+ * expression is a bare {@code ${name}}, and there is no inlined
+ * expression. Such a template has no conditionals or iteration, so its
+ * output is the same static text around each escaped value. That text
+ * depends only on which variables are missing, empty or set, because
+ * Thymeleaf drops empty attributes. A template is therefore compiled once
+ * per shape: it is rendered through Thymeleaf with marker values, split at
+ * the markers, and checked against a Thymeleaf render of hostile probe
+ * values before the split is trusted.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailTemplateRenderer.class);
+    private static final String TEMPLATE_LOCATION = "templates/";
+    private static final String TEMPLATE_SUFFIX = ".html";
+    private static final Pattern TH_ATTRIBUTE =
+        Pattern.compile("(?<![\\w:-])th:([a-zA-Z-]+)\\s*=\\s*\"([^\"]*)\"");
+    private static final Pattern TH_PREFIX = Pattern.compile("(?<![\\w:-])(th:|data-th-)");
+    private static final Pattern VARIABLE_EXPRESSION =
+        Pattern.compile("\\$\\{([A-Za-z_][A-Za-z0-9_]*)}");
+    private static final Set<String> SPLICEABLE_ATTRIBUTES =
+        Set.of("text", "href", "src", "alt", "title", "value");
+    private static final CompiledTemplate NOT_SPLICEABLE =
+        new CompiledTemplate(null, null, 0);
+
+    private final TemplateEngine templateEngine;
+    private final MailProperties mailProperties;
+    private final Map<String, Optional<List<String>>> templateVariables =
+        new ConcurrentHashMap<>();
+    private final Map<TemplateShape, CompiledTemplate> compiled =
+        new ConcurrentHashMap<>();
+
+    public EmailTemplateRenderer(
+            TemplateEngine templateEngine,
+            MailProperties mailProperties) {
+        this.templateEngine = templateEngine;
+        this.mailProperties = mailProperties;
+    }
+
+    public String render(String templateName, Map<String, Object> variables) {
+        if (mailProperties.getTemplate().isCompiled()) {
+            CompiledTemplate template = compiledFor(templateName, variables);
+            if (template != null && template != NOT_SPLICEABLE) {
+                return template.render(variables);
+            }
+        }
+        return renderWithThymeleaf(templateName, variables);
+    }
+
+    private String renderWithThymeleaf(
+            String templateName,
+            Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return templateEngine.process(templateName, context);
+    }
+
+    private CompiledTemplate compiledFor(
+            String templateName,
+            Map<String, Object> variables) {
+        List<String> names = templateVariables
+            .computeIfAbsent(templateName, this::scanTemplate)
+            .orElse(null);
+        if (names == null) {
+            return null;
+        }
+        SlotState[] states = new SlotState[names.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = SlotState.of(variables.get(names.get(i)));
+            if (states[i] == null) {
+                return null;
+            }
+        }
+        TemplateShape shape = new TemplateShape(templateName, List.of(states));
+        return compiled.computeIfAbsent(shape, key -> compile(key, names));
+    }
+
+    private Optional<List<String>> scanTemplate(String templateName) {
+        ClassPathResource resource =
+            new ClassPathResource(TEMPLATE_LOCATION + templateName + TEMPLATE_SUFFIX);
+        String source;
+        try (InputStream input = resource.getInputStream()) {
+            source = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            return Optional.empty();
+        }
+        if (source.contains("[[") || source.contains("[(")) {
+            return Optional.empty();
+        }
+
+        Set<String> names = new TreeSet<>();
+        int attributes = 0;
+        Matcher attribute = TH_ATTRIBUTE.matcher(source);
+        while (attribute.find()) {
+            attributes++;
+            Matcher expression = VARIABLE_EXPRESSION.matcher(attribute.group(2).trim());
+            if (!SPLICEABLE_ATTRIBUTES.contains(attribute.group(1))
+                    || !expression.matches()) {
+                return Optional.empty();
+            }
+            names.add(expression.group(1));
+        }
+        if (TH_PREFIX.matcher(source).results().count() != attributes) {
+            return Optional.empty();
+        }
+        return Optional.of(List.copyOf(names));
+    }
+
+    private CompiledTemplate compile(TemplateShape shape, List<String> names) {
+        try {
+            String marker = "tplslot" + Long.toHexString(
+                ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE
+            );
+            Map<String, Object> markerValues = new HashMap<>();
+            Map<String, Object> probeValues = new HashMap<>();
+            Map<String, String> markerSlots = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                SlotState state = shape.states().get(i);
+                if (state == SlotState.EMPTY) {
+                    markerValues.put(name, "");
+                    probeValues.put(name, "");
+                } else if (state == SlotState.SET) {
+                    String slotMarker = marker + "x" + i + "x";
+                    markerValues.put(name, slotMarker);
+                    markerSlots.put(slotMarker, name);
+                    probeValues.put(name, "<a href=\"x\">'&amp;\u00e9" + i);
+                }
+            }
+
+            CompiledTemplate template = split(
+                renderWithThymeleaf(shape.templateName(), markerValues),
+                marker,
+                markerSlots
+            );
+            if (template == null
+                    || !template.render(probeValues).equals(
+                        renderWithThymeleaf(shape.templateName(), probeValues))) {
+                log.info(
+                    "Template is rendered by Thymeleaf [template={}]",
+                    shape.templateName()
+                );
+                return NOT_SPLICEABLE;
+            }
+            return template;
+        } catch (RuntimeException exception) {
+            log.warn(
+                "Template compilation failed [template={}, error={}]",
+                shape.templateName(),
+                exception.getClass().getSimpleName()
+            );
+            return NOT_SPLICEABLE;
+        }
+    }
+
+    private static CompiledTemplate split(
+            String rendered,
+            String marker,
+            Map<String, String> markerSlots) {
+        if (rendered == null) {
+            return null;
+        }
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int staticLength = 0;
+        int position = 0;
+        int found;
+        while ((found = rendered.indexOf(marker, position)) >= 0) {
+            int end = rendered.indexOf('x', rendered.indexOf('x', found + marker.length()) + 1);
+            String slot = end < 0 ? null : markerSlots.get(rendered.substring(found, end + 1));
+            if (slot == null) {
+                return null;
+            }
+            segments.add(rendered.substring(position, found));
+            staticLength += found - position;
+            slots.add(slot);
+            position = end + 1;
+        }
+        segments.add(rendered.substring(position));
+        staticLength += rendered.length() - position;
+        return new CompiledTemplate(
+            segments.toArray(String[]::new),
+            slots.toArray(String[]::new),
+            staticLength
+        );
+    }
+
+    private enum SlotState {
+        MISSING,
+        EMPTY,
+        SET;
+
+        /**
+         * Returns {@code null} for values whose Thymeleaf rendering is not
+         * simply their string form.
+         */
+        static SlotState of(Object value) {
+            if (value == null) {
+                return MISSING;
+            }
+            if (value instanceof String text) {
+                return text.isEmpty() ? EMPTY : SET;
+            }
+            if (value instanceof Integer || value instanceof Long) {
+                return SET;
+            }
+            return null;
+        }
+    }
+
+    private record TemplateShape(String templateName, List<SlotState> states) {
+    }
+
+    private record CompiledTemplate(String[] segments, String[] slots, int staticLength) {
+
+        String render(Map<String, Object> variables) {
+            StringBuilder html = new StringBuilder(staticLength + slots.length * 32);
+            for (int i = 0; i < slots.length; i++) {
+                html.append(segments[i]);
+                html.append(HtmlEscape.escapeHtml4Xml(String.valueOf(variables.get(slots[i]))));
+            }
+            return html.append(segments[slots.length]).toString();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.dddml.email.service;
 
+/**
+ * The idempotency key already names a queue entry built from a different
+ * request. Nothing about that entry is exposed to the caller.
+ */
 public class IdempotencyConflictException extends RuntimeException {
 
     public IdempotencyConflictException() {
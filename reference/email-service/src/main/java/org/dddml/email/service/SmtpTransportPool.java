@@ -0,0 +1,361 @@
+package org.dddml.email.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.email.config.MailProperties;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Bounded pool of long-lived, authenticated SMTP connections.
+ * <p>
+ * A caller holds one connection for a whole {@link #send(List)} call, so a
+ * batch of messages pays for TCP, TLS, EHLO and AUTH once. Idle
+ * connections are reused most-recently-used first, checked with NOOP when
+ * they have been idle for a while, and closed after the idle timeout, after
+ * a message cap, or when the sender's host, port or username changes.
+ * Bulk sends may hold all but one connection, so a transactional send
+ * never queues behind a full pool of bulk sessions.
+ * Without a {@link JavaMailSenderImpl}, or with pooling disabled, every
+ * message goes through {@link JavaMailSender#send(MimeMessage)}.
+ */
+@Component
+@Slf4j
+public class SmtpTransportPool {
+
+    private final JavaMailSender mailSender;
+    private final MailProperties mailProperties;
+    private final LongSupplier nanoClock;
+    private final Semaphore permits;
+    private final Semaphore bulkPermits;
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    public SmtpTransportPool(JavaMailSender mailSender, MailProperties mailProperties) {
+        this(mailSender, mailProperties, System::nanoTime);
+    }
+
+    SmtpTransportPool(
+            JavaMailSender mailSender,
+            MailProperties mailProperties,
+            LongSupplier nanoClock) {
+        this.mailSender = mailSender;
+        this.mailProperties = mailProperties;
+        this.nanoClock = nanoClock;
+        int maxConnections = mailProperties.getSmtpPool().getMaxConnections();
+        this.permits = new Semaphore(maxConnections, true);
+        this.bulkPermits = new Semaphore(maxConnections - 1, true);
+    }
+
+    public List<SendOutcome> send(List<MimeMessage> messages) {
+        return send(messages, EmailLane.TRANSACTIONAL);
+    }
+
+    /**
+     * Sends the messages in order over one connection and returns one
+     * outcome per message. A rejected message does not stop the rest; a
+     * dropped connection is replaced for the remaining messages, and a
+     * connection that cannot be opened fails every remaining message.
+     */
+    public List<SendOutcome> send(List<MimeMessage> messages, EmailLane lane) {
+        return send(messages, lane, (outcome, index) -> {
+        });
+    }
+
+    /**
+     * Like {@link #send(List, EmailLane)}, and also passes each outcome with
+     * its message index to {@code onOutcome} as soon as it is known, before
+     * the next message is sent. An exception from {@code onOutcome} stops
+     * the batch and propagates; the remaining messages are not sent.
+     */
+    public List<SendOutcome> send(
+            List<MimeMessage> messages,
+            EmailLane lane,
+            ObjIntConsumer<SendOutcome> onOutcome) {
+        List<SendOutcome> outcomes = new ArrayList<>(messages.size());
+        if (messages.isEmpty()) {
+            return outcomes;
+        }
+        MailProperties.SmtpPool config = mailProperties.getSmtpPool();
+        if (!config.isEnabled()
+                || !(mailSender instanceof JavaMailSenderImpl sender)) {
+            for (MimeMessage message : messages) {
+                report(outcomes, sendUnpooled(message), onOutcome);
+            }
+            return outcomes;
+        }
+
+        Semaphore lanePermits = lane == EmailLane.BULK ? bulkPermits : null;
+        try {
+            long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(config.getBorrowTimeoutMs());
+            if (lanePermits != null
+                    && !lanePermits.tryAcquire(config.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                return failRemaining(outcomes, messages.size(), new MessagingException(
+                    "SMTP connection pool exhausted"
+                ), onOutcome);
+            }
+            if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                if (lanePermits != null) {
+                    lanePermits.release();
+                }
+                return failRemaining(outcomes, messages.size(), new MessagingException(
+                    "SMTP connection pool exhausted"
+                ), onOutcome);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return failRemaining(outcomes, messages.size(), exception, onOutcome);
+        }
+
+        PooledTransport connection = null;
+        try {
+            for (MimeMessage message : messages) {
+                if (connection == null) {
+                    try {
+                        connection = borrow(sender, config);
+                    } catch (MessagingException exception) {
+                        failRemaining(outcomes, messages.size(), exception, onOutcome);
+                        break;
+                    }
+                }
+                long startTime = nanoClock.getAsLong();
+                SendOutcome outcome;
+                try {
+                    prepare(message);
+                    connection.transport.sendMessage(
+                        message,
+                        message.getAllRecipients()
+                    );
+                    connection.messagesSent++;
+                    outcome = SendOutcome.sent(elapsedMillis(startTime));
+                } catch (MessagingException | RuntimeException exception) {
+                    outcome = SendOutcome.failed(exception, elapsedMillis(startTime));
+                    if (!connection.transport.isConnected()) {
+                        close(connection);
+                        connection = null;
+                    }
+                }
+                report(outcomes, outcome, onOutcome);
+                if (connection != null
+                        && connection.messagesSent >= config.getMaxMessagesPerConnection()) {
+                    close(connection);
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) {
+                giveBack(connection, config);
+            }
+            permits.release();
+            if (lanePermits != null) {
+                lanePermits.release();
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Closes idle connections that have outlived the idle timeout, so the
+     * pool does not hold server sessions open between bursts.
+     */
+    @Scheduled(fixedDelay = 15000, initialDelay = 15000)
+    public void evictIdle() {
+        long maxIdleNanos = Duration.ofSeconds(
+            mailProperties.getSmtpPool().getMaxIdleSeconds()
+        ).toNanos();
+        long now = nanoClock.getAsLong();
+        for (PooledTransport connection : idle) {
+            if (now - connection.lastUsedNanos > maxIdleNanos
+                    && idle.remove(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    int openConnections() {
+        return openConnections.get();
+    }
+
+    int idleConnections() {
+        return idle.size();
+    }
+
+    private PooledTransport borrow(
+            JavaMailSenderImpl sender,
+            MailProperties.SmtpPool config) throws MessagingException {
+        Endpoint endpoint = Endpoint.of(sender);
+        long maxIdleNanos = Duration.ofSeconds(config.getMaxIdleSeconds()).toNanos();
+        long validateNanos = Duration.ofSeconds(config.getValidateAfterIdleSeconds()).toNanos();
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            long idleNanos = nanoClock.getAsLong() - connection.lastUsedNanos;
+            if (!connection.endpoint.equals(endpoint) || idleNanos > maxIdleNanos) {
+                close(connection);
+                continue;
+            }
+            // isConnected() issues NOOP on an SMTP transport.
+            if (idleNanos >= validateNanos && !connection.transport.isConnected()) {
+                close(connection);
+                continue;
+            }
+            return connection;
+        }
+        return connect(sender, endpoint);
+    }
+
+    private PooledTransport connect(
+            JavaMailSenderImpl sender,
+            Endpoint endpoint) throws MessagingException {
+        String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+        Transport transport = sender.getSession().getTransport(protocol);
+        transport.connect(
+            endpoint.host(),
+            endpoint.port(),
+            endpoint.username(),
+            blankToNull(sender.getPassword())
+        );
+        openConnections.incrementAndGet();
+        log.debug("SMTP connection opened [open={}]", openConnections.get());
+        return new PooledTransport(transport, endpoint);
+    }
+
+    private void giveBack(PooledTransport connection, MailProperties.SmtpPool config) {
+        // A connection opened while another was being returned can leave
+        // one more than the limit; close the surplus instead of pooling it.
+        if (openConnections.get() > config.getMaxConnections()) {
+            close(connection);
+            return;
+        }
+        connection.lastUsedNanos = nanoClock.getAsLong();
+        idle.offerFirst(connection);
+    }
+
+    private void close(PooledTransport connection) {
+        openConnections.decrementAndGet();
+        try {
+            connection.transport.close();
+        } catch (MessagingException exception) {
+            log.debug(
+                "SMTP connection close failed [error={}]",
+                exception.getClass().getSimpleName()
+            );
+        }
+    }
+
+    private SendOutcome sendUnpooled(MimeMessage message) {
+        long startTime = nanoClock.getAsLong();
+        try {
+            mailSender.send(message);
+            return SendOutcome.sent(elapsedMillis(startTime));
+        } catch (MailException exception) {
+            return SendOutcome.failed(exception, elapsedMillis(startTime));
+        }
+    }
+
+    // Mirrors JavaMailSenderImpl: keep the caller's Message-ID across
+    // saveChanges(), which Transport.sendMessage does not call itself.
+    private void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+
+    private static void report(
+            List<SendOutcome> outcomes,
+            SendOutcome outcome,
+            ObjIntConsumer<SendOutcome> onOutcome) {
+        outcomes.add(outcome);
+        onOutcome.accept(outcome, outcomes.size() - 1);
+    }
+
+    private static List<SendOutcome> failRemaining(
+            List<SendOutcome> outcomes,
+            int count,
+            Exception failure,
+            ObjIntConsumer<SendOutcome> onOutcome) {
+        while (outcomes.size() < count) {
+            report(outcomes, SendOutcome.failed(failure, 0), onOutcome);
+        }
+        return outcomes;
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public record SendOutcome(Exception failure, long durationMs) {
+
+        static SendOutcome sent(long durationMs) {
+            return new SendOutcome(null, durationMs);
+        }
+
+        static SendOutcome failed(Exception failure, long durationMs) {
+            return new SendOutcome(Objects.requireNonNull(failure), durationMs);
+        }
+
+        public boolean isSent() {
+            return failure == null;
+        }
+    }
+
+    private record Endpoint(String host, int port, String username) {
+
+        static Endpoint of(JavaMailSenderImpl sender) {
+            return new Endpoint(
+                sender.getHost(),
+                sender.getPort(),
+                blankToNull(sender.getUsername())
+            );
+        }
+    }
+
+    private static final class PooledTransport {
+
+        private final Transport transport;
+        private final Endpoint endpoint;
+        private int messagesSent;
+        private long lastUsedNanos;
+
+        private PooledTransport(Transport transport, Endpoint endpoint) {
+            this.transport = transport;
+            this.endpoint = endpoint;
+        }
+    }
+}
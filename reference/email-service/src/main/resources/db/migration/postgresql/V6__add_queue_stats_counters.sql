@@ -0,0 +1,27 @@
+CREATE TABLE email_queue_status_counts (
+    lane VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    row_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (lane, status)
+);
+
+CREATE TABLE email_send_method_counts (
+    minute TIMESTAMP NOT NULL,
+    send_method VARCHAR(20) NOT NULL,
+    row_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (minute, send_method)
+);
+
+INSERT INTO email_queue_status_counts (lane, status, row_count)
+SELECT CASE WHEN priority >= 6 THEN 'TRANSACTIONAL' ELSE 'BULK' END,
+       status,
+       count(*)
+FROM email_queue
+GROUP BY 1, 2;
+
+INSERT INTO email_send_method_counts (minute, send_method, row_count)
+SELECT date_trunc('minute', sent_time), send_method, count(*)
+FROM email_logs
+WHERE sent_time >= date_trunc('minute', now()::timestamp) - INTERVAL '59 minutes'
+  AND send_method IS NOT NULL
+GROUP BY 1, 2;
@@ -0,0 +1,120 @@
+package org.dddml.email.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AdmissionControlledExecutorTest {
+
+    private final Executor threads = task -> new Thread(task).start();
+    private final EmailExecutorMetrics metrics = new EmailExecutorMetrics();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void runningTasksNeverExceedTheConcurrencyCap() throws Exception {
+        AdmissionControlledExecutor executor =
+            new AdmissionControlledExecutor(threads, 2, 100, 5000, metrics);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            });
+        }
+
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(peak.get()).isEqualTo(2);
+        assertThat(metrics.snapshot().started()).isEqualTo(10);
+        assertThat(metrics.snapshot().rejected()).isZero();
+        assertThat(executor.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void submissionsBeyondTheWaitingBoundAreRejected() {
+        AdmissionControlledExecutor executor =
+            new AdmissionControlledExecutor(threads, 1, 1, 5000, metrics);
+
+        executor.execute(this::block);
+        await().atMost(5, TimeUnit.SECONDS)
+            .until(() -> metrics.snapshot().active() == 1);
+        executor.execute(this::block);
+        executor.execute(this::block);
+
+        assertThat(metrics.snapshot().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void taskWithoutASlotWithinTheAdmissionTimeoutIsRejected() {
+        AdmissionControlledExecutor executor =
+            new AdmissionControlledExecutor(threads, 1, 10, 50, metrics);
+        AtomicInteger ran = new AtomicInteger();
+
+        executor.execute(this::block);
+        executor.execute(ran::incrementAndGet);
+
+        await().atMost(5, TimeUnit.SECONDS)
+            .until(() -> metrics.snapshot().rejected() == 1);
+        assertThat(ran.get()).isZero();
+    }
+
+    @Test
+    void burstBeyondTheCapRunsCapTasksAndLeavesTheRestToRecovery() {
+        AdmissionControlledExecutor executor =
+            new AdmissionControlledExecutor(threads, 2, 100, 100, metrics);
+        AtomicInteger ran = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                ran.incrementAndGet();
+                block();
+            });
+        }
+
+        await().atMost(5, TimeUnit.SECONDS)
+            .until(() -> metrics.snapshot().rejected() == 8);
+        assertThat(ran.get()).isEqualTo(2);
+        assertThat(metrics.snapshot().active()).isEqualTo(2);
+        assertThat(executor.availablePermits()).isZero();
+    }
+
+    @Test
+    void closedExecutorRejectsNewTasks() throws Exception {
+        AdmissionControlledExecutor executor =
+            new AdmissionControlledExecutor(threads, 1, 10, 5000, metrics);
+        executor.close();
+
+        executor.execute(() -> { });
+
+        assertThat(metrics.snapshot().rejected()).isEqualTo(1);
+        assertThat(metrics.snapshot().started()).isZero();
+    }
+
+    private void block() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -14,13 +14,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
-@SpringJUnitConfig(AsyncConfig.class)
+@SpringJUnitConfig({AsyncConfig.class, MailProperties.class, EmailExecutorMetrics.class})
 class AsyncConfigTest {
 
     @Autowired
     @Qualifier("emailExecutor")
     private Executor emailExecutor;
 
+    @Autowired
+    private EmailExecutorMetrics executorMetrics;
+
     @Test
     void saturatedAsyncExecutorDoesNotEscapeThePersistentQueueFallback() throws Exception {
         assertThat(emailExecutor).isInstanceOf(ThreadPoolTaskExecutor.class);
@@ -45,8 +48,29 @@ class AsyncConfigTest {
             assertThatCode(() -> taskExecutor.execute(() -> rejectedTaskRan.set(true)))
                 .doesNotThrowAnyException();
             assertThat(rejectedTaskRan).isFalse();
+            assertThat(executorMetrics.snapshot().rejected()).isEqualTo(1);
         } finally {
             releaseTasks.countDown();
         }
     }
+
+    @Test
+    void defaultDeliveryConcurrencyIsTheSmtpPoolSize() {
+        assertThat(AsyncConfig.deliveryConcurrency(new MailProperties())).isEqualTo(4);
+    }
+
+    @Test
+    void deliveryConcurrencyIsHeldToTheRateLimitAndSmtpPool() {
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.getEventExecutor().setMaxConcurrency(500);
+        mailProperties.getRateLimit().setMaxPerMinute(30);
+        mailProperties.getSmtpPool().setMaxConnections(8);
+        assertThat(AsyncConfig.deliveryConcurrency(mailProperties)).isEqualTo(8);
+
+        mailProperties.getSmtpPool().setEnabled(false);
+        assertThat(AsyncConfig.deliveryConcurrency(mailProperties)).isEqualTo(30);
+
+        mailProperties.getRateLimit().setEnabled(false);
+        assertThat(AsyncConfig.deliveryConcurrency(mailProperties)).isEqualTo(500);
+    }
 }
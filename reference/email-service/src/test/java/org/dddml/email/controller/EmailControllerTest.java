@@ -1,11 +1,14 @@
 package org.dddml.email.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.dddml.email.config.EmailExecutorMetrics;
 import org.dddml.email.entity.EmailQueue;
 import org.dddml.email.entity.EmailLog;
 import org.dddml.email.repository.EmailLogRepository;
+import org.dddml.email.service.EmailLane;
 import org.dddml.email.service.EmailQueueService;
 import org.dddml.email.service.EmailService;
+import org.dddml.email.service.IdempotencyConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.PageImpl;
@@ -13,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -51,7 +55,8 @@ class EmailControllerTest {
         emailController = new EmailController(
             emailService,
             emailQueueService,
-            emailLogRepository
+            emailLogRepository,
+            new EmailExecutorMetrics()
         );
 
         mockMvc = MockMvcBuilders.standaloneSetup(emailController)
@@ -162,21 +167,37 @@ class EmailControllerTest {
 
     @Test
     void testGetQueueStats() throws Exception {
-        EmailQueueService.QueueStats stats = new EmailQueueService.QueueStats(5, 2, 100, 3);
+        EmailQueueService.QueueStats stats = new EmailQueueService.QueueStats(
+                5, 2, 100, 3,
+                LocalDateTime.of(2026, 1, 2, 3, 9, 0),
+                LocalDateTime.of(2026, 1, 2, 3, 4, 5)
+        );
 
         when(emailQueueService.getStats()).thenReturn(stats);
-        when(emailLogRepository.countBySendMethodSince(any())).thenReturn(
-                List.of(new Object[]{"EVENT", 95L}, new Object[]{"SCHEDULED", 5L})
+        when(emailQueueService.getLaneStats()).thenReturn(Map.of(
+                EmailLane.TRANSACTIONAL,
+                new EmailQueueService.LaneStats(1, 0, 40, 2, 256L, 1024L, 120, 1L)
+        ));
+        when(emailQueueService.getRecentSendMethodCounts()).thenReturn(
+                Map.of("EVENT", 95L, "SCHEDULED", 5L)
         );
 
         mockMvc.perform(get("/api/email/queue/stats"))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scope").value("cluster"))
+                .andExpect(jsonPath("$.syncedTime").exists())
+                .andExpect(jsonPath("$.reconciledTime").exists())
                 .andExpect(jsonPath("$.pending").value(5))
                 .andExpect(jsonPath("$.processing").value(2))
                 .andExpect(jsonPath("$.completed").value(100))
                 .andExpect(jsonPath("$.failed").value(3))
                 .andExpect(jsonPath("$.eventDrivenCount").value(95))
-                .andExpect(jsonPath("$.scheduledCount").value(5));
+                .andExpect(jsonPath("$.scheduledCount").value(5))
+                .andExpect(jsonPath("$.lanes.transactional.pending").value(1))
+                .andExpect(jsonPath("$.lanes.transactional.p99LatencyMs").value(1024))
+                .andExpect(jsonPath("$.lanes.transactional.drainRatePerMinute").value(120))
+                .andExpect(jsonPath("$.lanes.transactional.estimatedSecondsToEmpty").value(1))
+                .andExpect(jsonPath("$.eventExecutor.rejected").value(0));
     }
 
     @Test
@@ -248,6 +269,74 @@ class EmailControllerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void testSendTemplateEmail_ConflictDoesNotExposeTheExistingDelivery() throws Exception {
+        when(emailService.sendEmailAsync(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        )).thenThrow(new IdempotencyConflictException());
+
+        String requestBody = """
+            {
+                "to": "user@example.com",
+                "subject": "Verify your email address",
+                "templateName": "email/email-verify",
+                "variables": {"username": "user@example.com"},
+                "emailType": "VERIFICATION",
+                "idempotencyKey": "email-challenge:conflict"
+            }
+            """;
+
+        mockMvc.perform(post("/api/email/template")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.queueId").doesNotExist())
+                .andExpect(jsonPath("$.status").doesNotExist());
+    }
+
+    @Test
+    void testSendTemplateEmailBatch_ReportsPerItemReceipts() throws Exception {
+        when(emailService.sendTemplateEmailBatch(anyList())).thenReturn(List.of(
+            new EmailQueueService.BatchReceipt(
+                EmailQueueService.BatchOutcome.CREATED, 21L, "PENDING"
+            ),
+            EmailQueueService.BatchReceipt.conflict(),
+            EmailQueueService.BatchReceipt.rejected()
+        ));
+
+        String item = """
+            {
+                "to": "user@example.com",
+                "subject": "Verify your email address",
+                "templateName": "email/email-verify",
+                "variables": {"username": "user@example.com"},
+                "emailType": "VERIFICATION",
+                "idempotencyKey": "email-challenge:%s"
+            }
+            """;
+        String requestBody = "{\"emails\": ["
+            + item.formatted("a") + "," + item.formatted("b") + "," + item.formatted("c")
+            + "]}";
+
+        mockMvc.perform(post("/api/email/template/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.successCount").value(1))
+                .andExpect(jsonPath("$.results[0].queueId").value(21))
+                .andExpect(jsonPath("$.results[0].status").value("PENDING"))
+                .andExpect(jsonPath("$.results[1].error").value("IDEMPOTENCY_CONFLICT"))
+                .andExpect(jsonPath("$.results[1].queueId").doesNotExist())
+                .andExpect(jsonPath("$.results[2].error").value("INVALID_REQUEST"));
+    }
+
     @Test
     void requestObjectsDoNotExposeRecipientsOrEmailContentInObjectStrings() {
         EmailController.SimpleEmailRequest simple =
@@ -55,6 +55,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
@@ -324,6 +325,70 @@ class EmailServiceEndToEndIntegrationTest {
         assertThat(SMTP.getReceivedMessages()).hasSize(1);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void templateBatchReportsCreatedReplayedAndConflictingKeysPerItem() {
+        ResponseEntity<Map<String, Object>> seeded = exchange(
+            "/api/email/template/batch",
+            HttpMethod.POST,
+            Map.of("emails", List.of(
+                batchItem("seeded@example.test", "Seeded", "email-challenge:batch-b")
+            ))
+        );
+        assertThat(seeded.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<Map<String, Object>> response = exchange(
+            "/api/email/template/batch",
+            HttpMethod.POST,
+            Map.of("emails", List.of(
+                batchItem("fresh@example.test", "Fresh", "email-challenge:batch-c"),
+                batchItem("seeded@example.test", "Changed", "email-challenge:batch-b"),
+                batchItem("fresh@example.test", "Fresh", "email-challenge:batch-c"),
+                batchItem("seeded@example.test", "Seeded", "email-challenge:batch-b"),
+                batchItem("first@example.test", "First", "email-challenge:batch-a")
+            ))
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Map<String, Object>> results =
+            (List<Map<String, Object>>) response.getBody().get("results");
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0)).containsEntry("success", true);
+        assertThat(results.get(1))
+            .containsEntry("success", false)
+            .containsEntry("error", "IDEMPOTENCY_CONFLICT")
+            .doesNotContainKeys("queueId", "status");
+        assertThat(results.get(2))
+            .containsEntry("success", true)
+            .containsEntry("queueId", results.get(0).get("queueId"));
+        assertThat(results.get(3)).containsEntry("success", true);
+        assertThat(results.get(4)).containsEntry("success", true);
+        assertThat(emailQueueRepository.count()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT subject FROM email_queue WHERE idempotency_key = ?",
+            String.class,
+            "email-challenge:batch-b"
+        )).isEqualTo("Seeded");
+    }
+
+    private static Map<String, Object> batchItem(
+            String to,
+            String subject,
+            String idempotencyKey) {
+        return Map.of(
+            "to", to,
+            "subject", subject,
+            "templateName", "email/email-verify",
+            "variables", Map.of(
+                "username", to,
+                "verificationCode", "123456",
+                "expiryMinutes", 10
+            ),
+            "emailType", "VERIFICATION",
+            "idempotencyKey", idempotencyKey
+        );
+    }
+
     @Test
     void exposesTheUniAuthHealthAndTemplateContractOverHttp() {
         ResponseEntity<Map<String, Object>> health = exchange(
@@ -1285,10 +1350,15 @@ class EmailServiceEndToEndIntegrationTest {
     }
 
     private void expireRateLimitWindow() {
+        LongSupplier current = (LongSupplier) ReflectionTestUtils.getField(
+            emailRateLimiter,
+            "nanoClock"
+        );
+        long minute = Duration.ofMinutes(1).toNanos();
         ReflectionTestUtils.setField(
             emailRateLimiter,
-            "windowStartedAt",
-            System.nanoTime() - Duration.ofMinutes(1).toNanos()
+            "nanoClock",
+            (LongSupplier) () -> current.getAsLong() + minute
         );
     }
 
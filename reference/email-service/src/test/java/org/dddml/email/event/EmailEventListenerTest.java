@@ -2,6 +2,7 @@ package org.dddml.email.event;
 
 import org.dddml.email.config.MailProperties;
 import org.dddml.email.service.EmailDeliveryService;
+import org.dddml.email.service.EmailLane;
 import org.dddml.email.service.EmailQueueClaimService;
 import org.dddml.email.service.EmailRateLimiter;
 import org.junit.jupiter.api.BeforeEach;
@@ -58,7 +59,7 @@ class EmailEventListenerTest {
 
         emailEventListener.handleEmailQueuedEvent(event);
 
-        verify(rateLimiter, never()).tryAcquire();
+        verify(rateLimiter, never()).tryAcquire(any(), any());
         verify(claimService, never()).claimPending(eq(1L), any(LocalDateTime.class));
         verify(deliveryService, never()).deliver(1L, "EVENT");
     }
@@ -66,7 +67,7 @@ class EmailEventListenerTest {
     @Test
     void rateLimitDenialLeavesTheQueuePending() {
         when(queueConfig.isEventDriven()).thenReturn(true);
-        when(rateLimiter.tryAcquire()).thenReturn(null);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(null);
 
         emailEventListener.handleEmailQueuedEvent(event);
 
@@ -77,7 +78,7 @@ class EmailEventListenerTest {
     @Test
     void failedClaimReleasesTheReservedRateLimitSlot() {
         when(queueConfig.isEventDriven()).thenReturn(true);
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimPending(eq(1L), any(LocalDateTime.class))).thenReturn(false);
 
         emailEventListener.handleEmailQueuedEvent(event);
@@ -89,7 +90,7 @@ class EmailEventListenerTest {
     @Test
     void claimedQueueIsDeliveredByTheTransactionalDeliveryBean() {
         when(queueConfig.isEventDriven()).thenReturn(true);
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimPending(eq(1L), any(LocalDateTime.class))).thenReturn(true);
         when(deliveryService.deliver(1L, "EVENT"))
             .thenReturn(EmailDeliveryService.DeliveryOutcome.SUCCESS);
@@ -102,7 +103,7 @@ class EmailEventListenerTest {
     @Test
     void skippedDeliveryReleasesTheReservedRateLimitSlot() {
         when(queueConfig.isEventDriven()).thenReturn(true);
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimPending(eq(1L), any(LocalDateTime.class))).thenReturn(true);
         when(deliveryService.deliver(1L, "EVENT"))
             .thenReturn(EmailDeliveryService.DeliveryOutcome.SKIPPED);
@@ -115,7 +116,7 @@ class EmailEventListenerTest {
     @Test
     void claimFailureReleasesTheReservedRateLimitSlot() {
         when(queueConfig.isEventDriven()).thenReturn(true);
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         doThrow(new IllegalStateException("claim unavailable"))
             .when(claimService)
             .claimPending(eq(1L), any(LocalDateTime.class));
@@ -129,7 +130,7 @@ class EmailEventListenerTest {
     @Test
     void deliveryFailureKeepsTheConsumedRateLimitSlot() {
         when(queueConfig.isEventDriven()).thenReturn(true);
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimPending(eq(1L), any(LocalDateTime.class))).thenReturn(true);
         doThrow(new IllegalStateException("delivery unavailable"))
             .when(deliveryService)
@@ -139,4 +140,16 @@ class EmailEventListenerTest {
 
         verify(reservation, never()).release();
     }
+
+    @Test
+    void bulkEventReservesAgainstTheBulkLane() {
+        EmailQueuedEvent bulkEvent =
+            new EmailQueuedEvent(this, 1L, "example.com", EmailLane.BULK);
+        when(queueConfig.isEventDriven()).thenReturn(true);
+        when(rateLimiter.tryAcquire("example.com", EmailLane.BULK)).thenReturn(null);
+
+        emailEventListener.handleBulkEmailQueuedEvent(bulkEvent);
+
+        verify(claimService, never()).claimPending(eq(1L), any(LocalDateTime.class));
+    }
 }
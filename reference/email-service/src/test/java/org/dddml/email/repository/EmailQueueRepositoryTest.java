@@ -2,6 +2,7 @@ package org.dddml.email.repository;
 
 import org.dddml.email.entity.EmailLog;
 import org.dddml.email.entity.EmailQueue;
+import org.dddml.email.service.EmailLane;
 import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -197,6 +198,47 @@ class EmailQueueRepositoryTest {
         assertEquals(1, result.getTotalElements());
     }
 
+    @Test
+    void laneScanAndBacklogOnlySeeTheirOwnPriorityRange() {
+        LocalDateTime now = LocalDateTime.now();
+        EmailQueue bulk = EmailQueue.builder()
+                .recipient("bulk@example.com")
+                .subject("Bulk")
+                .htmlContent("Content")
+                .status("PENDING")
+                .priority(EmailLane.BULK.enqueuePriority())
+                .retryCount(0)
+                .maxRetries(3)
+                .build();
+        EmailQueue transactional = EmailQueue.builder()
+                .recipient("otp@example.com")
+                .subject("Code")
+                .htmlContent("Content")
+                .status("PENDING")
+                .priority(EmailLane.TRANSACTIONAL.enqueuePriority())
+                .retryCount(0)
+                .maxRetries(3)
+                .build();
+
+        entityManager.persist(bulk);
+        entityManager.persist(transactional);
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<EmailQueue> result = emailQueueRepository.findFailedOrStuckEmailsInLane(
+                now.plusSeconds(1),
+                now.minusMinutes(10),
+                EmailLane.TRANSACTIONAL.minPriority(),
+                EmailLane.TRANSACTIONAL.maxPriority(),
+                PageRequest.of(0, 10));
+        assertEquals(1, result.getTotalElements());
+        assertEquals("otp@example.com", result.getContent().get(0).getRecipient());
+        assertEquals(1, emailQueueRepository.countByStatusAndPriorityBetween(
+                "PENDING",
+                EmailLane.BULK.minPriority(),
+                EmailLane.BULK.maxPriority()));
+    }
+
     @Test
     void testCountByStatus() {
         EmailQueue pending = EmailQueue.builder()
@@ -3,6 +3,7 @@ package org.dddml.email.service;
 import org.dddml.email.config.MailProperties;
 import org.dddml.email.entity.EmailLog;
 import org.dddml.email.entity.EmailQueue;
+import org.dddml.email.repository.EmailLogRepository;
 import org.dddml.email.repository.EmailQueueRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,11 +11,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +45,18 @@ class EmailDeliveryServiceTest {
     @Mock
     private MailProperties.Retry retryConfig;
 
+    @Mock
+    private EmailLaneMetrics laneMetrics;
+
+    @Mock
+    private EmailQueueStatsService queueStats;
+
+    @Mock
+    private EmailLogRepository emailLogRepository;
+
+    @Mock
+    private TransactionOperations transactionOperations;
+
     @InjectMocks
     private EmailDeliveryService deliveryService;
 
@@ -49,7 +73,7 @@ class EmailDeliveryServiceTest {
             .retryCount(0)
             .maxRetries(3)
             .build();
-        when(emailQueueRepository.findById(1L)).thenReturn(Optional.of(queue));
+        lenient().when(emailQueueRepository.findById(1L)).thenReturn(Optional.of(queue));
     }
 
     @Test
@@ -70,6 +94,7 @@ class EmailDeliveryServiceTest {
             .isEqualTo(EmailQueue.REDACTED_HTML_CONTENT);
         assertThat(queue.getMetadata()).isNull();
         verify(emailQueueRepository).save(queue);
+        verify(laneMetrics).recordDelivered(EmailLane.BULK, queue.getCreatedTime());
     }
 
     @Test
@@ -107,4 +132,92 @@ class EmailDeliveryServiceTest {
             .isEqualTo(EmailQueue.REDACTED_HTML_CONTENT);
         assertThat(queue.getMetadata()).isNull();
     }
+
+    @Test
+    void batchDeliveryAppliesEachLogAndSkipsUnclaimedEntries() {
+        EmailQueue second = EmailQueue.builder()
+            .id(2L)
+            .recipient("second@example.com")
+            .subject("Second")
+            .htmlContent("<p>Second</p>")
+            .status("PROCESSING")
+            .retryCount(0)
+            .maxRetries(3)
+            .build();
+        EmailQueue completed = EmailQueue.builder()
+            .id(3L)
+            .recipient("third@example.com")
+            .subject("Third")
+            .htmlContent("<p>Third</p>")
+            .status("COMPLETED")
+            .build();
+        when(mailProperties.getRetry()).thenReturn(retryConfig);
+        when(retryConfig.getDelayMinutes()).thenReturn(10);
+        when(emailQueueRepository.findAllById(List.of(2L, 3L, 1L)))
+            .thenReturn(List.of(queue, second, completed));
+        inlineTransactions();
+        EmailLog failedLog = EmailLog.builder().status("FAILED").errorMessage("SMTP failed").build();
+        EmailLog successLog = EmailLog.builder().status("SUCCESS").build();
+        sendsInOneSession(List.of(second, queue), List.of(failedLog, successLog));
+
+        assertThat(deliveryService.deliverBatch(List.of(2L, 3L, 1L), "SCHEDULED"))
+            .containsExactly(
+                EmailDeliveryService.DeliveryOutcome.FAILED,
+                EmailDeliveryService.DeliveryOutcome.SKIPPED,
+                EmailDeliveryService.DeliveryOutcome.SUCCESS
+            );
+        assertThat(second.getStatus()).isEqualTo("PENDING");
+        assertThat(second.getRetryCount()).isEqualTo(1);
+        assertThat(queue.getStatus()).isEqualTo("COMPLETED");
+        assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+        verify(emailQueueRepository).save(second);
+        verify(emailQueueRepository).save(queue);
+        verify(emailLogRepository).save(failedLog);
+        verify(emailLogRepository).save(successLog);
+        verify(transactionOperations, times(2)).execute(any());
+    }
+
+    @Test
+    void batchDeliveryKeepsEarlierCommitsWhenALaterCommitFails() {
+        EmailQueue second = EmailQueue.builder()
+            .id(2L)
+            .recipient("second@example.com")
+            .subject("Second")
+            .htmlContent("<p>Second</p>")
+            .status("PROCESSING")
+            .retryCount(0)
+            .maxRetries(3)
+            .build();
+        inlineTransactions();
+        when(emailQueueRepository.findAllById(List.of(1L, 2L)))
+            .thenReturn(List.of(queue, second));
+        EmailLog firstLog = EmailLog.builder().status("SUCCESS").build();
+        EmailLog secondLog = EmailLog.builder().status("SUCCESS").build();
+        when(emailLogRepository.save(secondLog))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+        sendsInOneSession(List.of(queue, second), List.of(firstLog, secondLog));
+
+        assertThatThrownBy(() -> deliveryService.deliverBatch(List.of(1L, 2L), "SCHEDULED"))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(queue.getStatus()).isEqualTo("COMPLETED");
+        verify(emailQueueRepository).save(queue);
+        verify(emailQueueRepository, never()).save(second);
+    }
+
+    private void inlineTransactions() {
+        when(transactionOperations.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+        );
+    }
+
+    private void sendsInOneSession(List<EmailQueue> emailQueues, List<EmailLog> emailLogs) {
+        when(emailService.sendEmailsDirectly(eq(emailQueues), eq("SCHEDULED"), any()))
+            .thenAnswer(invocation -> {
+                BiConsumer<EmailQueue, EmailLog> onResult = invocation.getArgument(2);
+                for (int i = 0; i < emailQueues.size(); i++) {
+                    onResult.accept(emailQueues.get(i), emailLogs.get(i));
+                }
+                return emailLogs;
+            });
+    }
 }
@@ -0,0 +1,58 @@
+package org.dddml.email.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailLaneMetricsTest {
+
+    @Test
+    void lanesAreCountedSeparately() {
+        EmailLaneMetrics metrics = new EmailLaneMetrics();
+
+        metrics.recordDelivered(EmailLane.BULK, LocalDateTime.now().minusMinutes(30));
+        metrics.recordFailed(EmailLane.BULK);
+        metrics.recordDelivered(EmailLane.TRANSACTIONAL, LocalDateTime.now());
+
+        EmailLaneMetrics.LaneSnapshot bulk = metrics.snapshot(EmailLane.BULK);
+        EmailLaneMetrics.LaneSnapshot transactional =
+            metrics.snapshot(EmailLane.TRANSACTIONAL);
+        assertThat(bulk.delivered()).isEqualTo(1);
+        assertThat(bulk.failed()).isEqualTo(1);
+        assertThat(bulk.p99LatencyMs()).isGreaterThanOrEqualTo(30 * 60 * 1000L);
+        assertThat(transactional.delivered()).isEqualTo(1);
+        assertThat(transactional.p99LatencyMs()).isLessThan(60_000L);
+    }
+
+    @Test
+    void emptyLaneHasNoLatencyPercentiles() {
+        EmailLaneMetrics.LaneSnapshot snapshot =
+            new EmailLaneMetrics().snapshot(EmailLane.TRANSACTIONAL);
+
+        assertThat(snapshot.p50LatencyMs()).isNull();
+        assertThat(snapshot.p99LatencyMs()).isNull();
+    }
+
+    @Test
+    void drainRateIsSmoothedAcrossBatches() {
+        EmailLaneMetrics metrics = new EmailLaneMetrics();
+
+        metrics.recordDrained(EmailLane.BULK, 100, 1000);
+        assertThat(metrics.snapshot(EmailLane.BULK).drainRatePerMinute()).isEqualTo(6000);
+
+        metrics.recordDrained(EmailLane.BULK, 0, 1000);
+        metrics.recordDrained(EmailLane.BULK, 50, 1000);
+        assertThat(metrics.snapshot(EmailLane.BULK).drainRatePerMinute()).isEqualTo(5100);
+        assertThat(metrics.snapshot(EmailLane.TRANSACTIONAL).drainRatePerMinute()).isZero();
+    }
+
+    @Test
+    void latenciesFallIntoPowerOfTwoBuckets() {
+        assertThat(EmailLaneMetrics.bucketOf(0)).isZero();
+        assertThat(EmailLaneMetrics.bucketOf(1)).isEqualTo(1);
+        assertThat(EmailLaneMetrics.bucketOf(1000)).isEqualTo(10);
+        assertThat(EmailLaneMetrics.bucketOf(Long.MAX_VALUE)).isEqualTo(23);
+    }
+}
@@ -12,12 +12,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -41,6 +46,9 @@ class EmailProcessorServiceTest {
     @Mock
     private EmailRateLimiter.Reservation reservation;
 
+    @Mock
+    private EmailLaneMetrics laneMetrics;
+
     @Mock
     private MailProperties mailProperties;
 
@@ -50,6 +58,8 @@ class EmailProcessorServiceTest {
     @Mock
     private MailProperties.Queue queueConfig;
 
+    private final MailProperties.SmtpPool smtpPoolConfig = new MailProperties.SmtpPool();
+
     @InjectMocks
     private EmailProcessorService emailProcessorService;
 
@@ -76,69 +86,95 @@ class EmailProcessorServiceTest {
     void recoveryDisabledDoesNotReadTheQueue() {
         when(recoveryConfig.isEnabled()).thenReturn(false);
 
-        emailProcessorService.recoverFailedEmails();
+        emailProcessorService.recoverTransactionalEmails();
 
-        verify(emailQueueRepository, never()).findFailedOrStuckEmails(any(), any(), any());
+        verify(emailQueueRepository, never()).findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any());
     }
 
     @Test
     void emptyRecoveryScanDoesNotClaimOrDeliver() {
         enableRecovery();
-        when(emailQueueRepository.findFailedOrStuckEmails(any(), any(), any()))
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
             .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 50), 0));
 
-        emailProcessorService.recoverFailedEmails();
+        emailProcessorService.recoverTransactionalEmails();
 
         verify(claimService, never()).claimRecoverable(eq(1L), any(), any());
-        verify(deliveryService, never()).deliver(1L, "SCHEDULED");
+        verify(deliveryService, never()).deliverBatch(any(), any());
     }
 
     @Test
     void claimedCandidateIsDelivered() {
         enableRecovery();
-        when(emailQueueRepository.findFailedOrStuckEmails(any(), any(), any()))
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
             .thenReturn(new PageImpl<>(List.of(queue), PageRequest.of(0, 50), 1));
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimRecoverable(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
             .thenReturn(true);
-        when(deliveryService.deliver(1L, "SCHEDULED"))
-            .thenReturn(EmailDeliveryService.DeliveryOutcome.SUCCESS);
+        when(deliveryService.deliverBatch(List.of(1L), "SCHEDULED"))
+            .thenReturn(List.of(EmailDeliveryService.DeliveryOutcome.SUCCESS));
 
-        emailProcessorService.recoverFailedEmails();
+        emailProcessorService.recoverTransactionalEmails();
 
-        verify(deliveryService).deliver(1L, "SCHEDULED");
+        verify(deliveryService).deliverBatch(List.of(1L), "SCHEDULED");
     }
 
     @Test
     void candidateClaimedElsewhereIsSkipped() {
         enableRecovery();
-        when(emailQueueRepository.findFailedOrStuckEmails(any(), any(), any()))
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
             .thenReturn(new PageImpl<>(List.of(queue), PageRequest.of(0, 50), 1));
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimRecoverable(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
             .thenReturn(false);
 
-        emailProcessorService.recoverFailedEmails();
+        emailProcessorService.recoverTransactionalEmails();
 
         verify(reservation).release();
-        verify(deliveryService, never()).deliver(1L, "SCHEDULED");
+        verify(deliveryService, never()).deliverBatch(any(), any());
     }
 
     @Test
     void rateLimitDenialLeavesCandidatesUnclaimed() {
         enableRecovery();
-        when(emailQueueRepository.findFailedOrStuckEmails(any(), any(), any()))
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
             .thenReturn(new PageImpl<>(List.of(queue), PageRequest.of(0, 50), 1));
-        when(rateLimiter.tryAcquire()).thenReturn(null);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(null);
+
+        emailProcessorService.recoverTransactionalEmails();
+
+        verify(claimService, never()).claimRecoverable(eq(1L), any(), any());
+        verify(deliveryService, never()).deliverBatch(any(), any());
+    }
+
+    @Test
+    void exhaustedRecipientDomainDoesNotHoldBackOtherCandidates() {
+        EmailQueue other = EmailQueue.builder()
+            .id(2L)
+            .recipient("other@Elsewhere.example")
+            .subject("Other")
+            .htmlContent("<p>Other</p>")
+            .status("FAILED")
+            .retryCount(1)
+            .maxRetries(3)
+            .build();
+        enableRecovery();
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
+            .thenReturn(new PageImpl<>(List.of(queue, other), PageRequest.of(0, 50), 2));
+        when(rateLimiter.tryAcquire(eq("example.com"), any())).thenReturn(null);
+        when(rateLimiter.tryAcquire(eq("elsewhere.example"), any())).thenReturn(reservation);
+        when(claimService.claimRecoverable(eq(2L), any(), any())).thenReturn(true);
+        when(deliveryService.deliverBatch(List.of(2L), "SCHEDULED"))
+            .thenReturn(List.of(EmailDeliveryService.DeliveryOutcome.SUCCESS));
 
-        emailProcessorService.recoverFailedEmails();
+        emailProcessorService.recoverTransactionalEmails();
 
         verify(claimService, never()).claimRecoverable(eq(1L), any(), any());
-        verify(deliveryService, never()).deliver(1L, "SCHEDULED");
+        verify(deliveryService).deliverBatch(List.of(2L), "SCHEDULED");
     }
 
     @Test
-    void eachClaimedCandidateIsDeliveredOnce() {
+    void claimedCandidatesShareOneSmtpSession() {
         EmailQueue second = EmailQueue.builder()
             .id(2L)
             .recipient("second@example.com")
@@ -149,53 +185,193 @@ class EmailProcessorServiceTest {
             .maxRetries(3)
             .build();
         enableRecovery();
-        when(emailQueueRepository.findFailedOrStuckEmails(any(), any(), any()))
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
             .thenReturn(new PageImpl<>(List.of(queue, second), PageRequest.of(0, 50), 2));
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimRecoverable(any(), any(), any())).thenReturn(true);
-        when(deliveryService.deliver(any(), eq("SCHEDULED")))
-            .thenReturn(EmailDeliveryService.DeliveryOutcome.SUCCESS);
+        when(deliveryService.deliverBatch(List.of(1L, 2L), "SCHEDULED"))
+            .thenReturn(List.of(
+                EmailDeliveryService.DeliveryOutcome.SUCCESS,
+                EmailDeliveryService.DeliveryOutcome.SUCCESS
+            ));
 
-        emailProcessorService.recoverFailedEmails();
+        emailProcessorService.recoverTransactionalEmails();
 
-        verify(deliveryService, times(2)).deliver(any(), eq("SCHEDULED"));
+        verify(deliveryService, times(1)).deliverBatch(any(), any());
+        verify(reservation, never()).release();
     }
 
     @Test
     void claimFailureReleasesTheReservedRateLimitSlot() {
         enableRecovery();
-        when(emailQueueRepository.findFailedOrStuckEmails(any(), any(), any()))
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
             .thenReturn(new PageImpl<>(List.of(queue), PageRequest.of(0, 50), 1));
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         doThrow(new IllegalStateException("claim unavailable"))
             .when(claimService)
             .claimRecoverable(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class));
 
-        emailProcessorService.recoverFailedEmails();
+        emailProcessorService.recoverTransactionalEmails();
 
         verify(reservation).release();
-        verify(deliveryService, never()).deliver(1L, "SCHEDULED");
+        verify(deliveryService, never()).deliverBatch(any(), any());
     }
 
     @Test
     void deliveryFailureKeepsTheConsumedRateLimitSlot() {
         enableRecovery();
-        when(emailQueueRepository.findFailedOrStuckEmails(any(), any(), any()))
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
             .thenReturn(new PageImpl<>(List.of(queue), PageRequest.of(0, 50), 1));
-        when(rateLimiter.tryAcquire()).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
         when(claimService.claimRecoverable(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
             .thenReturn(true);
         doThrow(new IllegalStateException("delivery unavailable"))
             .when(deliveryService)
-            .deliver(1L, "SCHEDULED");
+            .deliverBatch(List.of(1L), "SCHEDULED");
+
+        emailProcessorService.recoverTransactionalEmails();
+
+        verify(reservation, never()).release();
+    }
+
+    @Test
+    void sessionBatchSizeSplitsClaimedCandidates() {
+        EmailQueue second = EmailQueue.builder()
+            .id(2L)
+            .recipient("second@example.com")
+            .subject("Second")
+            .htmlContent("<p>Second</p>")
+            .status("PENDING")
+            .retryCount(1)
+            .maxRetries(3)
+            .build();
+        enableRecovery();
+        smtpPoolConfig.setSessionBatchSize(1);
+        when(emailQueueRepository.findFailedOrStuckEmailsInLane(any(), any(), anyInt(), anyInt(), any()))
+            .thenReturn(new PageImpl<>(List.of(queue, second), PageRequest.of(0, 50), 2));
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(reservation);
+        when(claimService.claimRecoverable(any(), any(), any())).thenReturn(true);
+        when(deliveryService.deliverBatch(List.of(1L), "SCHEDULED"))
+            .thenReturn(List.of(EmailDeliveryService.DeliveryOutcome.SUCCESS));
+        when(deliveryService.deliverBatch(List.of(2L), "SCHEDULED"))
+            .thenReturn(List.of(EmailDeliveryService.DeliveryOutcome.SKIPPED));
+
+        emailProcessorService.recoverTransactionalEmails();
 
-        emailProcessorService.recoverFailedEmails();
+        verify(deliveryService, times(2)).deliverBatch(any(), any());
+        verify(reservation, times(1)).release();
+    }
 
+    @Test
+    void drainClaimsBatchesUntilTheLaneIsEmpty() {
+        EmailProcessorService drainer = drainingService();
+        when(rateLimiter.available(EmailLane.BULK)).thenReturn(2);
+        when(claimService.claimRecoverableBatch(eq(EmailLane.BULK), any(), any(), eq(2)))
+            .thenReturn(List.of(claimed(1L), claimed(2L)))
+            .thenReturn(List.of(claimed(3L)))
+            .thenReturn(List.of());
+        when(rateLimiter.tryAcquire(any(), eq(EmailLane.BULK))).thenReturn(reservation);
+        when(deliveryService.deliverBatch(any(), eq("SCHEDULED")))
+            .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+                .map(id -> EmailDeliveryService.DeliveryOutcome.SUCCESS)
+                .toList());
+
+        drainer.recoverBulkEmails();
+
+        verify(deliveryService).deliverBatch(List.of(1L, 2L), "SCHEDULED");
+        verify(deliveryService).deliverBatch(List.of(3L), "SCHEDULED");
+        verify(claimService, times(3)).claimRecoverableBatch(any(), any(), any(), anyInt());
+        verify(laneMetrics).recordDrained(eq(EmailLane.BULK), eq(2), anyLong());
         verify(reservation, never()).release();
     }
 
+    @Test
+    void drainDefersDomainLimitedClaimsUntilTheDomainHasATokenAgain() {
+        EmailProcessorService drainer = drainingService();
+        when(rateLimiter.available(EmailLane.BULK)).thenReturn(10);
+        when(claimService.claimRecoverableBatch(eq(EmailLane.BULK), any(), any(), eq(10)))
+            .thenReturn(List.of(claimed(1L)))
+            .thenReturn(List.of());
+        when(rateLimiter.tryAcquire(any(), eq(EmailLane.BULK))).thenReturn(null);
+        when(rateLimiter.domainWait("example.com")).thenReturn(Duration.ofSeconds(30));
+        LocalDateTime before = LocalDateTime.now();
+
+        drainer.recoverBulkEmails();
+
+        verify(claimService).releaseClaims(
+            eq(List.of(1L)),
+            any(),
+            argThat(retryTime -> !retryTime.isBefore(before.plusSeconds(30)))
+        );
+        verify(deliveryService, never()).deliverBatch(any(), any());
+    }
+
+    @Test
+    void throttledDomainAtTheHeadOfTheBacklogDoesNotEndTheDrain() {
+        EmailProcessorService drainer = drainingService();
+        when(rateLimiter.available(EmailLane.BULK)).thenReturn(2);
+        // The throttled rows come back first, as they would by created_time;
+        // once deferred, the next claim reaches the other domains.
+        when(claimService.claimRecoverableBatch(eq(EmailLane.BULK), any(), any(), eq(2)))
+            .thenReturn(List.of(claimed(1L, "throttled.example"), claimed(2L, "throttled.example")))
+            .thenReturn(List.of(claimed(3L, "open.example"), claimed(4L, "other.example")))
+            .thenReturn(List.of());
+        when(rateLimiter.tryAcquire(eq("throttled.example"), eq(EmailLane.BULK))).thenReturn(null);
+        when(rateLimiter.tryAcquire(eq("open.example"), eq(EmailLane.BULK))).thenReturn(reservation);
+        when(rateLimiter.tryAcquire(eq("other.example"), eq(EmailLane.BULK))).thenReturn(reservation);
+        when(rateLimiter.domainWait("throttled.example")).thenReturn(Duration.ofMinutes(1));
+        when(deliveryService.deliverBatch(List.of(3L, 4L), "SCHEDULED"))
+            .thenReturn(List.of(
+                EmailDeliveryService.DeliveryOutcome.SUCCESS,
+                EmailDeliveryService.DeliveryOutcome.SUCCESS
+            ));
+
+        drainer.recoverBulkEmails();
+
+        verify(claimService).releaseClaims(eq(List.of(1L, 2L)), any(), any());
+        verify(deliveryService).deliverBatch(List.of(3L, 4L), "SCHEDULED");
+        verify(claimService, times(3)).claimRecoverableBatch(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void exhaustedLimiterEndsTheDrainWithoutClaiming() {
+        EmailProcessorService drainer = drainingService();
+        when(rateLimiter.available(EmailLane.BULK)).thenReturn(0);
+
+        drainer.recoverBulkEmails();
+
+        verify(claimService, never()).claimRecoverableBatch(any(), any(), any(), anyInt());
+    }
+
+    private EmailProcessorService drainingService() {
+        when(recoveryConfig.isEnabled()).thenReturn(true);
+        when(recoveryConfig.isDrainEnabled()).thenReturn(true);
+        lenient().when(recoveryConfig.getStuckTimeoutMinutes()).thenReturn(10);
+        lenient().when(mailProperties.getSmtpPool()).thenReturn(smtpPoolConfig);
+        when(recoveryConfig.getDrainBatchSize()).thenReturn(100);
+        lenient().when(recoveryConfig.getDrainThrottleBackoffMs()).thenReturn(10);
+        return new EmailProcessorService(
+            emailQueueRepository,
+            claimService,
+            deliveryService,
+            rateLimiter,
+            mailProperties,
+            laneMetrics,
+            Runnable::run
+        );
+    }
+
+    private static EmailQueueClaimService.ClaimedEmail claimed(long id) {
+        return claimed(id, "example.com");
+    }
+
+    private static EmailQueueClaimService.ClaimedEmail claimed(long id, String domain) {
+        return new EmailQueueClaimService.ClaimedEmail(id, domain);
+    }
+
     private void enableRecovery() {
         when(recoveryConfig.isEnabled()).thenReturn(true);
         when(recoveryConfig.getStuckTimeoutMinutes()).thenReturn(10);
+        lenient().when(mailProperties.getSmtpPool()).thenReturn(smtpPoolConfig);
     }
 }
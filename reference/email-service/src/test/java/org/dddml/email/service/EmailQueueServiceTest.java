@@ -12,7 +12,7 @@ class EmailQueueServiceTest {
 
     @Test
     void testQueueStats_Creation() {
-        EmailQueueService.QueueStats stats = new EmailQueueService.QueueStats(10, 2, 100, 5);
+        EmailQueueService.QueueStats stats = new EmailQueueService.QueueStats(10, 2, 100, 5, null, null);
 
         assertEquals(10, stats.getPending());
         assertEquals(2, stats.getProcessing());
@@ -0,0 +1,223 @@
+package org.dddml.email.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailQueueStatsServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EmailQueueStatsService stats = new EmailQueueStatsService(
+        jdbcTemplate,
+        TransactionOperations.withoutTransaction()
+    );
+
+    @Test
+    void transitionsMoveCountsBetweenStatusesPerLane() {
+        stats.flush();
+        stats.recordEnqueued(EmailLane.TRANSACTIONAL, 2);
+        stats.recordEnqueued(EmailLane.BULK, 3);
+        stats.recordTransition(EmailLane.TRANSACTIONAL, "PENDING", "PROCESSING");
+        stats.recordTransition(EmailLane.TRANSACTIONAL, "PROCESSING", "COMPLETED");
+        stats.recordTransitions(EmailLane.BULK, "PENDING", "PROCESSING", 2);
+        stats.recordTransitions(EmailLane.BULK, "PROCESSING", "PENDING", 1);
+        stats.recordTransition(EmailLane.BULK, "PROCESSING", "PROCESSING");
+
+        assertThat(stats.count("PENDING", EmailLane.TRANSACTIONAL)).isEqualTo(1);
+        assertThat(stats.count("COMPLETED", EmailLane.TRANSACTIONAL)).isEqualTo(1);
+        assertThat(stats.count("PENDING", EmailLane.BULK)).isEqualTo(2);
+        assertThat(stats.count("PROCESSING", EmailLane.BULK)).isEqualTo(1);
+        assertThat(stats.count("PENDING")).isEqualTo(3);
+        assertThat(stats.count("FAILED")).isZero();
+    }
+
+    @Test
+    void changesApplyOnlyAfterTheTransactionCommits() {
+        stats.flush();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stats.recordEnqueued(EmailLane.BULK, 1);
+            stats.recordDelivery("EVENT", LocalDateTime.now());
+
+            assertThat(stats.count("PENDING")).isZero();
+            assertThat(stats.sendMethodCountsLastHour()).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(stats.count("PENDING")).isEqualTo(1);
+        assertThat(stats.sendMethodCountsLastHour()).containsEntry("EVENT", 1L);
+    }
+
+    @Test
+    void sendMethodCountsCoverOnlyTheLastHour() {
+        stats.flush();
+        LocalDateTime now = LocalDateTime.now();
+        stats.recordDelivery("EVENT", now);
+        stats.recordDelivery("EVENT", now.minusMinutes(30));
+        stats.recordDelivery("SCHEDULED", now.minusMinutes(58));
+        stats.recordDelivery("SCHEDULED", now.minusMinutes(61));
+
+        assertThat(stats.sendMethodCountsLastHour())
+            .containsEntry("EVENT", 2L)
+            .containsEntry("SCHEDULED", 1L);
+    }
+
+    @Test
+    void readsCombineSharedCountsWithUnflushedChanges() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(counterRow("TRANSACTIONAL", "PENDING", 4));
+            handler.processRow(counterRow("BULK", "FAILED", 2));
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT lane, status"), any(RowCallbackHandler.class));
+        LocalDateTime before = LocalDateTime.now();
+        stats.flush();
+
+        stats.recordTransition(EmailLane.TRANSACTIONAL, "PENDING", "PROCESSING");
+
+        assertThat(stats.count("PENDING", EmailLane.TRANSACTIONAL)).isEqualTo(3);
+        assertThat(stats.count("PROCESSING", EmailLane.TRANSACTIONAL)).isEqualTo(1);
+        assertThat(stats.count("FAILED", EmailLane.BULK)).isEqualTo(2);
+        assertThat(stats.lastSyncedTime()).isAfterOrEqualTo(before);
+    }
+
+    @Test
+    void flushAddsCommittedDeltasToTheCounterTablesOnce() {
+        stats.flush();
+        stats.recordEnqueued(EmailLane.BULK, 3);
+        stats.recordTransition(EmailLane.BULK, "PENDING", "PROCESSING");
+        clearInvocations(jdbcTemplate);
+
+        stats.flush();
+
+        verify(jdbcTemplate).batchUpdate(
+            contains("row_count = email_queue_status_counts.row_count + EXCLUDED.row_count"),
+            rowsMatching(
+                List.of("BULK", "PENDING", 2L),
+                List.of("BULK", "PROCESSING", 1L)
+            )
+        );
+
+        clearInvocations(jdbcTemplate);
+        stats.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(
+            contains("email_queue_status_counts.row_count + EXCLUDED.row_count"),
+            anyList()
+        );
+    }
+
+    @Test
+    void failedFlushKeepsTheDeltasForTheNextFlush() {
+        stats.flush();
+        stats.recordEnqueued(EmailLane.BULK, 3);
+        doThrow(new DataAccessResourceFailureException("down"))
+            .when(jdbcTemplate)
+            .batchUpdate(contains("email_queue_status_counts"), anyList());
+
+        stats.flush();
+
+        assertThat(stats.count("PENDING", EmailLane.BULK)).isEqualTo(3);
+    }
+
+    @Test
+    void failedFirstLoadIsRetriedAfterABackoffInsteadOfOnEveryRead() {
+        doThrow(new DataAccessResourceFailureException("down"))
+            .when(jdbcTemplate)
+            .update(startsWith("DELETE FROM email_send_method_counts"), any(Object[].class));
+
+        assertThat(stats.count("PENDING")).isZero();
+        assertThat(stats.count("FAILED")).isZero();
+        assertThat(stats.sendMethodCountsLastHour()).isEmpty();
+        assertThat(stats.lastSyncedTime()).isNull();
+
+        verify(jdbcTemplate, times(1))
+            .update(startsWith("DELETE FROM email_send_method_counts"), any(Object[].class));
+    }
+
+    @Test
+    void reconcileReplacesCountersWithDatabaseCounts() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(queueRow("PENDING", 9, 4));
+            handler.processRow(queueRow("PENDING", 6, 1));
+            handler.processRow(queueRow("FAILED", 5, 2));
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT status"), any(RowCallbackHandler.class));
+
+        LocalDateTime before = LocalDateTime.now();
+        stats.reconcile();
+
+        assertThat(stats.lastReconciledTime()).isAfterOrEqualTo(before);
+        verify(jdbcTemplate).batchUpdate(
+            contains("DO UPDATE SET row_count = EXCLUDED.row_count"),
+            argThat((List<Object[]> rows) ->
+                rows.size() == EmailLane.values().length * EmailQueueStatsService.STATUSES.size()
+                    && containsRows(
+                        rows,
+                        List.of("TRANSACTIONAL", "PENDING", 5L),
+                        List.of("BULK", "PENDING", 0L),
+                        List.of("BULK", "FAILED", 2L)
+                    )
+            )
+        );
+        verify(jdbcTemplate).update(eq("DELETE FROM email_send_method_counts"));
+    }
+
+    private static List<Object[]> rowsMatching(List<?>... expected) {
+        return argThat((List<Object[]> rows) -> rows.size() == expected.length && containsRows(rows, expected));
+    }
+
+    private static boolean containsRows(List<Object[]> rows, List<?>... expected) {
+        for (List<?> row : expected) {
+            if (rows.stream().noneMatch(actual -> List.of(actual).equals(row))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ResultSet queueRow(String status, int priority, long count) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("status")).thenReturn(status);
+        when(resultSet.getInt("priority")).thenReturn(priority);
+        when(resultSet.getLong("row_count")).thenReturn(count);
+        return resultSet;
+    }
+
+    private ResultSet counterRow(String lane, String status, long count) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("lane")).thenReturn(lane);
+        when(resultSet.getString("status")).thenReturn(status);
+        when(resultSet.getLong("row_count")).thenReturn(count);
+        return resultSet;
+    }
+}
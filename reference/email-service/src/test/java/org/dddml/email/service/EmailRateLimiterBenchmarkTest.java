@@ -0,0 +1,72 @@
+package org.dddml.email.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.email.config.MailProperties;
+import org.dddml.email.support.Benchmark;
+import org.dddml.email.support.Throughput;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Acquire-and-release throughput of the rate limiter as contention on the
+ * shared buckets grows from 1 to 64 threads, with the global bucket alone
+ * and with per-domain buckets.
+ */
+@Slf4j
+@Benchmark
+class EmailRateLimiterBenchmarkTest {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+    private static final int WARMUP_OPERATIONS_PER_THREAD = 20_000;
+    private static final List<String> DOMAINS = List.of(
+        "d0.example", "d1.example", "d2.example", "d3.example",
+        "d4.example", "d5.example", "d6.example", "d7.example"
+    );
+
+    @Test
+    void measureAcquireAndReleaseUnderContention() throws Exception {
+        EmailRateLimiter globalOnly = limiter(0);
+        EmailRateLimiter withDomains = limiter(Integer.MAX_VALUE / 4);
+
+        for (int threads : THREADS) {
+            double globalPerSecond = acquireAndReleaseRate(globalOnly, threads);
+            double domainPerSecond = acquireAndReleaseRate(withDomains, threads);
+            log.info(
+                "Email rate limiter throughput [threads={}, operations={}, global={}/s, domains={}/s]",
+                threads,
+                threads * OPERATIONS_PER_THREAD,
+                Math.round(globalPerSecond),
+                Math.round(domainPerSecond)
+            );
+        }
+    }
+
+    private static EmailRateLimiter limiter(int domainMaxPerMinute) {
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.getRateLimit().setEnabled(true);
+        mailProperties.getRateLimit().setMaxPerMinute(Integer.MAX_VALUE / 2);
+        mailProperties.getRateLimit().setDomainMaxPerMinute(domainMaxPerMinute);
+        return new EmailRateLimiter(mailProperties);
+    }
+
+    private static double acquireAndReleaseRate(
+        EmailRateLimiter rateLimiter,
+        int threads) throws Exception {
+        return Throughput.perSecond(
+            threads,
+            WARMUP_OPERATIONS_PER_THREAD,
+            OPERATIONS_PER_THREAD,
+            (thread, operation) -> {
+                EmailRateLimiter.Reservation reservation =
+                    rateLimiter.tryAcquire(DOMAINS.get(thread % DOMAINS.size()));
+                if (reservation == null) {
+                    return false;
+                }
+                reservation.release();
+                return true;
+            }
+        );
+    }
+}
@@ -3,15 +3,25 @@ package org.dddml.email.service;
 import org.dddml.email.config.MailProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class EmailRateLimiterTest {
 
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
     private MailProperties mailProperties;
+    private AtomicLong nanos;
     private EmailRateLimiter rateLimiter;
 
     @BeforeEach
@@ -19,22 +29,52 @@ class EmailRateLimiterTest {
         mailProperties = new MailProperties();
         mailProperties.getRateLimit().setEnabled(true);
         mailProperties.getRateLimit().setMaxPerMinute(1);
-        rateLimiter = new EmailRateLimiter(mailProperties);
+        nanos = new AtomicLong(1_000L);
+        rateLimiter = new EmailRateLimiter(mailProperties, nanos::get);
     }
 
     @Test
-    void previousWindowReleaseDoesNotFreeTheCurrentWindowReservation() {
+    void releaseLongAfterTheEmissionIntervalStillReturnsAnOwedToken() {
+        mailProperties.getRateLimit().setMaxPerMinute(6);
+        EmailRateLimiter.Reservation held = null;
+        for (int i = 0; i < 6; i++) {
+            held = rateLimiter.tryAcquire();
+            assertThat(held).isNotNull();
+        }
+
+        // Three emission intervals later the last token's slot is still
+        // ahead of the clock, so it is still owed.
+        nanos.addAndGet(MINUTE / 2);
+        held.release();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(rateLimiter.tryAcquire()).isNotNull();
+        }
+        assertThat(rateLimiter.tryAcquire()).isNull();
+    }
+
+    @Test
+    void lateReleaseDoesNotRefundATokenTakenInTheCurrentWindow() {
         EmailRateLimiter.Reservation previousWindow = rateLimiter.tryAcquire();
         assertThat(previousWindow).isNotNull();
 
-        expireCurrentWindow();
-        EmailRateLimiter.Reservation currentWindow = rateLimiter.tryAcquire();
-        assertThat(currentWindow).isNotNull();
+        nanos.addAndGet(MINUTE);
+        assertThat(rateLimiter.tryAcquire()).isNotNull();
+        previousWindow.release();
+
+        assertThat(rateLimiter.tryAcquire()).isNull();
+    }
+
+    @Test
+    void lateReleaseNeverFillsTheBucketPastItsSize() {
+        EmailRateLimiter.Reservation previousWindow = rateLimiter.tryAcquire();
+        assertThat(previousWindow).isNotNull();
 
+        nanos.addAndGet(MINUTE);
         previousWindow.release();
 
+        assertThat(rateLimiter.tryAcquire()).isNotNull();
         assertThat(rateLimiter.tryAcquire()).isNull();
-        currentWindow.release();
     }
 
     @Test
@@ -93,11 +133,218 @@ class EmailRateLimiterTest {
         assertThat(rateLimiter.tryAcquire()).isNull();
     }
 
-    private void expireCurrentWindow() {
-        ReflectionTestUtils.setField(
-            rateLimiter,
-            "windowStartedAt",
-            System.nanoTime() - Duration.ofMinutes(1).toNanos()
-        );
+    @Test
+    void tokensRefillAtTheConfiguredRateWithoutExceedingTheBucket() {
+        mailProperties.getRateLimit().setMaxPerMinute(6);
+        for (int i = 0; i < 6; i++) {
+            assertThat(rateLimiter.tryAcquire()).isNotNull();
+        }
+        assertThat(rateLimiter.tryAcquire()).isNull();
+
+        nanos.addAndGet(MINUTE / 6);
+        assertThat(rateLimiter.tryAcquire()).isNotNull();
+        assertThat(rateLimiter.tryAcquire()).isNull();
+
+        nanos.addAndGet(10 * MINUTE);
+        int granted = 0;
+        while (rateLimiter.tryAcquire() != null) {
+            granted++;
+        }
+        assertThat(granted).isEqualTo(6);
+    }
+
+    @Test
+    void bulkLaneCannotUseTheTransactionalReservation() {
+        mailProperties.getRateLimit().setMaxPerMinute(5);
+        mailProperties.getRateLimit().setTransactionalReservedPerMinute(2);
+
+        int bulkGranted = 0;
+        while (rateLimiter.tryAcquire(null, EmailLane.BULK) != null) {
+            bulkGranted++;
+        }
+
+        assertThat(bulkGranted).isEqualTo(3);
+        assertThat(rateLimiter.tryAcquire(null, EmailLane.TRANSACTIONAL)).isNotNull();
+        assertThat(rateLimiter.tryAcquire(null, EmailLane.TRANSACTIONAL)).isNotNull();
+        assertThat(rateLimiter.tryAcquire(null, EmailLane.TRANSACTIONAL)).isNull();
+    }
+
+    @Test
+    void bulkReleaseReturnsTheBulkToken() {
+        mailProperties.getRateLimit().setMaxPerMinute(3);
+        mailProperties.getRateLimit().setTransactionalReservedPerMinute(2);
+        EmailRateLimiter.Reservation reservation =
+            rateLimiter.tryAcquire(null, EmailLane.BULK);
+        assertThat(reservation).isNotNull();
+        assertThat(rateLimiter.tryAcquire(null, EmailLane.BULK)).isNull();
+
+        reservation.release();
+
+        assertThat(rateLimiter.tryAcquire(null, EmailLane.BULK)).isNotNull();
+    }
+
+    @Test
+    void availableReportsWhatTheLaneBucketsWouldGrant() {
+        mailProperties.getRateLimit().setMaxPerMinute(5);
+        mailProperties.getRateLimit().setTransactionalReservedPerMinute(2);
+        assertThat(rateLimiter.available(EmailLane.TRANSACTIONAL)).isEqualTo(5);
+        assertThat(rateLimiter.available(EmailLane.BULK)).isEqualTo(3);
+
+        rateLimiter.tryAcquire(null, EmailLane.BULK);
+        rateLimiter.tryAcquire(null, EmailLane.TRANSACTIONAL);
+
+        assertThat(rateLimiter.available(EmailLane.TRANSACTIONAL)).isEqualTo(3);
+        assertThat(rateLimiter.available(EmailLane.BULK)).isEqualTo(2);
+
+        nanos.addAndGet(MINUTE);
+        assertThat(rateLimiter.available(EmailLane.TRANSACTIONAL)).isEqualTo(5);
+    }
+
+    @Test
+    void disabledLimiterHasNoDrainBudgetCap() {
+        mailProperties.getRateLimit().setEnabled(false);
+
+        assertThat(rateLimiter.available(EmailLane.BULK)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void exhaustedDomainDoesNotBlockOtherDomains() {
+        mailProperties.getRateLimit().setMaxPerMinute(10);
+        mailProperties.getRateLimit().setDomainMaxPerMinute(1);
+
+        assertThat(rateLimiter.tryAcquire("slow.example")).isNotNull();
+        assertThat(rateLimiter.tryAcquire("slow.example")).isNull();
+
+        assertThat(rateLimiter.tryAcquire("other.example")).isNotNull();
+        assertThat(rateLimiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void domainWaitIsTheTimeUntilTheDomainBucketGrantsAgain() {
+        mailProperties.getRateLimit().setMaxPerMinute(10);
+        mailProperties.getRateLimit().setDomainMaxPerMinute(2);
+        assertThat(rateLimiter.domainWait("slow.example")).isZero();
+
+        rateLimiter.tryAcquire("slow.example");
+        rateLimiter.tryAcquire("slow.example");
+        assertThat(rateLimiter.domainWait("slow.example"))
+            .isEqualTo(Duration.ofSeconds(30));
+
+        nanos.addAndGet(MINUTE / 2);
+        assertThat(rateLimiter.domainWait("slow.example")).isZero();
+        assertThat(rateLimiter.tryAcquire("slow.example")).isNotNull();
+        assertThat(rateLimiter.domainWait("other.example")).isZero();
+    }
+
+    @Test
+    void domainOverrideReplacesTheDefaultDomainLimit() {
+        mailProperties.getRateLimit().setMaxPerMinute(10);
+        mailProperties.getRateLimit().setDomainMaxPerMinute(1);
+        mailProperties.getRateLimit().getDomains().put("bulk.example", 3);
+        mailProperties.getRateLimit().getDomains().put("exempt.example", 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("bulk.example")).isNotNull();
+        }
+        assertThat(rateLimiter.tryAcquire("bulk.example")).isNull();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire("exempt.example")).isNotNull();
+        }
+    }
+
+    @Test
+    void globalDenialGivesTheDomainTokenBack() {
+        mailProperties.getRateLimit().setDomainMaxPerMinute(1);
+        assertThat(rateLimiter.tryAcquire("first.example")).isNotNull();
+
+        assertThat(rateLimiter.tryAcquire("second.example")).isNull();
+
+        nanos.addAndGet(MINUTE);
+        assertThat(rateLimiter.tryAcquire("second.example")).isNotNull();
+    }
+
+    @Test
+    void releaseReturnsBothDomainAndGlobalTokens() {
+        mailProperties.getRateLimit().setDomainMaxPerMinute(1);
+        EmailRateLimiter.Reservation reservation =
+            rateLimiter.tryAcquire("example.com");
+        assertThat(reservation).isNotNull();
+
+        reservation.release();
+
+        assertThat(rateLimiter.tryAcquire("example.com")).isNotNull();
+    }
+
+    @Test
+    void trackedDomainsStayBoundedAndIdleBucketsAreEvictedFirst() {
+        mailProperties.getRateLimit().setMaxPerMinute(1000);
+        mailProperties.getRateLimit().setDomainMaxPerMinute(1);
+        mailProperties.getRateLimit().setMaxTrackedDomains(3);
+
+        assertThat(rateLimiter.tryAcquire("busy.example")).isNotNull();
+        nanos.addAndGet(MINUTE / 2);
+        assertThat(rateLimiter.tryAcquire("idle-1.example")).isNotNull();
+        assertThat(rateLimiter.tryAcquire("idle-2.example")).isNotNull();
+        nanos.addAndGet(MINUTE / 2);
+        // busy.example has refilled; the two later domains are still drawn.
+        assertThat(rateLimiter.tryAcquire("new.example")).isNotNull();
+
+        assertThat(rateLimiter.trackedDomains()).isLessThanOrEqualTo(3);
+        assertThat(rateLimiter.tryAcquire("idle-1.example")).isNull();
+        assertThat(rateLimiter.tryAcquire("idle-2.example")).isNull();
+    }
+
+    @Test
+    void domainOfNormalizesTheAddressDomain() {
+        assertThat(EmailRateLimiter.domainOf("User@Example.COM")).isEqualTo("example.com");
+        assertThat(EmailRateLimiter.domainOf("no-domain")).isNull();
+        assertThat(EmailRateLimiter.domainOf("trailing@")).isNull();
+        assertThat(EmailRateLimiter.domainOf(null)).isNull();
+    }
+
+    @Test
+    void concurrentAcquirersNeverExceedTheBucket() throws Exception {
+        mailProperties.getRateLimit().setMaxPerMinute(500);
+        mailProperties.getRateLimit().setDomainMaxPerMinute(50);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String domain = "d" + (t % 4) + ".example";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        EmailRateLimiter.Reservation reservation =
+                            rateLimiter.tryAcquire(domain);
+                        if (reservation != null) {
+                            granted++;
+                            if (i % 3 == 0) {
+                                reservation.release();
+                                granted--;
+                            }
+                        }
+                    }
+                    return granted;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get(30, TimeUnit.SECONDS);
+            }
+            for (int d = 0; d < 4; d++) {
+                while (rateLimiter.tryAcquire("d" + d + ".example") != null) {
+                    total++;
+                }
+            }
+
+            assertThat(total).isEqualTo(4 * 50);
+        } finally {
+            executor.shutdownNow();
+        }
     }
 }
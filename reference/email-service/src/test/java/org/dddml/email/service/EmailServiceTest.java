@@ -1,14 +1,32 @@
 package org.dddml.email.service;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
 import org.dddml.email.config.MailProperties;
+import org.dddml.email.entity.EmailLog;
 import org.dddml.email.entity.EmailQueue;
 import org.dddml.email.repository.EmailLogRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class EmailServiceValidationTest {
 
@@ -66,7 +84,8 @@ class EmailServiceValidationTest {
     private EmailService newEmailService(MailProperties mailProperties) {
         return new EmailService(
             mock(JavaMailSender.class),
-            mock(TemplateEngine.class),
+            mock(SmtpTransportPool.class),
+            mock(EmailTemplateRenderer.class),
             mock(EmailLogRepository.class),
             mock(EmailQueueService.class),
             mailProperties
@@ -90,6 +109,187 @@ class EmailServiceValidationTest {
         );
     }
 
+    @Test
+    void templateBatchRejectsInvalidItemsAndEnqueuesTheRestTogether() {
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        EmailQueueService emailQueueService = mock(EmailQueueService.class);
+        when(templateEngine.process(anyString(), any(IContext.class)))
+            .thenReturn("<p>rendered</p>");
+        when(emailQueueService.enqueueIdempotentBatch(anyList(), any()))
+            .thenReturn(List.of(new EmailQueueService.BatchReceipt(
+                EmailQueueService.BatchOutcome.CREATED,
+                11L,
+                "PENDING"
+            )));
+        EmailService emailService = new EmailService(
+            mock(JavaMailSender.class),
+            mock(SmtpTransportPool.class),
+            new EmailTemplateRenderer(templateEngine, new MailProperties()),
+            mock(EmailLogRepository.class),
+            emailQueueService,
+            new MailProperties()
+        );
+        Map<String, Object> variables = Map.of(
+            "username", "user@example.com",
+            "verificationCode", "123456",
+            "expiryMinutes", 10
+        );
+
+        List<EmailQueueService.BatchReceipt> receipts =
+            emailService.sendTemplateEmailBatch(List.of(
+                new EmailService.TemplateEmail(
+                    "not-an-email",
+                    "Verify",
+                    "email/email-verify",
+                    variables,
+                    "VERIFICATION",
+                    "email-challenge:invalid"
+                ),
+                new EmailService.TemplateEmail(
+                    "user@example.com",
+                    "Verify",
+                    "email/email-verify",
+                    variables,
+                    "VERIFICATION",
+                    "email-challenge:valid"
+                ),
+                new EmailService.TemplateEmail(
+                    "user@example.com",
+                    "Verify",
+                    "email/email-verify",
+                    variables,
+                    "VERIFICATION",
+                    null
+                )
+            ));
+
+        assertEquals(3, receipts.size());
+        assertEquals(EmailQueueService.BatchOutcome.REJECTED, receipts.get(0).outcome());
+        assertEquals(11L, receipts.get(1).queueId());
+        assertEquals(EmailQueueService.BatchOutcome.REJECTED, receipts.get(2).outcome());
+        verify(emailQueueService).enqueueIdempotentBatch(argThat(items ->
+            items.size() == 1
+                && "email-challenge:valid".equals(items.get(0).idempotencyKey())
+        ), eq(EmailLane.TRANSACTIONAL));
+    }
+
+    @Test
+    void directBatchMapsEachSmtpOutcomeToItsOwnLog() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        SmtpTransportPool transportPool = mock(SmtpTransportPool.class);
+        EmailLogRepository emailLogRepository = mock(EmailLogRepository.class);
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setFromEmail("noreply@example.com");
+        mailProperties.setFromName("UniAuth");
+        when(mailSender.createMimeMessage())
+            .thenAnswer(invocation -> new MimeMessage((Session) null));
+        List<SmtpTransportPool.SendOutcome> outcomes = List.of(
+            new SmtpTransportPool.SendOutcome(null, 12),
+            new SmtpTransportPool.SendOutcome(new MessagingException("rejected"), 3)
+        );
+        when(transportPool.send(anyList(), any(), any())).thenAnswer(invocation -> {
+            ObjIntConsumer<SmtpTransportPool.SendOutcome> onOutcome = invocation.getArgument(2);
+            for (int i = 0; i < outcomes.size(); i++) {
+                onOutcome.accept(outcomes.get(i), i);
+            }
+            return outcomes;
+        });
+        when(emailLogRepository.saveAll(anyList()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        EmailService emailService = new EmailService(
+            mailSender,
+            transportPool,
+            mock(EmailTemplateRenderer.class),
+            emailLogRepository,
+            mock(EmailQueueService.class),
+            mailProperties
+        );
+
+        List<EmailLog> logs = emailService.sendEmailsDirectly(
+            List.of(
+                processingQueue(1L, "first@example.com"),
+                processingQueue(2L, "not-an-email"),
+                processingQueue(3L, "third@example.com")
+            ),
+            "SCHEDULED"
+        );
+
+        assertEquals(3, logs.size());
+        assertEquals("SUCCESS", logs.get(0).getStatus());
+        assertEquals(12L, logs.get(0).getDurationMs());
+        assertEquals("FAILED", logs.get(1).getStatus());
+        assertEquals("undisclosed@example.invalid", logs.get(1).getRecipient());
+        assertEquals("FAILED", logs.get(2).getStatus());
+        assertEquals("SMTP delivery failed", logs.get(2).getErrorMessage());
+        assertEquals(3L, logs.get(2).getQueueId());
+        verify(transportPool).send(
+            argThat(messages -> messages.size() == 2),
+            eq(EmailLane.BULK),
+            any()
+        );
+    }
+
+    @Test
+    void directBatchHandsOverEachResultBeforeTheNextSendAndStopsWhenTheHandlerFails() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        SmtpTransportPool transportPool = mock(SmtpTransportPool.class);
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setFromEmail("noreply@example.com");
+        mailProperties.setFromName("UniAuth");
+        when(mailSender.createMimeMessage())
+            .thenAnswer(invocation -> new MimeMessage((Session) null));
+        List<Integer> sent = new ArrayList<>();
+        when(transportPool.send(anyList(), any(), any())).thenAnswer(invocation -> {
+            List<MimeMessage> messages = invocation.getArgument(0);
+            ObjIntConsumer<SmtpTransportPool.SendOutcome> onOutcome = invocation.getArgument(2);
+            for (int i = 0; i < messages.size(); i++) {
+                sent.add(i);
+                onOutcome.accept(new SmtpTransportPool.SendOutcome(null, 1), i);
+            }
+            return List.of();
+        });
+        EmailLogRepository emailLogRepository = mock(EmailLogRepository.class);
+        EmailService emailService = new EmailService(
+            mailSender,
+            transportPool,
+            mock(EmailTemplateRenderer.class),
+            emailLogRepository,
+            mock(EmailQueueService.class),
+            mailProperties
+        );
+        List<Long> handled = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> emailService.sendEmailsDirectly(
+            List.of(
+                processingQueue(1L, "first@example.com"),
+                processingQueue(2L, "second@example.com"),
+                processingQueue(3L, "third@example.com")
+            ),
+            "SCHEDULED",
+            (emailQueue, emailLog) -> {
+                assertEquals("SUCCESS", emailLog.getStatus());
+                handled.add(emailQueue.getId());
+                if (emailQueue.getId() == 2L) {
+                    throw new IllegalStateException("commit failed");
+                }
+            }
+        ));
+
+        assertEquals(List.of(1L, 2L), handled);
+        assertEquals(List.of(0, 1), sent);
+        verify(emailLogRepository, never()).saveAll(anyList());
+    }
+
+    private EmailQueue processingQueue(Long id, String recipient) {
+        return EmailQueue.builder()
+            .id(id)
+            .recipient(recipient)
+            .subject("Subject")
+            .htmlContent("<p>Content</p>")
+            .status("PROCESSING")
+            .build();
+    }
+
     @Test
     void testEmailQueue_Builder() {
         EmailQueue queue = EmailQueue.builder()
@@ -0,0 +1,75 @@
+package org.dddml.email.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.email.config.MailProperties;
+import org.dddml.email.support.Benchmark;
+import org.dddml.email.support.Throughput;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-thread render rate of the spliced-segment renderer against plain
+ * Thymeleaf for the transactional templates, with fresh variables on every
+ * render.
+ */
+@Slf4j
+@Benchmark
+class EmailTemplateRendererBenchmarkTest {
+
+    private static final List<String> TEMPLATES = List.of(
+        "email/email-verify",
+        "email/password-reset",
+        "email/welcome"
+    );
+    private static final int RENDERS = 100_000;
+    private static final int WARMUP_RENDERS = 20_000;
+
+    @Test
+    void compareSplicedAndThymeleafRenderRate() {
+        SpringTemplateEngine templateEngine = templateEngine();
+        MailProperties thymeleafOnly = new MailProperties();
+        thymeleafOnly.getTemplate().setCompiled(false);
+        EmailTemplateRenderer spliced =
+            new EmailTemplateRenderer(templateEngine, new MailProperties());
+        EmailTemplateRenderer thymeleaf =
+            new EmailTemplateRenderer(templateEngine, thymeleafOnly);
+
+        double splicedPerSecond = renderRate(spliced);
+        double thymeleafPerSecond = renderRate(thymeleaf);
+
+        log.info(
+            "Email template render rate [renders={}, spliced={}/s, thymeleaf={}/s, speedup={}x]",
+            RENDERS,
+            Math.round(splicedPerSecond),
+            Math.round(thymeleafPerSecond),
+            Math.round(splicedPerSecond / thymeleafPerSecond * 10) / 10.0
+        );
+    }
+
+    private static double renderRate(EmailTemplateRenderer renderer) {
+        return Throughput.perSecond(WARMUP_RENDERS, RENDERS, i -> !renderer.render(
+            TEMPLATES.get(i % TEMPLATES.size()),
+            Map.of(
+                "username", "user" + i + "@example.com",
+                "verificationCode", String.format("%06d", i % 1_000_000),
+                "expiryMinutes", 5 + i % 10
+            )
+        ).isEmpty());
+    }
+
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+}
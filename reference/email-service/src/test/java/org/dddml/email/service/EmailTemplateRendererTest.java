@@ -0,0 +1,149 @@
+package org.dddml.email.service;
+
+import org.dddml.email.config.MailProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmailTemplateRendererTest {
+
+    private static final List<String> TEMPLATES = List.of(
+        "email/email-verify",
+        "email/password-reset",
+        "email/welcome"
+    );
+    private static final String[] FRAGMENTS = {
+        "a", "Z", "9", " ", "<", ">", "&", "\"", "'", "&amp;", "<script>",
+        "é", "中", "📧", "tplslot", "${x}", "[[x]]", "\n"
+    };
+
+    private SpringTemplateEngine templateEngine;
+    private MailProperties mailProperties;
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = spy(new SpringTemplateEngine());
+        templateEngine.setTemplateResolver(resolver);
+        mailProperties = new MailProperties();
+        renderer = new EmailTemplateRenderer(templateEngine, mailProperties);
+    }
+
+    @Test
+    void compiledRenderingMatchesThymeleafForRandomizedVariables() {
+        Random random = new Random(37);
+        MailProperties thymeleafOnly = new MailProperties();
+        thymeleafOnly.getTemplate().setCompiled(false);
+        EmailTemplateRenderer reference =
+            new EmailTemplateRenderer(templateEngine, thymeleafOnly);
+
+        for (int i = 0; i < 500; i++) {
+            String template = TEMPLATES.get(random.nextInt(TEMPLATES.size()));
+            Map<String, Object> variables = new HashMap<>();
+            for (String name : List.of(
+                    "username",
+                    "verificationCode",
+                    "expiryMinutes",
+                    "verifyUrl",
+                    "siteName",
+                    "baseUrl")) {
+                Object value = randomValue(random);
+                if (value != null) {
+                    variables.put(name, value);
+                }
+            }
+
+            assertThat(renderer.render(template, variables))
+                .as("%s with %s", template, variables)
+                .isEqualTo(reference.render(template, variables));
+        }
+    }
+
+    @Test
+    void compiledTemplateIsReusedWithoutCallingThymeleaf() {
+        Map<String, Object> variables = Map.of(
+            "username", "user@example.com",
+            "verificationCode", "123456",
+            "expiryMinutes", 10
+        );
+        renderer.render("email/email-verify", variables);
+        clearInvocations(templateEngine);
+
+        String html = renderer.render("email/email-verify", Map.of(
+            "username", "other@example.com",
+            "verificationCode", "654321",
+            "expiryMinutes", 15
+        ));
+
+        assertThat(html).contains("654321", "other@example.com", ">15<");
+        verify(templateEngine, never()).process(any(String.class), any(IContext.class));
+    }
+
+    @Test
+    void templatesWithConditionalsAreRenderedByThymeleaf() {
+        Map<String, Object> variables = Map.of("username", "<b>user</b>");
+
+        String html = renderer.render("test/conditional", variables);
+        renderer.render("test/conditional", variables);
+
+        assertThat(html).contains("&lt;b&gt;user&lt;/b&gt;").doesNotContain("Code:");
+        verify(templateEngine, times(2))
+            .process(eq("test/conditional"), any(IContext.class));
+    }
+
+    @Test
+    void unsupportedValueTypesAreRenderedByThymeleaf() {
+        Map<String, Object> variables = Map.of(
+            "username", "user@example.com",
+            "verificationCode", "123456",
+            "expiryMinutes", 10.5
+        );
+
+        String html = renderer.render("email/password-reset", variables);
+
+        assertThat(html).contains("10.5");
+        verify(templateEngine, atLeast(1))
+            .process(eq("email/password-reset"), any(IContext.class));
+    }
+
+    private static Object randomValue(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return null;
+            case 1:
+                return "";
+            case 2:
+                return random.nextInt(10081);
+            default:
+                StringBuilder text = new StringBuilder();
+                int length = 1 + random.nextInt(6);
+                for (int i = 0; i < length; i++) {
+                    text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                }
+                return text.toString();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.dddml.email.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.dddml.email.config.MailProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmtpTransportPoolTest {
+
+    private GreenMail smtp;
+    private JavaMailSenderImpl mailSender;
+    private MailProperties mailProperties;
+    private AtomicLong nanos;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() {
+        smtp = new GreenMail(new ServerSetup(0, "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+        smtp.start();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.getSmtp().getPort());
+        mailProperties = new MailProperties();
+        mailProperties.getSmtpPool().setMaxConnections(2);
+        nanos = new AtomicLong(1_000L);
+        pool = new SmtpTransportPool(mailSender, mailProperties, nanos::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+        smtp.stop();
+    }
+
+    @Test
+    void batchesShareOneConnectionAcrossCalls() throws Exception {
+        List<SmtpTransportPool.SendOutcome> first = pool.send(List.of(
+            message("one@example.test"),
+            message("two@example.test")
+        ));
+        List<SmtpTransportPool.SendOutcome> second = pool.send(List.of(
+            message("three@example.test")
+        ));
+
+        assertThat(first).allMatch(SmtpTransportPool.SendOutcome::isSent);
+        assertThat(second).allMatch(SmtpTransportPool.SendOutcome::isSent);
+        assertThat(smtp.getReceivedMessages()).hasSize(3);
+        assertThat(pool.openConnections()).isEqualTo(1);
+        assertThat(pool.idleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedMessageDoesNotFailTheRestOfTheSession() throws Exception {
+        MimeMessage withoutRecipient = mailSender.createMimeMessage();
+        new MimeMessageHelper(withoutRecipient, "UTF-8").setText("body");
+
+        List<SmtpTransportPool.SendOutcome> outcomes = pool.send(List.of(
+            message("one@example.test"),
+            withoutRecipient,
+            message("three@example.test")
+        ));
+
+        assertThat(outcomes).extracting(SmtpTransportPool.SendOutcome::isSent)
+            .containsExactly(true, false, true);
+        assertThat(smtp.getReceivedMessages()).hasSize(2);
+        assertThat(pool.openConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void eachOutcomeIsReportedBeforeTheNextMessageIsSent() throws Exception {
+        List<Integer> receivedWhenReported = new ArrayList<>();
+
+        assertThatThrownBy(() -> pool.send(
+            List.of(
+                message("one@example.test"),
+                message("two@example.test"),
+                message("three@example.test")
+            ),
+            EmailLane.TRANSACTIONAL,
+            (outcome, index) -> {
+                receivedWhenReported.add(smtp.getReceivedMessages().length);
+                if (index == 1) {
+                    throw new IllegalStateException("commit failed");
+                }
+            }
+        )).isInstanceOf(IllegalStateException.class);
+
+        assertThat(receivedWhenReported).containsExactly(1, 2);
+        assertThat(smtp.getReceivedMessages()).hasSize(2);
+        assertThat(pool.idleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void unreachableServerFailsEveryMessageWithoutThrowing() throws Exception {
+        mailSender.setPort(1);
+
+        List<SmtpTransportPool.SendOutcome> outcomes = pool.send(List.of(
+            message("one@example.test"),
+            message("two@example.test")
+        ));
+
+        assertThat(outcomes).noneMatch(SmtpTransportPool.SendOutcome::isSent);
+        assertThat(pool.openConnections()).isZero();
+    }
+
+    @Test
+    void changedEndpointRetiresPooledConnections() throws Exception {
+        pool.send(List.of(message("one@example.test")));
+        mailSender.setPort(1);
+
+        List<SmtpTransportPool.SendOutcome> outcomes = pool.send(List.of(
+            message("two@example.test")
+        ));
+
+        assertThat(outcomes).noneMatch(SmtpTransportPool.SendOutcome::isSent);
+        assertThat(smtp.getReceivedMessages()).hasSize(1);
+        assertThat(pool.openConnections()).isZero();
+    }
+
+    @Test
+    void messageCapClosesTheConnection() throws Exception {
+        mailProperties.getSmtpPool().setMaxMessagesPerConnection(2);
+
+        pool.send(List.of(
+            message("one@example.test"),
+            message("two@example.test"),
+            message("three@example.test")
+        ));
+
+        assertThat(smtp.getReceivedMessages()).hasSize(3);
+        assertThat(pool.openConnections()).isEqualTo(1);
+        assertThat(pool.idleConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void idleConnectionsAreClosedAfterTheIdleTimeout() throws Exception {
+        pool.send(List.of(message("one@example.test")));
+
+        nanos.addAndGet(Duration.ofSeconds(
+            mailProperties.getSmtpPool().getMaxIdleSeconds() + 1
+        ).toNanos());
+        pool.evictIdle();
+
+        assertThat(pool.openConnections()).isZero();
+        assertThat(pool.idleConnections()).isZero();
+    }
+
+    @Test
+    void disabledPoolSendsThroughTheMailSender() throws Exception {
+        mailProperties.getSmtpPool().setEnabled(false);
+
+        List<SmtpTransportPool.SendOutcome> outcomes = pool.send(List.of(
+            message("one@example.test")
+        ));
+
+        assertThat(outcomes).allMatch(SmtpTransportPool.SendOutcome::isSent);
+        assertThat(smtp.getReceivedMessages()).hasSize(1);
+        assertThat(pool.openConnections()).isZero();
+    }
+
+    @Test
+    void bulkSendsLeaveAConnectionForTransactionalMail() throws Exception {
+        mailProperties.getSmtpPool().setBorrowTimeoutMs(100);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<SmtpTransportPool.SendOutcome>> heldBulk =
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.send(
+                        List.of(blockingMessage("held@example.test", sending, release)),
+                        EmailLane.BULK
+                    );
+                } catch (Exception exception) {
+                    throw new IllegalStateException(exception);
+                }
+            });
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            List<SmtpTransportPool.SendOutcome> bulk = pool.send(
+                List.of(message("bulk@example.test")),
+                EmailLane.BULK
+            );
+            List<SmtpTransportPool.SendOutcome> transactional = pool.send(
+                List.of(message("otp@example.test"))
+            );
+
+            assertThat(bulk).noneMatch(SmtpTransportPool.SendOutcome::isSent);
+            assertThat(transactional).allMatch(SmtpTransportPool.SendOutcome::isSent);
+        } finally {
+            release.countDown();
+        }
+        assertThat(heldBulk.get(5, TimeUnit.SECONDS))
+            .allMatch(SmtpTransportPool.SendOutcome::isSent);
+        assertThat(smtp.getReceivedMessages()).hasSize(2);
+    }
+
+    private MimeMessage blockingMessage(
+            String recipient,
+            CountDownLatch sending,
+            CountDownLatch release) throws Exception {
+        MimeMessage message = new MimeMessage(mailSender.getSession()) {
+            @Override
+            public Address[] getAllRecipients() throws MessagingException {
+                sending.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getAllRecipients();
+            }
+        };
+        return fill(message, recipient);
+    }
+
+    private MimeMessage message(String recipient) throws Exception {
+        return fill(mailSender.createMimeMessage(), recipient);
+    }
+
+    private MimeMessage fill(MimeMessage message, String recipient) throws Exception {
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("noreply@example.test");
+        helper.setTo(recipient);
+        helper.setSubject("Pooled");
+        helper.setText("<p>Pooled</p>", true);
+        return message;
+    }
+}
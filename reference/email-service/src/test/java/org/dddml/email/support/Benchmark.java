@@ -0,0 +1,24 @@
+package org.dddml.email.support;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a benchmark test. Benchmarks are tagged {@code benchmark} and only
+ * run with {@code -Duniauth.benchmark=true}, e.g.
+ * {@code mvn -Dtest=EmailRateLimiterBenchmarkTest -Duniauth.benchmark=true test}.
+ * Throughput figures come from {@link Throughput}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "uniauth.benchmark", matches = "true")
+public @interface Benchmark {
+}
@@ -0,0 +1,110 @@
+package org.dddml.email.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Wall-clock throughput runner for {@link Benchmark} tests. Every run makes
+ * its untimed warmup calls first, and fails unless each timed call reports
+ * that it did its work, so a broken setup cannot post a fast figure.
+ */
+public final class Throughput {
+
+    private Throughput() {
+    }
+
+    /**
+     * Calls per second of {@code operation} on the calling thread. The
+     * operation gets the call index and returns whether the call succeeded.
+     */
+    public static double perSecond(
+        int warmup,
+        int operations,
+        IntPredicate operation) {
+        run(warmup, operation);
+        long started = System.nanoTime();
+        run(operations, operation);
+        return operations / secondsSince(started);
+    }
+
+    /**
+     * Calls per second across {@code threads} threads that start together
+     * and each make {@code operationsPerThread} calls, timed until the last
+     * thread finishes.
+     */
+    public static double perSecond(
+        int threads,
+        int warmupPerThread,
+        int operationsPerThread,
+        ThreadOperation operation) throws Exception {
+        runConcurrently(threads, warmupPerThread, operation);
+        double seconds = runConcurrently(threads, operationsPerThread, operation);
+        return threads * (double) operationsPerThread / seconds;
+    }
+
+    private static void run(int operations, IntPredicate operation) {
+        int succeeded = 0;
+        for (int index = 0; index < operations; index++) {
+            if (operation.test(index)) {
+                succeeded++;
+            }
+        }
+        assertThat(succeeded).as("successful calls").isEqualTo(operations);
+    }
+
+    private static double runConcurrently(
+        int threads,
+        int operationsPerThread,
+        ThreadOperation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> workers = new ArrayList<>(threads);
+            for (int thread = 0; thread < threads; thread++) {
+                int worker = thread;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int succeeded = 0;
+                    for (int index = 0; index < operationsPerThread; index++) {
+                        if (operation.run(worker, index)) {
+                            succeeded++;
+                        }
+                    }
+                    return succeeded;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<Integer> worker : workers) {
+                assertThat(worker.get(5, TimeUnit.MINUTES))
+                    .as("successful calls per thread")
+                    .isEqualTo(operationsPerThread);
+            }
+            return secondsSince(started);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double secondsSince(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+    }
+
+    @FunctionalInterface
+    public interface ThreadOperation {
+
+        /**
+         * Makes call {@code index} on worker {@code thread} and returns
+         * whether it succeeded.
+         */
+        boolean run(int thread, int index) throws Exception;
+    }
+}
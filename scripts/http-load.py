@@ -0,0 +1,154 @@
+#!/usr/bin/env python3
+"""Closed-loop HTTP load generator for comparing UniAuth serving modes.
+
+Each of --connections keep-alive connections sends one request, waits for
+the full response and sends the next until --duration elapses. The result
+is one JSON object with throughput, latency percentiles and status counts,
+so two runs (platform threads vs. virtual threads) can be diffed directly.
+Uses only the standard library; raise the open-file limit before running
+with thousands of connections.
+"""
+
+import argparse
+import asyncio
+import json
+import time
+from collections import Counter
+from urllib.parse import urlsplit
+
+
+class Stats:
+    def __init__(self) -> None:
+        self.latencies_ms: list[float] = []
+        self.statuses: Counter[str] = Counter()
+        self.errors: Counter[str] = Counter()
+
+
+async def read_response(reader: asyncio.StreamReader) -> tuple[int, bool]:
+    status_line = await reader.readline()
+    if not status_line:
+        raise ConnectionError("connection closed")
+    status = int(status_line.split()[1])
+    length = 0
+    chunked = False
+    keep_alive = True
+    while True:
+        line = await reader.readline()
+        if line in (b"\r\n", b"\n", b""):
+            break
+        name, _, value = line.decode("latin-1").partition(":")
+        name = name.strip().lower()
+        value = value.strip().lower()
+        if name == "content-length":
+            length = int(value)
+        elif name == "transfer-encoding" and "chunked" in value:
+            chunked = True
+        elif name == "connection" and value == "close":
+            keep_alive = False
+    if chunked:
+        while True:
+            size = int((await reader.readline()).split(b";")[0], 16)
+            await reader.readexactly(size + 2)
+            if size == 0:
+                break
+    elif length:
+        await reader.readexactly(length)
+    return status, keep_alive
+
+
+async def connection_loop(
+    host: str,
+    port: int,
+    request: bytes,
+    deadline: float,
+    timeout: float,
+    stats: Stats,
+) -> None:
+    reader = writer = None
+    while time.monotonic() < deadline:
+        try:
+            if writer is None:
+                reader, writer = await asyncio.wait_for(
+                    asyncio.open_connection(host, port), timeout
+                )
+            started = time.monotonic()
+            writer.write(request)
+            await writer.drain()
+            status, keep_alive = await asyncio.wait_for(
+                read_response(reader), timeout
+            )
+            stats.latencies_ms.append((time.monotonic() - started) * 1000)
+            stats.statuses[str(status)] += 1
+            if not keep_alive:
+                writer.close()
+                reader = writer = None
+        except (OSError, ConnectionError, asyncio.TimeoutError,
+                asyncio.IncompleteReadError, ValueError) as error:
+            stats.errors[type(error).__name__] += 1
+            if writer is not None:
+                writer.close()
+            reader = writer = None
+            await asyncio.sleep(0.05)
+    if writer is not None:
+        writer.close()
+
+
+def percentile(sorted_values: list[float], quantile: float) -> float | None:
+    if not sorted_values:
+        return None
+    index = min(len(sorted_values) - 1, int(len(sorted_values) * quantile))
+    return round(sorted_values[index], 2)
+
+
+async def run(args: argparse.Namespace) -> dict:
+    target = urlsplit(args.url)
+    if target.scheme != "http":
+        raise SystemExit("only http:// targets are supported")
+    host = target.hostname or "127.0.0.1"
+    port = target.port or 80
+    path = target.path or "/"
+    if target.query:
+        path += "?" + target.query
+    request = (
+        f"GET {path} HTTP/1.1\r\n"
+        f"Host: {target.netloc}\r\n"
+        "Accept: application/json\r\n"
+        "Connection: keep-alive\r\n\r\n"
+    ).encode("ascii")
+
+    stats = Stats()
+    started = time.monotonic()
+    deadline = started + args.duration
+    await asyncio.gather(*(
+        connection_loop(host, port, request, deadline, args.timeout, stats)
+        for _ in range(args.connections)
+    ))
+    elapsed = time.monotonic() - started
+    latencies = sorted(stats.latencies_ms)
+    return {
+        "label": args.label,
+        "url": args.url,
+        "connections": args.connections,
+        "durationSeconds": round(elapsed, 2),
+        "requests": len(latencies),
+        "throughputPerSecond": round(len(latencies) / elapsed, 1),
+        "p50Ms": percentile(latencies, 0.50),
+        "p99Ms": percentile(latencies, 0.99),
+        "statuses": dict(stats.statuses),
+        "errors": dict(stats.errors),
+    }
+
+
+def main() -> None:
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--url", required=True)
+    parser.add_argument("--connections", type=int, default=10000)
+    parser.add_argument("--duration", type=float, default=60)
+    parser.add_argument("--timeout", type=float, default=30)
+    parser.add_argument("--label", default="")
+    args = parser.parse_args()
+    print(json.dumps(asyncio.run(run(args)), sort_keys=True))
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,200 @@
+package org.dddml.uniauth.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenValidator;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.converter.ClaimTypeConverter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID token decoders for OIDC logins whose JWK sets are held in memory and
+ * refreshed in the background, so a Google callback does not fetch
+ * {@code jwk-set-uri} on the request thread whenever the default five-minute
+ * Nimbus cache has lapsed. A set is fetched by the first token that needs
+ * it and then refreshed every {@code app.oauth2.http.jwks-refresh-seconds}.
+ * A token whose {@code kid} is not in the cached set triggers one
+ * synchronous refetch, at most once per {@code jwks-minimum-refetch-seconds},
+ * to follow key rotation. A failed refresh keeps the previous keys.
+ *
+ * <p>Validation matches {@link OidcIdTokenDecoderFactory}: RS256, the OIDC
+ * claim type converters, timestamp and {@link OidcIdTokenValidator} checks.
+ */
+@Slf4j
+final class CachedJwkSetIdTokenDecoderFactory
+        implements JwtDecoderFactory<ClientRegistration>, AutoCloseable {
+
+    private final RestTemplate restTemplate;
+    private final OAuth2ProviderCalls providerCalls;
+    private final Duration refreshInterval;
+    private final Duration minimumRefetchInterval;
+    private final Clock clock;
+    private final ScheduledExecutorService refresher;
+    private final Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
+    private final Map<String, CachedJwkSet> jwkSets = new ConcurrentHashMap<>();
+
+    CachedJwkSetIdTokenDecoderFactory(
+            RestTemplate restTemplate,
+            OAuth2ProviderCalls providerCalls,
+            OAuth2HttpClientProperties properties) {
+        this(restTemplate, providerCalls, properties, Clock.systemUTC());
+    }
+
+    CachedJwkSetIdTokenDecoderFactory(
+            RestTemplate restTemplate,
+            OAuth2ProviderCalls providerCalls,
+            OAuth2HttpClientProperties properties,
+            Clock clock) {
+        this.restTemplate = restTemplate;
+        this.providerCalls = providerCalls;
+        this.refreshInterval = Duration.ofSeconds(properties.getJwksRefreshSeconds());
+        this.minimumRefetchInterval =
+                Duration.ofSeconds(properties.getJwksMinimumRefetchSeconds());
+        this.clock = clock;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "oauth2-jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public JwtDecoder createDecoder(ClientRegistration registration) {
+        return decoders.computeIfAbsent(
+                registration.getRegistrationId(),
+                registrationId -> decoder(registration)
+        );
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private JwtDecoder decoder(ClientRegistration registration) {
+        String jwkSetUri = registration.getProviderDetails().getJwkSetUri();
+        if (!StringUtils.hasText(jwkSetUri)) {
+            throw new OAuth2AuthenticationException(new OAuth2Error(
+                    "missing_signature_verifier",
+                    "Failed to find a Signature Verifier for Client Registration: '"
+                            + registration.getRegistrationId()
+                            + "'. Check to ensure you have configured the JwkSet URI.",
+                    null
+            ));
+        }
+        CachedJwkSet jwkSet = jwkSets.computeIfAbsent(
+                jwkSetUri,
+                uri -> schedule(new CachedJwkSet(registration.getRegistrationId(), uri))
+        );
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(
+                new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSet)
+        );
+        // Claims are checked by the Spring validators below.
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                new JwtTimestampValidator(),
+                new OidcIdTokenValidator(registration)
+        ));
+        decoder.setClaimSetConverter(new ClaimTypeConverter(
+                OidcIdTokenDecoderFactory.createDefaultClaimTypeConverters()
+        ));
+        return decoder;
+    }
+
+    private CachedJwkSet schedule(CachedJwkSet jwkSet) {
+        refresher.scheduleWithFixedDelay(
+                () -> jwkSet.refresh(Duration.ZERO),
+                refreshInterval.toSeconds(),
+                refreshInterval.toSeconds(),
+                TimeUnit.SECONDS
+        );
+        return jwkSet;
+    }
+
+    private final class CachedJwkSet implements JWKSource<SecurityContext> {
+
+        private final String provider;
+        private final String uri;
+        private volatile JWKSet keys;
+        private Instant lastAttempt = Instant.MIN;
+
+        private CachedJwkSet(String provider, String uri) {
+            this.provider = provider;
+            this.uri = uri;
+        }
+
+        @Override
+        public List<JWK> get(JWKSelector selector, SecurityContext context)
+                throws KeySourceException {
+            JWKSet current = keys;
+            if (current != null) {
+                List<JWK> matches = selector.select(current);
+                if (!matches.isEmpty()) {
+                    return matches;
+                }
+            }
+            current = refresh(minimumRefetchInterval);
+            if (current == null) {
+                throw new KeySourceException("JWK set for " + provider + " is unavailable");
+            }
+            return selector.select(current);
+        }
+
+        /**
+         * Fetches the set unless the last attempt is more recent than
+         * {@code minimumAge}, and returns whatever is cached afterwards.
+         */
+        private synchronized JWKSet refresh(Duration minimumAge) {
+            Instant now = clock.instant();
+            if (!minimumAge.isZero() && lastAttempt.isAfter(now.minus(minimumAge))) {
+                return keys;
+            }
+            lastAttempt = now;
+            try {
+                String body = providerCalls.call(
+                        provider,
+                        "jwks",
+                        () -> restTemplate.getForObject(uri, String.class)
+                );
+                keys = JWKSet.parse(body);
+            } catch (Exception exception) {
+                log.warn(
+                        "OAuth2 JWK set refresh failed: provider={} cause={}",
+                        provider,
+                        exception.getClass().getSimpleName()
+                );
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.dddml.uniauth.config;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Named database workloads that get their own connection pool when
+ * {@code app.datasource.workloads.enabled} is set. The workload is a
+ * thread-bound context read by {@link WorkloadRoutingDataSource} whenever a
+ * connection is acquired; work outside any workload uses the default pool.
+ * <p>
+ * The context only decides where new connections come from. Inside a
+ * transaction that already holds a connection, switching workloads has no
+ * effect, so a workload has to be entered before the transaction starts.
+ */
+public enum DatabaseWorkload {
+
+    /** Per-request token validation and introspection reads. */
+    VALIDATION("validation"),
+    /** Short request-path writes: rate-limit buckets and audit events. */
+    AUTH_WRITES("auth-writes"),
+    /** Scheduled sweepers, outbox workers and their long-held connections. */
+    BACKGROUND("background");
+
+    private static final ThreadLocal<DatabaseWorkload> CURRENT = new ThreadLocal<>();
+
+    private final String poolName;
+
+    DatabaseWorkload(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public String poolName() {
+        return poolName;
+    }
+
+    /**
+     * Workload of the current thread, or {@code null} for the default pool.
+     */
+    public static DatabaseWorkload current() {
+        return CURRENT.get();
+    }
+
+    public <T> T call(Supplier<T> work) {
+        DatabaseWorkload previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executor that runs every task of {@code delegate} in this workload.
+     */
+    public Executor executor(Executor delegate) {
+        return task -> delegate.execute(() -> run(task));
+    }
+}
@@ -0,0 +1,165 @@
+package org.dddml.uniauth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Replaces the auto-configured Hikari pool with a
+ * {@link WorkloadRoutingDataSource}: the default pool is built from
+ * {@code spring.datasource} exactly as Spring Boot would, and every
+ * {@link DatabaseWorkload} gets a copy of it with its own size and acquire
+ * timeout. All pools publish the {@code hikaricp.connections.*} meters
+ * tagged with their pool name, and connect with that name as the PostgreSQL
+ * {@code application_name} so {@code pg_stat_activity} shows which pool a
+ * backend belongs to. An optional read replica gets one more pool, used by
+ * {@link ReplicaRouting}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.workloads.enabled", havingValue = "true")
+@Slf4j
+public class DatabaseWorkloadDataSourceConfig {
+
+    static final String DEFAULT_POOL_NAME = "uniauth-default";
+
+    @Bean
+    public WorkloadRoutingDataSource dataSource(
+            DataSourceProperties dataSourceProperties,
+            DatabaseWorkloadProperties workloads,
+            Environment environment,
+            MeterRegistry meterRegistry) {
+        HikariDataSource defaultPool = dataSourceProperties
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind(
+                "spring.datasource.hikari",
+                Bindable.ofInstance(defaultPool)
+        );
+        if (!StringUtils.hasText(defaultPool.getPoolName())) {
+            defaultPool.setPoolName(DEFAULT_POOL_NAME);
+        }
+        defaultPool.setMetricRegistry(meterRegistry);
+
+        Map<DatabaseWorkload, HikariDataSource> pools =
+                new EnumMap<>(DatabaseWorkload.class);
+        for (DatabaseWorkload workload : DatabaseWorkload.values()) {
+            pools.put(workload, workloadPool(
+                    defaultPool,
+                    workload,
+                    workloads.pool(workload)
+            ));
+        }
+        ReplicaRouting replicaRouting = null;
+        if (workloads.getReplica().isEnabled()) {
+            replicaRouting = new ReplicaRouting(
+                    pools.get(DatabaseWorkload.BACKGROUND),
+                    replicaPool(defaultPool, workloads.getReplica()),
+                    workloads.getReplica(),
+                    meterRegistry
+            );
+            replicaRouting.start();
+        }
+        // Named last so the copies above do not inherit its application_name.
+        nameConnections(defaultPool);
+        log.info(
+                "Database workload pools enabled [default={}, validation={}, "
+                        + "auth-writes={}, background={}, replica={}]",
+                defaultPool.getMaximumPoolSize(),
+                pools.get(DatabaseWorkload.VALIDATION).getMaximumPoolSize(),
+                pools.get(DatabaseWorkload.AUTH_WRITES).getMaximumPoolSize(),
+                pools.get(DatabaseWorkload.BACKGROUND).getMaximumPoolSize(),
+                replicaRouting == null
+                        ? 0
+                        : workloads.getReplica().getMaximumPoolSize()
+        );
+        return new WorkloadRoutingDataSource(defaultPool, pools, replicaRouting);
+    }
+
+    /**
+     * Exposes the replica routing so session writes can pin users to the
+     * primary. The data source owns and closes it.
+     */
+    @Bean(destroyMethod = "")
+    @ConditionalOnProperty(name = "app.datasource.workloads.replica.enabled", havingValue = "true")
+    public ReplicaRouting replicaRouting(WorkloadRoutingDataSource dataSource) {
+        return dataSource.replicaRouting();
+    }
+
+    /**
+     * Pools are chosen when a connection is acquired, so the open-in-view
+     * EntityManager has to hand its connection back after every transaction
+     * rather than keep the first one it got for the rest of the request.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer workloadConnectionHandling() {
+        return properties -> properties.putIfAbsent(
+                AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION
+        );
+    }
+
+    static HikariDataSource workloadPool(
+            HikariDataSource base,
+            DatabaseWorkload workload,
+            DatabaseWorkloadProperties.Pool settings) {
+        HikariDataSource pool = new HikariDataSource();
+        base.copyStateTo(pool);
+        pool.setPoolName("uniauth-" + workload.poolName());
+        pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+        pool.setMinimumIdle(Math.min(
+                settings.getMinimumIdle(),
+                settings.getMaximumPoolSize()
+        ));
+        pool.setConnectionTimeout(settings.getConnectionTimeoutMs());
+        nameConnections(pool);
+        return pool;
+    }
+
+    static HikariDataSource replicaPool(
+            HikariDataSource base,
+            DatabaseWorkloadProperties.Replica settings) {
+        HikariDataSource pool = new HikariDataSource();
+        base.copyStateTo(pool);
+        pool.setPoolName("uniauth-replica");
+        pool.setJdbcUrl(settings.getUrl());
+        if (StringUtils.hasText(settings.getUsername())) {
+            pool.setUsername(settings.getUsername());
+        }
+        if (StringUtils.hasText(settings.getPassword())) {
+            pool.setPassword(settings.getPassword());
+        }
+        pool.setReadOnly(true);
+        pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+        pool.setMinimumIdle(Math.min(
+                settings.getMinimumIdle(),
+                settings.getMaximumPoolSize()
+        ));
+        pool.setConnectionTimeout(settings.getConnectionTimeoutMs());
+        nameConnections(pool);
+        return pool;
+    }
+
+    private static void nameConnections(HikariDataSource pool) {
+        // copyStateTo shares the Properties instance, so each pool gets its own.
+        Properties properties = new Properties();
+        properties.putAll(pool.getDataSourceProperties());
+        properties.putIfAbsent("ApplicationName", pool.getPoolName());
+        pool.setDataSourceProperties(properties);
+    }
+}
@@ -0,0 +1,233 @@
+package org.dddml.uniauth.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Dedicated connection pools per {@link DatabaseWorkload}. Each pool copies
+ * the connection settings of {@code spring.datasource} and overrides only
+ * its size and acquire timeout; the default pool keeps serving everything
+ * else.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.workloads")
+@Validated
+public class DatabaseWorkloadProperties {
+
+    private boolean enabled = false;
+
+    @Valid
+    private Pool validation = new Pool(8, 2, 2000);
+
+    @Valid
+    private Pool authWrites = new Pool(4, 1, 2000);
+
+    /**
+     * Holds the scheduler leadership connection and the outbox LISTEN
+     * connection for the life of the process, plus the outbox workers.
+     */
+    @Valid
+    private Pool background = new Pool(8, 2, 30000);
+
+    @Valid
+    private Replica replica = new Replica();
+
+    public Pool pool(DatabaseWorkload workload) {
+        return switch (workload) {
+            case VALIDATION -> validation;
+            case AUTH_WRITES -> authWrites;
+            case BACKGROUND -> background;
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Pool getValidation() {
+        return validation;
+    }
+
+    public void setValidation(Pool validation) {
+        this.validation = validation;
+    }
+
+    public Pool getAuthWrites() {
+        return authWrites;
+    }
+
+    public void setAuthWrites(Pool authWrites) {
+        this.authWrites = authWrites;
+    }
+
+    public Pool getBackground() {
+        return background;
+    }
+
+    public void setBackground(Pool background) {
+        this.background = background;
+    }
+
+    public Replica getReplica() {
+        return replica;
+    }
+
+    public void setReplica(Replica replica) {
+        this.replica = replica;
+    }
+
+    public static class Pool {
+
+        @Min(1)
+        @Max(200)
+        private int maximumPoolSize;
+
+        @Min(0)
+        @Max(200)
+        private int minimumIdle;
+
+        @Min(250)
+        @Max(300000)
+        private long connectionTimeoutMs;
+
+        public Pool() {
+        }
+
+        Pool(int maximumPoolSize, int minimumIdle, long connectionTimeoutMs) {
+            this.maximumPoolSize = maximumPoolSize;
+            this.minimumIdle = minimumIdle;
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+
+        public long getConnectionTimeoutMs() {
+            return connectionTimeoutMs;
+        }
+
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+    }
+
+    /**
+     * Streaming replica for reads marked with {@link ReplicaReads}. Connection
+     * settings not given here are copied from {@code spring.datasource}.
+     */
+    public static class Replica extends Pool {
+
+        private boolean enabled = false;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        @Min(100)
+        @Max(60000)
+        private long maxLagMs = 2000;
+
+        @Min(50)
+        @Max(10000)
+        private long probeIntervalMs = 500;
+
+        @Min(0)
+        @Max(300000)
+        private long pinWindowMs = 5000;
+
+        public Replica() {
+            super(8, 2, 1000);
+        }
+
+        @AssertTrue(message = "app.datasource.workloads.replica.url is required when the replica is enabled")
+        public boolean isUrlConfigured() {
+            return !enabled || StringUtils.hasText(url);
+        }
+
+        @AssertTrue(message = "app.datasource.workloads.replica.probe-interval-ms must be below max-lag-ms")
+        public boolean isProbeFasterThanMaxLag() {
+            return probeIntervalMs < maxLagMs;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public long getMaxLagMs() {
+            return maxLagMs;
+        }
+
+        public void setMaxLagMs(long maxLagMs) {
+            this.maxLagMs = maxLagMs;
+        }
+
+        public long getProbeIntervalMs() {
+            return probeIntervalMs;
+        }
+
+        public void setProbeIntervalMs(long probeIntervalMs) {
+            this.probeIntervalMs = probeIntervalMs;
+        }
+
+        public long getPinWindowMs() {
+            return pinWindowMs;
+        }
+
+        public void setPinWindowMs(long pinWindowMs) {
+            this.pinWindowMs = pinWindowMs;
+        }
+    }
+}
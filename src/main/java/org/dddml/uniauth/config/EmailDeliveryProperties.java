@@ -17,10 +17,30 @@ public class EmailDeliveryProperties {
     @Max(600000)
     private long workerDelayMs = 1000;
 
+    private boolean workerWakeupEnabled = true;
+
+    @Min(1000)
+    @Max(3600000)
+    private long workerIdlePollMs = 30000;
+
     @Min(1)
     @Max(100)
     private int batchSize = 20;
 
+    @Min(1)
+    @Max(64)
+    private int workerConcurrency = 4;
+
+    private boolean workerVirtualThreads = true;
+
+    @Min(1)
+    @Max(100)
+    private int enqueueBatchSize = 1;
+
+    @Min(1)
+    @Max(1024)
+    private int maxInFlight = 32;
+
     @Min(1)
     @Max(20)
     private int maxAttempts = 5;
@@ -53,6 +73,22 @@ public class EmailDeliveryProperties {
         this.workerDelayMs = workerDelayMs;
     }
 
+    public boolean isWorkerWakeupEnabled() {
+        return workerWakeupEnabled;
+    }
+
+    public void setWorkerWakeupEnabled(boolean workerWakeupEnabled) {
+        this.workerWakeupEnabled = workerWakeupEnabled;
+    }
+
+    public long getWorkerIdlePollMs() {
+        return workerIdlePollMs;
+    }
+
+    public void setWorkerIdlePollMs(long workerIdlePollMs) {
+        this.workerIdlePollMs = workerIdlePollMs;
+    }
+
     public int getBatchSize() {
         return batchSize;
     }
@@ -61,6 +97,38 @@ public class EmailDeliveryProperties {
         this.batchSize = batchSize;
     }
 
+    public int getWorkerConcurrency() {
+        return workerConcurrency;
+    }
+
+    public void setWorkerConcurrency(int workerConcurrency) {
+        this.workerConcurrency = workerConcurrency;
+    }
+
+    public boolean isWorkerVirtualThreads() {
+        return workerVirtualThreads;
+    }
+
+    public void setWorkerVirtualThreads(boolean workerVirtualThreads) {
+        this.workerVirtualThreads = workerVirtualThreads;
+    }
+
+    public int getEnqueueBatchSize() {
+        return enqueueBatchSize;
+    }
+
+    public void setEnqueueBatchSize(int enqueueBatchSize) {
+        this.enqueueBatchSize = enqueueBatchSize;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
     public int getMaxAttempts() {
         return maxAttempts;
     }
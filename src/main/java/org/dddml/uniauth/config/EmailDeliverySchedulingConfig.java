@@ -1,26 +1,244 @@
 package org.dddml.uniauth.config;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.dddml.uniauth.service.EmailDeliveryOutboxProcessor;
+import org.dddml.uniauth.service.EmailDeliveryOutboxSignal;
+import org.dddml.uniauth.service.EmailDeliveryOutboxSignal.Trigger;
+import org.dddml.uniauth.service.EmailDeliveryOutboxStateService;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the email outbox worker on a dedicated dispatcher thread.
+ * <p>
+ * The dispatcher sleeps until a wakeup arrives: an after-commit signal from
+ * this node, or a {@code NOTIFY} from another node picked up by the listener
+ * thread. Without wakeups it sleeps until the earliest pending retry falls
+ * due, capped by the idle poll interval, which is the safety net for missed
+ * notifications. With wakeups disabled it falls back to polling every
+ * {@code worker-delay-ms}.
+ */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 @ConditionalOnProperty(
     name = "app.email.delivery.worker-enabled",
     havingValue = "true",
     matchIfMissing = true
 )
-public class EmailDeliverySchedulingConfig {
+public class EmailDeliverySchedulingConfig implements SmartLifecycle {
+
+    private static final String JOB_NAME = "email-outbox-delivery";
+    private static final int LISTEN_TIMEOUT_MS = 5000;
+    private static final long LISTEN_RECONNECT_DELAY_MS = 5000;
 
     private final EmailDeliveryOutboxProcessor processor;
+    private final EmailDeliveryOutboxStateService stateService;
+    private final EmailDeliveryOutboxSignal signal;
+    private final ScheduledJobCoordinator coordinator;
+    private final EmailDeliveryProperties deliveryProperties;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+    private Thread listener;
+
+    public EmailDeliverySchedulingConfig(
+            EmailDeliveryOutboxProcessor processor,
+            EmailDeliveryOutboxStateService stateService,
+            EmailDeliveryOutboxSignal signal,
+            ScheduledJobCoordinator coordinator,
+            EmailDeliveryProperties deliveryProperties,
+            DataSource dataSource,
+            MeterRegistry meterRegistry) {
+        this.processor = processor;
+        this.stateService = stateService;
+        this.signal = signal;
+        this.coordinator = coordinator;
+        this.deliveryProperties = deliveryProperties;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcher = daemon("email-outbox-dispatcher", this::dispatchLoop);
+        if (deliveryProperties.isWorkerWakeupEnabled()) {
+            listener = daemon("email-outbox-listener", this::listenLoop);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        stopThread(dispatcher);
+        stopThread(listener);
+        dispatcher = null;
+        listener = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatchLoop() {
+        Trigger trigger = Trigger.TIMER;
+        while (running) {
+            int processed = processOutbox();
+            meterRegistry.counter(
+                    "uniauth.email.outbox.polls",
+                    "trigger", trigger.name().toLowerCase(Locale.ROOT),
+                    "result", processed > 0 ? "work" : "idle"
+            ).increment();
+            try {
+                trigger = signal.await(nextWait());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int processOutbox() {
+        AtomicInteger processed = new AtomicInteger();
+        try {
+            coordinator.run(
+                    JOB_NAME,
+                    ScheduledJobCoordinator.Mode.SHARDED,
+                    () -> processed.set(processor.processAvailable())
+            );
+        } catch (RuntimeException exception) {
+            log.warn(
+                    "Email outbox run failed [error={}]",
+                    exception.getClass().getSimpleName()
+            );
+        }
+        return processed.get();
+    }
+
+    private Duration nextWait() {
+        Duration floor = Duration.ofMillis(deliveryProperties.getWorkerDelayMs());
+        if (!deliveryProperties.isWorkerWakeupEnabled()) {
+            return floor;
+        }
+        Duration ceiling = Duration.ofMillis(
+                deliveryProperties.getWorkerIdlePollMs()
+        );
+        Duration wait;
+        try {
+            wait = stateService.nextDueAt()
+                    .map(due -> Duration.between(Instant.now(), due))
+                    .orElse(ceiling);
+        } catch (DataAccessException exception) {
+            return floor;
+        }
+        if (wait.compareTo(floor) < 0) {
+            return floor;
+        }
+        return wait.compareTo(ceiling) > 0 ? ceiling : wait;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try {
+                    listen(connection);
+                } finally {
+                    unlisten(connection);
+                }
+            } catch (SQLException exception) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Email outbox notification listener disconnected");
+                try {
+                    Thread.sleep(LISTEN_RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        execute(connection, "LISTEN " + EmailDeliveryOutboxSignal.CHANNEL);
+        PGConnection notifications = connection.unwrap(PGConnection.class);
+        // Covers anything enqueued while the listener was down.
+        signal.wake(Trigger.NOTIFY);
+        while (running) {
+            PGNotification[] received =
+                    notifications.getNotifications(LISTEN_TIMEOUT_MS);
+            if (received != null && received.length > 0) {
+                signal.wake(Trigger.NOTIFY);
+            }
+        }
+    }
+
+    /**
+     * The connection goes back to the shared pool, where a session still
+     * subscribed to the channel would queue notifications for whichever
+     * request borrows it next. When the subscription cannot be dropped the
+     * physical connection is closed so the pool discards it.
+     */
+    static void unlisten(Connection connection) {
+        try {
+            execute(connection, "UNLISTEN *");
+        } catch (SQLException exception) {
+            try {
+                connection.unwrap(Connection.class).close();
+            } catch (SQLException ignored) {
+                // Already unusable; the pool evicts it on return.
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        Thread thread = new Thread(
+                () -> DatabaseWorkload.BACKGROUND.run(task),
+                name
+        );
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
 
-    @Scheduled(
-        fixedDelayString = "${app.email.delivery.worker-delay-ms:1000}"
-    )
-    public void processOutbox() {
-        processor.processAvailable();
+    private static void stopThread(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(LISTEN_TIMEOUT_MS + 1000L);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
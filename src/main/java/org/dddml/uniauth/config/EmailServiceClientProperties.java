@@ -28,6 +28,9 @@ public class EmailServiceClientProperties {
     @Max(600_000)
     private long timeout = 5000;
 
+    @Pattern(regexp = "rest-template|http-client")
+    private String client = "rest-template";
+
     @Size(max = 1024)
     @Pattern(regexp = "\\A[^\\r\\n]*\\z")
     private String apiKey = "";
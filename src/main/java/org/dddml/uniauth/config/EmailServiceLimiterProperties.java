@@ -0,0 +1,113 @@
+package org.dddml.uniauth.config;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.email.delivery.limiter")
+@Validated
+public class EmailServiceLimiterProperties {
+
+    private boolean enabled = true;
+
+    @Min(1)
+    @Max(1024)
+    private int initialLimit = 4;
+
+    @Min(1)
+    @Max(1024)
+    private int minLimit = 1;
+
+    @Min(1)
+    @Max(1024)
+    private int maxLimit = 64;
+
+    @Min(10)
+    @Max(600000)
+    private long latencyTargetMs = 2000;
+
+    @Min(1)
+    @Max(1000)
+    private int failureThreshold = 5;
+
+    @Min(1000)
+    @Max(3600000)
+    private long openDurationMs = 30000;
+
+    @Min(1)
+    @Max(64)
+    private int halfOpenTrials = 1;
+
+    @AssertTrue(message = "app.email.delivery.limiter limits must satisfy min <= initial <= max")
+    public boolean isValidLimits() {
+        return minLimit <= initialLimit && initialLimit <= maxLimit;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public long getLatencyTargetMs() {
+        return latencyTargetMs;
+    }
+
+    public void setLatencyTargetMs(long latencyTargetMs) {
+        this.latencyTargetMs = latencyTargetMs;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public long getOpenDurationMs() {
+        return openDurationMs;
+    }
+
+    public void setOpenDurationMs(long openDurationMs) {
+        this.openDurationMs = openDurationMs;
+    }
+
+    public int getHalfOpenTrials() {
+        return halfOpenTrials;
+    }
+
+    public void setHalfOpenTrials(int halfOpenTrials) {
+        this.halfOpenTrials = halfOpenTrials;
+    }
+}
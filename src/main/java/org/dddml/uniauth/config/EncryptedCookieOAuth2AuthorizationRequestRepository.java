@@ -0,0 +1,258 @@
+package org.dddml.uniauth.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the pending OAuth2 authorization request in an AES-GCM sealed,
+ * HttpOnly cookie scoped to {@code /oauth2} instead of the HTTP session, so
+ * a social login or binding round trip does not create or rewrite a
+ * {@code spring_session} row. The GCM tag authenticates the payload and its
+ * embedded expiry; the cookie is cleared as soon as the callback loads it.
+ *
+ * <p>The request removed on the callback is also exposed as a request
+ * attribute, so the success and failure handlers can read the binding
+ * marker and the browser binding that {@link
+ * ExplicitOAuth2AuthorizationRequestResolver} stored in its attributes.
+ */
+public final class EncryptedCookieOAuth2AuthorizationRequestRepository
+        implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+    public static final String COOKIE_NAME = "UNIAUTH_OAUTH2_AUTHORIZATION_REQUEST";
+
+    private static final String CALLBACK_REQUEST_ATTRIBUTE =
+            EncryptedCookieOAuth2AuthorizationRequestRepository.class.getName()
+                    + ".CALLBACK_REQUEST";
+    private static final String COOKIE_PATH = "/oauth2";
+    private static final String SAME_SITE = "Lax";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MINIMUM_SECRET_LENGTH = 32;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final byte[] ASSOCIATED_DATA =
+            COOKIE_NAME.getBytes(StandardCharsets.US_ASCII);
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final SecretKeySpec key;
+    private final int maxAgeSeconds;
+    private final boolean secure;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    public EncryptedCookieOAuth2AuthorizationRequestRepository(
+            OAuth2AuthorizationRequestProperties properties,
+            AuthCookieProperties cookieProperties) {
+        this(properties, cookieProperties, Clock.systemUTC());
+    }
+
+    EncryptedCookieOAuth2AuthorizationRequestRepository(
+            OAuth2AuthorizationRequestProperties properties,
+            AuthCookieProperties cookieProperties,
+            Clock clock) {
+        String secret = properties.getCookieSecret();
+        if (secret == null || secret.length() < MINIMUM_SECRET_LENGTH) {
+            throw new IllegalStateException(
+                    "app.oauth2.authorization-request.cookie-secret must be at least "
+                            + MINIMUM_SECRET_LENGTH + " characters"
+            );
+        }
+        this.key = new SecretKeySpec(deriveKey(secret), "AES");
+        this.maxAgeSeconds = properties.getCookieMaxAgeSeconds();
+        this.secure = cookieProperties.isSecure();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the authorization request this repository removed while
+     * handling the current callback, or {@code null} outside a callback.
+     */
+    public static OAuth2AuthorizationRequest callbackRequest(HttpServletRequest request) {
+        return (OAuth2AuthorizationRequest) request.getAttribute(CALLBACK_REQUEST_ATTRIBUTE);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        String state = request.getParameter(OAuth2ParameterNames.STATE);
+        if (state == null) {
+            return null;
+        }
+        OAuth2AuthorizationRequest authorizationRequest = readCookie(request);
+        if (authorizationRequest == null
+                || !state.equals(authorizationRequest.getState())) {
+            return null;
+        }
+        return authorizationRequest;
+    }
+
+    @Override
+    public void saveAuthorizationRequest(
+            OAuth2AuthorizationRequest authorizationRequest,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        if (authorizationRequest == null) {
+            response.addCookie(cookie(request, "", 0));
+            return;
+        }
+        if (!AuthorizationGrantType.AUTHORIZATION_CODE.equals(
+                authorizationRequest.getGrantType())) {
+            throw new IllegalArgumentException(
+                    "Only authorization_code requests can be stored in a cookie"
+            );
+        }
+        StoredRequest stored = new StoredRequest(
+                authorizationRequest.getAuthorizationUri(),
+                authorizationRequest.getClientId(),
+                authorizationRequest.getRedirectUri(),
+                authorizationRequest.getScopes(),
+                authorizationRequest.getState(),
+                authorizationRequest.getAdditionalParameters(),
+                authorizationRequest.getAttributes(),
+                authorizationRequest.getAuthorizationRequestUri(),
+                clock.instant().getEpochSecond() + maxAgeSeconds
+        );
+        response.addCookie(cookie(request, seal(stored), maxAgeSeconds));
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        OAuth2AuthorizationRequest authorizationRequest =
+                loadAuthorizationRequest(request);
+        if (authorizationRequest != null) {
+            response.addCookie(cookie(request, "", 0));
+            request.setAttribute(CALLBACK_REQUEST_ATTRIBUTE, authorizationRequest);
+        }
+        return authorizationRequest;
+    }
+
+    private OAuth2AuthorizationRequest readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                StoredRequest stored = open(cookie.getValue());
+                if (stored == null
+                        || stored.expiresAt() <= clock.instant().getEpochSecond()) {
+                    return null;
+                }
+                return OAuth2AuthorizationRequest.authorizationCode()
+                        .authorizationUri(stored.authorizationUri())
+                        .clientId(stored.clientId())
+                        .redirectUri(stored.redirectUri())
+                        .scopes(stored.scopes())
+                        .state(stored.state())
+                        .additionalParameters(stored.additionalParameters())
+                        .attributes(stored.attributes())
+                        .authorizationRequestUri(stored.authorizationRequestUri())
+                        .build();
+            }
+        }
+        return null;
+    }
+
+    private String seal(StoredRequest stored) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(ASSOCIATED_DATA);
+            byte[] sealed = cipher.doFinal(JSON.writeValueAsBytes(stored));
+            byte[] value = Arrays.copyOf(iv, IV_LENGTH + sealed.length);
+            System.arraycopy(sealed, 0, value, IV_LENGTH, sealed.length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+        } catch (GeneralSecurityException | IOException exception) {
+            throw new IllegalStateException(
+                    "OAuth2 authorization request could not be sealed",
+                    exception
+            );
+        }
+    }
+
+    private StoredRequest open(String value) {
+        try {
+            byte[] decoded = Base64.getUrlDecoder().decode(value);
+            if (decoded.length <= IV_LENGTH) {
+                return null;
+            }
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(
+                    Cipher.DECRYPT_MODE,
+                    key,
+                    new GCMParameterSpec(TAG_BITS, decoded, 0, IV_LENGTH)
+            );
+            cipher.updateAAD(ASSOCIATED_DATA);
+            byte[] plain = cipher.doFinal(decoded, IV_LENGTH, decoded.length - IV_LENGTH);
+            return JSON.readValue(plain, StoredRequest.class);
+        } catch (IllegalArgumentException | GeneralSecurityException | IOException exception) {
+            // Tampered, truncated, foreign-key or stale-format cookies are
+            // treated as absent; the callback then fails as authorization
+            // request not found.
+            return null;
+        }
+    }
+
+    private Cookie cookie(HttpServletRequest request, String value, int maxAge) {
+        Cookie cookie = new Cookie(COOKIE_NAME, value);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(secure);
+        cookie.setPath(request.getContextPath() + COOKIE_PATH);
+        cookie.setMaxAge(maxAge);
+        cookie.setAttribute("SameSite", SAME_SITE);
+        return cookie;
+    }
+
+    private static byte[] deriveKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(
+                    secret.getBytes(StandardCharsets.UTF_8),
+                    HMAC_ALGORITHM
+            ));
+            return mac.doFinal(
+                    "oauth2-authorization-request".getBytes(StandardCharsets.UTF_8)
+            );
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(
+                    "OAuth2 authorization request key derivation failed",
+                    exception
+            );
+        }
+    }
+
+    record StoredRequest(
+            String authorizationUri,
+            String clientId,
+            String redirectUri,
+            Set<String> scopes,
+            String state,
+            Map<String, Object> additionalParameters,
+            Map<String, Object> attributes,
+            String authorizationRequestUri,
+            long expiresAt) {
+    }
+}
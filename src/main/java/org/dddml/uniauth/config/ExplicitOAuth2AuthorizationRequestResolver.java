@@ -15,12 +15,24 @@ import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
 
+import java.security.SecureRandom;
+import java.util.Base64;
+
 @RequiredArgsConstructor
 public class ExplicitOAuth2AuthorizationRequestResolver
         implements OAuth2AuthorizationRequestResolver {
 
     static final String BINDING_SESSION_ATTRIBUTE =
             "UNIAUTH_OAUTH2_BINDING_PROVIDER";
+    /**
+     * Authorization request attributes used instead of the HTTP session when
+     * the request itself is kept in the encrypted cookie: a random value
+     * that binding intents are bound to in place of the session id, and the
+     * provider of a binding request.
+     */
+    static final String BROWSER_BINDING_ATTRIBUTE = "uniauth_browser_binding";
+    static final String BINDING_PROVIDER_ATTRIBUTE = "uniauth_binding_provider";
+    private static final SecureRandom RANDOM = new SecureRandom();
     private static final String LOGIN_BASE_URI = "/oauth2/authorization";
     private static final String BIND_BASE_URI = "/oauth2/bind";
 
@@ -31,6 +43,7 @@ public class ExplicitOAuth2AuthorizationRequestResolver
     private final RecentAuthenticationService recentAuthenticationService;
     private final OAuth2BindingIntentService bindingIntentService;
     private final AuthRateLimiter authRateLimiter;
+    private final boolean sessionless;
 
     public static ExplicitOAuth2AuthorizationRequestResolver create(
             ClientRegistrationRepository registrations,
@@ -38,7 +51,8 @@ public class ExplicitOAuth2AuthorizationRequestResolver
             TokenValidationService tokenValidationService,
             RecentAuthenticationService recentAuthenticationService,
             OAuth2BindingIntentService bindingIntentService,
-            AuthRateLimiter authRateLimiter) {
+            AuthRateLimiter authRateLimiter,
+            boolean sessionless) {
         DefaultOAuth2AuthorizationRequestResolver login =
                 new DefaultOAuth2AuthorizationRequestResolver(
                         registrations,
@@ -62,7 +76,8 @@ public class ExplicitOAuth2AuthorizationRequestResolver
                 tokenValidationService,
                 recentAuthenticationService,
                 bindingIntentService,
-                authRateLimiter
+                authRateLimiter,
+                sessionless
         );
     }
 
@@ -100,7 +115,19 @@ public class ExplicitOAuth2AuthorizationRequestResolver
             HttpServletRequest request,
             OAuth2AuthorizationRequest authorizationRequest,
             boolean binding) {
-        if (!binding || authorizationRequest == null) {
+        if (authorizationRequest == null) {
+            return null;
+        }
+        if (sessionless) {
+            authorizationRequest = OAuth2AuthorizationRequest
+                    .from(authorizationRequest)
+                    .attributes(attributes -> attributes.put(
+                            BROWSER_BINDING_ATTRIBUTE,
+                            randomBrowserBinding()
+                    ))
+                    .build();
+        }
+        if (!binding) {
             return authorizationRequest;
         }
         String registrationId = registrationId(request);
@@ -117,10 +144,21 @@ public class ExplicitOAuth2AuthorizationRequestResolver
             );
             bindingIntentService.create(
                     authorizationRequest.getState(),
-                    request.getSession(true).getId(),
+                    sessionless
+                            ? (String) authorizationRequest.getAttribute(
+                                    BROWSER_BINDING_ATTRIBUTE)
+                            : request.getSession(true).getId(),
                     registrationId,
                     token
             );
+            if (sessionless) {
+                return OAuth2AuthorizationRequest.from(authorizationRequest)
+                        .attributes(attributes -> attributes.put(
+                                BINDING_PROVIDER_ATTRIBUTE,
+                                registrationId
+                        ))
+                        .build();
+            }
             request.getSession(true).setAttribute(
                     BINDING_SESSION_ATTRIBUTE,
                     registrationId
@@ -138,6 +176,12 @@ public class ExplicitOAuth2AuthorizationRequestResolver
         }
     }
 
+    private static String randomBrowserBinding() {
+        byte[] value = new byte[32];
+        RANDOM.nextBytes(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
     private boolean isBindingRequest(HttpServletRequest request) {
         String path = request.getRequestURI().substring(
                 request.getContextPath().length()
@@ -0,0 +1,54 @@
+package org.dddml.uniauth.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.oauth2.authorization-request")
+@Validated
+public class OAuth2AuthorizationRequestProperties {
+
+    public static final String SESSION_STORE = "session";
+    public static final String COOKIE_STORE = "cookie";
+
+    @Pattern(regexp = SESSION_STORE + "|" + COOKIE_STORE)
+    private String store = SESSION_STORE;
+
+    private String cookieSecret = "";
+
+    @Min(60)
+    @Max(1800)
+    private int cookieMaxAgeSeconds = 600;
+
+    public boolean isCookieStore() {
+        return COOKIE_STORE.equals(store);
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public String getCookieSecret() {
+        return cookieSecret;
+    }
+
+    public void setCookieSecret(String cookieSecret) {
+        this.cookieSecret = cookieSecret;
+    }
+
+    public int getCookieMaxAgeSeconds() {
+        return cookieMaxAgeSeconds;
+    }
+
+    public void setCookieMaxAgeSeconds(int cookieMaxAgeSeconds) {
+        this.cookieMaxAgeSeconds = cookieMaxAgeSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package org.dddml.uniauth.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -10,7 +11,11 @@ import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResp
 import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
 import org.springframework.security.oauth2.client.endpoint.RestClientAuthorizationCodeTokenResponseClient;
 import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestTemplate;
 
@@ -42,15 +47,59 @@ public class OAuth2HttpClientConfig {
         return restTemplate;
     }
 
+    @Bean
+    OAuth2ProviderCalls oauth2ProviderCalls(
+            OAuth2HttpClientProperties properties,
+            MeterRegistry meterRegistry) {
+        return new OAuth2ProviderCalls(
+                properties.getCallDeadlineMs(),
+                properties.getProviderCallThreads(),
+                properties.getProviderCallQueueCapacity(),
+                meterRegistry
+        );
+    }
+
     @Bean
     OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest>
             oauth2AuthorizationCodeTokenResponseClient(
                     @Qualifier("oauth2TokenRestTemplate")
-                    RestTemplate restTemplate) {
+                    RestTemplate restTemplate,
+                    OAuth2ProviderCalls providerCalls) {
         RestClientAuthorizationCodeTokenResponseClient client =
                 new RestClientAuthorizationCodeTokenResponseClient();
         client.setRestClient(RestClient.create(restTemplate));
-        return client;
+        return request -> {
+            try {
+                return providerCalls.call(
+                        request.getClientRegistration().getRegistrationId(),
+                        "token",
+                        () -> client.getTokenResponse(request)
+                );
+            } catch (RuntimeException exception) {
+                throw exception;
+            } catch (Exception exception) {
+                throw new OAuth2AuthorizationException(
+                        new OAuth2Error(
+                                "invalid_token_response",
+                                "Token exchange did not complete",
+                                null
+                        ),
+                        exception
+                );
+            }
+        };
+    }
+
+    @Bean
+    JwtDecoderFactory<ClientRegistration> oidcIdTokenDecoderFactory(
+            @Qualifier("oauth2RestTemplate") RestTemplate restTemplate,
+            OAuth2ProviderCalls providerCalls,
+            OAuth2HttpClientProperties properties) {
+        return new CachedJwkSetIdTokenDecoderFactory(
+                restTemplate,
+                providerCalls,
+                properties
+        );
     }
 
     private RestTemplateBuilder boundedBuilder(
@@ -20,4 +20,36 @@ public class OAuth2HttpClientProperties {
     @Min(100)
     @Max(60_000)
     private long readTimeoutMs = 10_000;
+
+    /**
+     * Upper bound on one provider call (token exchange, user info, GitHub
+     * emails), measured from submission and independent of how many reads
+     * the response takes.
+     */
+    @Min(100)
+    @Max(60_000)
+    private long callDeadlineMs = 10_000;
+
+    /**
+     * Threads that run provider calls; calls beyond this wait in the queue.
+     */
+    @Min(1)
+    @Max(1_024)
+    private int providerCallThreads = 64;
+
+    /**
+     * Calls that may wait for a free thread, each still bounded by the call
+     * deadline. Zero rejects a call as soon as every thread is busy.
+     */
+    @Min(0)
+    @Max(10_000)
+    private int providerCallQueueCapacity = 256;
+
+    @Min(60)
+    @Max(86_400)
+    private long jwksRefreshSeconds = 900;
+
+    @Min(1)
+    @Max(3_600)
+    private long jwksMinimumRefetchSeconds = 30;
 }
@@ -0,0 +1,176 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs outbound OAuth2 provider calls on a small daemon pool so that the
+ * independent calls of one login overlap instead of adding up on the request
+ * thread. Every call is bounded by {@code app.oauth2.http.call-deadline-ms}
+ * from submission, and its latency is recorded as
+ * {@code uniauth.oauth2.provider.call} tagged with provider, stage and
+ * outcome. When all {@code provider-call-threads} are busy a call waits in a
+ * bounded queue, still within its deadline; a call that expires while queued
+ * is dropped without running. Only when the queue is also full is the call
+ * rejected at once with {@link TimeoutException} rather than run on the
+ * caller, where nothing could bound it; rejections are counted as
+ * {@code uniauth.oauth2.provider.rejected}.
+ */
+final class OAuth2ProviderCalls implements AutoCloseable {
+
+    static final String CALL_TIMER = "uniauth.oauth2.provider.call";
+    static final String DEADLINE_COUNTER = "uniauth.oauth2.provider.deadline.exceeded";
+    static final String REJECTED_COUNTER = "uniauth.oauth2.provider.rejected";
+    private static final int DEFAULT_THREADS = 64;
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private final long deadlineMs;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+
+    OAuth2ProviderCalls(long deadlineMs, MeterRegistry meterRegistry) {
+        this(deadlineMs, DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY, meterRegistry);
+    }
+
+    OAuth2ProviderCalls(
+            long deadlineMs,
+            int maxThreads,
+            int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.deadlineMs = deadlineMs;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger sequence = new AtomicInteger();
+        BlockingQueue<Runnable> queue = queueCapacity == 0
+                ? new SynchronousQueue<>()
+                : new LinkedBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(
+                maxThreads,
+                maxThreads,
+                60,
+                TimeUnit.SECONDS,
+                queue,
+                runnable -> {
+                    Thread thread = new Thread(
+                            runnable,
+                            "oauth2-provider-" + sequence.incrementAndGet()
+                    );
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts a call; the returned future fails with {@link TimeoutException}
+     * once the deadline passes, or straight away when no thread is free and
+     * the queue is full. Cancelling the returned future interrupts the call.
+     */
+    <T> CompletableFuture<T> start(String provider, String stage, Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            long startedAt = System.nanoTime();
+            T value = null;
+            Throwable failure = null;
+            try {
+                value = call.call();
+            } catch (Throwable exception) {
+                failure = exception;
+            }
+            // Recorded before completion so the breakdown is in place when
+            // the caller resumes.
+            Timer.builder(CALL_TIMER)
+                    .tag("provider", provider)
+                    .tag("stage", stage)
+                    .tag("outcome", failure == null ? "success" : "error")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }, null);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException exception) {
+            meterRegistry.counter(
+                    REJECTED_COUNTER,
+                    "provider", provider,
+                    "stage", stage
+            ).increment();
+            result.completeExceptionally(new TimeoutException(
+                    "No OAuth2 provider call thread free for " + provider + " " + stage
+            ));
+            return result;
+        }
+        result.orTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+                .whenComplete((value, failure) -> {
+                    if (failure instanceof CancellationException) {
+                        // CompletableFuture.cancel never reaches the worker.
+                        cancel(task);
+                    } else if (failure instanceof TimeoutException) {
+                        cancel(task);
+                        meterRegistry.counter(
+                                DEADLINE_COUNTER,
+                                "provider", provider,
+                                "stage", stage
+                        ).increment();
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Waits for a started call and rethrows its own failure, or
+     * {@link TimeoutException} when it missed the deadline.
+     */
+    <T> T await(CompletableFuture<T> call) throws Exception {
+        try {
+            return call.get();
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof Exception failure) {
+                throw failure;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        } catch (InterruptedException exception) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw exception;
+        }
+    }
+
+    <T> T call(String provider, String stage, Callable<T> call) throws Exception {
+        return await(start(provider, stage, call));
+    }
+
+    private void cancel(FutureTask<Void> task) {
+        task.cancel(true);
+        // Frees the queue slot of a call that never started.
+        executor.remove(task);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
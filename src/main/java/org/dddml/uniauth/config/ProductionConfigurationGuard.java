@@ -77,6 +77,13 @@ public class ProductionConfigurationGuard implements InitializingBean {
         for (String property : STRONG_SECRET_PROPERTIES) {
             strongSecrets.add(requireSecret(property, 32));
         }
+        if (OAuth2AuthorizationRequestProperties.COOKIE_STORE.equals(
+                environment.getProperty("app.oauth2.authorization-request.store"))) {
+            strongSecrets.add(requireSecret(
+                    "app.oauth2.authorization-request.cookie-secret",
+                    32
+            ));
+        }
         if (new HashSet<>(strongSecrets).size() != strongSecrets.size()) {
             throw new IllegalStateException(
                     "Production secrets must use distinct values"
@@ -0,0 +1,87 @@
+package org.dddml.uniauth.config;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Marks reads that may be served by the read replica. Like
+ * {@link DatabaseWorkload} the mark is thread-bound and only decides where
+ * new connections come from, so it has to be entered before the transaction
+ * starts. Whether a read actually goes to the replica is decided by
+ * {@link ReplicaRouting} when the connection is acquired: it stays on the
+ * primary while the replica lags or the user is pinned there, and always
+ * when no replica is configured.
+ */
+public final class ReplicaReads {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private ReplicaReads() {
+    }
+
+    public static <T> T call(String userId, Supplier<T> read) {
+        return call(userId, read, result -> false);
+    }
+
+    /**
+     * Runs {@code read} again on the primary when the replica served it and
+     * {@code confirmOnPrimary} matches the result. Meant for answers such as
+     * "session not found" that a replica gives for rows it has not replayed
+     * yet.
+     */
+    public static <T> T call(
+            String userId,
+            Supplier<T> read,
+            Predicate<? super T> confirmOnPrimary) {
+        Scope scope = new Scope(userId);
+        T result = within(scope, read);
+        if (scope.served() && confirmOnPrimary.test(result)) {
+            return within(null, read);
+        }
+        return result;
+    }
+
+    static Scope current() {
+        return CURRENT.get();
+    }
+
+    private static <T> T within(Scope scope, Supplier<T> read) {
+        Scope previous = CURRENT.get();
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static final class Scope {
+
+        private final String userId;
+        private boolean served;
+
+        Scope(String userId) {
+            this.userId = userId;
+        }
+
+        String userId() {
+            return userId;
+        }
+
+        boolean served() {
+            return served;
+        }
+
+        void markServed() {
+            served = true;
+        }
+    }
+}
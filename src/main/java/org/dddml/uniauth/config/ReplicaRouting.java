@@ -0,0 +1,249 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a {@link ReplicaReads} read may use the read replica.
+ * <p>
+ * A probe thread samples the primary WAL position every
+ * {@code probe-interval-ms} and checks which samples the replica has
+ * replayed. A replayed sample proves the replica holds everything the
+ * primary had committed when it was taken, so the replica is admitted while
+ * the newest replayed sample is younger than {@code max-lag-ms}. This is
+ * used instead of the age of {@code pg_last_xact_replay_timestamp()}, which
+ * keeps growing on a caught-up standby while the primary is idle. A
+ * replica that cannot be probed, or is not a standby at all, ages out the
+ * same way.
+ * <p>
+ * Users whose session state was just changed on this node are pinned to the
+ * primary for {@code pin-window-ms}, so they read their own writes.
+ */
+@Slf4j
+public class ReplicaRouting implements AutoCloseable {
+
+    private static final String READS = "uniauth.datasource.replica.reads";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final Duration probeInterval;
+    private final Duration pinWindow;
+    private final Clock clock;
+    private final Counter servedByReplica;
+    private final Counter keptForLag;
+    private final Counter keptForPin;
+    private final Counter keptForFailure;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private final Map<String, Instant> pins = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService prober;
+
+    private volatile Instant caughtUpAt;
+    private volatile boolean probeFailing;
+
+    public ReplicaRouting(
+            DataSource primary,
+            DataSource replica,
+            DatabaseWorkloadProperties.Replica settings,
+            MeterRegistry meterRegistry) {
+        this(primary, replica, settings, meterRegistry, Clock.systemUTC());
+    }
+
+    ReplicaRouting(
+            DataSource primary,
+            DataSource replica,
+            DatabaseWorkloadProperties.Replica settings,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = Duration.ofMillis(settings.getMaxLagMs());
+        this.probeInterval = Duration.ofMillis(settings.getProbeIntervalMs());
+        this.pinWindow = Duration.ofMillis(settings.getPinWindowMs());
+        this.clock = clock;
+        this.servedByReplica = meterRegistry.counter(READS, "route", "replica");
+        this.keptForLag = meterRegistry.counter(READS, "route", "primary-lagging");
+        this.keptForPin = meterRegistry.counter(READS, "route", "primary-pinned");
+        this.keptForFailure = meterRegistry.counter(
+                READS,
+                "route", "primary-unavailable"
+        );
+        TimeGauge.builder(
+                        "uniauth.datasource.replica.staleness",
+                        this,
+                        TimeUnit.MILLISECONDS,
+                        ReplicaRouting::stalenessMillis
+                )
+                .register(meterRegistry);
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "datasource-replica-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public DataSource replica() {
+        return replica;
+    }
+
+    /**
+     * Keeps the user's replica reads on the primary until the replica has
+     * had time to replay a change this node just made.
+     */
+    public void pinPrimary(String userId) {
+        if (userId != null && !pinWindow.isZero()) {
+            pins.put(userId, clock.instant().plus(pinWindow));
+        }
+    }
+
+    void start() {
+        prober.scheduleWithFixedDelay(
+                this::probeQuietly,
+                0,
+                probeInterval.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+    }
+
+    /**
+     * A replica connection for the read, or {@code null} when it has to stay
+     * on the primary.
+     */
+    Connection connection(ReplicaReads.Scope scope) {
+        if (!admits(scope)) {
+            return null;
+        }
+        try {
+            Connection connection = replica.getConnection();
+            scope.markServed();
+            servedByReplica.increment();
+            return connection;
+        } catch (SQLException exception) {
+            // Stay on the primary until the next probe gets through.
+            caughtUpAt = null;
+            keptForFailure.increment();
+            log.debug("Read replica connection failed; using the primary", exception);
+            return null;
+        }
+    }
+
+    private boolean admits(ReplicaReads.Scope scope) {
+        if (scope == null) {
+            return false;
+        }
+        Instant now = clock.instant();
+        Instant pinnedUntil = scope.userId() == null
+                ? null
+                : pins.get(scope.userId());
+        if (pinnedUntil != null && now.isBefore(pinnedUntil)) {
+            keptForPin.increment();
+            return false;
+        }
+        Instant replayed = caughtUpAt;
+        if (replayed == null || Duration.between(replayed, now).compareTo(maxLag) > 0) {
+            keptForLag.increment();
+            return false;
+        }
+        return true;
+    }
+
+    synchronized void probe() throws SQLException {
+        Instant sampledAt = clock.instant();
+        // Sample the primary first so a caught-up replica confirms it at once.
+        Long primaryLsn = parseLsn(queryLsn(primary, "SELECT pg_current_wal_lsn()::text"));
+        if (primaryLsn != null) {
+            samples.addLast(new Sample(primaryLsn, sampledAt));
+        }
+        Long replayedLsn = parseLsn(queryLsn(
+                replica,
+                "SELECT pg_last_wal_replay_lsn()::text"
+        ));
+        Sample confirmed = null;
+        while (replayedLsn != null
+                && !samples.isEmpty()
+                && samples.peekFirst().lsn() <= replayedLsn) {
+            confirmed = samples.pollFirst();
+        }
+        if (confirmed != null) {
+            caughtUpAt = confirmed.at();
+        }
+        // Samples older than the lag bound can no longer admit the replica.
+        Instant oldestUseful = sampledAt.minus(maxLag);
+        while (!samples.isEmpty() && samples.peekFirst().at().isBefore(oldestUseful)) {
+            samples.pollFirst();
+        }
+        pins.values().removeIf(until -> !until.isAfter(sampledAt));
+    }
+
+    static Long parseLsn(String lsn) {
+        if (lsn == null) {
+            return null;
+        }
+        int slash = lsn.indexOf('/');
+        if (slash <= 0) {
+            throw new IllegalArgumentException("Malformed LSN");
+        }
+        return (Long.parseUnsignedLong(lsn.substring(0, slash), 16) << 32)
+                | Long.parseUnsignedLong(lsn.substring(slash + 1), 16);
+    }
+
+    private void probeQuietly() {
+        try {
+            probe();
+            if (probeFailing) {
+                probeFailing = false;
+                log.info("Read replica probe recovered");
+            }
+        } catch (SQLException | RuntimeException exception) {
+            if (!probeFailing) {
+                probeFailing = true;
+                log.warn(
+                        "Read replica probe failed; reads stay on the primary [error={}]",
+                        exception.getClass().getSimpleName()
+                );
+            }
+        }
+    }
+
+    private double stalenessMillis() {
+        Instant replayed = caughtUpAt;
+        return replayed == null
+                ? Double.NaN
+                : Duration.between(replayed, clock.instant()).toMillis();
+    }
+
+    private static String queryLsn(DataSource dataSource, String sql)
+            throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    private record Sample(long lsn, Instant at) {
+    }
+}
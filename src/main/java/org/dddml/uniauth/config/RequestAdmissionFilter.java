@@ -0,0 +1,125 @@
+package org.dddml.uniauth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits at most a fixed number of concurrent requests, sized to the JDBC
+ * pool (the default pool when workload pools are enabled). Waiters are
+ * served in arrival order and give up after {@code acquire-timeout-ms} with
+ * a 503, so an overload turns into fast rejections instead of every request
+ * timing out inside Hikari. Health probes bypass admission.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String BUSY_BODY = "{\"success\":false,"
+            + "\"error\":\"SERVER_BUSY\","
+            + "\"message\":\"Server is busy, please try again later\"}";
+
+    private final RequestAdmissionProperties properties;
+    private final int limit;
+    private final Semaphore permits;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public RequestAdmissionFilter(
+            RequestAdmissionProperties properties,
+            DataSource dataSource,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = resolveLimit(properties, dataSource);
+        this.permits = new Semaphore(limit, true);
+        this.waitTimer = Timer.builder("uniauth.http.admission.wait")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("uniauth.http.admission.rejected")
+                .register(meterRegistry);
+        Gauge.builder(
+                "uniauth.http.admission.in-flight",
+                permits,
+                available -> limit - available.availablePermits()
+        ).register(meterRegistry);
+        if (properties.isEnabled()) {
+            log.info("Request admission enabled [limit={}]", limit);
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || request.getRequestURI().startsWith("/actuator/health");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        long startTime = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(
+                    properties.getAcquireTimeoutMs(),
+                    TimeUnit.MILLISECONDS
+            );
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waitTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(BUSY_BODY);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    static int resolveLimit(
+            RequestAdmissionProperties properties,
+            DataSource dataSource) {
+        if (properties.getMaxConcurrent() > 0) {
+            return properties.getMaxConcurrent();
+        }
+        int poolSize = 10;
+        DataSource requestPool = dataSource instanceof WorkloadRoutingDataSource routing
+                ? routing.defaultPool()
+                : dataSource;
+        if (requestPool instanceof HikariDataSource hikari) {
+            poolSize = hikari.getMaximumPoolSize();
+        }
+        return Math.max(1, poolSize * properties.getPermitsPerConnection());
+    }
+}
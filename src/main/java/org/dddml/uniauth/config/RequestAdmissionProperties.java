@@ -0,0 +1,87 @@
+package org.dddml.uniauth.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Request admission in front of the JDBC pool. Meant for virtual-thread
+ * serving, where Tomcat no longer caps concurrency and every request would
+ * otherwise queue inside Hikari until its connection timeout.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.server.admission")
+@Validated
+public class RequestAdmissionProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Concurrent requests allowed in; 0 derives the limit from the JDBC
+     * pool size times {@code permits-per-connection}.
+     */
+    @Min(0)
+    @Max(100000)
+    private int maxConcurrent = 0;
+
+    /**
+     * Requests admitted per pooled connection. A request holds a
+     * connection for only part of its life, so more than one fits.
+     */
+    @Min(1)
+    @Max(64)
+    private int permitsPerConnection = 2;
+
+    @Min(0)
+    @Max(60000)
+    private long acquireTimeoutMs = 2000;
+
+    /**
+     * Pinned virtual-thread episodes at least this long are counted.
+     */
+    @Min(1)
+    @Max(60000)
+    private long pinnedThresholdMs = 20;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getPermitsPerConnection() {
+        return permitsPerConnection;
+    }
+
+    public void setPermitsPerConnection(int permitsPerConnection) {
+        this.permitsPerConnection = permitsPerConnection;
+    }
+
+    public long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public long getPinnedThresholdMs() {
+        return pinnedThresholdMs;
+    }
+
+    public void setPinnedThresholdMs(long pinnedThresholdMs) {
+        this.pinnedThresholdMs = pinnedThresholdMs;
+    }
+}
@@ -1,5 +1,6 @@
 package org.dddml.uniauth.config;
 
+import org.dddml.uniauth.service.TokenRejectionReason;
 import org.dddml.uniauth.service.TokenValidationService;
 import org.dddml.uniauth.service.AuthenticationCredentialResolver;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,11 +8,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -71,6 +76,29 @@ public class ResourceServerConfig {
         return converter;
     }
 
+    /**
+     * Bearer token 认证管理器
+     * 预检未通过的 token 直接以无栈异常拒绝，不再经过 Nimbus 解码和
+     * JwtAuthenticationProvider 的异常包装；通过预检的交给标准 provider
+     */
+    static AuthenticationManager bearerTokenAuthenticationManager(
+            TokenValidationService tokenValidationService,
+            JwtDecoder jwtDecoder,
+            JwtAuthenticationConverter jwtAuthenticationConverter) {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(jwtDecoder);
+        provider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+        return authentication -> {
+            if (authentication instanceof BearerTokenAuthenticationToken bearer) {
+                TokenRejectionReason reason =
+                        tokenValidationService.precheck(bearer.getToken());
+                if (reason != null) {
+                    throw new RejectedBearerTokenException(reason.description());
+                }
+            }
+            return provider.authenticate(authentication);
+        };
+    }
+
     /**
      * 资源服务器安全过滤器链
      * 配置受保护的API端点
@@ -95,11 +123,29 @@ public class ResourceServerConfig {
             .oauth2ResourceServer(oauth2 -> oauth2
                 .bearerTokenResolver(bearerTokenResolver)
                 .jwt(jwt -> jwt
-                    .decoder(jwtDecoder)
-                    .jwtAuthenticationConverter(jwtAuthenticationConverter)
+                    .authenticationManager(bearerTokenAuthenticationManager(
+                        tokenValidationService,
+                        jwtDecoder,
+                        jwtAuthenticationConverter
+                    ))
                 )
             );
 
         return http.build();
     }
+
+    /**
+     * 不捕获栈的 invalid_token 异常，每次拒绝只是一次小对象分配
+     */
+    static final class RejectedBearerTokenException extends InvalidBearerTokenException {
+
+        RejectedBearerTokenException(String description) {
+            super(description);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package org.dddml.uniauth.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.retention")
+@Validated
+public class RetentionProperties {
+
+    private boolean enabled = true;
+
+    @Min(1000)
+    @Max(3600000)
+    private long tickDelayMs = 15000;
+
+    @Min(1)
+    @Max(100000)
+    private int batchSize = 1000;
+
+    @Min(0)
+    @Max(60000)
+    private long pauseMs = 50;
+
+    @Min(100)
+    @Max(3600000)
+    private long maxRuntimeMs = 20000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTickDelayMs() {
+        return tickDelayMs;
+    }
+
+    public void setTickDelayMs(long tickDelayMs) {
+        this.tickDelayMs = tickDelayMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getPauseMs() {
+        return pauseMs;
+    }
+
+    public void setPauseMs(long pauseMs) {
+        this.pauseMs = pauseMs;
+    }
+
+    public long getMaxRuntimeMs() {
+        return maxRuntimeMs;
+    }
+
+    public void setMaxRuntimeMs(long maxRuntimeMs) {
+        this.maxRuntimeMs = maxRuntimeMs;
+    }
+}
@@ -0,0 +1,185 @@
+package org.dddml.uniauth.config;
+
+import lombok.RequiredArgsConstructor;
+import org.dddml.uniauth.service.RetentionEngine;
+import org.dddml.uniauth.service.RetentionPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Registers the expiry policies of every auth table that grows with traffic
+ * and drives them from one singleton sweeper, off the request path.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RetentionSchedulingConfig {
+
+    private final RetentionProperties properties;
+
+    @Bean
+    RetentionPolicy tokenFamilyRetentionPolicy(
+            @Value("${app.auth.session.cleanup-delay-ms:3600000}")
+            long intervalMs) {
+        return policy(
+                "token-families",
+                "token_families",
+                "expires_at < ?",
+                null,
+                Duration.ofDays(7),
+                intervalMs
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(
+        name = "app.auth.rate-limit.enabled",
+        havingValue = "true",
+        matchIfMissing = true
+    )
+    RetentionPolicy authRateLimitRetentionPolicy(
+            @Value("${app.auth.rate-limit.cleanup-delay-ms:60000}")
+            long intervalMs) {
+        return policy(
+                "auth-rate-limits",
+                "auth_rate_limits",
+                "expires_at <= ?",
+                null,
+                Duration.ZERO,
+                intervalMs
+        );
+    }
+
+    @Bean
+    RetentionPolicy oauth2BindingIntentRetentionPolicy() {
+        return policy(
+                "oauth2-binding-intents",
+                "oauth2_binding_intents",
+                "(expires_at <= ? OR consumed_at IS NOT NULL)",
+                null,
+                Duration.ZERO,
+                60000
+        );
+    }
+
+    @Bean
+    RetentionPolicy emailVerificationChallengeRetentionPolicy() {
+        return policy(
+                "email-verification-challenges",
+                "email_verification_codes",
+                "usage_status = 'UNUSED' AND expires_at <= ?",
+                "usage_status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP",
+                Duration.ZERO,
+                60000
+        );
+    }
+
+    /**
+     * Deletes expired Web3 challenges and, in the same statement, subtracts
+     * each batch from the global counter and from every source counter with
+     * one grouped update. Counter rows are locked global first, matching the
+     * order in which challenge issue reserves them.
+     */
+    @Bean
+    RetentionPolicy web3ChallengeRetentionPolicy(
+            @Value("${app.web3.cleanup-delay-ms:15000}") long intervalMs) {
+        return new RetentionPolicy(
+                "web3-challenges",
+                "web3_nonces",
+                "expires_at <= ?",
+                null,
+                Duration.ZERO,
+                Duration.ofMillis(intervalMs),
+                properties.getBatchSize(),
+                Duration.ofMillis(properties.getPauseMs()),
+                Duration.ofMillis(properties.getMaxRuntimeMs()),
+                """
+                released AS MATERIALIZED (
+                    SELECT 'global' AS bucket_key, count(*) AS row_count
+                    FROM removed
+                    UNION ALL
+                    SELECT 'source:' || source_key, count(*)
+                    FROM removed
+                    GROUP BY source_key
+                ),
+                locked AS MATERIALIZED (
+                    SELECT bucket_key
+                    FROM web3_challenge_counters
+                    WHERE bucket_key IN (
+                        SELECT bucket_key FROM released WHERE row_count > 0
+                    )
+                    ORDER BY bucket_key <> 'global', bucket_key
+                    FOR UPDATE
+                ),
+                released_counters AS (
+                    UPDATE web3_challenge_counters counters
+                    SET active_count =
+                            greatest(0, counters.active_count - released.row_count),
+                        updated_at = CURRENT_TIMESTAMP
+                    FROM released
+                    WHERE counters.bucket_key = released.bucket_key
+                      AND counters.bucket_key IN (SELECT bucket_key FROM locked)
+                )
+                """
+        );
+    }
+
+    @Bean
+    RetentionPolicy web3ChallengeCounterRetentionPolicy(
+            @Value("${app.web3.cleanup-delay-ms:15000}") long intervalMs) {
+        return policy(
+                "web3-challenge-counters",
+                "web3_challenge_counters",
+                "active_count = 0 AND updated_at <= ?",
+                null,
+                Duration.ZERO,
+                intervalMs
+        );
+    }
+
+    private RetentionPolicy policy(
+            String name,
+            String table,
+            String predicate,
+            String setClause,
+            Duration retention,
+            long intervalMs) {
+        return new RetentionPolicy(
+                name,
+                table,
+                predicate,
+                setClause,
+                retention,
+                Duration.ofMillis(intervalMs),
+                properties.getBatchSize(),
+                Duration.ofMillis(properties.getPauseMs()),
+                Duration.ofMillis(properties.getMaxRuntimeMs())
+        );
+    }
+
+    @Configuration
+    @RequiredArgsConstructor
+    @ConditionalOnProperty(
+        name = "app.retention.enabled",
+        havingValue = "true",
+        matchIfMissing = true
+    )
+    static class RetentionSweeper {
+
+        private final RetentionEngine retentionEngine;
+        private final ScheduledJobCoordinator coordinator;
+
+        @Scheduled(fixedDelayString = "${app.retention.tick-delay-ms:15000}")
+        public void sweep() {
+            coordinator.run(
+                    "retention",
+                    ScheduledJobCoordinator.Mode.SINGLETON,
+                    retentionEngine::runDue
+            );
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster-wide coordination for background sweepers.
+ * <p>
+ * Singleton jobs run only on the node holding the job's session-level
+ * {@code pg_try_advisory_lock}. The lock is held on one dedicated connection
+ * across runs, so leadership is sticky; when the leader dies its connection
+ * closes, PostgreSQL releases the lock and the next node to tick takes over.
+ * Sharded jobs run on every node and partition work through their own row
+ * claims. Jobs and the leadership connection use the
+ * {@link DatabaseWorkload#BACKGROUND} pool.
+ */
+@Component
+@Slf4j
+public class ScheduledJobCoordinator {
+
+    private static final String LOCK_NAMESPACE = "uniauth:scheduled-job:";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource dataSource;
+    private final SchedulingCoordinationProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
+
+    private Connection lockConnection;
+
+    public ScheduledJobCoordinator(
+            DataSource dataSource,
+            SchedulingCoordinationProperties properties,
+            MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = resolveNodeId(properties.getNodeId());
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Runs the job when this node is allowed to. Returns whether it ran.
+     */
+    public boolean run(String jobName, Mode mode, Runnable job) {
+        return DatabaseWorkload.BACKGROUND.call(() -> runJob(jobName, mode, job));
+    }
+
+    private boolean runJob(String jobName, Mode mode, Runnable job) {
+        JobState state = jobs.computeIfAbsent(jobName, this::register);
+        if (mode == Mode.SINGLETON
+                && properties.isEnabled()
+                && !holdLeadership(state)) {
+            state.skipped.increment();
+            return false;
+        }
+        state.running = true;
+        try {
+            job.run();
+            state.executed.increment();
+            return true;
+        } catch (RuntimeException exception) {
+            state.failed.increment();
+            throw exception;
+        } finally {
+            state.running = false;
+        }
+    }
+
+    public boolean isLeader(String jobName) {
+        JobState state = jobs.get(jobName);
+        return state != null && state.leader;
+    }
+
+    @PreDestroy
+    public synchronized void releaseAll() {
+        for (JobState state : jobs.values()) {
+            state.leader = false;
+        }
+        closeLockConnection();
+    }
+
+    private synchronized boolean holdLeadership(JobState state) {
+        try {
+            if (!lockConnectionValid()) {
+                loseAllLeadership();
+                lockConnection = dataSource.getConnection();
+                lockConnection.setAutoCommit(true);
+            }
+            if (state.leader) {
+                return true;
+            }
+            if (tryAdvisoryLock(lockConnection, state.lockKey)) {
+                state.leader = true;
+                log.info("Node {} acquired leadership of job {}", nodeId, state.name);
+            }
+            return state.leader;
+        } catch (SQLException exception) {
+            log.warn("Scheduling coordination unavailable for job {}", state.name);
+            loseAllLeadership();
+            closeLockConnection();
+            return false;
+        }
+    }
+
+    private boolean lockConnectionValid() throws SQLException {
+        return lockConnection != null
+                && !lockConnection.isClosed()
+                && lockConnection.isValid(VALIDATION_TIMEOUT_SECONDS);
+    }
+
+    private void loseAllLeadership() {
+        for (JobState state : jobs.values()) {
+            if (state.leader) {
+                state.leader = false;
+                log.warn("Node {} lost leadership of job {}", nodeId, state.name);
+            }
+        }
+    }
+
+    private void closeLockConnection() {
+        if (lockConnection == null) {
+            return;
+        }
+        try {
+            // Closing the session releases every advisory lock it holds.
+            lockConnection.close();
+        } catch (SQLException exception) {
+            log.debug("Scheduling lock connection close failed", exception);
+        } finally {
+            lockConnection = null;
+        }
+    }
+
+    private static boolean tryAdvisoryLock(Connection connection, long key)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private JobState register(String jobName) {
+        JobState state = new JobState(jobName, lockKey(jobName));
+        Gauge.builder(
+                        "uniauth.scheduler.leader",
+                        state,
+                        value -> value.leader ? 1 : 0
+                )
+                .description("1 when this node holds the job's leadership lock")
+                .tag("job", jobName)
+                .tag("node", nodeId)
+                .register(meterRegistry);
+        Gauge.builder(
+                        "uniauth.scheduler.running",
+                        state,
+                        value -> value.running ? 1 : 0
+                )
+                .description("1 while this node is executing the job")
+                .tag("job", jobName)
+                .tag("node", nodeId)
+                .register(meterRegistry);
+        state.executed = runCounter(jobName, "executed");
+        state.skipped = runCounter(jobName, "skipped");
+        state.failed = runCounter(jobName, "failed");
+        return state;
+    }
+
+    private Counter runCounter(String jobName, String outcome) {
+        return Counter.builder("uniauth.scheduler.runs")
+                .tag("job", jobName)
+                .tag("node", nodeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    static long lockKey(String jobName) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    (LOCK_NAMESPACE + jobName).getBytes(StandardCharsets.UTF_8)
+            );
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is unavailable", exception);
+        }
+    }
+
+    private static String resolveNodeId(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured.trim();
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception exception) {
+            host = "unknown-host";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+
+    public enum Mode {
+        /** Runs only on the node holding the job's advisory lock. */
+        SINGLETON,
+        /** Runs on every node; the job partitions work through row claims. */
+        SHARDED
+    }
+
+    private static final class JobState {
+
+        private final String name;
+        private final long lockKey;
+        private volatile boolean leader;
+        private volatile boolean running;
+        private Counter executed;
+        private Counter skipped;
+        private Counter failed;
+
+        private JobState(String name, long lockKey) {
+            this.name = name;
+            this.lockKey = lockKey;
+        }
+    }
+}
@@ -25,12 +25,16 @@ import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCo
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
 import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizationRequestResolver;
+import org.springframework.security.oauth2.client.web.HttpSessionOAuth2AuthorizationRequestRepository;
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestRedirectFilter;
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestResolver;
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestCustomizers;
@@ -38,9 +42,11 @@ import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationF
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
@@ -71,6 +77,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.dddml.uniauth.service.OAuth2BindingConflictException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -92,6 +100,9 @@ public class SecurityConfig {
     @Qualifier("oauth2RestTemplate")
     private RestTemplate oauth2RestTemplate;
 
+    @Autowired
+    private OAuth2ProviderCalls oauth2ProviderCalls;
+
     @Autowired
     private OAuth2AuthorizedClientService authorizedClientService;
 
@@ -134,6 +145,12 @@ public class SecurityConfig {
     @Autowired
     private AuthRateLimiter authRateLimiter;
 
+    @Autowired
+    private OAuth2AuthorizationRequestProperties authorizationRequestProperties;
+
+    @Autowired
+    private AuthCookieProperties authCookieProperties;
+
     /**
      * 配置AuthenticationManager用于本地用户认证
      */
@@ -153,14 +170,11 @@ public class SecurityConfig {
             try {
                 OAuth2ProviderProfile profile =
                         oauth2ProviderProfileService.resolve(authentication);
-                String sessionId = request.getSession(false) == null
-                        ? null
-                        : request.getSession(false).getId();
                 UserService.OAuthAuthenticationResult result =
                         userService.completeOAuth(
                                 profile,
                                 request.getParameter("state"),
-                                sessionId
+                                browserBinding(request)
                         );
                 Map<String, Object> issued = result.binding()
                         ? tokenIssuanceFacade.issue(
@@ -335,11 +349,30 @@ public class SecurityConfig {
                         }
                     }
                 )
+                .withObjectPostProcessor(
+                    new ObjectPostProcessor<OAuth2LoginAuthenticationFilter>() {
+                        @Override
+                        public <O extends OAuth2LoginAuthenticationFilter>
+                                O postProcess(O filter) {
+                            // With the authorization request in a cookie the
+                            // callback must not create a session just to save
+                            // a SecurityContext; the success handler issues
+                            // the token cookies that authenticate later calls.
+                            if (authorizationRequestProperties.isCookieStore()) {
+                                filter.setSecurityContextRepository(
+                                        new RequestAttributeSecurityContextRepository()
+                                );
+                            }
+                            return filter;
+                        }
+                    }
+                )
                 .loginPage("/login")
                 .successHandler(oauth2SuccessHandler())
                 .failureHandler(oauth2FailureHandler())
                 .authorizationEndpoint(authz -> authz
                     .authorizationRequestResolver(authorizationRequestResolver(clientRegistrationRepository))
+                    .authorizationRequestRepository(authorizationRequestRepository())
                 )
                 .tokenEndpoint(token -> token
                     .accessTokenResponseClient(
@@ -348,6 +381,7 @@ public class SecurityConfig {
                 )
                 .userInfoEndpoint(userInfo -> userInfo
                     .userService(oauth2UserService())
+                    .oidcUserService(oidcUserService())
                 )
                 .redirectionEndpoint(redirection -> redirection
                     .baseUri("/oauth2/callback")
@@ -380,7 +414,11 @@ public class SecurityConfig {
 
             if ("x".equals(registrationId)) {  // ✅ X API v2：检查 'x' 而不是 'twitter'
                 try {
-                    OAuth2User xUser = loadXUser(userRequest);
+                    OAuth2User xUser = oauth2ProviderCalls.call(
+                            registrationId,
+                            "user_info",
+                            () -> loadXUser(userRequest)
+                    );
 
                     // 为 X 手动存储 access token 到 authorizedClientService。
                     // 注意：这里无法直接存储，因为没有Authentication对象
@@ -419,11 +457,33 @@ public class SecurityConfig {
                 // 对于其他提供商使用默认服务
                 DefaultOAuth2UserService delegate = new DefaultOAuth2UserService();
                 delegate.setRestOperations(oauth2RestTemplate);
-                OAuth2User oauth2User = delegate.loadUser(userRequest);
 
                 if ("github".equals(registrationId)) {
-                    return processGitHubUser(oauth2User, userRequest.getAccessToken());
-                } else if ("google".equals(registrationId)) {
+                    // The email lookup only needs the access token, so it
+                    // runs alongside the profile request instead of after it.
+                    CompletableFuture<String> email = startGitHubEmailLookup(userRequest);
+                    OAuth2User oauth2User;
+                    try {
+                        oauth2User = providerCall(
+                                registrationId,
+                                "user_info",
+                                () -> delegate.loadUser(userRequest)
+                        );
+                    } catch (RuntimeException e) {
+                        if (email != null) {
+                            email.cancel(true);
+                        }
+                        throw e;
+                    }
+                    return processGitHubUser(oauth2User, email);
+                }
+
+                OAuth2User oauth2User = providerCall(
+                        registrationId,
+                        "user_info",
+                        () -> delegate.loadUser(userRequest)
+                );
+                if ("google".equals(registrationId)) {
                     return processGoogleUser(oauth2User);
                 }
 
@@ -432,6 +492,43 @@ public class SecurityConfig {
         };
     }
 
+    /**
+     * OIDC logins (Google) load user info through the same bounded
+     * RestTemplate and per-call deadline as the other providers.
+     */
+    @Bean
+    public OAuth2UserService<OidcUserRequest, OidcUser> oidcUserService() {
+        DefaultOAuth2UserService delegate = new DefaultOAuth2UserService();
+        delegate.setRestOperations(oauth2RestTemplate);
+        OidcUserService oidcUserService = new OidcUserService();
+        oidcUserService.setOauth2UserService(userRequest -> providerCall(
+                userRequest.getClientRegistration().getRegistrationId(),
+                "user_info",
+                () -> delegate.loadUser(userRequest)
+        ));
+        return oidcUserService;
+    }
+
+    private <T> T providerCall(String registrationId, String stage, Callable<T> call) {
+        try {
+            return oauth2ProviderCalls.call(registrationId, stage, call);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn(
+                    "OAuth2 provider call failed: provider={} stage={} cause={}",
+                    registrationId,
+                    stage,
+                    e.getClass().getSimpleName()
+            );
+            throw new OAuth2AuthenticationException(
+                    new OAuth2Error("invalid_user_info_response"),
+                    "Failed to load " + registrationId + " user profile",
+                    e
+            );
+        }
+    }
+
     private OAuth2User loadXUser(OAuth2UserRequest userRequest) throws Exception {  // ✅ X API v2：方法名更新
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(
@@ -550,14 +647,30 @@ public class SecurityConfig {
                 : result.substring(0, X_ERROR_FIELD_MAX_LENGTH);
     }
 
-    private OAuth2User processGitHubUser(OAuth2User oauth2User, OAuth2AccessToken accessToken) {
+    private CompletableFuture<String> startGitHubEmailLookup(OAuth2UserRequest userRequest) {
+        OAuth2AccessToken accessToken = userRequest.getAccessToken();
+        // Only the verified primary email endpoint can establish contact trust.
+        if (!accessToken.getScopes().contains("user:email")) {
+            return null;
+        }
+        String emailsUri = userRequest.getClientRegistration()
+                .getProviderDetails()
+                .getUserInfoEndpoint()
+                .getUri() + "/emails";
+        return oauth2ProviderCalls.start(
+                userRequest.getClientRegistration().getRegistrationId(),
+                "emails",
+                () -> getGitHubUserEmail(emailsUri, accessToken.getTokenValue())
+        );
+    }
+
+    private OAuth2User processGitHubUser(OAuth2User oauth2User, CompletableFuture<String> emailLookup) {
         Map<String, Object> attributes = new HashMap<>(oauth2User.getAttributes());
         attributes.remove(OAuth2ProviderProfileService.VERIFIED_GITHUB_EMAIL);
 
-        // Only the verified primary email endpoint can establish contact trust.
-        if (accessToken.getScopes().contains("user:email")) {
+        if (emailLookup != null) {
             try {
-                String email = getGitHubUserEmail(accessToken.getTokenValue());
+                String email = oauth2ProviderCalls.await(emailLookup);
                 if (email != null) {
                     attributes.put(
                             OAuth2ProviderProfileService.VERIFIED_GITHUB_EMAIL,
@@ -582,7 +695,7 @@ public class SecurityConfig {
     }
 
     // 新增：获取GitHub用户邮箱的方法
-    private String getGitHubUserEmail(String accessToken) throws Exception {
+    private String getGitHubUserEmail(String emailsUri, String accessToken) throws Exception {
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(accessToken);
         headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
@@ -590,7 +703,7 @@ public class SecurityConfig {
         HttpEntity<?> entity = new HttpEntity<>(headers);
 
         ResponseEntity<List<Map<String, Object>>> response = oauth2RestTemplate.exchange(
-            "https://api.github.com/user/emails",
+            emailsUri,
             HttpMethod.GET,
             entity,
             new ParameterizedTypeReference<List<Map<String, Object>>>() {}
@@ -624,10 +737,23 @@ public class SecurityConfig {
                 tokenValidationService,
                 recentAuthenticationService,
                 oauth2BindingIntentService,
-                authRateLimiter
+                authRateLimiter,
+                authorizationRequestProperties.isCookieStore()
         );
     }
 
+    @Bean
+    public AuthorizationRequestRepository<OAuth2AuthorizationRequest>
+            authorizationRequestRepository() {
+        if (authorizationRequestProperties.isCookieStore()) {
+            return new EncryptedCookieOAuth2AuthorizationRequestRepository(
+                    authorizationRequestProperties,
+                    authCookieProperties
+            );
+        }
+        return new HttpSessionOAuth2AuthorizationRequestRepository();
+    }
+
     private boolean acceptsJson(HttpServletRequest request) {
         String accept = request.getHeader(HttpHeaders.ACCEPT);
         return accept != null && accept.contains(MediaType.APPLICATION_JSON_VALUE);
@@ -647,12 +773,36 @@ public class SecurityConfig {
                         request.getContextPath().length()))) {
             return false;
         }
+        OAuth2AuthorizationRequest callbackRequest =
+                EncryptedCookieOAuth2AuthorizationRequestRepository
+                        .callbackRequest(request);
+        if (callbackRequest != null) {
+            return callbackRequest.getAttribute(
+                    ExplicitOAuth2AuthorizationRequestResolver
+                            .BINDING_PROVIDER_ATTRIBUTE) != null;
+        }
         return request.getSession(false) != null
                 && request.getSession(false).getAttribute(
                         ExplicitOAuth2AuthorizationRequestResolver
                                 .BINDING_SESSION_ATTRIBUTE) != null;
     }
 
+    // Binding intents are bound to the session id, or to the random value
+    // sealed into the authorization request cookie when there is no session.
+    private String browserBinding(HttpServletRequest request) {
+        OAuth2AuthorizationRequest callbackRequest =
+                EncryptedCookieOAuth2AuthorizationRequestRepository
+                        .callbackRequest(request);
+        if (callbackRequest != null) {
+            return callbackRequest.getAttribute(
+                    ExplicitOAuth2AuthorizationRequestResolver
+                            .BROWSER_BINDING_ATTRIBUTE);
+        }
+        return request.getSession(false) == null
+                ? null
+                : request.getSession(false).getId();
+    }
+
     private void clearBindingCallbackMarker(HttpServletRequest request) {
         if (request.getSession(false) != null) {
             request.getSession(false).removeAttribute(
@@ -0,0 +1,106 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event while requests run
+ * on virtual threads and turns it into metrics: a pinned virtual thread
+ * holds its carrier, so frequent long pins undo the benefit of the mode.
+ * Only created when Spring Boot actually runs on virtual threads, which
+ * needs both {@code spring.threads.virtual.enabled} and Java 21 or later;
+ * {@link VirtualThreadRuntimeCheck} refuses the switch on older runtimes.
+ */
+@Component
+@Slf4j
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final RequestAdmissionProperties properties;
+    private final Counter pinned;
+    private final Timer pinnedDuration;
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            RequestAdmissionProperties properties,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pinned = Counter.builder("uniauth.virtual-threads.pinned")
+                .register(meterRegistry);
+        this.pinnedDuration = Timer.builder("uniauth.virtual-threads.pinned.duration")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(properties.getPinnedThresholdMs()))
+                .withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    void record(RecordedEvent event) {
+        pinned.increment();
+        pinnedDuration.record(event.getDuration());
+        if (log.isDebugEnabled()) {
+            log.debug(
+                    "Virtual thread pinned [durationMs={}, frame={}]",
+                    event.getDuration().toMillis(),
+                    topFrame(event.getStackTrace())
+            );
+        }
+    }
+
+    // The innermost frames belong to the JDK's park/yield machinery; the
+    // first frame outside it is the code that pinned the carrier.
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unavailable";
+        }
+        RecordedFrame top = stackTrace.getFrames().get(0);
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.")
+                    && !type.startsWith("jdk.")
+                    && !type.startsWith("sun.")) {
+                top = frame;
+                break;
+            }
+        }
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+}
@@ -0,0 +1,35 @@
+package org.dddml.uniauth.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refuses to start with {@code spring.threads.virtual.enabled=true} on a
+ * runtime older than Java 21. Spring Boot ignores the switch there, so the
+ * service would quietly serve on platform threads without Tomcat's thread
+ * cap in mind and without pinning metrics. The build targets Java 17, so
+ * this is checked against the running JVM rather than at compile time.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadRuntimeCheck implements InitializingBean {
+
+    static final int MINIMUM_JAVA_VERSION = 21;
+
+    @Override
+    public void afterPropertiesSet() {
+        requireVirtualThreads(Runtime.version().feature());
+    }
+
+    static void requireVirtualThreads(int javaVersion) {
+        if (javaVersion < MINIMUM_JAVA_VERSION) {
+            throw new IllegalStateException(
+                    "spring.threads.virtual.enabled requires Java "
+                            + MINIMUM_JAVA_VERSION
+                            + " or later; this runtime is Java "
+                            + javaVersion
+            );
+        }
+    }
+}
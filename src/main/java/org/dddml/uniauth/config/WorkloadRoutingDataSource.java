@@ -0,0 +1,104 @@
+package org.dddml.uniauth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the current
+ * {@link DatabaseWorkload}, falling back to the default pool outside any
+ * workload. With a {@link ReplicaRouting}, {@link ReplicaReads} that it
+ * admits get a replica connection instead, and fall back to the workload pool
+ * when the replica cannot hand one out. Closing it closes every pool.
+ */
+@Slf4j
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource
+        implements AutoCloseable {
+
+    private final DataSource defaultPool;
+    private final Map<DatabaseWorkload, DataSource> pools;
+    private final ReplicaRouting replicaRouting;
+
+    public WorkloadRoutingDataSource(
+            DataSource defaultPool,
+            Map<DatabaseWorkload, ? extends DataSource> pools) {
+        this(defaultPool, pools, null);
+    }
+
+    public WorkloadRoutingDataSource(
+            DataSource defaultPool,
+            Map<DatabaseWorkload, ? extends DataSource> pools,
+            ReplicaRouting replicaRouting) {
+        this.defaultPool = defaultPool;
+        this.pools = new EnumMap<>(DatabaseWorkload.class);
+        this.pools.putAll(pools);
+        this.replicaRouting = replicaRouting;
+        setDefaultTargetDataSource(defaultPool);
+        setTargetDataSources(new HashMap<>(this.pools));
+        afterPropertiesSet();
+    }
+
+    public DataSource defaultPool() {
+        return defaultPool;
+    }
+
+    public DataSource pool(DatabaseWorkload workload) {
+        return pools.getOrDefault(workload, defaultPool);
+    }
+
+    /**
+     * The replica routing, or {@code null} when no replica is configured.
+     */
+    public ReplicaRouting replicaRouting() {
+        return replicaRouting;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicaRouting != null) {
+            Connection replica = replicaRouting.connection(ReplicaReads.current());
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return super.getConnection();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DatabaseWorkload.current();
+    }
+
+    @Override
+    public void close() {
+        if (replicaRouting != null) {
+            replicaRouting.close();
+        }
+        for (DataSource pool : pools.values()) {
+            closePool(pool);
+        }
+        closePool(defaultPool);
+        if (replicaRouting != null) {
+            closePool(replicaRouting.replica());
+        }
+    }
+
+    private static void closePool(DataSource pool) {
+        if (pool instanceof HikariDataSource hikari) {
+            hikari.close();
+        } else if (pool instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception exception) {
+                log.debug("Connection pool close failed", exception);
+            }
+        }
+    }
+}
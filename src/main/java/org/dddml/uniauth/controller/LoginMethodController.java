@@ -2,6 +2,7 @@ package org.dddml.uniauth.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.dddml.uniauth.config.ReplicaReads;
 import org.dddml.uniauth.dto.AddLocalLoginRequest;
 import org.dddml.uniauth.dto.LoginMethodDto;
 import org.dddml.uniauth.dto.LoginMethodMutationResponse;
@@ -48,7 +49,12 @@ public class LoginMethodController {
         try {
             String userId = jwt.getClaim("userId");
             
-            List<UserLoginMethod> methods = loginMethodService.getUserLoginMethods(userId);
+            // Entered outside the service so its read-only transaction can
+            // start on the replica.
+            List<UserLoginMethod> methods = ReplicaReads.call(
+                    userId,
+                    () -> loginMethodService.getUserLoginMethods(userId)
+            );
             
             List<LoginMethodDto> methodDtos = methods.stream()
                 .map(this::convertToDto)
@@ -5,6 +5,7 @@ import com.nimbusds.jose.jwk.RSAKey;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.config.DatabaseWorkload;
 import org.dddml.uniauth.config.IntrospectionProperties;
 import org.dddml.uniauth.service.AuthCookieService;
 import org.dddml.uniauth.service.AuthRateLimiter;
@@ -104,10 +105,12 @@ public class OAuth2TokenController {
                 request.getRemoteAddr(),
                 clientId.orElseThrow()
         );
+        // Entered before the introspection lookups take their connections.
         Optional<TokenValidationService.IntrospectedToken> result =
-                tokenIntrospectionService.introspect(
-                        form.getFirst("token")
-                );
+                DatabaseWorkload.VALIDATION.call(() ->
+                        tokenIntrospectionService.introspect(
+                                form.getFirst("token")
+                        ));
         if (result.isEmpty()) {
             return ResponseEntity.ok(Map.of("active", false));
         }
@@ -8,7 +8,6 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,29 +16,6 @@ public interface EmailDeliveryOutboxRepository
 
     Optional<EmailDeliveryOutbox> findByChallengeId(String challengeId);
 
-    @Query(
-        value = """
-            SELECT id
-            FROM email_delivery_outbox
-            WHERE (
-                    status = 'PENDING'
-                    AND next_attempt_at <= :now
-                )
-               OR (
-                    status = 'PROCESSING'
-                    AND processing_started_at < :stuckBefore
-                )
-            ORDER BY next_attempt_at, created_at
-            LIMIT :batchSize
-            """,
-        nativeQuery = true
-    )
-    List<String> findClaimCandidates(
-            @Param("now") Instant now,
-            @Param("stuckBefore") Instant stuckBefore,
-            @Param("batchSize") int batchSize
-    );
-
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
         value = """
@@ -99,18 +99,6 @@ public interface EmailVerificationCodeRepository
             @Param("maxRetryAttempts") int maxRetryAttempts
     );
 
-    @Modifying(clearAutomatically = true, flushAutomatically = true)
-    @Query("""
-        UPDATE EmailVerificationCode challenge
-        SET challenge.usageStatus =
-                org.dddml.uniauth.entity.EmailVerificationCode.UsageStatus.EXPIRED,
-            challenge.updatedAt = CURRENT_TIMESTAMP
-        WHERE challenge.usageStatus =
-                org.dddml.uniauth.entity.EmailVerificationCode.UsageStatus.UNUSED
-          AND challenge.expiresAt <= :now
-        """)
-    int expireChallenges(@Param("now") Instant now);
-
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
         value = """
@@ -72,14 +72,4 @@ public interface TokenFamilyRepository
             @Param("reason") String reason,
             @Param("now") Instant now
     );
-
-    @Modifying
-    @Query(
-        value = """
-                DELETE FROM token_families
-                WHERE expires_at < :cutoff
-                """,
-        nativeQuery = true
-    )
-    int deleteExpiredBefore(@Param("cutoff") Instant cutoff);
 }
@@ -2,6 +2,7 @@ package org.dddml.uniauth.service;
 
 import lombok.RequiredArgsConstructor;
 import org.dddml.uniauth.config.AuthRateLimitProperties;
+import org.dddml.uniauth.config.DatabaseWorkload;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -45,29 +46,20 @@ public class AuthRateLimiter {
                         : identity.trim().toLowerCase(Locale.ROOT),
                 512
         );
-        reserve(
-                "source:" + digest(policy.name() + "|" + source),
-                properties.getSourceLimit()
-        );
-        reserve(
-                "identity:" + digest(
-                        policy.name()
-                                + "|" + source
-                                + "|" + normalizedIdentity
-                ),
-                limit(policy)
-        );
-    }
-
-    public int cleanupExpired() {
-        try {
-            return jdbcTemplate.update(
-                    "DELETE FROM auth_rate_limits WHERE expires_at <= ?",
-                    Timestamp.from(Instant.now())
+        DatabaseWorkload.AUTH_WRITES.run(() -> {
+            reserve(
+                    "source:" + digest(policy.name() + "|" + source),
+                    properties.getSourceLimit()
             );
-        } catch (DataAccessException exception) {
-            throw new AuthRateLimiterUnavailableException(exception);
-        }
+            reserve(
+                    "identity:" + digest(
+                            policy.name()
+                                    + "|" + source
+                                    + "|" + normalizedIdentity
+                    ),
+                    limit(policy)
+            );
+        });
     }
 
     public String protectedKey(String namespace, String value) {
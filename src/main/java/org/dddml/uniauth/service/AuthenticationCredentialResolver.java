@@ -49,24 +49,18 @@ public class AuthenticationCredentialResolver {
         resolveAccessToken(request).flatMap(token -> {
             try {
                 return Optional.of(tokenValidationService
-                        .decodeAccessToken(token));
-            } catch (RuntimeException exception) {
-                return Optional.empty();
-            }
-        }).map(jwt -> tokenValidationService.accessTokenForRevocation(
-                jwt.getTokenValue()
-        )).flatMap(value -> value).ifPresent(tokens::add);
-
-        resolveRefreshToken(request).flatMap(token -> {
-            try {
-                return Optional.of(
-                        tokenValidationService.decodeRefreshToken(token)
-                );
+                        .validatedAccessToken(token));
             } catch (RuntimeException exception) {
                 return Optional.empty();
             }
         }).ifPresent(tokens::add);
 
+        resolveRefreshToken(request)
+                .flatMap(token -> tokenValidationService
+                        .checkRefreshToken(token)
+                        .token())
+                .ifPresent(tokens::add);
+
         if (tokens.isEmpty()) {
             return Optional.empty();
         }
@@ -1,21 +1,59 @@
 package org.dddml.uniauth.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.config.DatabaseWorkload;
+import org.dddml.uniauth.config.EmailDeliveryProperties;
 import org.dddml.uniauth.service.EmailDeliveryOutboxStateService.DeliveryWork;
+import org.dddml.uniauth.service.email.AsyncEmailService;
+import org.dddml.uniauth.service.email.EmailBatchResult;
 import org.dddml.uniauth.service.email.EmailDeliveryClientException;
 import org.dddml.uniauth.service.email.EmailDeliveryReceipt;
 import org.dddml.uniauth.service.email.EmailService;
+import org.dddml.uniauth.service.email.EmailTemplateRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+/**
+ * Drains the email delivery outbox. Each round claims a batch of due rows in
+ * one {@code SKIP LOCKED} statement and hands the rows to a bounded worker
+ * pool, so slow provider calls overlap instead of queueing behind each other
+ * on the scheduler thread. Rounds repeat while full batches keep coming back;
+ * other nodes running the same loop claim disjoint rows. With an enqueue
+ * batch size above one, each worker sends a chunk of rows to the email
+ * service in a single call and settles every row from its own result.
+ * When the email client is asynchronous, rows are instead pipelined: up to
+ * {@code max-in-flight} requests are outstanding at once without a thread
+ * each, and only the state updates run on the worker pool. Every call to
+ * the email service passes through {@link EmailServiceLimiter}: each round
+ * claims no more rows than the limiter admits, and none while its breaker
+ * is open, so an outage defers rows instead of spending their attempts.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EmailDeliveryOutboxProcessor {
 
@@ -25,25 +63,100 @@ public class EmailDeliveryOutboxProcessor {
     private final EmailDeliveryOutboxStateService stateService;
     private final EmailVerificationCodeProtector codeProtector;
     private final EmailService emailService;
+    private final EmailServiceLimiter limiter;
+    private final int batchSize;
+    private final int enqueueBatchSize;
+    private final Semaphore workerPermits;
+    private final Semaphore requestPermits;
+    private final ExecutorService workers;
+    private final Executor workerTasks;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter claimed;
+    private final Counter deferred;
+    private final Timer claimLag;
+    private final Timer firstAttempt;
+    private final Map<Outcome, Timer> deliveries = new EnumMap<>(Outcome.class);
+
+    public EmailDeliveryOutboxProcessor(
+            EmailDeliveryOutboxStateService stateService,
+            EmailVerificationCodeProtector codeProtector,
+            EmailService emailService,
+            EmailServiceLimiter limiter,
+            EmailDeliveryProperties deliveryProperties,
+            MeterRegistry meterRegistry) {
+        this.stateService = stateService;
+        this.codeProtector = codeProtector;
+        this.emailService = emailService;
+        this.limiter = limiter;
+        this.batchSize = deliveryProperties.getBatchSize();
+        this.enqueueBatchSize = deliveryProperties.getEnqueueBatchSize();
+        int concurrency = deliveryProperties.getWorkerConcurrency();
+        this.workerPermits = new Semaphore(concurrency);
+        this.requestPermits = new Semaphore(deliveryProperties.getMaxInFlight());
+        this.workers = newWorkerExecutor(
+                concurrency,
+                deliveryProperties.isWorkerVirtualThreads()
+        );
+        this.workerTasks = DatabaseWorkload.BACKGROUND.executor(workers);
+        this.claimed = Counter.builder("uniauth.email.outbox.claimed")
+                .description("Outbox rows claimed for delivery")
+                .register(meterRegistry);
+        this.deferred = Counter.builder("uniauth.email.outbox.deferred")
+                .description("Outbox rounds skipped because the email service limiter admitted no work")
+                .register(meterRegistry);
+        this.claimLag = Timer.builder("uniauth.email.outbox.claim.lag")
+                .description("Time between a row becoming due and its claim")
+                .register(meterRegistry);
+        this.firstAttempt = Timer.builder("uniauth.email.outbox.first.attempt")
+                .description("Time from enqueue to the first delivery attempt")
+                .register(meterRegistry);
+        for (Outcome outcome : Outcome.values()) {
+            deliveries.put(outcome, Timer.builder("uniauth.email.outbox.delivery")
+                    .description("Per-item outbox delivery latency")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("uniauth.email.outbox.inflight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+    }
 
     public int processAvailable() {
-        Instant now = Instant.now();
         int processed = 0;
-        for (String candidate : stateService.findCandidates(now)) {
-            Optional<DeliveryWork> claimed = stateService.claim(
-                    candidate,
-                    Instant.now()
+        while (!Thread.currentThread().isInterrupted()) {
+            // The limiter counts email service calls, and each call carries
+            // up to enqueueBatchSize rows.
+            int admittedCalls = limiter.admit(
+                    (batchSize + enqueueBatchSize - 1) / enqueueBatchSize
             );
-            if (claimed.isEmpty()) {
-                continue;
+            if (admittedCalls == 0) {
+                deferred.increment();
+                break;
+            }
+            int admitted = Math.min(batchSize, admittedCalls * enqueueBatchSize);
+            Instant now = Instant.now();
+            List<DeliveryWork> batch = stateService.claimBatch(now, admitted);
+            if (batch.isEmpty()) {
+                break;
+            }
+            claimed.increment(batch.size());
+            for (DeliveryWork work : batch) {
+                recordClaim(work, now);
+            }
+            processed += emailService instanceof AsyncEmailService client
+                    && enqueueBatchSize == 1
+                    ? processPipelined(client, batch)
+                    : processConcurrently(batch);
+            if (batch.size() < admitted) {
+                break;
             }
-            process(claimed.get());
-            processed++;
         }
         return processed;
     }
 
     public boolean processOne(String outboxId) {
+        if (limiter.admit(1) == 0) {
+            return false;
+        }
         Optional<DeliveryWork> claimed = stateService.claim(
                 outboxId,
                 Instant.now()
@@ -51,26 +164,290 @@ public class EmailDeliveryOutboxProcessor {
         if (claimed.isEmpty()) {
             return false;
         }
-        process(claimed.get());
+        recordClaim(claimed.get(), Instant.now());
+        processTimed(claimed.get());
         return true;
     }
 
-    private void process(DeliveryWork work) {
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException exception) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the batch on the worker pool, one task per enqueue chunk, and
+     * waits for it. Rows that are never submitted because the caller was
+     * interrupted stay PROCESSING and are reclaimed once the processing
+     * timeout passes.
+     */
+    private int processConcurrently(List<DeliveryWork> batch) {
+        List<CompletableFuture<Void>> submitted = new ArrayList<>();
+        int processed = 0;
+        for (int from = 0; from < batch.size(); from += enqueueBatchSize) {
+            List<DeliveryWork> chunk = batch.subList(
+                    from,
+                    Math.min(from + enqueueBatchSize, batch.size())
+            );
+            try {
+                workerPermits.acquire();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                submitted.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        if (chunk.size() == 1) {
+                            processTimed(chunk.get(0));
+                        } else {
+                            processChunkTimed(chunk);
+                        }
+                    } catch (RuntimeException exception) {
+                        logStateUpdateFailure(chunk.get(0), exception);
+                    } finally {
+                        workerPermits.release();
+                    }
+                }, workerTasks));
+                processed += chunk.size();
+            } catch (RejectedExecutionException exception) {
+                workerPermits.release();
+                break;
+            }
+        }
+        CompletableFuture.allOf(
+                submitted.toArray(CompletableFuture[]::new)
+        ).join();
+        return processed;
+    }
+
+    /**
+     * Starts one asynchronous request per row, holding a permit rather than a
+     * thread while it is outstanding, and waits for the whole batch.
+     */
+    private int processPipelined(
+            AsyncEmailService client,
+            List<DeliveryWork> batch) {
+        List<CompletableFuture<Void>> submitted = new ArrayList<>(batch.size());
+        for (DeliveryWork work : batch) {
+            try {
+                requestPermits.acquire();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                submitted.add(dispatch(client, work));
+            } catch (RejectedExecutionException exception) {
+                inFlight.decrementAndGet();
+                requestPermits.release();
+                break;
+            }
+        }
+        CompletableFuture.allOf(
+                submitted.toArray(CompletableFuture[]::new)
+        ).join();
+        return submitted.size();
+    }
+
+    private CompletableFuture<Void> dispatch(
+            AsyncEmailService client,
+            DeliveryWork work) {
+        inFlight.incrementAndGet();
+        long startedAt = System.nanoTime();
+        CompletableFuture<Outcome> outcome;
+        if (expired(work, Instant.now())) {
+            outcome = CompletableFuture.supplyAsync(() -> {
+                stateService.fail(work, "DELIVERY_DEADLINE_EXCEEDED", Instant.now());
+                return Outcome.FAILED;
+            }, workerTasks);
+        } else {
+            CompletableFuture<EmailDeliveryReceipt> sent;
+            try {
+                EmailTemplateRequest request = request(work);
+                long callStartedAt = limiter.start();
+                try {
+                    sent = client.enqueueTemplateEmailAsync(request)
+                            .whenComplete((receipt, error) ->
+                                    limiter.complete(callStartedAt, error));
+                } catch (RuntimeException exception) {
+                    limiter.complete(callStartedAt, exception);
+                    throw exception;
+                }
+            } catch (RuntimeException exception) {
+                sent = CompletableFuture.failedFuture(exception);
+            }
+            outcome = sent.handleAsync(
+                    (receipt, error) -> settle(work, () -> {
+                        if (error != null) {
+                            throw asRuntime(error);
+                        }
+                        return receipt;
+                    }),
+                    workerTasks
+            );
+        }
+        return outcome.handle((result, error) -> {
+            inFlight.decrementAndGet();
+            requestPermits.release();
+            if (error != null) {
+                logStateUpdateFailure(work, asRuntime(error));
+            }
+            deliveries.get(result == null ? Outcome.RETRY : result).record(
+                    System.nanoTime() - startedAt,
+                    TimeUnit.NANOSECONDS
+            );
+            return null;
+        });
+    }
+
+    private static RuntimeException asRuntime(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RuntimeException runtime
+                ? runtime
+                : new CompletionException(error);
+    }
+
+    private void recordClaim(DeliveryWork work, Instant claimedAt) {
+        if (work.dueAt() == null || work.dueAt().isAfter(claimedAt)) {
+            return;
+        }
+        Duration lag = Duration.between(work.dueAt(), claimedAt);
+        claimLag.record(lag);
+        if (work.attemptCount() == 1) {
+            firstAttempt.record(lag);
+        }
+    }
+
+    private void processTimed(DeliveryWork work) {
+        inFlight.incrementAndGet();
+        long startedAt = System.nanoTime();
+        Outcome outcome = Outcome.RETRY;
+        try {
+            outcome = process(work);
+        } finally {
+            inFlight.decrementAndGet();
+            deliveries.get(outcome).record(
+                    System.nanoTime() - startedAt,
+                    TimeUnit.NANOSECONDS
+            );
+        }
+    }
+
+    private void processChunkTimed(List<DeliveryWork> chunk) {
+        inFlight.addAndGet(chunk.size());
+        long startedAt = System.nanoTime();
+        Outcome[] outcomes = new Outcome[chunk.size()];
+        Arrays.fill(outcomes, Outcome.RETRY);
+        try {
+            processChunk(chunk, outcomes);
+        } finally {
+            inFlight.addAndGet(-chunk.size());
+            long elapsed = System.nanoTime() - startedAt;
+            for (Outcome outcome : outcomes) {
+                deliveries.get(outcome).record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sends every live row of the chunk in one call. A failure of the whole
+     * call settles each row as if it had failed on its own.
+     */
+    private void processChunk(List<DeliveryWork> chunk, Outcome[] outcomes) {
         Instant now = Instant.now();
-        if (!work.deliveryDeadline().isAfter(now)
-                || !work.totalExpiresAt().isAfter(now)) {
-            stateService.fail(work, "DELIVERY_DEADLINE_EXCEEDED", now);
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        List<EmailTemplateRequest> requests = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            DeliveryWork work = chunk.get(i);
+            if (expired(work, now)) {
+                stateService.fail(work, "DELIVERY_DEADLINE_EXCEEDED", now);
+                outcomes[i] = Outcome.FAILED;
+                continue;
+            }
+            try {
+                requests.add(request(work));
+                positions.add(i);
+            } catch (RuntimeException exception) {
+                outcomes[i] = settleQuietly(work, () -> {
+                    throw exception;
+                });
+            }
+        }
+        if (requests.isEmpty()) {
             return;
         }
 
+        List<EmailBatchResult> results;
         try {
-            Optional<EmailDeliveryReceipt> existing =
-                    emailService.findDeliveryByIdempotencyKey(
-                            work.idempotencyKey()
-                    );
-            EmailDeliveryReceipt receipt = existing.orElseGet(
-                    () -> enqueue(work)
+            results = limited(() -> emailService.enqueueTemplateEmails(requests));
+            if (results.size() != requests.size()) {
+                throw new EmailDeliveryClientException(
+                        "EMAIL_SERVICE_INVALID_RESPONSE",
+                        true
+                );
+            }
+        } catch (RuntimeException exception) {
+            for (int position : positions) {
+                outcomes[position] = settleQuietly(chunk.get(position), () -> {
+                    throw exception;
+                });
+            }
+            return;
+        }
+        for (int i = 0; i < positions.size(); i++) {
+            int position = positions.get(i);
+            outcomes[position] = settleQuietly(
+                    chunk.get(position),
+                    results.get(i)::receiptOrThrow
             );
+        }
+    }
+
+    private Outcome settleQuietly(
+            DeliveryWork work,
+            Supplier<EmailDeliveryReceipt> delivery) {
+        try {
+            return settle(work, delivery);
+        } catch (RuntimeException exception) {
+            logStateUpdateFailure(work, exception);
+            return Outcome.RETRY;
+        }
+    }
+
+    private Outcome process(DeliveryWork work) {
+        Instant now = Instant.now();
+        if (expired(work, now)) {
+            stateService.fail(work, "DELIVERY_DEADLINE_EXCEEDED", now);
+            return Outcome.FAILED;
+        }
+        return settle(work, () -> enqueue(work));
+    }
+
+    private static boolean expired(DeliveryWork work, Instant now) {
+        return !work.deliveryDeadline().isAfter(now)
+                || !work.totalExpiresAt().isAfter(now);
+    }
+
+    /**
+     * Applies the outcome of one enqueue attempt to the outbox row.
+     */
+    private Outcome settle(
+            DeliveryWork work,
+            Supplier<EmailDeliveryReceipt> delivery) {
+        try {
+            // Enqueue-or-return-existing: a replayed idempotency key comes
+            // back with the delivery the email service already holds.
+            EmailDeliveryReceipt receipt = receipt(work, delivery);
             if (receipt.state()
                     == EmailDeliveryReceipt.DeliveryState.FAILED) {
                 stateService.fail(
@@ -78,13 +455,14 @@ public class EmailDeliveryOutboxProcessor {
                         "PROVIDER_DELIVERY_FAILED",
                         Instant.now()
                 );
-                return;
+                return Outcome.FAILED;
             }
             stateService.accept(
                     work,
                     receipt.deliveryId(),
                     Instant.now()
             );
+            return Outcome.ACCEPTED;
         } catch (EmailDeliveryClientException exception) {
             if (exception.isRetryable()) {
                 stateService.retryOrFail(
@@ -92,13 +470,14 @@ public class EmailDeliveryOutboxProcessor {
                         exception.getErrorCode(),
                         Instant.now()
                 );
-            } else {
-                stateService.fail(
-                        work,
-                        exception.getErrorCode(),
-                        Instant.now()
-                );
+                return Outcome.RETRY;
             }
+            stateService.fail(
+                    work,
+                    exception.getErrorCode(),
+                    Instant.now()
+            );
+            return Outcome.FAILED;
         } catch (RuntimeException exception) {
             log.warn(
                     "Email outbox processing failed [outboxId={}, error={}]",
@@ -110,10 +489,67 @@ public class EmailDeliveryOutboxProcessor {
                     "DELIVERY_PROCESSING_ERROR",
                     Instant.now()
             );
+            return Outcome.RETRY;
+        }
+    }
+
+    /**
+     * Each attempt renders the time left on the code, so a retry after an
+     * accepted attempt sends a different body under the same key and the
+     * email service answers {@code 409}. The key belongs to this challenge
+     * alone, so the delivery bound to it is that earlier attempt.
+     */
+    private EmailDeliveryReceipt receipt(
+            DeliveryWork work,
+            Supplier<EmailDeliveryReceipt> delivery) {
+        try {
+            return delivery.get();
+        } catch (EmailDeliveryClientException exception) {
+            if (work.attemptCount() > 1
+                    && "EMAIL_SERVICE_HTTP_409".equals(exception.getErrorCode())) {
+                return limited(() -> emailService.findDeliveryByIdempotencyKey(
+                        work.idempotencyKey()
+                )).orElseThrow(() -> exception);
+            }
+            throw exception;
         }
     }
 
+    private void logStateUpdateFailure(
+            DeliveryWork work,
+            RuntimeException exception) {
+        log.warn(
+                "Email outbox state update failed [outboxId={}, error={}]",
+                work.outboxId(),
+                exception.getClass().getSimpleName()
+        );
+    }
+
     private EmailDeliveryReceipt enqueue(DeliveryWork work) {
+        EmailTemplateRequest request = request(work);
+        return limited(() -> emailService.enqueueTemplateEmail(
+                request.to(),
+                request.subject(),
+                request.templateName(),
+                request.variables(),
+                request.emailType(),
+                request.idempotencyKey()
+        ));
+    }
+
+    private <T> T limited(Supplier<T> call) {
+        long startedAt = limiter.start();
+        try {
+            T result = call.get();
+            limiter.complete(startedAt, null);
+            return result;
+        } catch (RuntimeException exception) {
+            limiter.complete(startedAt, exception);
+            throw exception;
+        }
+    }
+
+    private EmailTemplateRequest request(DeliveryWork work) {
         String code = codeProtector.deriveCode(
                 work.challengeId(),
                 work.codeKeyId()
@@ -141,15 +577,8 @@ public class EmailDeliveryOutboxProcessor {
                     "Unsupported verification purpose"
             );
         }
-        long expiryMinutes = Math.max(
-                1,
-                Duration.between(
-                        Instant.now(),
-                        work.totalExpiresAt()
-                ).toMinutes()
-        );
-        variables.put("expiryMinutes", expiryMinutes);
-        return emailService.enqueueTemplateEmail(
+        variables.put("expiryMinutes", expiryMinutes(work, Instant.now()));
+        return new EmailTemplateRequest(
                 work.email(),
                 subject,
                 template,
@@ -158,4 +587,48 @@ public class EmailDeliveryOutboxProcessor {
                 work.idempotencyKey()
         );
     }
+
+    /**
+     * Whole minutes left on the code at {@code now}, rounded down so the
+     * email never promises more time than the stored expiry allows. Rows
+     * past their expiry are failed before they are rendered, so this is
+     * at least one.
+     */
+    static long expiryMinutes(DeliveryWork work, Instant now) {
+        long seconds = Duration.between(now, work.totalExpiresAt()).toSeconds();
+        return Math.max(1, seconds / 60);
+    }
+
+    private static ExecutorService newWorkerExecutor(
+            int concurrency,
+            boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                // Looked up reflectively so the same build runs on Java 17.
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (ReflectiveOperationException exception) {
+                log.info(
+                        "Virtual threads unavailable; email outbox uses {} platform workers",
+                        concurrency
+                );
+            }
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(
+                    runnable,
+                    "email-outbox-" + sequence.incrementAndGet()
+            );
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private enum Outcome {
+        ACCEPTED,
+        RETRY,
+        FAILED
+    }
 }
@@ -0,0 +1,85 @@
+package org.dddml.uniauth.service;
+
+import org.dddml.uniauth.config.EmailDeliveryProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakes outbox workers as soon as new delivery work commits.
+ * <p>
+ * The local worker is woken after commit. Other nodes are reached through
+ * {@code pg_notify}, which PostgreSQL only delivers if the enqueuing
+ * transaction commits, so neither path can wake a worker for a row it
+ * cannot see yet. Wakeups coalesce: at most one is pending at a time.
+ */
+@Component
+public class EmailDeliveryOutboxSignal {
+
+    public static final String CHANNEL = "uniauth_email_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmailDeliveryProperties deliveryProperties;
+    private final BlockingQueue<Trigger> pending = new ArrayBlockingQueue<>(1);
+
+    public EmailDeliveryOutboxSignal(
+            JdbcTemplate jdbcTemplate,
+            EmailDeliveryProperties deliveryProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deliveryProperties = deliveryProperties;
+    }
+
+    /**
+     * Announces an outbox row written by the current transaction.
+     */
+    public void enqueued() {
+        if (!deliveryProperties.isWorkerWakeupEnabled()) {
+            return;
+        }
+        jdbcTemplate.query(
+                "SELECT pg_notify(?, '')",
+                resultSet -> null,
+                CHANNEL
+        );
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wake(Trigger.LOCAL);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        wake(Trigger.LOCAL);
+                    }
+                }
+        );
+    }
+
+    public void wake(Trigger trigger) {
+        pending.offer(trigger);
+    }
+
+    /**
+     * Waits for a wakeup, returning {@link Trigger#TIMER} when none arrives
+     * within the timeout.
+     */
+    public Trigger await(Duration timeout) throws InterruptedException {
+        Trigger trigger = pending.poll(
+                timeout.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+        return trigger == null ? Trigger.TIMER : trigger;
+    }
+
+    public enum Trigger {
+        LOCAL,
+        NOTIFY,
+        TIMER
+    }
+}
@@ -7,10 +7,12 @@ import org.dddml.uniauth.entity.EmailDeliveryOutbox;
 import org.dddml.uniauth.entity.EmailVerificationCode;
 import org.dddml.uniauth.repository.EmailDeliveryOutboxRepository;
 import org.dddml.uniauth.repository.EmailVerificationCodeRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -20,22 +22,111 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class EmailDeliveryOutboxStateService {
 
+    private static final String CLAIM_BATCH_SQL = """
+            UPDATE email_delivery_outbox outbox
+            SET status = 'PROCESSING',
+                attempt_count = outbox.attempt_count + 1,
+                processing_started_at = ?,
+                updated_at = ?,
+                last_error_code = NULL
+            FROM email_verification_codes challenge
+            WHERE challenge.id = outbox.challenge_id
+              AND outbox.id IN (
+                    SELECT id
+                    FROM email_delivery_outbox
+                    WHERE (
+                            status = 'PENDING'
+                            AND next_attempt_at <= ?
+                        )
+                       OR (
+                            status = 'PROCESSING'
+                            AND processing_started_at < ?
+                        )
+                    ORDER BY next_attempt_at, created_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+              )
+            RETURNING outbox.id,
+                      outbox.idempotency_key,
+                      outbox.attempt_count,
+                      outbox.next_attempt_at,
+                      challenge.id AS challenge_id,
+                      challenge.email,
+                      challenge.purpose,
+                      challenge.code_key_id,
+                      challenge.created_at AS issued_at,
+                      challenge.delivery_deadline,
+                      challenge.expires_at,
+                      challenge.usage_status
+            """;
+
+    private static final String NEXT_DUE_SQL = """
+            SELECT min(
+                CASE
+                    WHEN status = 'PENDING' THEN next_attempt_at
+                    ELSE processing_started_at + make_interval(secs => ?)
+                END
+            )
+            FROM email_delivery_outbox
+            WHERE status IN ('PENDING', 'PROCESSING')
+            """;
+
     private final EmailDeliveryOutboxRepository outboxRepository;
     private final EmailVerificationCodeRepository challengeRepository;
     private final EmailDeliveryProperties deliveryProperties;
     private final EmailVerificationProperties verificationProperties;
     private final SecurityEventService securityEventService;
+    private final JdbcTemplate jdbcTemplate;
 
-    @Transactional(readOnly = true)
-    public List<String> findCandidates(Instant now) {
-        return outboxRepository.findClaimCandidates(
-                now,
-                now.minus(
-                        deliveryProperties.getProcessingTimeoutSeconds(),
-                        ChronoUnit.SECONDS
+    /**
+     * Claims up to {@code limit} due rows in one statement. Candidates are
+     * locked with {@code FOR UPDATE SKIP LOCKED}, so concurrent workers on
+     * any node claim disjoint rows without waiting on each other, and the
+     * challenge columns needed for delivery come back through
+     * {@code RETURNING} instead of two lookups per row.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<DeliveryWork> claimBatch(Instant now, int limit) {
+        return jdbcTemplate.query(
+                CLAIM_BATCH_SQL,
+                (resultSet, rowNum) -> new DeliveryWork(
+                        resultSet.getString("id"),
+                        resultSet.getString("challenge_id"),
+                        resultSet.getString("idempotency_key"),
+                        resultSet.getInt("attempt_count"),
+                        resultSet.getString("email"),
+                        EmailVerificationCode.VerificationPurpose.valueOf(
+                                resultSet.getString("purpose")
+                        ),
+                        resultSet.getString("code_key_id"),
+                        instant(resultSet.getTimestamp("issued_at")),
+                        instant(resultSet.getTimestamp("delivery_deadline")),
+                        instant(resultSet.getTimestamp("expires_at")),
+                        EmailVerificationCode.UsageStatus.valueOf(
+                                resultSet.getString("usage_status")
+                        ),
+                        instant(resultSet.getTimestamp("next_attempt_at"))
                 ),
-                deliveryProperties.getBatchSize()
+                Timestamp.from(now),
+                Timestamp.from(now),
+                Timestamp.from(now),
+                Timestamp.from(stuckBefore(now)),
+                limit
+        );
+    }
+
+    /**
+     * Returns when the earliest pending retry falls due or the earliest
+     * stuck claim becomes reclaimable, if any row is waiting.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> nextDueAt() {
+        Timestamp next = jdbcTemplate.queryForObject(
+                NEXT_DUE_SQL,
+                Timestamp.class,
+                deliveryProperties.getProcessingTimeoutSeconds()
         );
+        return Optional.ofNullable(instant(next));
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -43,10 +134,7 @@ public class EmailDeliveryOutboxStateService {
         int claimed = outboxRepository.claim(
                 outboxId,
                 now,
-                now.minus(
-                        deliveryProperties.getProcessingTimeoutSeconds(),
-                        ChronoUnit.SECONDS
-                )
+                stuckBefore(now)
         );
         if (claimed != 1) {
             return Optional.empty();
@@ -64,9 +152,11 @@ public class EmailDeliveryOutboxStateService {
                 challenge.getEmail(),
                 challenge.getPurpose(),
                 challenge.getCodeKeyId(),
+                challenge.getCreatedAt(),
                 challenge.getDeliveryDeadline(),
                 challenge.getExpiresAt(),
-                challenge.getUsageStatus()
+                challenge.getUsageStatus(),
+                outbox.getNextAttemptAt()
         ));
     }
 
@@ -169,6 +259,17 @@ public class EmailDeliveryOutboxStateService {
         );
     }
 
+    private Instant stuckBefore(Instant now) {
+        return now.minus(
+                deliveryProperties.getProcessingTimeoutSeconds(),
+                ChronoUnit.SECONDS
+        );
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
     private String boundedErrorCode(String errorCode) {
         String value = errorCode == null || errorCode.isBlank()
                 ? "DELIVERY_FAILED"
@@ -184,8 +285,10 @@ public class EmailDeliveryOutboxStateService {
             String email,
             EmailVerificationCode.VerificationPurpose purpose,
             String codeKeyId,
+            Instant issuedAt,
             Instant deliveryDeadline,
             Instant totalExpiresAt,
-            EmailVerificationCode.UsageStatus usageStatus) {
+            EmailVerificationCode.UsageStatus usageStatus,
+            Instant dueAt) {
     }
 }
@@ -0,0 +1,202 @@
+package org.dddml.uniauth.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.config.EmailServiceLimiterProperties;
+import org.dddml.uniauth.service.email.EmailDeliveryClientException;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Adaptive admission control for calls to the email service.
+ * <p>
+ * The concurrency limit follows AIMD: each fast success grows it by
+ * {@code 1/limit} (about one per round trip), while a response slower than
+ * the latency target shrinks it by 10% and a retryable failure halves it,
+ * at most once per round trip. Consecutive retryable failures open a circuit
+ * breaker; while open no work is admitted, so the outbox stops claiming
+ * rows instead of spending their attempts. After the open interval a few
+ * half-open trials decide whether to close it again. Permanent rejections
+ * (for example {@code 400}) show the service is answering and count as
+ * successes.
+ */
+@Component
+@Slf4j
+public class EmailServiceLimiter {
+
+    private static final double SLOW_BACKOFF = 0.9;
+    private static final double FAILURE_BACKOFF = 0.5;
+
+    private final EmailServiceLimiterProperties properties;
+    private final Clock clock;
+    private final long latencyTargetNanos;
+
+    private double limit;
+    private int inFlight;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openUntil = Instant.MIN;
+    private int trialsStarted;
+    private int trialSuccesses;
+    private long lastDecreaseAt = System.nanoTime();
+
+    public EmailServiceLimiter(
+            EmailServiceLimiterProperties properties,
+            MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    EmailServiceLimiter(
+            EmailServiceLimiterProperties properties,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.latencyTargetNanos =
+                Duration.ofMillis(properties.getLatencyTargetMs()).toNanos();
+        this.limit = properties.getInitialLimit();
+        Gauge.builder("uniauth.email.client.limit", this, EmailServiceLimiter::limit)
+                .description("Current adaptive concurrency limit for the email service")
+                .register(meterRegistry);
+        Gauge.builder("uniauth.email.client.inflight", this, EmailServiceLimiter::inFlight)
+                .description("Email service calls currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("uniauth.email.client.breaker.state", this,
+                        limiter -> limiter.state().ordinal())
+                .description("Email service circuit breaker: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * How many of {@code requested} items may be started now: zero while the
+     * breaker is open, the remaining trials while it is half-open, and the
+     * free part of the concurrency limit otherwise.
+     */
+    public synchronized int admit(int requested) {
+        if (!properties.isEnabled()) {
+            return requested;
+        }
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openUntil)) {
+                return 0;
+            }
+            transition(State.HALF_OPEN);
+            trialsStarted = 0;
+            trialSuccesses = 0;
+        }
+        int available = state == State.HALF_OPEN
+                ? properties.getHalfOpenTrials() - trialsStarted
+                : (int) limit - inFlight;
+        return Math.max(0, Math.min(requested, available));
+    }
+
+    /**
+     * Marks a call as started; pass the returned token to
+     * {@link #complete(long, Throwable)}.
+     */
+    public synchronized long start() {
+        inFlight++;
+        if (state == State.HALF_OPEN) {
+            trialsStarted++;
+        }
+        return System.nanoTime();
+    }
+
+    public void complete(long startedAt, Throwable error) {
+        complete(startedAt, System.nanoTime() - startedAt, error);
+    }
+
+    synchronized void complete(long startedAt, long latencyNanos, Throwable error) {
+        inFlight = Math.max(0, inFlight - 1);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (isFailure(error)) {
+            onFailure(startedAt);
+        } else {
+            onSuccess(startedAt, latencyNanos);
+        }
+    }
+
+    public synchronized double limit() {
+        return limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void onSuccess(long startedAt, long latencyNanos) {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN
+                && ++trialSuccesses >= properties.getHalfOpenTrials()) {
+            transition(State.CLOSED);
+        }
+        if (latencyNanos > latencyTargetNanos) {
+            decrease(startedAt, SLOW_BACKOFF);
+        } else {
+            limit = Math.min(properties.getMaxLimit(), limit + 1.0 / limit);
+        }
+    }
+
+    private void onFailure(long startedAt) {
+        decrease(startedAt, FAILURE_BACKOFF);
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN
+                || consecutiveFailures >= properties.getFailureThreshold()) {
+            openUntil = clock.instant().plusMillis(properties.getOpenDurationMs());
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Calls started before the last decrease already saw the reduced limit's
+     * cause, so a burst of failures shrinks the limit only once.
+     */
+    private void decrease(long startedAt, double factor) {
+        if (startedAt - lastDecreaseAt < 0) {
+            return;
+        }
+        limit = Math.max(properties.getMinLimit(), limit * factor);
+        lastDecreaseAt = System.nanoTime();
+    }
+
+    private void transition(State next) {
+        if (state == next) {
+            return;
+        }
+        log.warn(
+                "Email service circuit breaker {} -> {}",
+                state.name().toLowerCase(Locale.ROOT),
+                next.name().toLowerCase(Locale.ROOT)
+        );
+        state = next;
+    }
+
+    private static boolean isFailure(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            return false;
+        }
+        return !(error instanceof EmailDeliveryClientException exception)
+                || exception.isRetryable();
+    }
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+}
@@ -33,6 +33,7 @@ public class EmailVerificationCodeService {
     private final CanonicalEmailService canonicalEmailService;
     private final EmailVerificationCodeProtector codeProtector;
     private final SecurityEventService securityEventService;
+    private final EmailDeliveryOutboxSignal outboxSignal;
 
     @Transactional
     public ChallengeDispatch sendVerificationCode(
@@ -83,6 +84,7 @@ public class EmailVerificationCodeService {
                 .attemptCount(0)
                 .nextAttemptAt(now)
                 .build());
+        outboxSignal.enqueued();
         securityEventService.append(
                 "EMAIL_CHALLENGE_QUEUED",
                 handle,
@@ -262,11 +264,6 @@ public class EmailVerificationCodeService {
         return properties.getResendCooldownSeconds();
     }
 
-    @Transactional
-    public int cleanupExpiredCodes() {
-        return verificationCodeRepository.expireChallenges(Instant.now());
-    }
-
     public record ChallengeDispatch(
             String challengeHandle,
             int expiresIn,
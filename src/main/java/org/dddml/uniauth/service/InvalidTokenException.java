@@ -0,0 +1,43 @@
+package org.dddml.uniauth.service;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Stackless rejection signal for one {@link TokenRejectionReason}.
+ * <p>
+ * A new instance is thrown per rejection rather than one shared per reason:
+ * {@link Throwable#addSuppressed} is final and {@link JwtException} has no
+ * constructor that disables suppression, so a shared instance would collect
+ * suppressed exceptions and causes from unrelated requests. Without a stack
+ * trace the instance costs a single small allocation. Extending
+ * {@link BadJwtException} lets the resource server map it to
+ * {@code invalid_token} like any other rejected bearer token.
+ */
+public final class InvalidTokenException extends BadJwtException {
+
+    private final TokenRejectionReason reason;
+
+    InvalidTokenException(TokenRejectionReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public TokenRejectionReason reason() {
+        return reason;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    @Override
+    public StackTraceElement[] getStackTrace() {
+        return new StackTraceElement[0];
+    }
+
+    @Override
+    public void setStackTrace(StackTraceElement[] stackTrace) {
+    }
+}
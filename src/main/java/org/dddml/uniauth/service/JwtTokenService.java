@@ -3,7 +3,9 @@ package org.dddml.uniauth.service;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -44,7 +46,19 @@ public class JwtTokenService {
     private final PrivateKey privateKey;
     private final PublicKey publicKey;
     private final Path rsaKeyFile;
+    @Getter(AccessLevel.NONE)
+    private final JwtParser signedTokenParser;
     private static final int RSA_KEY_SIZE = 2048;
+    private static final OAuth2TokenValidatorResult AUDIENCE_MISSING =
+            invalidToken("The required audience is missing");
+    private static final OAuth2TokenValidatorResult ACCESS_TYPE_REQUIRED =
+            invalidToken("Only access tokens are accepted");
+    private static final OAuth2TokenValidatorResult HEADER_INVALID =
+            invalidToken("Token header is invalid");
+    private static final OAuth2TokenValidatorResult IDENTITY_CLAIMS_INVALID =
+            invalidToken("Token identity claims are invalid");
+    private static final OAuth2TokenValidatorResult JTI_MISSING =
+            invalidToken("Token jti is missing");
     private static final Set<PosixFilePermission> PRIVATE_KEY_PERMISSIONS = Set.of(
             PosixFilePermission.OWNER_READ,
             PosixFilePermission.OWNER_WRITE
@@ -137,6 +151,9 @@ public class JwtTokenService {
         KeyPair keyPair = loadOrGenerateKeyPair(rsaKeyFile, generateIfMissing);
         this.privateKey = keyPair.getPrivate();
         this.publicKey = keyPair.getPublic();
+        this.signedTokenParser = Jwts.parserBuilder()
+                .setSigningKey(publicKey)
+                .build();
     }
     
     /**
@@ -435,10 +452,7 @@ public class JwtTokenService {
     }
 
     public Jws<Claims> parseSignedToken(String tokenValue) {
-        return Jwts.parserBuilder()
-                .setSigningKey(publicKey)
-                .build()
-                .parseClaimsJws(tokenValue);
+        return signedTokenParser.parseClaimsJws(tokenValue);
     }
 
     /**
@@ -447,11 +461,7 @@ public class JwtTokenService {
      */
     public String extractUsername(String token) {
         try {
-            var claims = Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            var claims = signedTokenParser.parseClaimsJws(token).getBody();
 
             String username = claims.get("username", String.class);
             if (username == null) {
@@ -469,11 +479,7 @@ public class JwtTokenService {
      */
     public String getUserIdFromToken(String token) {
         try {
-            var claims = Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            var claims = signedTokenParser.parseClaimsJws(token).getBody();
             
             // 优先从 userId claim 获取，如果不存在则从 subject 获取
             String userId = claims.get("userId", String.class);
@@ -507,21 +513,13 @@ public class JwtTokenService {
                     && jwt.getAudience().contains(token.getAudience())) {
                 return OAuth2TokenValidatorResult.success();
             }
-            return OAuth2TokenValidatorResult.failure(new OAuth2Error(
-                    "invalid_token",
-                    "The required audience is missing",
-                    null
-            ));
+            return AUDIENCE_MISSING;
         };
         OAuth2TokenValidator<Jwt> accessTypeValidator = jwt -> {
             if ("access".equals(jwt.getClaimAsString("type"))) {
                 return OAuth2TokenValidatorResult.success();
             }
-            return OAuth2TokenValidatorResult.failure(new OAuth2Error(
-                    "invalid_token",
-                    "Only access tokens are accepted",
-                    null
-            ));
+            return ACCESS_TYPE_REQUIRED;
         };
         OAuth2TokenValidator<Jwt> headerValidator = jwt -> {
             Object algorithm = jwt.getHeaders().get("alg");
@@ -529,11 +527,7 @@ public class JwtTokenService {
             if ("RS256".equals(algorithm) && token.getKid().equals(kid)) {
                 return OAuth2TokenValidatorResult.success();
             }
-            return OAuth2TokenValidatorResult.failure(new OAuth2Error(
-                    "invalid_token",
-                    "Token header is invalid",
-                    null
-            ));
+            return HEADER_INVALID;
         };
         OAuth2TokenValidator<Jwt> identityValidator = jwt -> {
             String subject = jwt.getSubject();
@@ -547,21 +541,13 @@ public class JwtTokenService {
                     && validSessionClaims(jwt)) {
                 return OAuth2TokenValidatorResult.success();
             }
-            return OAuth2TokenValidatorResult.failure(new OAuth2Error(
-                    "invalid_token",
-                    "Token identity claims are invalid",
-                    null
-            ));
+            return IDENTITY_CLAIMS_INVALID;
         };
         OAuth2TokenValidator<Jwt> jtiValidator = jwt -> {
             if (jwt.getId() != null && !jwt.getId().isBlank()) {
                 return OAuth2TokenValidatorResult.success();
             }
-            return OAuth2TokenValidatorResult.failure(new OAuth2Error(
-                    "invalid_token",
-                    "Token jti is missing",
-                    null
-            ));
+            return JTI_MISSING;
         };
 
         decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
@@ -576,6 +562,16 @@ public class JwtTokenService {
         return decoder;
     }
 
+    private static OAuth2TokenValidatorResult invalidToken(String description) {
+        // Validator failures are immutable; sharing them keeps rejected
+        // tokens from allocating a result and error per check.
+        return OAuth2TokenValidatorResult.failure(new OAuth2Error(
+                "invalid_token",
+                description,
+                null
+        ));
+    }
+
     private boolean validSessionClaims(Jwt jwt) {
         String familyId = jwt.getClaimAsString("sid");
         Number generation = jwt.getClaim("generation");
@@ -1,5 +1,6 @@
 package org.dddml.uniauth.service;
 
+import org.dddml.uniauth.config.DatabaseWorkload;
 import org.dddml.uniauth.entity.UserEntity;
 import org.dddml.uniauth.entity.UserLoginMethod;
 import org.dddml.uniauth.entity.UserLoginMethod.AuthProvider;
@@ -115,12 +116,15 @@ public class LoginMethodService {
             log.info("OAuth2 login method binding completed");
             return saved;
         } catch (DataIntegrityViolationException exception) {
-            securityEventService.appendIndependent(
-                    "OAUTH2_CREDENTIAL_BIND_CONFLICT",
-                    userId,
-                    SecurityEventService.Outcome.DENIED,
-                    "UNIQUE_CONFLICT"
-            );
+            // REQUIRES_NEW takes a second connection while this
+            // transaction still holds its own.
+            DatabaseWorkload.AUTH_WRITES.run(() ->
+                    securityEventService.appendIndependent(
+                            "OAUTH2_CREDENTIAL_BIND_CONFLICT",
+                            userId,
+                            SecurityEventService.Outcome.DENIED,
+                            "UNIQUE_CONFLICT"
+                    ));
             throw translateBindingConflict(exception);
         }
     }
@@ -37,14 +37,6 @@ public class OAuth2BindingIntentService {
             throw new RecentAuthenticationRequiredException();
         }
         Instant now = Instant.now();
-        jdbcTemplate.update(
-                """
-                DELETE FROM oauth2_binding_intents
-                WHERE expires_at <= ?
-                   OR consumed_at IS NOT NULL
-                """,
-                Timestamp.from(now)
-        );
         jdbcTemplate.update(
                 """
                 INSERT INTO oauth2_binding_intents (
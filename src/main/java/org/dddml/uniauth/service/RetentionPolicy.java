@@ -0,0 +1,84 @@
+package org.dddml.uniauth.service;
+
+import java.time.Duration;
+
+/**
+ * Describes how expired rows of one table are removed or expired in bounded
+ * batches by {@link RetentionEngine}.
+ * <p>
+ * {@code predicate} is a trusted SQL fragment with exactly one {@code ?}
+ * placeholder, bound to {@code now - retention}. {@code setClause} is
+ * {@code null} for deleting policies; otherwise matching rows are updated
+ * with it instead of being deleted.
+ * <p>
+ * {@code onDelete} optionally adds trusted CTEs, written as
+ * {@code name AS (...)} and separated by commas, to each deleting batch.
+ * They see the batch's deleted rows as {@code removed} and commit with the
+ * delete, so dependent rows such as counters stay consistent with it.
+ */
+public record RetentionPolicy(
+        String name,
+        String table,
+        String predicate,
+        String setClause,
+        Duration retention,
+        Duration interval,
+        int batchSize,
+        Duration pause,
+        Duration maxRuntime,
+        String onDelete) {
+
+    public RetentionPolicy(
+            String name,
+            String table,
+            String predicate,
+            String setClause,
+            Duration retention,
+            Duration interval,
+            int batchSize,
+            Duration pause,
+            Duration maxRuntime) {
+        this(name, table, predicate, setClause, retention, interval,
+                batchSize, pause, maxRuntime, null);
+    }
+
+    public RetentionPolicy {
+        if (name == null || name.isBlank()
+                || table == null || table.isBlank()
+                || predicate == null
+                || predicate.chars().filter(character -> character == '?').count() != 1) {
+            throw new IllegalArgumentException("Retention policy is invalid");
+        }
+        if (batchSize < 1
+                || retention.isNegative()
+                || interval.isNegative()
+                || pause.isNegative()
+                || maxRuntime.isNegative()
+                || maxRuntime.isZero()) {
+            throw new IllegalArgumentException("Retention policy limits are invalid");
+        }
+        if (onDelete != null
+                && (setClause != null || onDelete.isBlank() || onDelete.indexOf('?') >= 0)) {
+            throw new IllegalArgumentException("Retention policy is invalid");
+        }
+    }
+
+    public boolean deletes() {
+        return setClause == null;
+    }
+
+    String batchSql() {
+        String candidates = "SELECT ctid FROM " + table
+                + " WHERE " + predicate
+                + " LIMIT ? FOR UPDATE SKIP LOCKED";
+        String target = " WHERE ctid = ANY(ARRAY(" + candidates + "))";
+        if (onDelete != null) {
+            return "WITH removed AS (DELETE FROM " + table + target + " RETURNING *), "
+                    + onDelete
+                    + " SELECT count(*) FROM removed";
+        }
+        return deletes()
+                ? "DELETE FROM " + table + target
+                : "UPDATE " + table + " SET " + setClause + target;
+    }
+}
@@ -2,7 +2,6 @@ package org.dddml.uniauth.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -13,13 +12,16 @@ public class TokenIntrospectionService {
     private final TokenValidationService tokenValidationService;
     private final SecurityEventService securityEventService;
 
-    @Transactional
+    /**
+     * Not transactional: the session lookups may be served by the read
+     * replica, so each audit row is written in its own transaction.
+     */
     public Optional<TokenValidationService.IntrospectedToken> introspect(
             String tokenValue) {
         try {
             TokenValidationService.IntrospectedToken token =
                     tokenValidationService.introspect(tokenValue);
-            securityEventService.append(
+            securityEventService.appendIndependent(
                     "TOKEN_INTROSPECTION_SUCCEEDED",
                     token.subject(),
                     SecurityEventService.Outcome.SUCCESS,
@@ -27,7 +29,7 @@ public class TokenIntrospectionService {
             );
             return Optional.of(token);
         } catch (RuntimeException exception) {
-            securityEventService.append(
+            securityEventService.appendIndependent(
                     "TOKEN_INTROSPECTION_DENIED",
                     null,
                     SecurityEventService.Outcome.DENIED,
@@ -0,0 +1,42 @@
+package org.dddml.uniauth.service;
+
+/**
+ * Why a token was rejected by {@link TokenValidationService}.
+ * <p>
+ * Callers that must throw (decoders, controllers) get a stackless
+ * {@link InvalidTokenException}, so a rejected token never captures a stack
+ * trace.
+ */
+public enum TokenRejectionReason {
+    MALFORMED("Token signature or format is invalid"),
+    UNSUPPORTED_TYPE("Unsupported token type"),
+    TYPE_MISMATCH("Only refresh tokens are accepted"),
+    ISSUER_INVALID("Refresh token issuer is invalid"),
+    ALGORITHM_INVALID("Token algorithm is invalid"),
+    KID_INVALID("Token kid is invalid"),
+    JTI_MISSING("Token jti is missing"),
+    IDENTITY_INVALID("Token user identity is invalid"),
+    USERNAME_MISSING("Token username is missing"),
+    FAMILY_ID_MISSING("Token family identifier is missing"),
+    FAMILY_ID_INVALID("Token family identifier is invalid"),
+    SESSION_CLAIMS_INVALID("Token session claims are invalid"),
+    TIMESTAMPS_INVALID("Token timestamps are invalid"),
+    REVOKED("Token has been revoked"),
+    USER_MISSING("Token user does not exist"),
+    FAMILY_MISSING("Token family does not exist"),
+    SESSION_INACTIVE("Token session is inactive");
+
+    private final String description;
+
+    TokenRejectionReason(String description) {
+        this.description = description;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    public InvalidTokenException exception() {
+        return new InvalidTokenException(this, description);
+    }
+}
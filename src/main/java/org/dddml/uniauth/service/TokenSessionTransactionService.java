@@ -1,15 +1,16 @@
 package org.dddml.uniauth.service;
 
 import lombok.RequiredArgsConstructor;
+import org.dddml.uniauth.config.ReplicaRouting;
 import org.dddml.uniauth.entity.TokenFamilyEntity;
 import org.dddml.uniauth.entity.UserEntity;
 import org.dddml.uniauth.repository.TokenFamilyRepository;
 import org.dddml.uniauth.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.UUID;
@@ -26,6 +27,8 @@ public class TokenSessionTransactionService {
     private final TokenFamilyRepository tokenFamilyRepository;
     private final JwtTokenService jwtTokenService;
     private final SecurityEventService securityEventService;
+    private final TokenValidationContext validationContext;
+    private final ObjectProvider<ReplicaRouting> replicaRouting;
 
     @Transactional
     public TokenSessionSnapshot create(
@@ -67,6 +70,7 @@ public class TokenSessionTransactionService {
                 .expiresAt(familyExpiresAt)
                 .build();
         tokenFamilyRepository.saveAndFlush(family);
+        sessionStateChanged(user.getId());
         securityEventService.append(
                 "TOKEN_FAMILY_CREATED",
                 user.getId(),
@@ -103,6 +107,7 @@ public class TokenSessionTransactionService {
                 nextGeneration,
                 now
         ) == 1) {
+            sessionStateChanged(user.getId());
             family.setCurrentGeneration(nextGeneration);
             family.setUpdatedAt(now);
             securityEventService.append(
@@ -141,6 +146,7 @@ public class TokenSessionTransactionService {
                 Instant.now()
         );
         if (changed == 1) {
+            sessionStateChanged(family.getUserId());
             securityEventService.append(
                     "TOKEN_FAMILY_REVOKED",
                     family.getUserId(),
@@ -172,6 +178,7 @@ public class TokenSessionTransactionService {
                 reason,
                 Instant.now()
         );
+        sessionStateChanged(userId);
         securityEventService.append(
                 "TOKEN_SECURITY_VERSION_INCREMENTED",
                 userId,
@@ -181,13 +188,6 @@ public class TokenSessionTransactionService {
         return current + 1;
     }
 
-    @Transactional
-    public int cleanupExpired(Duration retention) {
-        return tokenFamilyRepository.deleteExpiredBefore(
-                Instant.now().minus(retention)
-        );
-    }
-
     private RotationResult revokeReplay(
             TokenValidationService.ValidatedToken token,
             Instant now) {
@@ -196,6 +196,7 @@ public class TokenSessionTransactionService {
                 REASON_REFRESH_REPLAY,
                 now
         );
+        sessionStateChanged(token.userId());
         securityEventService.append(
                 "TOKEN_FAMILY_REPLAY_REVOKED",
                 token.userId(),
@@ -205,6 +206,13 @@ public class TokenSessionTransactionService {
         return RotationResult.replay();
     }
 
+    private void sessionStateChanged(String userId) {
+        validationContext.invalidateSessionState();
+        // Keeps this user's replica reads on the primary until the replica
+        // has replayed the change.
+        replicaRouting.ifAvailable(routing -> routing.pinPrimary(userId));
+    }
+
     private boolean matchesSecurityState(
             TokenValidationService.ValidatedToken token,
             UserEntity user,
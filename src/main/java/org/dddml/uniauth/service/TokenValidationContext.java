@@ -0,0 +1,135 @@
+package org.dddml.uniauth.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Request-scoped memo of token decode and validation outcomes.
+ * <p>
+ * The resource-server filter, the credential resolver and the logout and
+ * login-method flows all decode the same cookie or bearer token. Outcomes,
+ * including rejections, are kept on the current request keyed by token value
+ * so that signature verification and the session-state lookups run once per
+ * request. Outside a request (schedulers, tests without a bound request)
+ * every call goes straight to the loader.
+ */
+@Component
+public class TokenValidationContext {
+
+    static final String ATTRIBUTE =
+            TokenValidationContext.class.getName() + ".MEMO";
+
+    public <T> T memoize(
+            Kind kind,
+            String tokenValue,
+            Supplier<T> loader) {
+        Map<Key, Outcome> memo = currentMemo(true);
+        if (memo == null || tokenValue == null) {
+            return loader.get();
+        }
+        Key key = new Key(kind, tokenValue);
+        Outcome outcome = memo.get(key);
+        if (outcome == null) {
+            try {
+                outcome = Outcome.success(loader.get());
+            } catch (RuntimeException exception) {
+                outcome = Outcome.failure(exception);
+            }
+            memo.put(key, outcome);
+        }
+        return outcome.value();
+    }
+
+    /**
+     * Returns a previously memoized successful outcome without loading.
+     */
+    public <T> Optional<T> peek(Kind kind, String tokenValue) {
+        Map<Key, Outcome> memo = currentMemo(false);
+        if (memo == null || tokenValue == null) {
+            return Optional.empty();
+        }
+        Outcome outcome = memo.get(new Key(kind, tokenValue));
+        if (outcome == null || outcome.failure() != null) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) outcome.result();
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Drops every outcome that depends on persisted session state. Signature
+     * and claim checks stay memoized because they cannot change mid-request.
+     */
+    public void invalidateSessionState() {
+        Map<Key, Outcome> memo = currentMemo(false);
+        if (memo != null) {
+            memo.keySet().removeIf(key -> key.kind().sessionDependent);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, Outcome> currentMemo(boolean create) {
+        RequestAttributes attributes =
+                RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object existing = attributes.getAttribute(
+                ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST
+        );
+        if (existing != null || !create) {
+            return (Map<Key, Outcome>) existing;
+        }
+        Map<Key, Outcome> memo = new ConcurrentHashMap<>();
+        attributes.setAttribute(
+                ATTRIBUTE,
+                memo,
+                RequestAttributes.SCOPE_REQUEST
+        );
+        return memo;
+    }
+
+    public enum Kind {
+        PRECHECK(false),
+        ACTIVE_ACCESS(true),
+        SIGNED_ACCESS(false),
+        ACTIVE_REFRESH(true),
+        SIGNED_REFRESH(false);
+
+        private final boolean sessionDependent;
+
+        Kind(boolean sessionDependent) {
+            this.sessionDependent = sessionDependent;
+        }
+    }
+
+    private record Key(Kind kind, String tokenValue) {
+    }
+
+    private record Outcome(Object result, RuntimeException failure) {
+
+        static Outcome success(Object result) {
+            return new Outcome(result, null);
+        }
+
+        static Outcome failure(RuntimeException failure) {
+            return new Outcome(null, failure);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T value() {
+            if (failure != null) {
+                throw failure;
+            }
+            return (T) result;
+        }
+    }
+}
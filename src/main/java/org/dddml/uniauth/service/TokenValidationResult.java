@@ -0,0 +1,60 @@
+package org.dddml.uniauth.service;
+
+import java.util.Optional;
+
+/**
+ * Outcome of a token check: either a validated token or the reason it was
+ * rejected. Rejected results are shared constants.
+ */
+public final class TokenValidationResult {
+
+    private static final TokenValidationResult[] REJECTIONS;
+
+    static {
+        TokenRejectionReason[] reasons = TokenRejectionReason.values();
+        REJECTIONS = new TokenValidationResult[reasons.length];
+        for (TokenRejectionReason reason : reasons) {
+            REJECTIONS[reason.ordinal()] =
+                    new TokenValidationResult(null, reason);
+        }
+    }
+
+    private final TokenValidationService.ValidatedToken token;
+    private final TokenRejectionReason reason;
+
+    private TokenValidationResult(
+            TokenValidationService.ValidatedToken token,
+            TokenRejectionReason reason) {
+        this.token = token;
+        this.reason = reason;
+    }
+
+    public static TokenValidationResult valid(
+            TokenValidationService.ValidatedToken token) {
+        return new TokenValidationResult(token, null);
+    }
+
+    public static TokenValidationResult rejected(
+            TokenRejectionReason reason) {
+        return REJECTIONS[reason.ordinal()];
+    }
+
+    public boolean isValid() {
+        return reason == null;
+    }
+
+    public TokenRejectionReason reason() {
+        return reason;
+    }
+
+    public Optional<TokenValidationService.ValidatedToken> token() {
+        return Optional.ofNullable(token);
+    }
+
+    public TokenValidationService.ValidatedToken orElseThrow() {
+        if (reason != null) {
+            throw reason.exception();
+        }
+        return token;
+    }
+}
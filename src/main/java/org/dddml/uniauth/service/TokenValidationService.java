@@ -1,9 +1,13 @@
 package org.dddml.uniauth.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.dddml.uniauth.config.DatabaseWorkload;
+import org.dddml.uniauth.config.ReplicaReads;
 import org.dddml.uniauth.entity.TokenBlacklistEntity;
 import org.dddml.uniauth.entity.TokenFamilyEntity;
 import org.dddml.uniauth.entity.UserEntity;
@@ -16,12 +20,16 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.security.interfaces.RSAPublicKey;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -30,75 +38,120 @@ public class TokenValidationService {
     private static final String ACCESS_TYPE = "access";
     private static final String REFRESH_TYPE = "refresh";
     private static final String RS256 = "RS256";
+    private static final Pattern CANONICAL_UUID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}"
+    );
+    private static final OAuth2TokenValidatorResult INACTIVE_SESSION =
+            OAuth2TokenValidatorResult.failure(new OAuth2Error(
+                    "invalid_token",
+                    "Token session is inactive",
+                    null
+            ));
 
     private final JwtTokenService jwtTokenService;
     private final TokenBlacklistRepository tokenBlacklistRepository;
     private final TokenFamilyRepository tokenFamilyRepository;
     private final UserRepository userRepository;
+    private final TokenValidationContext validationContext;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
 
+    private SignedTokenPrecheck precheck;
     private JwtDecoder signedAccessTokenDecoder;
     private JwtDecoder activeAccessTokenDecoder;
 
     @PostConstruct
     void initialize() {
+        precheck = new SignedTokenPrecheck(
+                (RSAPublicKey) jwtTokenService.getPublicKey(),
+                objectMapper
+        );
         signedAccessTokenDecoder = jwtTokenService.jwtDecoder();
-        activeAccessTokenDecoder = jwtTokenService.jwtDecoder(
+        JwtDecoder validatingDecoder = jwtTokenService.jwtDecoder(
                 this::validateActiveAccessToken
         );
+        activeAccessTokenDecoder = tokenValue -> validationContext.memoize(
+                TokenValidationContext.Kind.ACTIVE_ACCESS,
+                tokenValue,
+                () -> {
+                    TokenRejectionReason reason = precheck(tokenValue);
+                    if (reason != null) {
+                        throw reason.exception();
+                    }
+                    return validatingDecoder.decode(tokenValue);
+                }
+        );
     }
 
     public JwtDecoder accessTokenDecoder() {
         return activeAccessTokenDecoder;
     }
 
+    /**
+     * Runs the exception-free shape, signature and expiry check that every
+     * decode starts with. Returns {@code null} when the token must go on to
+     * full validation.
+     */
+    public TokenRejectionReason precheck(String tokenValue) {
+        return validationContext.memoize(
+                TokenValidationContext.Kind.PRECHECK,
+                tokenValue,
+                () -> precheck.check(tokenValue, Instant.now())
+        );
+    }
+
     public Jwt decodeAccessToken(String tokenValue) {
         return activeAccessTokenDecoder.decode(tokenValue);
     }
 
     public String getUserIdFromAccessToken(String tokenValue) {
-        return toValidatedAccessToken(decodeAccessToken(tokenValue)).userId();
+        return validatedAccessToken(tokenValue).userId();
     }
 
     public ValidatedToken validatedAccessToken(String tokenValue) {
-        return toValidatedAccessToken(decodeAccessToken(tokenValue));
+        return toValidatedAccessToken(decodeAccessToken(tokenValue))
+                .orElseThrow();
     }
 
     public ValidatedToken decodeRefreshTokenForRotation(String tokenValue) {
-        return decodeSignedRefreshToken(tokenValue);
+        return signedRefreshToken(tokenValue).orElseThrow();
     }
 
     public ValidatedToken decodeRefreshToken(String tokenValue) {
-        ValidatedToken token = decodeSignedRefreshToken(tokenValue);
-        requireActive(token, true);
-        return token;
+        return activeRefreshToken(tokenValue).orElseThrow();
+    }
+
+    /**
+     * Validates a refresh token against its signature and the persisted
+     * session state without throwing for rejected tokens.
+     */
+    public TokenValidationResult checkRefreshToken(String tokenValue) {
+        return activeRefreshToken(tokenValue);
     }
 
     public Optional<ValidatedToken> accessTokenForRevocation(
             String tokenValue) {
-        try {
-            return Optional.of(toValidatedAccessToken(
-                    decodeSignedAccessToken(tokenValue)
-            ));
-        } catch (RuntimeException exception) {
-            return Optional.empty();
-        }
+        return validationContext.memoize(
+                TokenValidationContext.Kind.SIGNED_ACCESS,
+                tokenValue,
+                () -> signedAccessToken(tokenValue)
+        ).token();
     }
 
     public Optional<ValidatedToken> refreshTokenForRevocation(
             String tokenValue) {
-        try {
-            return Optional.of(decodeSignedRefreshToken(tokenValue));
-        } catch (RuntimeException exception) {
-            return Optional.empty();
-        }
+        return signedRefreshToken(tokenValue).token();
     }
 
     public IntrospectedToken introspect(String tokenValue) {
-        Jws<Claims> parsed = jwtTokenService.parseSignedToken(tokenValue);
-        String type = parsed.getBody().get("type", String.class);
+        Claims claims = parseSignedClaims(tokenValue);
+        if (claims == null) {
+            throw TokenRejectionReason.MALFORMED.exception();
+        }
+        Object type = claims.get("type");
         if (ACCESS_TYPE.equals(type)) {
             Jwt jwt = decodeAccessToken(tokenValue);
-            ValidatedToken token = toValidatedAccessToken(jwt);
+            ValidatedToken token = toValidatedAccessToken(jwt).orElseThrow();
             return new IntrospectedToken(
                     token.userId(),
                     normalizedAudience(jwt.getAudience()),
@@ -125,21 +178,70 @@ public class TokenValidationService {
                     REFRESH_TYPE
             );
         }
-        throw new JwtException("Unsupported token type");
+        throw TokenRejectionReason.UNSUPPORTED_TYPE.exception();
     }
 
-    private Jwt decodeSignedAccessToken(String tokenValue) {
-        return signedAccessTokenDecoder.decode(tokenValue);
+    private TokenValidationResult signedAccessToken(String tokenValue) {
+        Optional<Jwt> active = validationContext.peek(
+                TokenValidationContext.Kind.ACTIVE_ACCESS,
+                tokenValue
+        );
+        if (active.isPresent()) {
+            return toValidatedAccessToken(active.get());
+        }
+        TokenRejectionReason reason = precheck(tokenValue);
+        if (reason != null) {
+            return TokenValidationResult.rejected(reason);
+        }
+        try {
+            return toValidatedAccessToken(
+                    signedAccessTokenDecoder.decode(tokenValue)
+            );
+        } catch (JwtException exception) {
+            // The Nimbus decoder only reports failures by throwing.
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.MALFORMED
+            );
+        }
     }
 
-    private ValidatedToken toValidatedAccessToken(Jwt jwt) {
+    private TokenValidationResult activeRefreshToken(String tokenValue) {
+        return validationContext.memoize(
+                TokenValidationContext.Kind.ACTIVE_REFRESH,
+                tokenValue,
+                () -> {
+                    TokenValidationResult result =
+                            signedRefreshToken(tokenValue);
+                    if (!result.isValid()) {
+                        return result;
+                    }
+                    TokenRejectionReason reason = checkActive(
+                            result.orElseThrow(),
+                            true
+                    );
+                    return reason == null
+                            ? result
+                            : TokenValidationResult.rejected(reason);
+                }
+        );
+    }
+
+    private TokenValidationResult signedRefreshToken(String tokenValue) {
+        return validationContext.memoize(
+                TokenValidationContext.Kind.SIGNED_REFRESH,
+                tokenValue,
+                () -> parseSignedRefreshToken(tokenValue)
+        );
+    }
+
+    private TokenValidationResult toValidatedAccessToken(Jwt jwt) {
         return validatedToken(
                 jwt.getId(),
                 TokenBlacklistEntity.TokenType.ACCESS,
                 jwt.getSubject(),
-                jwt.getClaimAsString("userId"),
-                jwt.getClaimAsString("username"),
-                jwt.getClaimAsString("sid"),
+                stringClaim(jwt.getClaims(), "userId"),
+                stringClaim(jwt.getClaims(), "username"),
+                stringClaim(jwt.getClaims(), "sid"),
                 numberClaim(jwt.getClaims(), "generation"),
                 numberClaim(jwt.getClaims(), "ver"),
                 numberClaim(jwt.getClaims(), "auth_time"),
@@ -148,25 +250,38 @@ public class TokenValidationService {
         );
     }
 
-    private ValidatedToken decodeSignedRefreshToken(String tokenValue) {
-        Jws<Claims> parsed = jwtTokenService.parseSignedToken(tokenValue);
-        requireHeader(parsed.getHeader());
+    private TokenValidationResult parseSignedRefreshToken(String tokenValue) {
+        Jws<Claims> parsed = parseSigned(tokenValue);
+        if (parsed == null) {
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.MALFORMED
+            );
+        }
+        TokenRejectionReason headerRejection =
+                checkHeader(parsed.getHeader());
+        if (headerRejection != null) {
+            return TokenValidationResult.rejected(headerRejection);
+        }
         Claims claims = parsed.getBody();
-        if (!REFRESH_TYPE.equals(claims.get("type", String.class))) {
-            throw new JwtException("Only refresh tokens are accepted");
+        if (!REFRESH_TYPE.equals(claims.get("type"))) {
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.TYPE_MISMATCH
+            );
         }
         if (!jwtTokenService.getToken().getIssuer().equals(
                 claims.getIssuer()
         )) {
-            throw new JwtException("Refresh token issuer is invalid");
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.ISSUER_INVALID
+            );
         }
         return validatedToken(
                 claims.getId(),
                 TokenBlacklistEntity.TokenType.REFRESH,
                 claims.getSubject(),
-                claims.get("userId", String.class),
-                claims.get("username", String.class),
-                claims.get("sid", String.class),
+                stringClaim(claims, "userId"),
+                stringClaim(claims, "username"),
+                stringClaim(claims, "sid"),
                 numberClaim(claims, "generation"),
                 numberClaim(claims, "ver"),
                 numberClaim(claims, "auth_time"),
@@ -179,7 +294,25 @@ public class TokenValidationService {
         );
     }
 
-    private ValidatedToken validatedToken(
+    private Jws<Claims> parseSigned(String tokenValue) {
+        if (precheck(tokenValue) != null) {
+            return null;
+        }
+        try {
+            return jwtTokenService.parseSignedToken(tokenValue);
+        } catch (io.jsonwebtoken.JwtException
+                 | IllegalArgumentException exception) {
+            // jjwt only reports signature and format failures by throwing.
+            return null;
+        }
+    }
+
+    private Claims parseSignedClaims(String tokenValue) {
+        Jws<Claims> parsed = parseSigned(tokenValue);
+        return parsed == null ? null : parsed.getBody();
+    }
+
+    private TokenValidationResult validatedToken(
             String jti,
             TokenBlacklistEntity.TokenType tokenType,
             String subject,
@@ -192,26 +325,45 @@ public class TokenValidationService {
             Instant issuedAt,
             Instant expiresAt) {
         if (jti == null || jti.isBlank()) {
-            throw new JwtException("Token jti is missing");
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.JTI_MISSING
+            );
         }
         if (subject == null || subject.isBlank()
                 || userId == null || userId.isBlank()
                 || !subject.equals(userId)) {
-            throw new JwtException("Token user identity is invalid");
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.IDENTITY_INVALID
+            );
         }
         if (username == null || username.isBlank()) {
-            throw new JwtException("Token username is missing");
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.USERNAME_MISSING
+            );
+        }
+        if (familyId == null || familyId.isBlank()) {
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.FAMILY_ID_MISSING
+            );
+        }
+        if (!CANONICAL_UUID.matcher(familyId).matches()) {
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.FAMILY_ID_INVALID
+            );
         }
-        requireUuid(familyId);
         if (generation < 0 || securityVersion < 0 || authTimeEpochSeconds < 0) {
-            throw new JwtException("Token session claims are invalid");
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.SESSION_CLAIMS_INVALID
+            );
         }
         if (issuedAt == null
                 || expiresAt == null
                 || !expiresAt.isAfter(issuedAt)) {
-            throw new JwtException("Token timestamps are invalid");
+            return TokenValidationResult.rejected(
+                    TokenRejectionReason.TIMESTAMPS_INVALID
+            );
         }
-        return new ValidatedToken(
+        return TokenValidationResult.valid(new ValidatedToken(
                 jti,
                 tokenType,
                 userId,
@@ -224,35 +376,38 @@ public class TokenValidationService {
                         : Instant.ofEpochSecond(authTimeEpochSeconds),
                 issuedAt,
                 expiresAt
-        );
+        ));
     }
 
-    private void requireHeader(Map<String, Object> headers) {
+    private TokenRejectionReason checkHeader(Map<String, Object> headers) {
         if (!RS256.equals(headers.get("alg"))) {
-            throw new JwtException("Token algorithm is invalid");
+            return TokenRejectionReason.ALGORITHM_INVALID;
         }
         Object kid = headers.get("kid");
         if (!(kid instanceof String kidValue)
                 || !jwtTokenService.getToken().getKid().equals(kidValue)) {
-            throw new JwtException("Token kid is invalid");
+            return TokenRejectionReason.KID_INVALID;
         }
+        return null;
     }
 
-    private void requireActive(
+    private TokenRejectionReason checkActive(
             ValidatedToken token,
             boolean exactGeneration) {
         if (tokenBlacklistRepository.existsByJti(token.jti())) {
-            throw new JwtException("Token has been revoked");
+            return TokenRejectionReason.REVOKED;
         }
         UserEntity user = userRepository.findById(token.userId())
-                .orElseThrow(() -> new JwtException(
-                        "Token user does not exist"
-                ));
+                .orElse(null);
+        if (user == null) {
+            return TokenRejectionReason.USER_MISSING;
+        }
         TokenFamilyEntity family = tokenFamilyRepository
                 .findById(token.familyId())
-                .orElseThrow(() -> new JwtException(
-                        "Token family does not exist"
-                ));
+                .orElse(null);
+        if (family == null) {
+            return TokenRejectionReason.FAMILY_MISSING;
+        }
         Instant now = Instant.now();
         boolean generationValid = exactGeneration
                 ? family.getCurrentGeneration() == token.generation()
@@ -264,26 +419,61 @@ public class TokenValidationService {
                 || !family.getUserId().equals(token.userId())
                 || family.getSecurityVersion() != token.securityVersion()
                 || !generationValid) {
-            throw new JwtException("Token session is inactive");
+            return TokenRejectionReason.SESSION_INACTIVE;
         }
+        return null;
     }
 
     private OAuth2TokenValidatorResult validateActiveAccessToken(Jwt jwt) {
+        TokenValidationResult result = toValidatedAccessToken(jwt);
+        if (!result.isValid()) {
+            return INACTIVE_SESSION;
+        }
+        ValidatedToken token = result.orElseThrow();
         try {
-            ValidatedToken token = toValidatedAccessToken(jwt);
-            requireActive(token, false);
-            return OAuth2TokenValidatorResult.success();
+            // A lagging replica rejects sessions it has not replayed yet, so
+            // its rejections are confirmed on the primary.
+            return DatabaseWorkload.VALIDATION.call(() -> ReplicaReads.call(
+                    token.userId(),
+                    () -> outsideRequestEntityManager(
+                            entityManagerFactory,
+                            () -> checkActive(token, false)
+                    ),
+                    Objects::nonNull
+            )) == null
+                    ? OAuth2TokenValidatorResult.success()
+                    : INACTIVE_SESSION;
         } catch (RuntimeException exception) {
-            return invalidToken("Token session is inactive");
+            return INACTIVE_SESSION;
         }
     }
 
-    private OAuth2TokenValidatorResult invalidToken(String description) {
-        return OAuth2TokenValidatorResult.failure(new OAuth2Error(
-                "invalid_token",
-                description,
-                null
-        ));
+    /**
+     * Runs {@code read} without the open-in-view EntityManager bound to the
+     * request, so each repository call gets a fresh persistence context. The
+     * request's first-level cache would otherwise answer the primary
+     * confirmation with the user and family the replica returned, and keep
+     * replica rows around for the rest of the request. Inside a transaction
+     * the connection is already fixed, so the read runs as is.
+     */
+    static <T> T outsideRequestEntityManager(
+            EntityManagerFactory entityManagerFactory,
+            Supplier<T> read) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return read.get();
+        }
+        Object requestEntityManager = TransactionSynchronizationManager
+                .unbindResourceIfPossible(entityManagerFactory);
+        try {
+            return read.get();
+        } finally {
+            if (requestEntityManager != null) {
+                TransactionSynchronizationManager.bindResource(
+                        entityManagerFactory,
+                        requestEntityManager
+                );
+            }
+        }
     }
 
     private Object normalizedAudience(List<String> audience) {
@@ -293,25 +483,16 @@ public class TokenValidationService {
         return audience.size() == 1 ? audience.get(0) : audience;
     }
 
-    private long numberClaim(Map<String, ?> claims, String name) {
-        Object value = claims.get(name);
-        if (!(value instanceof Number number)) {
-            throw new JwtException("Token " + name + " claim is invalid");
-        }
-        return number.longValue();
+    private String stringClaim(Map<String, ?> claims, String name) {
+        return claims.get(name) instanceof String value ? value : null;
     }
 
-    private void requireUuid(String value) {
-        if (value == null || value.isBlank()) {
-            throw new JwtException("Token family identifier is missing");
-        }
-        try {
-            if (!UUID.fromString(value).toString().equals(value)) {
-                throw new IllegalArgumentException();
-            }
-        } catch (IllegalArgumentException exception) {
-            throw new JwtException("Token family identifier is invalid");
-        }
+    private long numberClaim(Map<String, ?> claims, String name) {
+        // Missing or non-numeric claims map to a negative sentinel that the
+        // session-claim check rejects.
+        return claims.get(name) instanceof Number number
+                ? number.longValue()
+                : Long.MIN_VALUE;
     }
 
     public record ValidatedToken(
@@ -2,6 +2,7 @@ package org.dddml.uniauth.service;
 
 import org.dddml.uniauth.dto.web3.Web3NonceResponse;
 import org.dddml.uniauth.dto.web3.Web3LoginRequest;
+import org.dddml.uniauth.config.DatabaseWorkload;
 import org.dddml.uniauth.entity.UserEntity;
 import org.dddml.uniauth.entity.UserLoginMethod;
 import org.dddml.uniauth.entity.UserLoginMethod.AuthProvider;
@@ -208,12 +209,15 @@ public class Web3AuthService {
             );
             log.info("Web3 wallet binding completed");
         } catch (DataIntegrityViolationException exception) {
-            securityEventService.appendIndependent(
-                    "WEB3_CREDENTIAL_BIND_CONFLICT",
-                    userId,
-                    SecurityEventService.Outcome.DENIED,
-                    "UNIQUE_CONFLICT"
-            );
+            // REQUIRES_NEW takes a second connection while this
+            // transaction still holds its own.
+            DatabaseWorkload.AUTH_WRITES.run(() ->
+                    securityEventService.appendIndependent(
+                            "WEB3_CREDENTIAL_BIND_CONFLICT",
+                            userId,
+                            SecurityEventService.Outcome.DENIED,
+                            "UNIQUE_CONFLICT"
+                    ));
             throw new Web3BindingConflictException();
         }
     }
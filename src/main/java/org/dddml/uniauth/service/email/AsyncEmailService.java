@@ -0,0 +1,16 @@
+package org.dddml.uniauth.service.email;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link EmailService} that can enqueue without holding a thread for the
+ * duration of the HTTP exchange. The returned future completes exceptionally
+ * with the same {@link EmailDeliveryClientException} the blocking call would
+ * throw.
+ */
+public interface AsyncEmailService extends EmailService {
+
+    CompletableFuture<EmailDeliveryReceipt> enqueueTemplateEmailAsync(
+        EmailTemplateRequest request
+    );
+}
@@ -0,0 +1,28 @@
+package org.dddml.uniauth.service.email;
+
+/**
+ * Outcome of one item in a batched enqueue: either the delivery the email
+ * service now holds for the item, or the error that kept it out.
+ */
+public record EmailBatchResult(
+        EmailDeliveryReceipt receipt,
+        EmailDeliveryClientException error) {
+
+    public static EmailBatchResult delivered(EmailDeliveryReceipt receipt) {
+        return new EmailBatchResult(receipt, null);
+    }
+
+    public static EmailBatchResult failed(EmailDeliveryClientException error) {
+        return new EmailBatchResult(null, error);
+    }
+
+    /**
+     * Returns the receipt, or throws the item's error.
+     */
+    public EmailDeliveryReceipt receiptOrThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return receipt;
+    }
+}
@@ -1,5 +1,7 @@
 package org.dddml.uniauth.service.email;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -28,6 +30,33 @@ public interface EmailService {
         String idempotencyKey
     );
 
+    /**
+     * Enqueues several template emails, returning one result per request in
+     * request order. A failure of the whole call is thrown; per-item
+     * rejections come back as failed results. The default sends the items
+     * one at a time.
+     */
+    default List<EmailBatchResult> enqueueTemplateEmails(
+        List<EmailTemplateRequest> requests
+    ) {
+        List<EmailBatchResult> results = new ArrayList<>(requests.size());
+        for (EmailTemplateRequest request : requests) {
+            try {
+                results.add(EmailBatchResult.delivered(enqueueTemplateEmail(
+                    request.to(),
+                    request.subject(),
+                    request.templateName(),
+                    request.variables(),
+                    request.emailType(),
+                    request.idempotencyKey()
+                )));
+            } catch (EmailDeliveryClientException exception) {
+                results.add(EmailBatchResult.failed(exception));
+            }
+        }
+        return results;
+    }
+
     Optional<EmailDeliveryReceipt> findDeliveryByIdempotencyKey(
         String idempotencyKey
     );
@@ -0,0 +1,18 @@
+package org.dddml.uniauth.service.email;
+
+import java.util.Map;
+
+public record EmailTemplateRequest(
+        String to,
+        String subject,
+        String templateName,
+        Map<String, Object> variables,
+        String emailType,
+        String idempotencyKey) {
+
+    @Override
+    public String toString() {
+        return "EmailTemplateRequest[templateName=" + templateName
+                + ", emailType=" + emailType + "]";
+    }
+}
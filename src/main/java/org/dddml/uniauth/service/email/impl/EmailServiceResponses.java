@@ -0,0 +1,144 @@
+package org.dddml.uniauth.service.email.impl;
+
+import org.dddml.uniauth.service.email.EmailBatchResult;
+import org.dddml.uniauth.service.email.EmailDeliveryClientException;
+import org.dddml.uniauth.service.email.EmailDeliveryReceipt;
+import org.dddml.uniauth.service.email.EmailTemplateRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Request and response mapping shared by the email service clients, so every
+ * transport classifies the same response the same way.
+ */
+final class EmailServiceResponses {
+
+    static final String API_KEY_HEADER = "X-Email-Service-Key";
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    private EmailServiceResponses() {
+    }
+
+    static boolean isValidEmail(String email) {
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
+    }
+
+    static String serviceUrl(String baseUrl, String path) {
+        while (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+        return baseUrl + path;
+    }
+
+    static Map<String, Object> templateBody(EmailTemplateRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("to", request.to());
+        body.put("subject", request.subject());
+        body.put("templateName", request.templateName());
+        body.put("variables", request.variables());
+        body.put("emailType", request.emailType());
+        body.put("idempotencyKey", request.idempotencyKey());
+        return body;
+    }
+
+    /**
+     * Whether a final response status is an error, as RestTemplate's default
+     * error handler decides it: only 4xx and 5xx are. Any other status,
+     * including a 3xx that was not followed, has its body read like a 2xx.
+     */
+    static boolean isErrorStatus(int status) {
+        return status >= 400;
+    }
+
+    /**
+     * Classifies an error response: rate limiting and server errors are
+     * retryable, anything else is permanent. A {@code 409} means the key is
+     * bound to a different request, so it is never adopted as delivered.
+     */
+    static EmailDeliveryClientException httpFailure(int status, Throwable cause) {
+        if (status == 429) {
+            return new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_RATE_LIMITED",
+                    true,
+                    cause
+            );
+        }
+        return new EmailDeliveryClientException(
+                "EMAIL_SERVICE_HTTP_" + status,
+                status >= 500 && status < 600,
+                cause
+        );
+    }
+
+    static EmailDeliveryReceipt deliveryReceipt(Map<?, ?> response) {
+        if (response == null || !Boolean.TRUE.equals(response.get("success"))) {
+            throw new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_REJECTED",
+                    false
+            );
+        }
+        Object rawId = response.get("queueId");
+        Object rawStatus = response.get("status");
+        if (rawId == null || rawStatus == null) {
+            throw new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_INVALID_RESPONSE",
+                    true
+            );
+        }
+        try {
+            return new EmailDeliveryReceipt(
+                    rawId.toString(),
+                    EmailDeliveryReceipt.DeliveryState.valueOf(
+                            rawStatus.toString()
+                    )
+            );
+        } catch (IllegalArgumentException exception) {
+            throw new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_INVALID_RESPONSE",
+                    true,
+                    exception
+            );
+        }
+    }
+
+    /**
+     * Maps one entry of a batch response. A conflicting key fails the entry
+     * permanently, the same way a single-item {@code 409} does.
+     */
+    static EmailBatchResult batchItemResult(Object rawItem) {
+        if (!(rawItem instanceof Map<?, ?> item)) {
+            return EmailBatchResult.failed(new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_INVALID_RESPONSE",
+                    true
+            ));
+        }
+        try {
+            if (Boolean.TRUE.equals(item.get("success"))) {
+                return EmailBatchResult.delivered(acceptedReceipt(item));
+            }
+            if ("IDEMPOTENCY_CONFLICT".equals(item.get("error"))) {
+                throw new EmailDeliveryClientException(
+                        "EMAIL_SERVICE_HTTP_409",
+                        false
+                );
+            }
+            throw new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_REJECTED",
+                    false
+            );
+        } catch (EmailDeliveryClientException exception) {
+            return EmailBatchResult.failed(exception);
+        }
+    }
+
+    private static EmailDeliveryReceipt acceptedReceipt(Map<?, ?> response) {
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("success", true);
+        receipt.put("queueId", response.get("queueId"));
+        receipt.put("status", response.get("status"));
+        return deliveryReceipt(receipt);
+    }
+}
@@ -0,0 +1,377 @@
+package org.dddml.uniauth.service.email.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.config.EmailServiceClientProperties;
+import org.dddml.uniauth.service.email.AsyncEmailService;
+import org.dddml.uniauth.service.email.EmailBatchResult;
+import org.dddml.uniauth.service.email.EmailDeliveryClientException;
+import org.dddml.uniauth.service.email.EmailDeliveryReceipt;
+import org.dddml.uniauth.service.email.EmailSendResult;
+import org.dddml.uniauth.service.email.EmailTemplateRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.API_KEY_HEADER;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.batchItemResult;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.deliveryReceipt;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.httpFailure;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.isErrorStatus;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.isValidEmail;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.templateBody;
+
+/**
+ * Email service client on the JDK {@link HttpClient}. Requests are sent
+ * asynchronously over pooled keep-alive connections, negotiating HTTP/2 over
+ * TLS when the email service offers it, so an in-flight enqueue holds no
+ * thread. Plain {@code http://} URLs use HTTP/1.1 without an upgrade
+ * attempt. Redirects are followed and responses are classified exactly as
+ * {@link RestTemplateEmailServiceImpl} classifies them.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.email.service.client", havingValue = "http-client")
+public class HttpClientEmailServiceImpl implements AsyncEmailService {
+
+    private final HttpClient httpClient;
+    private final EmailServiceClientProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    public HttpClientEmailServiceImpl(
+            EmailServiceClientProperties properties,
+            ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.timeout = Duration.ofMillis(properties.getTimeout());
+        this.httpClient = HttpClient.newBuilder()
+                .version(properties.getUrl().regionMatches(true, 0, "https:", 0, 6)
+                        ? HttpClient.Version.HTTP_2
+                        : HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public EmailSendResult sendTemplateEmail(
+            String to,
+            String subject,
+            String templateName,
+            Map<String, Object> variables,
+            String emailType) {
+        if (!isValidEmail(to)) {
+            log.warn("Rejected invalid email destination");
+            return EmailSendResult.INVALID_EMAIL;
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("to", to);
+        body.put("subject", subject);
+        body.put("templateName", templateName);
+        body.put("variables", variables);
+        body.put("emailType", emailType);
+        return submit("Template", "/api/email/template", body);
+    }
+
+    @Override
+    public EmailSendResult sendSimpleEmail(String to, String subject, String htmlContent) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("to", to);
+        body.put("subject", subject);
+        body.put("htmlContent", htmlContent);
+        return submit("Simple", "/api/email/simple", body);
+    }
+
+    @Override
+    public EmailDeliveryReceipt enqueueTemplateEmail(
+            String to,
+            String subject,
+            String templateName,
+            Map<String, Object> variables,
+            String emailType,
+            String idempotencyKey) {
+        return join(enqueueTemplateEmailAsync(new EmailTemplateRequest(
+                to,
+                subject,
+                templateName,
+                variables,
+                emailType,
+                idempotencyKey
+        )));
+    }
+
+    @Override
+    public CompletableFuture<EmailDeliveryReceipt> enqueueTemplateEmailAsync(
+            EmailTemplateRequest request) {
+        if (!isValidEmail(request.to())) {
+            return CompletableFuture.failedFuture(
+                    new EmailDeliveryClientException("INVALID_EMAIL", false)
+            );
+        }
+        HttpRequest httpRequest;
+        try {
+            httpRequest = post("/api/email/template", templateBody(request));
+        } catch (EmailDeliveryClientException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        return send(httpRequest)
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    if (isErrorStatus(status)) {
+                        throw httpFailure(status, null);
+                    }
+                    return deliveryReceipt(json(response));
+                });
+    }
+
+    /**
+     * Sends all valid requests in one {@code POST /api/email/template/batch};
+     * see {@link RestTemplateEmailServiceImpl#enqueueTemplateEmails(List)}.
+     */
+    @Override
+    public List<EmailBatchResult> enqueueTemplateEmails(
+            List<EmailTemplateRequest> requests) {
+        EmailBatchResult[] results = new EmailBatchResult[requests.size()];
+        List<Map<String, Object>> emails = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            EmailTemplateRequest request = requests.get(i);
+            if (!isValidEmail(request.to())) {
+                results[i] = EmailBatchResult.failed(
+                        new EmailDeliveryClientException("INVALID_EMAIL", false)
+                );
+                continue;
+            }
+            emails.add(templateBody(request));
+            positions.add(i);
+        }
+        if (emails.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<?> items = join(send(post(
+                "/api/email/template/batch",
+                Map.of("emails", emails)
+        )).thenApply(response -> {
+            int status = response.statusCode();
+            if (isErrorStatus(status)) {
+                throw httpFailure(status, null);
+            }
+            Map<?, ?> body = json(response);
+            if (body == null || !(body.get("results") instanceof List<?> list)) {
+                throw new EmailDeliveryClientException(
+                        "EMAIL_SERVICE_INVALID_RESPONSE",
+                        true
+                );
+            }
+            return list;
+        }));
+        if (items.size() != emails.size()) {
+            throw new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_INVALID_RESPONSE",
+                    true
+            );
+        }
+        for (int i = 0; i < items.size(); i++) {
+            results[positions.get(i)] = batchItemResult(items.get(i));
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public Optional<EmailDeliveryReceipt> findDeliveryByIdempotencyKey(
+            String idempotencyKey) {
+        HttpRequest request = request(
+                "/api/email/delivery/status?idempotencyKey="
+                        + URLEncoder.encode(idempotencyKey, StandardCharsets.UTF_8)
+        ).GET().build();
+        HttpResponse<byte[]> response;
+        try {
+            response = join(send(request));
+        } catch (EmailDeliveryClientException exception) {
+            throw new EmailDeliveryClientException(
+                    "EMAIL_STATUS_UNAVAILABLE",
+                    true,
+                    exception.getCause()
+            );
+        }
+        int status = response.statusCode();
+        if (status == 404) {
+            return Optional.empty();
+        }
+        if (isErrorStatus(status)) {
+            throw new EmailDeliveryClientException(
+                    "EMAIL_STATUS_HTTP_" + status,
+                    status >= 500 && status < 600
+            );
+        }
+        try {
+            return Optional.of(deliveryReceipt(json(response)));
+        } catch (EmailDeliveryClientException exception) {
+            if ("EMAIL_SERVICE_UNAVAILABLE".equals(exception.getErrorCode())) {
+                throw new EmailDeliveryClientException(
+                        "EMAIL_STATUS_UNAVAILABLE",
+                        true,
+                        exception.getCause()
+                );
+            }
+            throw exception;
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            HttpResponse<byte[]> response = join(send(
+                    request("/api/email/health").GET().build()
+            ));
+            if (isErrorStatus(response.statusCode())) {
+                return false;
+            }
+            Map<?, ?> body = json(response);
+            return body != null && "UP".equals(body.get("status"));
+        } catch (RuntimeException exception) {
+            log.warn("Email service health check failed");
+            return false;
+        }
+    }
+
+    private EmailSendResult submit(
+            String label,
+            String path,
+            Map<String, Object> body) {
+        try {
+            HttpResponse<byte[]> response = join(send(post(path, body)));
+            int status = response.statusCode();
+            if (status == 429) {
+                log.warn("{} email request was rate limited", label);
+                return EmailSendResult.RATE_LIMITED;
+            }
+            if (isErrorStatus(status)) {
+                log.warn(
+                        "{} email request was rejected with HTTP status {}",
+                        label,
+                        status
+                );
+                return EmailSendResult.FAILED;
+            }
+            Map<?, ?> result = json(response);
+            if (result != null && Boolean.TRUE.equals(result.get("success"))) {
+                log.info("{} email accepted by email service", label);
+                return EmailSendResult.QUEUED;
+            }
+            log.warn("{} email was rejected by email service", label);
+            return EmailSendResult.FAILED;
+        } catch (RuntimeException exception) {
+            Throwable cause = exception.getCause() == null
+                    ? exception
+                    : exception.getCause();
+            log.warn(
+                    "{} email request failed with {}",
+                    label,
+                    cause.getClass().getSimpleName()
+            );
+            return EmailSendResult.FAILED;
+        }
+    }
+
+    /**
+     * Sends the request; transport failures and timeouts complete the future
+     * with a retryable {@code EMAIL_SERVICE_UNAVAILABLE}.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw unavailable(unwrap(error));
+                    }
+                    return response;
+                });
+    }
+
+    private HttpRequest post(String path, Object body) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(body);
+        } catch (IOException exception) {
+            throw unavailable(exception);
+        }
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(
+                EmailServiceResponses.serviceUrl(properties.getUrl(), path)
+        ))
+                .timeout(timeout)
+                .header("Accept", "application/json");
+        if (StringUtils.hasText(properties.getApiKey())) {
+            builder.header(API_KEY_HEADER, properties.getApiKey());
+        }
+        return builder;
+    }
+
+    private Map<?, ?> json(HttpResponse<byte[]> response) {
+        byte[] body = response.body();
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, Map.class);
+        } catch (IOException exception) {
+            throw unavailable(exception);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            Throwable cause = unwrap(exception);
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw unavailable(cause);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static EmailDeliveryClientException unavailable(Throwable cause) {
+        if (cause instanceof EmailDeliveryClientException exception) {
+            return exception;
+        }
+        return new EmailDeliveryClientException(
+                "EMAIL_SERVICE_UNAVAILABLE",
+                true,
+                cause
+        );
+    }
+}
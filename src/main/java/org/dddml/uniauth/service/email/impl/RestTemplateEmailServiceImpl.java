@@ -1,11 +1,14 @@
 package org.dddml.uniauth.service.email.impl;
 
 import org.dddml.uniauth.config.EmailServiceClientProperties;
+import org.dddml.uniauth.service.email.EmailBatchResult;
 import org.dddml.uniauth.service.email.EmailDeliveryClientException;
 import org.dddml.uniauth.service.email.EmailDeliveryReceipt;
 import org.dddml.uniauth.service.email.EmailService;
 import org.dddml.uniauth.service.email.EmailSendResult;
+import org.dddml.uniauth.service.email.EmailTemplateRequest;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -18,18 +21,28 @@ import org.springframework.web.client.RestTemplate;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
+
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.API_KEY_HEADER;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.batchItemResult;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.deliveryReceipt;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.httpFailure;
+import static org.dddml.uniauth.service.email.impl.EmailServiceResponses.templateBody;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(
+    name = "app.email.service.client",
+    havingValue = "rest-template",
+    matchIfMissing = true
+)
 public class RestTemplateEmailServiceImpl implements EmailService {
 
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-    private static final String API_KEY_HEADER = "X-Email-Service-Key";
-
     private final RestTemplate restTemplate;
     private final EmailServiceClientProperties properties;
 
@@ -147,13 +160,14 @@ public class RestTemplateEmailServiceImpl implements EmailService {
             throw new EmailDeliveryClientException("INVALID_EMAIL", false);
         }
 
-        Map<String, Object> body = new HashMap<>();
-        body.put("to", to);
-        body.put("subject", subject);
-        body.put("templateName", templateName);
-        body.put("variables", variables);
-        body.put("emailType", emailType);
-        body.put("idempotencyKey", idempotencyKey);
+        Map<String, Object> body = templateBody(new EmailTemplateRequest(
+                to,
+                subject,
+                templateName,
+                variables,
+                emailType,
+                idempotencyKey
+        ));
 
         try {
             HttpEntity<Map<String, Object>> request =
@@ -165,18 +179,8 @@ public class RestTemplateEmailServiceImpl implements EmailService {
                     Map.class
             ).getBody();
             return deliveryReceipt(response);
-        } catch (HttpClientErrorException.TooManyRequests exception) {
-            throw new EmailDeliveryClientException(
-                    "EMAIL_SERVICE_RATE_LIMITED",
-                    true,
-                    exception
-            );
         } catch (RestClientResponseException exception) {
-            throw new EmailDeliveryClientException(
-                    "EMAIL_SERVICE_HTTP_" + exception.getStatusCode().value(),
-                    exception.getStatusCode().is5xxServerError(),
-                    exception
-            );
+            throw httpFailure(exception.getStatusCode().value(), exception);
         } catch (EmailDeliveryClientException exception) {
             throw exception;
         } catch (RuntimeException exception) {
@@ -188,6 +192,45 @@ public class RestTemplateEmailServiceImpl implements EmailService {
         }
     }
 
+    /**
+     * Sends all valid requests in one {@code POST /api/email/template/batch}.
+     * Invalid destinations are rejected locally and never sent; the service
+     * reports the remaining items one by one, in request order.
+     */
+    @Override
+    public List<EmailBatchResult> enqueueTemplateEmails(
+            List<EmailTemplateRequest> requests) {
+        EmailBatchResult[] results = new EmailBatchResult[requests.size()];
+        List<Map<String, Object>> emails = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            EmailTemplateRequest request = requests.get(i);
+            if (!isValidEmail(request.to())) {
+                results[i] = EmailBatchResult.failed(
+                        new EmailDeliveryClientException("INVALID_EMAIL", false)
+                );
+                continue;
+            }
+            emails.add(templateBody(request));
+            positions.add(i);
+        }
+        if (emails.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<?> items = postBatch(emails);
+        if (items.size() != emails.size()) {
+            throw new EmailDeliveryClientException(
+                    "EMAIL_SERVICE_INVALID_RESPONSE",
+                    true
+            );
+        }
+        for (int i = 0; i < items.size(); i++) {
+            results[positions.get(i)] = batchItemResult(items.get(i));
+        }
+        return Arrays.asList(results);
+    }
+
     @Override
     public Optional<EmailDeliveryReceipt> findDeliveryByIdempotencyKey(
             String idempotencyKey) {
@@ -242,7 +285,7 @@ public class RestTemplateEmailServiceImpl implements EmailService {
     }
 
     private boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email).matches();
+        return EmailServiceResponses.isValidEmail(email);
     }
 
     private HttpHeaders requestHeaders() {
@@ -254,42 +297,37 @@ public class RestTemplateEmailServiceImpl implements EmailService {
         return headers;
     }
 
-    private EmailDeliveryReceipt deliveryReceipt(Map<String, Object> response) {
-        if (response == null || !Boolean.TRUE.equals(response.get("success"))) {
-            throw new EmailDeliveryClientException(
-                    "EMAIL_SERVICE_REJECTED",
-                    false
+    private List<?> postBatch(List<Map<String, Object>> emails) {
+        Map<?, ?> response;
+        try {
+            HttpEntity<Map<String, Object>> request = new HttpEntity<>(
+                    Map.of("emails", emails),
+                    requestHeaders()
             );
-        }
-        Object rawId = response.get("queueId");
-        Object rawStatus = response.get("status");
-        if (rawId == null || rawStatus == null) {
+            response = restTemplate.postForEntity(
+                    serviceUrl("/api/email/template/batch"),
+                    request,
+                    Map.class
+            ).getBody();
+        } catch (RestClientResponseException exception) {
+            throw httpFailure(exception.getStatusCode().value(), exception);
+        } catch (RuntimeException exception) {
             throw new EmailDeliveryClientException(
-                    "EMAIL_SERVICE_INVALID_RESPONSE",
-                    true
+                    "EMAIL_SERVICE_UNAVAILABLE",
+                    true,
+                    exception
             );
         }
-        try {
-            return new EmailDeliveryReceipt(
-                    rawId.toString(),
-                    EmailDeliveryReceipt.DeliveryState.valueOf(
-                            rawStatus.toString()
-                    )
-            );
-        } catch (IllegalArgumentException exception) {
+        if (response == null || !(response.get("results") instanceof List<?> items)) {
             throw new EmailDeliveryClientException(
                     "EMAIL_SERVICE_INVALID_RESPONSE",
-                    true,
-                    exception
+                    true
             );
         }
+        return items;
     }
 
     private String serviceUrl(String path) {
-        String baseUrl = properties.getUrl();
-        while (baseUrl.endsWith("/")) {
-            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
-        }
-        return baseUrl + path;
+        return EmailServiceResponses.serviceUrl(properties.getUrl(), path);
     }
 }
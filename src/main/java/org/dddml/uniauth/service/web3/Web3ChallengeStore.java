@@ -0,0 +1,49 @@
+package org.dddml.uniauth.service.web3;
+
+import java.time.Instant;
+
+/**
+ * Holds issued SIWE challenges until they are consumed or expire and
+ * enforces the global and per-source caps on active challenges. Wallet
+ * addresses arrive normalized; a wallet has at most one active challenge.
+ */
+public interface Web3ChallengeStore {
+
+    /**
+     * Stores a challenge and returns its handle.
+     *
+     * @throws org.dddml.uniauth.service.Web3ChallengeCapacityExceededException
+     *         when a cap is reached or the wallet already has an active
+     *         challenge
+     */
+    String issue(
+        String walletAddress,
+        String nonce,
+        String message,
+        String sourceKey,
+        Instant expiresAt
+    );
+
+    /**
+     * Returns the nonce of the wallet's active challenge, or {@code null}.
+     * An expired challenge found on the way is removed.
+     */
+    String activeNonce(String walletAddress);
+
+    /**
+     * Removes the challenge if every field matches and it has not expired.
+     * Only one caller can consume a given challenge.
+     */
+    boolean consume(
+        String challengeHandle,
+        String walletAddress,
+        String nonce,
+        String message
+    );
+
+    /**
+     * Removes expired challenges, releasing their capacity, and returns
+     * how many were removed.
+     */
+    int removeExpired();
+}
@@ -0,0 +1,326 @@
+package org.dddml.uniauth.service.web3.impl;
+
+import org.dddml.uniauth.service.Web3ChallengeCapacityExceededException;
+import org.dddml.uniauth.service.web3.Web3ChallengeStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps challenges in this instance's memory, so issuing and verifying one
+ * touches no database. Expiry runs on a hashed timing wheel of one-second
+ * slots: a challenge waits in the slot of its expiry second, and each call
+ * sweeps the slots of the seconds that have fully passed. The global cap is
+ * split across striped counters and the per-source cap is one counter per
+ * source key.
+ * <p>
+ * Challenges are lost on restart and are not shared between instances, so
+ * a multi-instance deployment needs sticky routing from nonce issue to
+ * verify, and each instance enforces the caps on its own.
+ */
+@Component
+@ConditionalOnProperty(name = "app.web3.challenge-store", havingValue = "memory")
+public class InMemoryWeb3ChallengeStore implements Web3ChallengeStore {
+
+    private static final long TICK_MILLIS = 1000;
+    // A power of two; 512 one-second slots cover more than eight minutes,
+    // so a challenge with the default TTL is swept on its first pass.
+    private static final int WHEEL_SLOTS = 512;
+
+    private final Map<String, Challenge> byHandle = new ConcurrentHashMap<>();
+    private final Map<String, Challenge> byWallet = new ConcurrentHashMap<>();
+    private final Map<String, Integer> activeBySource = new ConcurrentHashMap<>();
+    private final StripedCapacity globalCapacity;
+    private final int maxActiveSource;
+    private final Clock clock;
+    private final List<Queue<Challenge>> wheel = new ArrayList<>(WHEEL_SLOTS);
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private volatile long sweptTick;
+
+    public InMemoryWeb3ChallengeStore(
+            @Value("${app.web3.max-active-global:1000}") int maxActiveGlobal,
+            @Value("${app.web3.max-active-source:10}") int maxActiveSource) {
+        this(maxActiveGlobal, maxActiveSource, Clock.systemUTC());
+    }
+
+    InMemoryWeb3ChallengeStore(int maxActiveGlobal, int maxActiveSource, Clock clock) {
+        this.globalCapacity = new StripedCapacity(maxActiveGlobal);
+        this.maxActiveSource = maxActiveSource;
+        this.clock = clock;
+        for (int slot = 0; slot < WHEEL_SLOTS; slot++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.sweptTick = clock.millis() / TICK_MILLIS - 1;
+    }
+
+    @Override
+    public String issue(
+            String walletAddress,
+            String nonce,
+            String message,
+            String sourceKey,
+            Instant expiresAt) {
+        long now = clock.millis();
+        sweep(now, false);
+        Challenge existing = byWallet.get(walletAddress);
+        if (existing != null && existing.expiredAt(now)) {
+            remove(existing);
+        }
+
+        int stripe = globalCapacity.tryAcquire(ThreadLocalRandom.current().nextInt());
+        if (stripe < 0) {
+            // Another caller may be mid-sweep; finish it before refusing.
+            sweep(now, true);
+            stripe = globalCapacity.tryAcquire(ThreadLocalRandom.current().nextInt());
+            if (stripe < 0) {
+                throw new Web3ChallengeCapacityExceededException();
+            }
+        }
+        if (!acquireSource(sourceKey)) {
+            globalCapacity.release(stripe);
+            throw new Web3ChallengeCapacityExceededException();
+        }
+
+        Challenge challenge = new Challenge(
+                UUID.randomUUID().toString(),
+                walletAddress,
+                nonce,
+                message,
+                sourceKey,
+                expiresAt.toEpochMilli(),
+                stripe
+        );
+        if (byWallet.putIfAbsent(walletAddress, challenge) != null) {
+            globalCapacity.release(stripe);
+            releaseSource(sourceKey);
+            throw new Web3ChallengeCapacityExceededException();
+        }
+        byHandle.put(challenge.handle, challenge);
+        long tick = Math.max(challenge.expiresAtMillis / TICK_MILLIS, sweptTick + 1);
+        wheel.get(slotOf(tick)).add(challenge);
+        // A sweep that passed the slot before the add did not see this
+        // challenge. Its slot second was over by then, so it has expired:
+        // release it now rather than hold its capacity for a revolution.
+        if (challenge.expiredAt(clock.millis())) {
+            remove(challenge);
+        }
+        return challenge.handle;
+    }
+
+    @Override
+    public String activeNonce(String walletAddress) {
+        long now = clock.millis();
+        sweep(now, false);
+        Challenge challenge = byWallet.get(walletAddress);
+        if (challenge == null) {
+            return null;
+        }
+        if (challenge.expiredAt(now)) {
+            remove(challenge);
+            return null;
+        }
+        return challenge.nonce;
+    }
+
+    @Override
+    public boolean consume(
+            String challengeHandle,
+            String walletAddress,
+            String nonce,
+            String message) {
+        long now = clock.millis();
+        sweep(now, false);
+        Challenge challenge = byHandle.get(challengeHandle);
+        if (challenge == null) {
+            return false;
+        }
+        if (challenge.expiredAt(now)) {
+            remove(challenge);
+            return false;
+        }
+        if (!challenge.walletAddress.equals(walletAddress)
+                || !challenge.nonce.equals(nonce)
+                || !challenge.message.equals(message)) {
+            return false;
+        }
+        return remove(challenge);
+    }
+
+    @Override
+    public int removeExpired() {
+        return sweep(clock.millis(), true);
+    }
+
+    int activeCount() {
+        return byHandle.size();
+    }
+
+    /**
+     * Sweeps the slots of every second that has fully passed since the last
+     * sweep, at most one revolution. A challenge found there that expires
+     * later belongs to a later revolution and stays. Without {@code wait},
+     * a caller that finds another sweep running skips its own.
+     */
+    private int sweep(long nowMillis, boolean wait) {
+        long lastFullTick = nowMillis / TICK_MILLIS - 1;
+        if (lastFullTick <= sweptTick) {
+            return 0;
+        }
+        if (wait) {
+            wheelLock.lock();
+        } else if (!wheelLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int removed = 0;
+            long firstTick = Math.max(sweptTick + 1, lastFullTick - WHEEL_SLOTS + 1);
+            for (long tick = firstTick; tick <= lastFullTick; tick++) {
+                Iterator<Challenge> slot = wheel.get(slotOf(tick)).iterator();
+                while (slot.hasNext()) {
+                    Challenge challenge = slot.next();
+                    if (challenge.removed.get()) {
+                        slot.remove();
+                    } else if (challenge.expiredAt(nowMillis)) {
+                        slot.remove();
+                        if (remove(challenge)) {
+                            removed++;
+                        }
+                    }
+                }
+            }
+            sweptTick = Math.max(sweptTick, lastFullTick);
+            return removed;
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    private boolean remove(Challenge challenge) {
+        if (!challenge.removed.compareAndSet(false, true)) {
+            return false;
+        }
+        byHandle.remove(challenge.handle, challenge);
+        byWallet.remove(challenge.walletAddress, challenge);
+        globalCapacity.release(challenge.stripe);
+        releaseSource(challenge.sourceKey);
+        return true;
+    }
+
+    private boolean acquireSource(String sourceKey) {
+        boolean[] acquired = new boolean[1];
+        activeBySource.compute(sourceKey, (key, active) -> {
+            int current = active == null ? 0 : active;
+            if (current >= maxActiveSource) {
+                return active;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseSource(String sourceKey) {
+        activeBySource.computeIfPresent(
+                sourceKey,
+                (key, active) -> active <= 1 ? null : active - 1
+        );
+    }
+
+    private static int slotOf(long tick) {
+        return (int) (tick & (WHEEL_SLOTS - 1));
+    }
+
+    private static final class Challenge {
+
+        private final String handle;
+        private final String walletAddress;
+        private final String nonce;
+        private final String message;
+        private final String sourceKey;
+        private final long expiresAtMillis;
+        private final int stripe;
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        private Challenge(
+                String handle,
+                String walletAddress,
+                String nonce,
+                String message,
+                String sourceKey,
+                long expiresAtMillis,
+                int stripe) {
+            this.handle = handle;
+            this.walletAddress = walletAddress;
+            this.nonce = nonce;
+            this.message = message;
+            this.sourceKey = sourceKey;
+            this.expiresAtMillis = expiresAtMillis;
+            this.stripe = stripe;
+        }
+
+        private boolean expiredAt(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    /**
+     * A cap split evenly across stripes. A caller starts at a random stripe
+     * and moves on when it is full, so concurrent issues rarely contend on
+     * one counter while the total never exceeds the cap.
+     */
+    private static final class StripedCapacity {
+
+        private static final int MAX_STRIPES = 16;
+        // Stripes sit 16 ints (64 bytes) apart to keep them on separate
+        // cache lines.
+        private static final int PADDING = 16;
+
+        private final int[] limits;
+        private final AtomicIntegerArray used;
+
+        private StripedCapacity(int capacity) {
+            int stripes = Math.max(1, Math.min(MAX_STRIPES, capacity));
+            this.limits = new int[stripes];
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                limits[stripe] = capacity / stripes + (stripe < capacity % stripes ? 1 : 0);
+            }
+            this.used = new AtomicIntegerArray(stripes * PADDING);
+        }
+
+        private int tryAcquire(int hint) {
+            int stripes = limits.length;
+            int start = Math.floorMod(hint, stripes);
+            for (int offset = 0; offset < stripes; offset++) {
+                int stripe = (start + offset) % stripes;
+                int index = stripe * PADDING;
+                int current = used.get(index);
+                while (current < limits[stripe]) {
+                    if (used.compareAndSet(index, current, current + 1)) {
+                        return stripe;
+                    }
+                    current = used.get(index);
+                }
+            }
+            return -1;
+        }
+
+        private void release(int stripe) {
+            used.decrementAndGet(stripe * PADDING);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.dddml.uniauth.service.web3.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.dddml.uniauth.entity.Web3Nonce;
+import org.dddml.uniauth.repository.Web3NonceRepository;
+import org.dddml.uniauth.service.RetentionEngine;
+import org.dddml.uniauth.service.Web3ChallengeCapacityExceededException;
+import org.dddml.uniauth.service.web3.Web3ChallengeStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Durable challenge store in {@code web3_nonces}, with the active counts in
+ * {@code web3_challenge_counters}. Every instance sharing the database sees
+ * the same challenges and caps.
+ * <p>
+ * Expired challenges are swept by the {@code web3-challenges} retention
+ * policy. The request path only removes the one expired challenge it runs
+ * into, so a wallet can request a new challenge before the next sweep.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    name = "app.web3.challenge-store",
+    havingValue = "jdbc",
+    matchIfMissing = true
+)
+public class JdbcWeb3ChallengeStore implements Web3ChallengeStore {
+
+    private static final String GLOBAL_BUCKET = "global";
+    private static final String RETENTION_POLICY = "web3-challenges";
+
+    private final Web3NonceRepository web3NonceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RetentionEngine retentionEngine;
+
+    @Value("${app.web3.max-active-global:1000}")
+    private int maxActiveGlobal;
+
+    @Value("${app.web3.max-active-source:10}")
+    private int maxActiveSource;
+
+    @Override
+    @Transactional
+    public String issue(
+            String walletAddress,
+            String nonce,
+            String message,
+            String sourceKey,
+            Instant expiresAt) {
+        removeExpiredChallenge(walletAddress);
+        reserveCounter(GLOBAL_BUCKET, maxActiveGlobal);
+        reserveCounter("source:" + sourceKey, maxActiveSource);
+        String handle = UUID.randomUUID().toString();
+        try {
+            web3NonceRepository.saveAndFlush(Web3Nonce.builder()
+                    .id(UUID.randomUUID().toString())
+                    .walletAddress(walletAddress)
+                    .nonce(nonce)
+                    .message(message)
+                    .challengeHandle(handle)
+                    .sourceKey(sourceKey)
+                    .expiresAt(expiresAt)
+                    .build());
+            return handle;
+        } catch (DataIntegrityViolationException exception) {
+            throw new Web3ChallengeCapacityExceededException();
+        }
+    }
+
+    @Override
+    @Transactional
+    public String activeNonce(String walletAddress) {
+        Optional<Web3Nonce> existingNonce = web3NonceRepository.findByWalletAddress(walletAddress);
+        if (existingNonce.isEmpty()) {
+            return null;
+        }
+        Web3Nonce web3Nonce = existingNonce.get();
+        if (web3Nonce.getExpiresAt().isBefore(Instant.now())) {
+            removeExpiredChallenge(walletAddress);
+            return null;
+        }
+        return web3Nonce.getNonce();
+    }
+
+    @Override
+    @Transactional
+    public boolean consume(
+            String challengeHandle,
+            String walletAddress,
+            String nonce,
+            String message) {
+        Instant now = Instant.now();
+        Optional<Web3Nonce> candidate =
+                web3NonceRepository.findByChallengeHandle(challengeHandle);
+        if (candidate.isEmpty()) {
+            return false;
+        }
+        Web3Nonce stored = candidate.get();
+        if (!stored.getWalletAddress().equals(walletAddress)
+                || !stored.getNonce().equals(nonce)
+                || !stored.getMessage().equals(message)
+                || !stored.getExpiresAt().isAfter(now)) {
+            if (!stored.getExpiresAt().isAfter(now)) {
+                removeExpiredChallenge(stored.getWalletAddress());
+            }
+            return false;
+        }
+        int consumed = web3NonceRepository.consumeNonce(
+                challengeHandle,
+                walletAddress,
+                nonce,
+                message,
+                now
+        );
+        if (consumed == 1) {
+            releaseCounters(stored.getSourceKey());
+        }
+        return consumed == 1;
+    }
+
+    /**
+     * Runs the retention sweep now instead of waiting for its schedule.
+     */
+    @Override
+    public int removeExpired() {
+        return (int) retentionEngine.run(RETENTION_POLICY);
+    }
+
+    private void removeExpiredChallenge(String walletAddress) {
+        List<String> sourceKeys = jdbcTemplate.query(
+                """
+                DELETE FROM web3_nonces
+                WHERE wallet_address = ?
+                  AND expires_at <= ?
+                RETURNING source_key
+                """,
+                (resultSet, rowNumber) -> resultSet.getString(1),
+                walletAddress,
+                Timestamp.from(Instant.now())
+        );
+        sourceKeys.forEach(this::releaseCounters);
+    }
+
+    private void reserveCounter(String bucketKey, int limit) {
+        List<Integer> reserved = jdbcTemplate.query(
+                """
+                INSERT INTO web3_challenge_counters (
+                    bucket_key,
+                    active_count,
+                    updated_at
+                )
+                VALUES (?, 1, CURRENT_TIMESTAMP)
+                ON CONFLICT (bucket_key) DO UPDATE
+                SET active_count =
+                        web3_challenge_counters.active_count + 1,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE web3_challenge_counters.active_count < ?
+                RETURNING active_count
+                """,
+                (resultSet, rowNumber) -> resultSet.getInt(1),
+                bucketKey,
+                limit
+        );
+        if (reserved.size() != 1) {
+            throw new Web3ChallengeCapacityExceededException();
+        }
+    }
+
+    /**
+     * Releases one challenge from the global and source counters, global
+     * first like {@link #issue}. Counters left at zero are removed by the
+     * {@code web3-challenge-counters} retention policy.
+     */
+    private void releaseCounters(String sourceKey) {
+        releaseCounter(GLOBAL_BUCKET);
+        releaseCounter("source:" + sourceKey);
+    }
+
+    private void releaseCounter(String bucketKey) {
+        jdbcTemplate.update(
+                """
+                UPDATE web3_challenge_counters
+                SET active_count = greatest(0, active_count - 1),
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE bucket_key = ?
+                """,
+                bucketKey
+        );
+    }
+}
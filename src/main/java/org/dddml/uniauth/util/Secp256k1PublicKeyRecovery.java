@@ -0,0 +1,67 @@
+package org.dddml.uniauth.util;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.BigIntegers;
+
+import java.math.BigInteger;
+
+/**
+ * Recovers the signing public key of a secp256k1 ECDSA signature with the
+ * same arithmetic as web3j {@code Sign.recoverFromSignature}:
+ * {@code Q = r^-1 (sR - eG)}. Both multiples are computed in one
+ * interleaved pass over the curve's GLV endomorphism, and the generator's
+ * wNAF table stays cached on the shared {@code G}. web3j's {@code nR == O}
+ * check is left out because the cofactor is 1, so every point on the curve
+ * already has order {@code n}. The key is returned as raw coordinates
+ * instead of a {@code BigInteger}.
+ */
+final class Secp256k1PublicKeyRecovery {
+
+    private static final X9ECParameters PARAMETERS = CustomNamedCurves.getByName("secp256k1");
+    private static final ECCurve CURVE = PARAMETERS.getCurve();
+    private static final ECPoint G = PARAMETERS.getG();
+    private static final BigInteger N = PARAMETERS.getN();
+    private static final BigInteger P = CURVE.getField().getCharacteristic();
+
+    private Secp256k1PublicKeyRecovery() {
+    }
+
+    /**
+     * Returns the uncompressed public key as 64 bytes {@code X || Y}, or
+     * {@code null} when {@code r} does not map to a curve x coordinate for
+     * this recovery id.
+     *
+     * @throws IllegalArgumentException when the candidate point is not on
+     *         the curve
+     * @throws ArithmeticException when {@code r} has no inverse mod n
+     */
+    static byte[] recover(int recoveryId, BigInteger r, BigInteger s, byte[] messageHash) {
+        BigInteger x = recoveryId >= 2 ? r.add(N) : r;
+        if (x.compareTo(P) >= 0) {
+            return null;
+        }
+        byte[] compressed = new byte[33];
+        compressed[0] = (byte) ((recoveryId & 1) == 1 ? 0x03 : 0x02);
+        BigIntegers.asUnsignedByteArray(x, compressed, 1, 32);
+        ECPoint bigR = CURVE.decodePoint(compressed);
+
+        BigInteger e = new BigInteger(1, messageHash);
+        BigInteger rInverse = r.modInverse(N);
+        BigInteger generatorScalar = N.subtract(e).multiply(rInverse).mod(N);
+        BigInteger pointScalar = rInverse.multiply(s).mod(N);
+
+        ECPoint q = ECAlgorithms.sumOfTwoMultiplies(G, generatorScalar, bigR, pointScalar)
+                .normalize();
+
+        byte[] publicKey = new byte[64];
+        if (!q.isInfinity()) {
+            q.getAffineXCoord().encodeTo(publicKey, 0);
+            q.getAffineYCoord().encodeTo(publicKey, 32);
+        }
+        return publicKey;
+    }
+}
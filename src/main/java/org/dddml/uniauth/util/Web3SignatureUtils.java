@@ -1,21 +1,22 @@
 package org.dddml.uniauth.util;
 
 import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.crypto.digests.KeccakDigest;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.web3j.crypto.ECDSASignature;
-import org.web3j.crypto.Hash;
-import org.web3j.crypto.Keys;
-import org.web3j.crypto.Sign;
-import org.web3j.utils.Numeric;
 
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
-import java.util.Arrays;
+import java.util.regex.Pattern;
 
 @Slf4j
 public class Web3SignatureUtils {
 
+    private static final Pattern ADDRESS_PATTERN = Pattern.compile("^0x[a-fA-F0-9]{40}$");
+    private static final byte[] MESSAGE_PREFIX =
+            "\u0019Ethereum Signed Message:\n".getBytes(StandardCharsets.UTF_8);
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     static {
         Security.addProvider(new BouncyCastleProvider());
     }
@@ -24,10 +25,7 @@ public class Web3SignatureUtils {
     }
 
     public static boolean isValidAddress(String address) {
-        if (address == null || !address.matches("^0x[a-fA-F0-9]{40}$")) {
-            return false;
-        }
-        return true;
+        return address != null && ADDRESS_PATTERN.matcher(address).matches();
     }
 
     public static String normalizeAddress(String address) {
@@ -52,7 +50,7 @@ public class Web3SignatureUtils {
             throw new IllegalArgumentException("Invalid signature format: must start with 0x");
         }
 
-        byte[] signatureBytes = Numeric.hexStringToByteArray(signature);
+        byte[] signatureBytes = decodeHex(signature);
 
         if (signatureBytes.length != 65) {
             throw new IllegalArgumentException("Invalid signature length: expected 65 bytes, got " + signatureBytes.length);
@@ -64,20 +62,10 @@ public class Web3SignatureUtils {
             v += 27;
         }
 
-        byte[] r = Arrays.copyOfRange(signatureBytes, 0, 32);
-        byte[] s = Arrays.copyOfRange(signatureBytes, 32, 64);
+        BigInteger r = new BigInteger(1, signatureBytes, 0, 32);
+        BigInteger s = new BigInteger(1, signatureBytes, 32, 32);
 
-        BigInteger rBI = new BigInteger(1, r);
-        BigInteger sBI = new BigInteger(1, s);
-
-        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
-        byte[] prefixBytes = (
-                "\u0019Ethereum Signed Message:\n" + messageBytes.length
-        ).getBytes(StandardCharsets.UTF_8);
-        byte[] payload = new byte[prefixBytes.length + messageBytes.length];
-        System.arraycopy(prefixBytes, 0, payload, 0, prefixBytes.length);
-        System.arraycopy(messageBytes, 0, payload, prefixBytes.length, messageBytes.length);
-        byte[] msgHash = Hash.sha3(payload);
+        byte[] msgHash = ethereumMessageHash(message);
 
         // Use v value to calculate recovery ID
         int recId = v - 27;
@@ -87,18 +75,14 @@ public class Web3SignatureUtils {
             throw new Exception("Invalid recovery id: " + recId);
         }
 
-        ECDSASignature ecdsaSignature = new ECDSASignature(rBI, sBI);
-
-        // Directly use the correct recovery ID
-        BigInteger publicKey = Sign.recoverFromSignature(recId, ecdsaSignature, msgHash);
+        byte[] publicKey = Secp256k1PublicKeyRecovery.recover(recId, r, s, msgHash);
 
         if (publicKey == null) {
             throw new Exception("Failed to recover public key from signature");
         }
 
-        String address = "0x" + Keys.getAddress(publicKey);
-
-        return address.toLowerCase();
+        // The address is the last 20 bytes of the public key hash
+        return "0x" + toHex(keccak256(publicKey), 12, 20);
     }
 
     public static boolean verifySignatureStructure(String signature) {
@@ -112,10 +96,68 @@ public class Web3SignatureUtils {
         }
 
         try {
-            Numeric.hexStringToByteArray(signature);
+            decodeHex(signature);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
+
+    private static byte[] ethereumMessageHash(String message) {
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        byte[] length = Integer.toString(messageBytes.length).getBytes(StandardCharsets.UTF_8);
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(MESSAGE_PREFIX, 0, MESSAGE_PREFIX.length);
+        digest.update(length, 0, length.length);
+        digest.update(messageBytes, 0, messageBytes.length);
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+
+    private static byte[] keccak256(byte[] input) {
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(input, 0, input.length);
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+
+    /**
+     * Decodes {@code 0x}-prefixed hex. Like web3j {@code Numeric}, an odd
+     * number of digits is read as if it had a leading zero.
+     */
+    private static byte[] decodeHex(String hex) {
+        int digits = hex.length() - 2;
+        byte[] bytes = new byte[(digits + 1) / 2];
+        int position = 2;
+        int index = 0;
+        if (digits % 2 == 1) {
+            bytes[index++] = (byte) hexDigit(hex.charAt(position++));
+        }
+        while (position < hex.length()) {
+            bytes[index++] = (byte) ((hexDigit(hex.charAt(position)) << 4)
+                    | hexDigit(hex.charAt(position + 1)));
+            position += 2;
+        }
+        return bytes;
+    }
+
+    private static int hexDigit(char character) {
+        int digit = Character.digit(character, 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid signature format: not hexadecimal");
+        }
+        return digit;
+    }
+
+    private static String toHex(byte[] bytes, int offset, int length) {
+        char[] hex = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int value = bytes[offset + i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[value >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[value & 0x0f];
+        }
+        return new String(hex);
+    }
 }
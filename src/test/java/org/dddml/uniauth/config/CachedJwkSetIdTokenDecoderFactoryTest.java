@@ -0,0 +1,202 @@
+package org.dddml.uniauth.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachedJwkSetIdTokenDecoderFactoryTest {
+
+    private static final String ISSUER = "https://accounts.google.com";
+    private static final String CLIENT_ID = "google-client";
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicReference<String> published = new AtomicReference<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private HttpServer provider;
+    private OAuth2ProviderCalls providerCalls;
+    private CachedJwkSetIdTokenDecoderFactory factory;
+
+    @BeforeEach
+    void startProvider() throws IOException {
+        provider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        provider.createContext("/certs", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = published.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status.get(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        provider.start();
+        providerCalls = new OAuth2ProviderCalls(10_000, new SimpleMeterRegistry());
+        OAuth2HttpClientProperties properties = new OAuth2HttpClientProperties();
+        properties.setJwksMinimumRefetchSeconds(30);
+        factory = new CachedJwkSetIdTokenDecoderFactory(
+                new RestTemplate(),
+                providerCalls,
+                properties,
+                clock
+        );
+    }
+
+    @AfterEach
+    void stopProvider() {
+        factory.close();
+        providerCalls.close();
+        provider.stop(0);
+    }
+
+    @Test
+    void idTokensAreVerifiedAgainstOneCachedFetch() throws Exception {
+        RSAKey key = rsaKey("key-1");
+        publish(key);
+        ClientRegistration registration = googleRegistration();
+
+        JwtDecoder decoder = factory.createDecoder(registration);
+        for (int login = 0; login < 5; login++) {
+            Jwt jwt = decoder.decode(idToken(key, "google-user-" + login));
+            assertThat(jwt.getSubject()).isEqualTo("google-user-" + login);
+        }
+
+        assertThat(factory.createDecoder(registration)).isSameAs(decoder);
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    void unknownKeyIdRefetchesAtMostOncePerMinimumInterval() throws Exception {
+        RSAKey original = rsaKey("key-1");
+        RSAKey rotated = rsaKey("key-2");
+        publish(original);
+        JwtDecoder decoder = factory.createDecoder(googleRegistration());
+        decoder.decode(idToken(original, "google-user"));
+        publish(original, rotated);
+
+        assertThatThrownBy(() -> decoder.decode(idToken(rotated, "google-user")))
+                .isInstanceOf(JwtException.class);
+        assertThat(fetches).hasValue(1);
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(decoder.decode(idToken(rotated, "google-user")).getSubject())
+                .isEqualTo("google-user");
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void failedRefetchKeepsTheCachedKeys() throws Exception {
+        RSAKey original = rsaKey("key-1");
+        publish(original);
+        JwtDecoder decoder = factory.createDecoder(googleRegistration());
+        decoder.decode(idToken(original, "google-user"));
+        status.set(503);
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThatThrownBy(() -> decoder.decode(idToken(rsaKey("key-2"), "google-user")))
+                .isInstanceOf(JwtException.class);
+        assertThat(fetches).hasValue(2);
+        assertThat(decoder.decode(idToken(original, "google-user")).getSubject())
+                .isEqualTo("google-user");
+    }
+
+    private void publish(RSAKey... keys) {
+        JWKSet set = new JWKSet(Arrays.stream(keys)
+                .<JWK>map(RSAKey::toPublicJWK)
+                .toList());
+        published.set(set.toString());
+    }
+
+    private ClientRegistration googleRegistration() {
+        String baseUri = "http://127.0.0.1:" + provider.getAddress().getPort();
+        return ClientRegistration.withRegistrationId("google")
+                .clientId(CLIENT_ID)
+                .clientSecret("google-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("https://circle.example/oauth2/callback")
+                .scope("openid", "profile", "email")
+                .authorizationUri(baseUri + "/auth")
+                .tokenUri(baseUri + "/token")
+                .userInfoUri(baseUri + "/userinfo")
+                .userNameAttributeName("sub")
+                .jwkSetUri(baseUri + "/certs")
+                .clientName("Google")
+                .build();
+    }
+
+    private static String idToken(RSAKey key, String subject) throws JOSEException {
+        Instant now = Instant.now();
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .issuer(ISSUER)
+                        .subject(subject)
+                        .audience(CLIENT_ID)
+                        .issueTime(Date.from(now))
+                        .expirationTime(Date.from(now.plusSeconds(300)))
+                        .build()
+        );
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static RSAKey rsaKey(String keyId) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
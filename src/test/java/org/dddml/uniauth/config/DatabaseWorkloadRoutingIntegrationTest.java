@@ -0,0 +1,111 @@
+package org.dddml.uniauth.config;
+
+import jakarta.persistence.EntityManager;
+import org.dddml.uniauth.repository.UserRepository;
+import org.dddml.uniauth.service.SecurityEventService;
+import org.dddml.uniauth.support.PostgreSqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.datasource.workloads.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DatabaseWorkloadRoutingIntegrationTest extends PostgreSqlIntegrationTest {
+
+    private static final String PROBE_EVENT = "WORKLOAD_ROUTING_PROBE";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void controllerWriteAfterAnEarlierReadLandsOnTheAuthWritesPool() throws Exception {
+        mockMvc.perform(get("/api/test/workload-write").with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("uniauth-auth-writes"));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM security_events WHERE event_type = ?",
+                Integer.class,
+                PROBE_EVENT
+        )).isEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class ProbeControllerConfiguration {
+
+        @Bean
+        WorkloadProbeController workloadProbeController(
+                UserRepository userRepository,
+                SecurityEventService securityEventService,
+                EntityManager entityManager,
+                TransactionTemplate transactionTemplate) {
+            return new WorkloadProbeController(
+                    userRepository,
+                    securityEventService,
+                    entityManager,
+                    transactionTemplate
+            );
+        }
+    }
+
+    @RestController
+    static class WorkloadProbeController {
+
+        private final UserRepository userRepository;
+        private final SecurityEventService securityEventService;
+        private final EntityManager entityManager;
+        private final TransactionTemplate transactionTemplate;
+
+        WorkloadProbeController(
+                UserRepository userRepository,
+                SecurityEventService securityEventService,
+                EntityManager entityManager,
+                TransactionTemplate transactionTemplate) {
+            this.userRepository = userRepository;
+            this.securityEventService = securityEventService;
+            this.entityManager = entityManager;
+            this.transactionTemplate = transactionTemplate;
+        }
+
+        @GetMapping("/api/test/workload-write")
+        String write() {
+            // The first JPA use binds a default-pool connection to the
+            // open-in-view EntityManager.
+            userRepository.count();
+            return DatabaseWorkload.AUTH_WRITES.call(() ->
+                    transactionTemplate.execute(status -> {
+                        securityEventService.append(
+                                PROBE_EVENT,
+                                null,
+                                SecurityEventService.Outcome.SUCCESS,
+                                null
+                        );
+                        entityManager.flush();
+                        return (String) entityManager
+                                .createNativeQuery(
+                                        "SELECT current_setting('application_name')"
+                                )
+                                .getSingleResult();
+                    }));
+        }
+    }
+}
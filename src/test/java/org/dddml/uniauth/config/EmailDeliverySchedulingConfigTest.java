@@ -0,0 +1,42 @@
+package org.dddml.uniauth.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailDeliverySchedulingConfigTest {
+
+    private final Connection connection = mock(Connection.class);
+    private final Connection physicalConnection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+
+    @Test
+    void listenerDropsItsSubscriptionBeforeReturningTheConnection() throws Exception {
+        when(connection.createStatement()).thenReturn(statement);
+
+        EmailDeliverySchedulingConfig.unlisten(connection);
+
+        verify(statement).execute("UNLISTEN *");
+        verify(statement).close();
+        verify(connection, never()).unwrap(Connection.class);
+    }
+
+    @Test
+    void connectionThatCannotUnlistenIsClosedInsteadOfReused() throws Exception {
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.execute("UNLISTEN *"))
+                .thenThrow(new SQLException("I/O error", "08006"));
+        when(connection.unwrap(Connection.class)).thenReturn(physicalConnection);
+
+        EmailDeliverySchedulingConfig.unlisten(connection);
+
+        verify(physicalConnection).close();
+    }
+}
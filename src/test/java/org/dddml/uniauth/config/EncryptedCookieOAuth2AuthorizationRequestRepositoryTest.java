@@ -0,0 +1,192 @@
+package org.dddml.uniauth.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.PkceParameterNames;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EncryptedCookieOAuth2AuthorizationRequestRepositoryTest {
+
+    private static final String SECRET = "authorization-request-test-secret-0123456789";
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void authorizationRequestRoundTripsThroughASealedCookie() {
+        EncryptedCookieOAuth2AuthorizationRequestRepository repository = repository(SECRET);
+        OAuth2AuthorizationRequest original = authorizationRequest("state-1");
+
+        Cookie cookie = save(repository, original);
+
+        assertThat(cookie.isHttpOnly()).isTrue();
+        assertThat(cookie.getSecure()).isFalse();
+        assertThat(cookie.getPath()).isEqualTo("/oauth2");
+        assertThat(cookie.getMaxAge()).isEqualTo(600);
+        assertThat(cookie.getAttribute("SameSite")).isEqualTo("Lax");
+        assertThat(cookie.getValue()).doesNotContain("state-1", "verifier", "github");
+
+        OAuth2AuthorizationRequest loaded = repository.loadAuthorizationRequest(
+                callback(cookie, "state-1")
+        );
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.getAuthorizationUri()).isEqualTo(original.getAuthorizationUri());
+        assertThat(loaded.getClientId()).isEqualTo(original.getClientId());
+        assertThat(loaded.getRedirectUri()).isEqualTo(original.getRedirectUri());
+        assertThat(loaded.getScopes()).isEqualTo(original.getScopes());
+        assertThat(loaded.getAdditionalParameters()).isEqualTo(original.getAdditionalParameters());
+        assertThat(loaded.getAttributes()).isEqualTo(original.getAttributes());
+        assertThat(loaded.getAuthorizationRequestUri())
+                .isEqualTo(original.getAuthorizationRequestUri());
+
+        assertThat(repository.loadAuthorizationRequest(callback(cookie, "state-2"))).isNull();
+        assertThat(repository.loadAuthorizationRequest(callback(cookie, null))).isNull();
+    }
+
+    @Test
+    void removalClearsTheCookieAndExposesTheRequestToCallbackHandlers() {
+        EncryptedCookieOAuth2AuthorizationRequestRepository repository = repository(SECRET);
+        Cookie cookie = save(repository, authorizationRequest("state-1"));
+        MockHttpServletRequest request = callback(cookie, "state-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        OAuth2AuthorizationRequest removed =
+                repository.removeAuthorizationRequest(request, response);
+
+        assertThat(removed).isNotNull();
+        assertThat(EncryptedCookieOAuth2AuthorizationRequestRepository.callbackRequest(request))
+                .isSameAs(removed);
+        Cookie cleared = response.getCookie(
+                EncryptedCookieOAuth2AuthorizationRequestRepository.COOKIE_NAME
+        );
+        assertThat(cleared).isNotNull();
+        assertThat(cleared.getMaxAge()).isZero();
+        assertThat(cleared.getPath()).isEqualTo("/oauth2");
+    }
+
+    @Test
+    void tamperedForeignAndExpiredCookiesAreTreatedAsMissing() {
+        EncryptedCookieOAuth2AuthorizationRequestRepository repository = repository(SECRET);
+        Cookie cookie = save(repository, authorizationRequest("state-1"));
+        String value = cookie.getValue();
+        char last = value.charAt(value.length() / 2);
+        String tampered = value.substring(0, value.length() / 2)
+                + (last == 'A' ? 'B' : 'A')
+                + value.substring(value.length() / 2 + 1);
+
+        assertThat(repository.loadAuthorizationRequest(
+                callback(new Cookie(cookie.getName(), tampered), "state-1")
+        )).isNull();
+        assertThat(repository.loadAuthorizationRequest(
+                callback(new Cookie(cookie.getName(), "not base64!"), "state-1")
+        )).isNull();
+        assertThat(repository(SECRET + "-rotated").loadAuthorizationRequest(
+                callback(cookie, "state-1")
+        )).isNull();
+
+        clock.advance(Duration.ofSeconds(599));
+        assertThat(repository.loadAuthorizationRequest(callback(cookie, "state-1"))).isNotNull();
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(repository.loadAuthorizationRequest(callback(cookie, "state-1"))).isNull();
+    }
+
+    @Test
+    void rejectsAShortSecret() {
+        assertThatThrownBy(() -> repository("too-short"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cookie-secret");
+    }
+
+    private EncryptedCookieOAuth2AuthorizationRequestRepository repository(String secret) {
+        OAuth2AuthorizationRequestProperties properties =
+                new OAuth2AuthorizationRequestProperties();
+        properties.setStore(OAuth2AuthorizationRequestProperties.COOKIE_STORE);
+        properties.setCookieSecret(secret);
+        return new EncryptedCookieOAuth2AuthorizationRequestRepository(
+                properties,
+                new AuthCookieProperties(),
+                clock
+        );
+    }
+
+    private Cookie save(
+            EncryptedCookieOAuth2AuthorizationRequestRepository repository,
+            OAuth2AuthorizationRequest authorizationRequest) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveAuthorizationRequest(
+                authorizationRequest,
+                new MockHttpServletRequest("GET", "/oauth2/authorization/github"),
+                response
+        );
+        Cookie cookie = response.getCookie(
+                EncryptedCookieOAuth2AuthorizationRequestRepository.COOKIE_NAME
+        );
+        assertThat(cookie).isNotNull();
+        return cookie;
+    }
+
+    private MockHttpServletRequest callback(Cookie cookie, String state) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/oauth2/callback");
+        request.setCookies(cookie);
+        if (state != null) {
+            request.setParameter("state", state);
+        }
+        return request;
+    }
+
+    private OAuth2AuthorizationRequest authorizationRequest(String state) {
+        return OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://github.com/login/oauth/authorize")
+                .clientId("test-github")
+                .redirectUri("http://localhost:8081/oauth2/callback")
+                .scopes(Set.of("read:user", "user:email"))
+                .state(state)
+                .additionalParameters(Map.of(
+                        PkceParameterNames.CODE_CHALLENGE, "challenge",
+                        PkceParameterNames.CODE_CHALLENGE_METHOD, "S256"
+                ))
+                .attributes(Map.of(
+                        "registration_id", "github",
+                        PkceParameterNames.CODE_VERIFIER, "verifier",
+                        ExplicitOAuth2AuthorizationRequestResolver.BROWSER_BINDING_ATTRIBUTE,
+                        "browser-binding"
+                ))
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.dddml.uniauth.config;
 
 import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
 import org.springframework.boot.context.properties.bind.validation.BindValidationException;
@@ -37,6 +39,7 @@ class OAuth2HttpClientConfigTest {
                             RestTemplateAutoConfiguration.class,
                             OAuth2HttpClientConfig.class
                     )
+                    .withBean(SimpleMeterRegistry.class)
                     .withPropertyValues(
                             "app.oauth2.http.connect-timeout-ms=250",
                             "app.oauth2.http.read-timeout-ms=250"
@@ -50,6 +53,8 @@ class OAuth2HttpClientConfigTest {
             assertThat(context).hasBean("oauth2TokenRestTemplate");
             assertThat(context)
                     .hasBean("oauth2AuthorizationCodeTokenResponseClient");
+            assertThat(context).hasSingleBean(OAuth2ProviderCalls.class);
+            assertThat(context).hasBean("oidcIdTokenDecoderFactory");
         });
     }
 
@@ -145,6 +150,57 @@ class OAuth2HttpClientConfigTest {
         }
     }
 
+    @Test
+    void tokenExchangeIsBoundedByTheCallDeadline() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<?> server = executor.submit(() -> {
+                try (var ignored = serverSocket.accept()) {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception ignored) {
+                    // Client timeout and socket close are expected in this fixture.
+                }
+            });
+            try {
+                contextRunner
+                        .withPropertyValues(
+                                "app.oauth2.http.read-timeout-ms=5000",
+                                "app.oauth2.http.call-deadline-ms=200"
+                        )
+                        .run(context -> {
+                            @SuppressWarnings("unchecked")
+                            OAuth2AccessTokenResponseClient<
+                                    OAuth2AuthorizationCodeGrantRequest> client =
+                                    context.getBean(
+                                            "oauth2AuthorizationCodeTokenResponseClient",
+                                            OAuth2AccessTokenResponseClient.class
+                                    );
+
+                            long startedAt = System.nanoTime();
+                            assertThatThrownBy(() -> client.getTokenResponse(
+                                    authorizationCodeGrantRequest(
+                                            serverSocket.getLocalPort()
+                                    )
+                            )).isInstanceOf(OAuth2AuthorizationException.class);
+                            assertThat(Duration.ofNanos(
+                                    System.nanoTime() - startedAt
+                            )).isLessThan(Duration.ofSeconds(2));
+                            assertThat(context.getBean(MeterRegistry.class)
+                                    .get(OAuth2ProviderCalls.DEADLINE_COUNTER)
+                                    .tag("provider", "slow-provider")
+                                    .tag("stage", "token")
+                                    .counter()
+                                    .count()).isEqualTo(1.0);
+                        });
+            } finally {
+                server.cancel(true);
+                executor.shutdownNow();
+            }
+        }
+    }
+
     @Test
     void tokenClientParsesAValidAuthorizationCodeResponse()
             throws Exception {
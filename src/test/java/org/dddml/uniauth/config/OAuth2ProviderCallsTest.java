@@ -0,0 +1,148 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OAuth2ProviderCallsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private OAuth2ProviderCalls providerCalls;
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        providerCalls.close();
+    }
+
+    @Test
+    void callIsRejectedWithATimeoutInsteadOfRunningOnTheCallerWhenThePoolAndQueueAreFull()
+            throws Exception {
+        providerCalls = new OAuth2ProviderCalls(10_000, 1, 0, meterRegistry);
+        CompletableFuture<String> busy = occupyTheOnlyThread();
+
+        Thread caller = Thread.currentThread();
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> providerCalls.call("github", "emails", () -> {
+            assertThat(Thread.currentThread()).isNotSameAs(caller);
+            release.await();
+            return "octo@example.invalid";
+        })).isInstanceOf(TimeoutException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt))
+                .isLessThan(1_000);
+        assertThat(meterRegistry.get(OAuth2ProviderCalls.REJECTED_COUNTER)
+                .tag("provider", "github")
+                .tag("stage", "emails")
+                .counter()
+                .count()).isEqualTo(1.0);
+        release.countDown();
+        assertThat(providerCalls.await(busy)).isEqualTo("octo");
+    }
+
+    @Test
+    void callWaitsForAThreadWithinItsDeadline() throws Exception {
+        providerCalls = new OAuth2ProviderCalls(10_000, 1, 4, meterRegistry);
+        CompletableFuture<String> busy = occupyTheOnlyThread();
+
+        CompletableFuture<String> queued = providerCalls.start(
+                "github",
+                "emails",
+                () -> "octo@example.invalid"
+        );
+        assertThat(queued).isNotDone();
+        release.countDown();
+
+        assertThat(providerCalls.await(busy)).isEqualTo("octo");
+        assertThat(providerCalls.await(queued)).isEqualTo("octo@example.invalid");
+        assertThat(meterRegistry.find(OAuth2ProviderCalls.REJECTED_COUNTER).counter())
+                .isNull();
+    }
+
+    @Test
+    void queuedCallThatMissesItsDeadlineNeverRuns() throws Exception {
+        providerCalls = new OAuth2ProviderCalls(100, 1, 4, meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        // Ignores the deadline interrupt so the thread stays busy until the
+        // queued call has expired.
+        CompletableFuture<String> busy = providerCalls.start("github", "user_info", () -> {
+            running.countDown();
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+            return "octo";
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThatThrownBy(() -> providerCalls.call("github", "emails", () -> {
+            ran.set(true);
+            return "octo@example.invalid";
+        })).isInstanceOf(TimeoutException.class);
+        // The deadline counter is incremented after the task is dequeued.
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find(OAuth2ProviderCalls.DEADLINE_COUNTER)
+                .tag("stage", "emails")
+                .counter() == null
+                && System.nanoTime() < waitUntil) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        assertThatThrownBy(() -> providerCalls.await(busy))
+                .isInstanceOf(TimeoutException.class);
+
+        CompletableFuture<String> next = providerCalls.start(
+                "github",
+                "user_info",
+                () -> "next"
+        );
+        assertThat(providerCalls.await(next)).isEqualTo("next");
+        assertThat(ran).isFalse();
+    }
+
+    @Test
+    void cancellingTheCallInterruptsTheWorker() throws Exception {
+        providerCalls = new OAuth2ProviderCalls(10_000, 1, 0, meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> call = providerCalls.start("github", "user_info", () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+                throw exception;
+            }
+            return "octo";
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        call.cancel(true);
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private CompletableFuture<String> occupyTheOnlyThread() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> busy = providerCalls.start("github", "user_info", () -> {
+            running.countDown();
+            release.await();
+            return "octo";
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        return busy;
+    }
+}
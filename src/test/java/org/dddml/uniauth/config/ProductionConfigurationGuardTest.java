@@ -56,6 +56,32 @@ class ProductionConfigurationGuardTest {
                 .hasMessage("Production secrets must use distinct values");
     }
 
+    @Test
+    void cookieAuthorizationRequestStoreRequiresADistinctSecret() {
+        MockEnvironment environment = productionEnvironment();
+        environment.setProperty("app.oauth2.authorization-request.store", "cookie");
+
+        assertThatThrownBy(() -> new ProductionConfigurationGuard(environment)
+                .afterPropertiesSet())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.oauth2.authorization-request.cookie-secret");
+
+        environment.setProperty(
+                "app.oauth2.authorization-request.cookie-secret",
+                environment.getProperty("app.auth.rate-limit.key-secret")
+        );
+        assertThatThrownBy(() -> new ProductionConfigurationGuard(environment)
+                .afterPropertiesSet())
+                .hasMessage("Production secrets must use distinct values");
+
+        environment.setProperty(
+                "app.oauth2.authorization-request.cookie-secret",
+                "authorization-request-secret-ffffffffffff"
+        );
+        assertThatCode(() -> new ProductionConfigurationGuard(environment)
+                .afterPropertiesSet()).doesNotThrowAnyException();
+    }
+
     @Test
     void rejectsKeyGenerationAndRepositoryLocalKeyPaths() {
         MockEnvironment generationEnvironment = productionEnvironment();
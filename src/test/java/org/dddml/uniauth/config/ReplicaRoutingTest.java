@@ -0,0 +1,310 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource defaultPool = mock(DataSource.class);
+    private final DataSource validationPool = mock(DataSource.class);
+    private final Connection defaultConnection = mock(Connection.class);
+    private final Connection validationConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final LsnSource primary = new LsnSource();
+    private final LsnSource replica = new LsnSource();
+
+    @Test
+    void replicaIsUsedOnlyWhileItsLastReplayedSampleIsWithinMaxLag() throws Exception {
+        ReplicaRouting routing = routing(settings());
+        WorkloadRoutingDataSource dataSource = dataSource(routing);
+        primary.lsn("0/3000100");
+        replica.lsn("0/3000100");
+
+        routing.probe();
+
+        assertThat(read(dataSource)).isSameAs(replicaConnection);
+        clock.advance(Duration.ofMillis(2001));
+        assertThat(read(dataSource)).isSameAs(defaultConnection);
+        assertThat(reads("replica")).isEqualTo(1.0);
+        assertThat(reads("primary-lagging")).isEqualTo(1.0);
+    }
+
+    @Test
+    void sampleReplayedByALaterProbeAdmitsTheReplicaFromItsOwnTime() throws Exception {
+        ReplicaRouting routing = routing(settings());
+        WorkloadRoutingDataSource dataSource = dataSource(routing);
+        primary.lsn("0/3000100");
+        replica.lsn("0/30000F0");
+        routing.probe();
+        assertThat(read(dataSource)).isSameAs(defaultConnection);
+
+        clock.advance(Duration.ofMillis(1500));
+        primary.lsn("1/0");
+        replica.lsn("0/3000200");
+        routing.probe();
+
+        assertThat(read(dataSource)).isSameAs(replicaConnection);
+        assertThat(meterRegistry.get("uniauth.datasource.replica.staleness")
+                .timeGauge()
+                .value(TimeUnit.MILLISECONDS)).isEqualTo(1500.0);
+        clock.advance(Duration.ofMillis(501));
+        assertThat(read(dataSource)).isSameAs(defaultConnection);
+    }
+
+    @Test
+    void serverThatIsNotAStandbyIsNeverUsed() throws Exception {
+        ReplicaRouting routing = routing(settings());
+        WorkloadRoutingDataSource dataSource = dataSource(routing);
+        primary.lsn("0/3000100");
+        replica.lsn(null);
+
+        routing.probe();
+
+        assertThat(read(dataSource)).isSameAs(defaultConnection);
+    }
+
+    @Test
+    void pinnedUserReadsFromThePrimaryUntilThePinWindowEnds() throws Exception {
+        ReplicaRouting routing = routing(settings());
+        WorkloadRoutingDataSource dataSource = dataSource(routing);
+        primary.lsn("0/10");
+        replica.lsn("0/10");
+        routing.probe();
+
+        routing.pinPrimary("user-1");
+
+        assertThat(read(dataSource, "user-1")).isSameAs(defaultConnection);
+        assertThat(read(dataSource, "user-2")).isSameAs(replicaConnection);
+        clock.advance(Duration.ofMillis(5000));
+        routing.probe();
+        assertThat(read(dataSource, "user-1")).isSameAs(replicaConnection);
+        assertThat(reads("primary-pinned")).isEqualTo(1.0);
+    }
+
+    @Test
+    void replicaReadsKeepTheirWorkloadPoolWhenTheReplicaIsNotAdmitted() throws Exception {
+        WorkloadRoutingDataSource dataSource = dataSource(routing(settings()));
+
+        Connection connection = DatabaseWorkload.VALIDATION.call(() ->
+                read(dataSource));
+
+        assertThat(connection).isSameAs(validationConnection);
+    }
+
+    @Test
+    void failedReplicaConnectionFallsBackToThePrimaryUntilTheNextProbe() throws Exception {
+        ReplicaRouting routing = routing(settings());
+        WorkloadRoutingDataSource dataSource = dataSource(routing);
+        primary.lsn("0/10");
+        replica.lsn("0/10");
+        routing.probe();
+        replica.failConnections(true);
+
+        assertThat(read(dataSource)).isSameAs(defaultConnection);
+        replica.failConnections(false);
+        assertThat(read(dataSource)).isSameAs(defaultConnection);
+        routing.probe();
+        assertThat(read(dataSource)).isSameAs(replicaConnection);
+        assertThat(reads("primary-unavailable")).isEqualTo(1.0);
+    }
+
+    @Test
+    void rejectionsFromTheReplicaAreConfirmedOnThePrimary() throws Exception {
+        ReplicaRouting routing = routing(settings());
+        WorkloadRoutingDataSource dataSource = dataSource(routing);
+        primary.lsn("0/10");
+        replica.lsn("0/10");
+        routing.probe();
+        List<Connection> used = new ArrayList<>();
+
+        String answer = ReplicaReads.call(
+                "user-1",
+                () -> {
+                    Connection connection = connection(dataSource);
+                    used.add(connection);
+                    return connection == replicaConnection ? "missing" : "active";
+                },
+                "missing"::equals
+        );
+
+        assertThat(answer).isEqualTo("active");
+        assertThat(used).containsExactly(replicaConnection, defaultConnection);
+        assertThat(ReplicaReads.current()).isNull();
+    }
+
+    @Test
+    void connectionsOutsideReplicaReadsNeverTouchTheReplica() throws Exception {
+        ReplicaRouting routing = routing(settings());
+        WorkloadRoutingDataSource dataSource = dataSource(routing);
+        primary.lsn("0/10");
+        replica.lsn("0/10");
+        routing.probe();
+
+        assertThat(dataSource.getConnection()).isSameAs(defaultConnection);
+        assertThat(reads("replica")).isZero();
+    }
+
+    @Test
+    void lsnParsingCombinesBothHalves() {
+        assertThat(ReplicaRouting.parseLsn("16/B374D848")).isEqualTo(0x16B374D848L);
+        assertThat(ReplicaRouting.parseLsn("0/0")).isZero();
+        assertThat(ReplicaRouting.parseLsn(null)).isNull();
+    }
+
+    @Test
+    void replicaSettingsRequireAUrlAndAProbeFasterThanTheLagBound() {
+        DatabaseWorkloadProperties.Replica settings = settings();
+        settings.setUrl(null);
+        assertThat(settings.isUrlConfigured()).isFalse();
+        settings.setEnabled(false);
+        assertThat(settings.isUrlConfigured()).isTrue();
+        settings.setProbeIntervalMs(2000);
+        assertThat(settings.isProbeFasterThanMaxLag()).isFalse();
+    }
+
+    private DatabaseWorkloadProperties.Replica settings() {
+        DatabaseWorkloadProperties.Replica settings =
+                new DatabaseWorkloadProperties.Replica();
+        settings.setEnabled(true);
+        settings.setUrl("jdbc:postgresql://replica.example:5432/uniauth");
+        return settings;
+    }
+
+    private ReplicaRouting routing(DatabaseWorkloadProperties.Replica settings) {
+        return new ReplicaRouting(
+                primary.dataSource(),
+                replica.dataSource(replicaConnection),
+                settings,
+                meterRegistry,
+                clock
+        );
+    }
+
+    private WorkloadRoutingDataSource dataSource(ReplicaRouting routing) throws SQLException {
+        when(defaultPool.getConnection()).thenReturn(defaultConnection);
+        when(validationPool.getConnection()).thenReturn(validationConnection);
+        return new WorkloadRoutingDataSource(
+                defaultPool,
+                Map.of(DatabaseWorkload.VALIDATION, validationPool),
+                routing
+        );
+    }
+
+    private Connection read(WorkloadRoutingDataSource dataSource) {
+        return read(dataSource, "user-1");
+    }
+
+    private Connection read(WorkloadRoutingDataSource dataSource, String userId) {
+        return ReplicaReads.call(userId, () -> connection(dataSource));
+    }
+
+    private static Connection connection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private double reads(String route) {
+        return meterRegistry.get("uniauth.datasource.replica.reads")
+                .tag("route", route)
+                .counter()
+                .count();
+    }
+
+    /**
+     * A data source whose probe query answers with the configured LSN.
+     */
+    private static final class LsnSource {
+
+        private final DataSource dataSource = mock(DataSource.class);
+        private final Connection probeConnection = mock(Connection.class);
+        private final ResultSet resultSet = mock(ResultSet.class);
+        private Connection readConnection;
+        private boolean failing;
+
+        DataSource dataSource() {
+            return dataSource(null);
+        }
+
+        DataSource dataSource(Connection readConnection) {
+            this.readConnection = readConnection;
+            try {
+                Statement statement = mock(Statement.class);
+                when(statement.executeQuery(anyString())).thenReturn(resultSet);
+                when(probeConnection.createStatement()).thenReturn(statement);
+                when(resultSet.next()).thenReturn(true);
+                when(dataSource.getConnection()).thenAnswer(invocation -> next());
+            } catch (SQLException exception) {
+                throw new IllegalStateException(exception);
+            }
+            return dataSource;
+        }
+
+        void lsn(String lsn) throws SQLException {
+            when(resultSet.getString(1)).thenReturn(lsn);
+        }
+
+        void failConnections(boolean failing) {
+            this.failing = failing;
+        }
+
+        // Probes run on the probe connection; reads get the read connection.
+        private Connection next() throws SQLException {
+            if (failing) {
+                throw new SQLTransientConnectionException("pool exhausted");
+            }
+            return ReplicaReads.current() != null && readConnection != null
+                    ? readConnection
+                    : probeConnection;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.dddml.uniauth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RequestAdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestAdmissionProperties properties =
+            new RequestAdmissionProperties();
+
+    @Test
+    void limitDefaultsToPoolSizeTimesPermitsPerConnection() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(20);
+        properties.setPermitsPerConnection(3);
+
+        assertThat(RequestAdmissionFilter.resolveLimit(properties, dataSource))
+                .isEqualTo(60);
+
+        properties.setMaxConcurrent(7);
+        assertThat(RequestAdmissionFilter.resolveLimit(properties, dataSource))
+                .isEqualTo(7);
+    }
+
+    @Test
+    void limitFollowsTheDefaultPoolWhenWorkloadPoolsAreEnabled() {
+        HikariDataSource defaultPool = new HikariDataSource();
+        defaultPool.setMaximumPoolSize(12);
+        HikariDataSource validation = new HikariDataSource();
+        validation.setMaximumPoolSize(40);
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource(
+                defaultPool,
+                Map.of(DatabaseWorkload.VALIDATION, validation)
+        );
+
+        assertThat(RequestAdmissionFilter.resolveLimit(properties, dataSource))
+                .isEqualTo(24);
+    }
+
+    @Test
+    void requestBeyondTheLimitIsRejectedAfterTheAcquireTimeout() throws Exception {
+        properties.setEnabled(true);
+        properties.setMaxConcurrent(1);
+        properties.setAcquireTimeoutMs(20);
+        RequestAdmissionFilter filter = filter();
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            admitted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread holder = new Thread(() -> {
+            try {
+                filter.doFilter(
+                        new MockHttpServletRequest("GET", "/api/user"),
+                        new MockHttpServletResponse(),
+                        blocking
+                );
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        holder.start();
+        assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/user"),
+                rejected,
+                new MockFilterChain()
+        );
+        release.countDown();
+        holder.join(5000);
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("SERVER_BUSY");
+        assertThat(meterRegistry.counter("uniauth.http.admission.rejected").count())
+                .isEqualTo(1);
+
+        MockHttpServletResponse afterRelease = new MockHttpServletResponse();
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/user"),
+                afterRelease,
+                new MockFilterChain()
+        );
+        assertThat(afterRelease.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void healthProbesAndDisabledAdmissionBypassTheLimit() throws Exception {
+        properties.setEnabled(true);
+        properties.setMaxConcurrent(1);
+        properties.setAcquireTimeoutMs(0);
+        RequestAdmissionFilter filter = filter();
+        AtomicInteger passed = new AtomicInteger();
+        FilterChain nested = (request, response) -> {
+            passed.incrementAndGet();
+            filter.doFilter(
+                    new MockHttpServletRequest("GET", "/actuator/health/readiness"),
+                    new MockHttpServletResponse(),
+                    (innerRequest, innerResponse) -> passed.incrementAndGet()
+            );
+        };
+
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/user"),
+                new MockHttpServletResponse(),
+                nested
+        );
+
+        assertThat(passed.get()).isEqualTo(2);
+
+        properties.setEnabled(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/user"),
+                response,
+                new MockFilterChain()
+        );
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private RequestAdmissionFilter filter() {
+        return new RequestAdmissionFilter(
+                properties,
+                mock(DataSource.class),
+                meterRegistry
+        );
+    }
+}
@@ -0,0 +1,67 @@
+package org.dddml.uniauth.config;
+
+import org.dddml.uniauth.service.TokenRejectionReason;
+import org.dddml.uniauth.service.TokenValidationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ResourceServerConfigTest {
+
+    private final TokenValidationService tokenValidationService =
+            mock(TokenValidationService.class);
+    private final JwtDecoder jwtDecoder = mock(JwtDecoder.class);
+    private final AuthenticationManager manager =
+            ResourceServerConfig.bearerTokenAuthenticationManager(
+                    tokenValidationService,
+                    jwtDecoder,
+                    new JwtAuthenticationConverter()
+            );
+
+    @Test
+    void precheckRejectionSkipsTheDecoderAndCapturesNoStack() {
+        when(tokenValidationService.precheck("forged"))
+                .thenReturn(TokenRejectionReason.MALFORMED);
+
+        assertThatThrownBy(() -> manager.authenticate(
+                new BearerTokenAuthenticationToken("forged")
+        ))
+                .isInstanceOfSatisfying(
+                        InvalidBearerTokenException.class,
+                        exception -> {
+                            assertThat(exception.getError().getErrorCode())
+                                    .isEqualTo("invalid_token");
+                            assertThat(exception.getStackTrace()).isEmpty();
+                        }
+                )
+                .hasMessage(TokenRejectionReason.MALFORMED.description());
+        verifyNoInteractions(jwtDecoder);
+    }
+
+    @Test
+    void tokensThatPassThePrecheckAreDecoded() {
+        Jwt jwt = Jwt.withTokenValue("signed")
+                .header("alg", "RS256")
+                .subject("user-1")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+        when(jwtDecoder.decode("signed")).thenReturn(jwt);
+
+        assertThat(manager.authenticate(
+                new BearerTokenAuthenticationToken("signed")
+        ).getName()).isEqualTo("user-1");
+    }
+}
@@ -0,0 +1,29 @@
+package org.dddml.uniauth.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetentionSchedulingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(RetentionSchedulingConfig.class)
+            .withBean(RetentionProperties.class, RetentionProperties::new)
+            .withPropertyValues("app.retention.enabled=false");
+
+    @Test
+    void authRateLimitPolicyIsRegisteredByDefault() {
+        contextRunner.run(context ->
+                assertThat(context).hasBean("authRateLimitRetentionPolicy"));
+    }
+
+    @Test
+    void disablingRateLimitsDropsTheirRetentionPolicy() {
+        contextRunner
+                .withPropertyValues("app.auth.rate-limit.enabled=false")
+                .run(context -> assertThat(context)
+                        .doesNotHaveBean("authRateLimitRetentionPolicy")
+                        .hasBean("tokenFamilyRetentionPolicy"));
+    }
+}
@@ -0,0 +1,155 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduledJobCoordinatorTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SchedulingCoordinationProperties properties =
+            new SchedulingCoordinationProperties();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setNodeId("node-a");
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+    }
+
+    @Test
+    void singletonJobRunsOnlyWhileTheAdvisoryLockIsHeld() throws Exception {
+        when(resultSet.getBoolean(1)).thenReturn(false, true);
+        ScheduledJobCoordinator coordinator = coordinator();
+        AtomicInteger runs = new AtomicInteger();
+
+        boolean first = coordinator.run(
+                "cleanup",
+                ScheduledJobCoordinator.Mode.SINGLETON,
+                runs::incrementAndGet
+        );
+        boolean second = coordinator.run(
+                "cleanup",
+                ScheduledJobCoordinator.Mode.SINGLETON,
+                runs::incrementAndGet
+        );
+        boolean third = coordinator.run(
+                "cleanup",
+                ScheduledJobCoordinator.Mode.SINGLETON,
+                runs::incrementAndGet
+        );
+
+        assertThat(first).isFalse();
+        assertThat(second).isTrue();
+        assertThat(third).isTrue();
+        assertThat(runs).hasValue(2);
+        assertThat(coordinator.isLeader("cleanup")).isTrue();
+        verify(statement, times(2)).executeQuery();
+        assertThat(meterRegistry.get("uniauth.scheduler.leader")
+                .tag("job", "cleanup")
+                .tag("node", "node-a")
+                .gauge()
+                .value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("uniauth.scheduler.runs")
+                .tag("outcome", "skipped")
+                .counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void leadershipIsDroppedWhenTheLockSessionDies() throws Exception {
+        when(resultSet.getBoolean(1)).thenReturn(true, false);
+        ScheduledJobCoordinator coordinator = coordinator();
+        coordinator.run(
+                "cleanup",
+                ScheduledJobCoordinator.Mode.SINGLETON,
+                () -> {
+                }
+        );
+        when(connection.isValid(anyInt())).thenReturn(false, true);
+
+        boolean ran = coordinator.run(
+                "cleanup",
+                ScheduledJobCoordinator.Mode.SINGLETON,
+                () -> {
+                }
+        );
+
+        assertThat(ran).isFalse();
+        assertThat(coordinator.isLeader("cleanup")).isFalse();
+        verify(dataSource, times(2)).getConnection();
+    }
+
+    @Test
+    void shardedAndUncoordinatedJobsRunWithoutTakingLocks() throws Exception {
+        properties.setEnabled(false);
+        ScheduledJobCoordinator coordinator = coordinator();
+        AtomicInteger runs = new AtomicInteger();
+
+        coordinator.run(
+                "outbox",
+                ScheduledJobCoordinator.Mode.SHARDED,
+                runs::incrementAndGet
+        );
+        coordinator.run(
+                "cleanup",
+                ScheduledJobCoordinator.Mode.SINGLETON,
+                runs::incrementAndGet
+        );
+
+        assertThat(runs).hasValue(2);
+        verify(dataSource, times(0)).getConnection();
+    }
+
+    @Test
+    void jobsAndTheLockConnectionUseTheBackgroundWorkload() throws Exception {
+        List<DatabaseWorkload> acquiredIn = new ArrayList<>();
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            acquiredIn.add(DatabaseWorkload.current());
+            return connection;
+        });
+        when(resultSet.getBoolean(1)).thenReturn(true);
+        List<DatabaseWorkload> ranIn = new ArrayList<>();
+
+        coordinator().run(
+                "cleanup",
+                ScheduledJobCoordinator.Mode.SINGLETON,
+                () -> ranIn.add(DatabaseWorkload.current())
+        );
+
+        assertThat(acquiredIn).containsExactly(DatabaseWorkload.BACKGROUND);
+        assertThat(ranIn).containsExactly(DatabaseWorkload.BACKGROUND);
+        assertThat(DatabaseWorkload.current()).isNull();
+    }
+
+    private ScheduledJobCoordinator coordinator() {
+        return new ScheduledJobCoordinator(
+                dataSource,
+                properties,
+                meterRegistry
+        );
+    }
+}
@@ -0,0 +1,198 @@
+package org.dddml.uniauth.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dddml.uniauth.service.OAuth2ProviderProfileService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GitHub profile resolution against a local stub provider whose endpoints
+ * respond with controlled latency.
+ */
+class SecurityConfigProviderCallsTest {
+
+    private static final String USER = """
+            {"id": 101, "login": "octo", "avatar_url": "https://img.example/octo.png"}
+            """;
+    private static final String EMAILS = """
+            [
+              {"email": "old@example.invalid", "primary": false, "verified": true},
+              {"email": "octo@example.invalid", "primary": true, "verified": true}
+            ]
+            """;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService stubThreads = Executors.newCachedThreadPool();
+    private HttpServer provider;
+    private OAuth2ProviderCalls providerCalls;
+
+    @BeforeEach
+    void startProvider() throws IOException {
+        provider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        provider.setExecutor(stubThreads);
+        provider.start();
+    }
+
+    @AfterEach
+    void stopProvider() {
+        provider.stop(0);
+        stubThreads.shutdownNow();
+        if (providerCalls != null) {
+            providerCalls.close();
+        }
+    }
+
+    @Test
+    void githubEmailLookupOverlapsTheProfileRequest() throws Exception {
+        CountDownLatch emailsRequested = new CountDownLatch(1);
+        AtomicBoolean overlapped = new AtomicBoolean();
+        provider.createContext("/user", exchange -> {
+            try {
+                // Answers only once the emails request is in flight, or
+                // after a second when the two calls run one after the other.
+                overlapped.set(emailsRequested.await(1, TimeUnit.SECONDS));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, USER);
+        });
+        provider.createContext("/user/emails", exchange -> {
+            emailsRequested.countDown();
+            respond(exchange, EMAILS);
+        });
+
+        OAuth2User user = userService(10_000).loadUser(githubUserRequest());
+
+        assertThat(overlapped).isTrue();
+        assertThat(user.getName()).isEqualTo("octo");
+        assertThat((String) user.getAttribute(OAuth2ProviderProfileService.VERIFIED_GITHUB_EMAIL))
+                .isEqualTo("octo@example.invalid");
+        for (String stage : Set.of("user_info", "emails")) {
+            assertThat(meterRegistry.get(OAuth2ProviderCalls.CALL_TIMER)
+                    .tag("provider", "github")
+                    .tag("stage", stage)
+                    .tag("outcome", "success")
+                    .timer()
+                    .count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void slowEmailLookupMissesItsDeadlineWithoutFailingTheLogin() {
+        provider.createContext("/user", exchange -> respond(exchange, USER));
+        provider.createContext("/user/emails", exchange -> {
+            sleep(2_000);
+            respond(exchange, EMAILS);
+        });
+
+        long startedAt = System.nanoTime();
+        OAuth2User user = userService(300).loadUser(githubUserRequest());
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt))
+                .isLessThan(1_500);
+        assertThat(user.getName()).isEqualTo("octo");
+        assertThat(user.getAttributes())
+                .doesNotContainKey(OAuth2ProviderProfileService.VERIFIED_GITHUB_EMAIL);
+        assertThat(meterRegistry.get(OAuth2ProviderCalls.DEADLINE_COUNTER)
+                .tag("provider", "github")
+                .tag("stage", "emails")
+                .counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void emailLookupIsSkippedWithoutTheEmailScope() {
+        AtomicBoolean emailsRequested = new AtomicBoolean();
+        provider.createContext("/user", exchange -> respond(exchange, USER));
+        provider.createContext("/user/emails", exchange -> {
+            emailsRequested.set(true);
+            respond(exchange, EMAILS);
+        });
+
+        OAuth2User user = userService(10_000).loadUser(
+                githubUserRequest(Set.of("read:user"))
+        );
+
+        assertThat(user.getName()).isEqualTo("octo");
+        assertThat(emailsRequested).isFalse();
+    }
+
+    private OAuth2UserService<OAuth2UserRequest, OAuth2User> userService(long deadlineMs) {
+        providerCalls = new OAuth2ProviderCalls(deadlineMs, meterRegistry);
+        SecurityConfig config = new SecurityConfig();
+        ReflectionTestUtils.setField(config, "oauth2RestTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(config, "oauth2ProviderCalls", providerCalls);
+        return config.oauth2UserService();
+    }
+
+    private OAuth2UserRequest githubUserRequest() {
+        return githubUserRequest(Set.of("read:user", "user:email"));
+    }
+
+    private OAuth2UserRequest githubUserRequest(Set<String> scopes) {
+        String baseUri = "http://127.0.0.1:" + provider.getAddress().getPort();
+        ClientRegistration registration =
+                ClientRegistration.withRegistrationId("github")
+                        .clientId("github-client")
+                        .clientSecret("github-secret")
+                        .authorizationGrantType(
+                                AuthorizationGrantType.AUTHORIZATION_CODE
+                        )
+                        .redirectUri("https://circle.example/oauth2/callback")
+                        .scope("read:user", "user:email")
+                        .authorizationUri(baseUri + "/login/oauth/authorize")
+                        .tokenUri(baseUri + "/login/oauth/access_token")
+                        .userInfoUri(baseUri + "/user")
+                        .userNameAttributeName("login")
+                        .clientName("GitHub")
+                        .build();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(
+                OAuth2AccessToken.TokenType.BEARER,
+                "github-access-token",
+                Instant.now(),
+                Instant.now().plusSeconds(300),
+                scopes
+        );
+        return new OAuth2UserRequest(registration, accessToken);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
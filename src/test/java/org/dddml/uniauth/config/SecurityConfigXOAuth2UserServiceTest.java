@@ -6,6 +6,7 @@ import static org.springframework.test.web.client.match.MockRestRequestMatchers.
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,6 +45,11 @@ class SecurityConfigXOAuth2UserServiceTest {
                 "oauth2RestTemplate",
                 restTemplate
         );
+        ReflectionTestUtils.setField(
+                config,
+                "oauth2ProviderCalls",
+                new OAuth2ProviderCalls(10_000, new SimpleMeterRegistry())
+        );
         userService = config.oauth2UserService();
     }
 
@@ -0,0 +1,74 @@
+package org.dddml.uniauth.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private static final String TEST_EVENT = "uniauth.test.Pinned";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path recordingDirectory;
+
+    @Test
+    void pinnedEventIsCountedAndTimed() throws Exception {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(
+                new RequestAdmissionProperties(),
+                meterRegistry
+        );
+        RecordedEvent event = recordPin(30);
+
+        monitor.record(event);
+
+        assertThat(meterRegistry.get("uniauth.virtual-threads.pinned")
+                .counter()
+                .count()).isEqualTo(1.0);
+        Timer duration = meterRegistry.get("uniauth.virtual-threads.pinned.duration")
+                .timer();
+        assertThat(duration.count()).isEqualTo(1);
+        assertThat(duration.totalTime(TimeUnit.NANOSECONDS))
+                .isEqualTo((double) event.getDuration().toNanos())
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    // jdk.VirtualThreadPinned only exists on Java 21+, so the monitor is fed
+    // an event of the same shape (a duration and a stack trace) recorded
+    // from a test event type.
+    private RecordedEvent recordPin(long millis) throws Exception {
+        Path file = recordingDirectory.resolve("pinned.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TEST_EVENT).withStackTrace();
+            recording.start();
+            PinnedEvent pinned = new PinnedEvent();
+            pinned.begin();
+            Thread.sleep(millis);
+            pinned.commit();
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(TEST_EVENT))
+                .toList();
+        assertThat(events).hasSize(1);
+        return events.get(0);
+    }
+
+    @Name(TEST_EVENT)
+    static class PinnedEvent extends Event {
+    }
+}
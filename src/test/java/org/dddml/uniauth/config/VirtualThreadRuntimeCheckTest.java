@@ -0,0 +1,23 @@
+package org.dddml.uniauth.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualThreadRuntimeCheckTest {
+
+    @Test
+    void virtualThreadsAreRefusedBeforeJava21() {
+        assertThatThrownBy(() -> VirtualThreadRuntimeCheck.requireVirtualThreads(17))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21")
+                .hasMessageContaining("Java 17");
+    }
+
+    @Test
+    void virtualThreadsAreAllowedFromJava21() {
+        assertThatCode(() -> VirtualThreadRuntimeCheck.requireVirtualThreads(21))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,142 @@
+package org.dddml.uniauth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class WorkloadRoutingDataSourceTest {
+
+    private final DataSource defaultPool = pool();
+    private final DataSource validation = pool();
+    private final DataSource authWrites = pool();
+    private final DataSource background = pool();
+    private final WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(
+            defaultPool,
+            Map.of(
+                    DatabaseWorkload.VALIDATION, validation,
+                    DatabaseWorkload.AUTH_WRITES, authWrites,
+                    DatabaseWorkload.BACKGROUND, background
+            )
+    );
+
+    @Test
+    void connectionsComeFromThePoolOfTheCurrentWorkload() throws Exception {
+        Connection outside = routing.getConnection();
+        Connection validating = DatabaseWorkload.VALIDATION.call(this::connection);
+        Connection writing = DatabaseWorkload.AUTH_WRITES.call(this::connection);
+        Connection sweeping = DatabaseWorkload.BACKGROUND.call(this::connection);
+
+        assertThat(outside).isSameAs(defaultPool.getConnection());
+        assertThat(validating).isSameAs(validation.getConnection());
+        assertThat(writing).isSameAs(authWrites.getConnection());
+        assertThat(sweeping).isSameAs(background.getConnection());
+        assertThat(DatabaseWorkload.current()).isNull();
+    }
+
+    @Test
+    void nestedWorkloadsRestoreTheEnclosingOne() {
+        DatabaseWorkload inner = DatabaseWorkload.BACKGROUND.call(() -> {
+            DatabaseWorkload nested = DatabaseWorkload.AUTH_WRITES.call(
+                    DatabaseWorkload::current
+            );
+            assertThat(DatabaseWorkload.current()).isEqualTo(DatabaseWorkload.BACKGROUND);
+            return nested;
+        });
+
+        assertThat(inner).isEqualTo(DatabaseWorkload.AUTH_WRITES);
+        assertThat(DatabaseWorkload.current()).isNull();
+    }
+
+    @Test
+    void workloadExecutorCarriesTheWorkloadToItsTasks() {
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        try {
+            DatabaseWorkload seen = CompletableFuture.supplyAsync(
+                    DatabaseWorkload::current,
+                    DatabaseWorkload.BACKGROUND.executor(threads)
+            ).join();
+            DatabaseWorkload afterwards = CompletableFuture.supplyAsync(
+                    DatabaseWorkload::current,
+                    threads
+            ).join();
+
+            assertThat(seen).isEqualTo(DatabaseWorkload.BACKGROUND);
+            assertThat(afterwards).isNull();
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void closingTheRoutingDataSourceClosesEveryPool() throws Exception {
+        routing.close();
+
+        for (DataSource pool : new DataSource[] {defaultPool, validation, authWrites, background}) {
+            verify((AutoCloseable) pool).close();
+        }
+    }
+
+    @Test
+    void workloadPoolsCopyTheConnectionSettingsOfTheDefaultPool() {
+        HikariDataSource base = new HikariDataSource();
+        base.setJdbcUrl("jdbc:postgresql://db.example:5432/uniauth");
+        base.setUsername("uniauth");
+        base.setPassword("secret");
+        base.setMaxLifetime(1_800_000);
+        base.setPoolName(DatabaseWorkloadDataSourceConfig.DEFAULT_POOL_NAME);
+        DatabaseWorkloadProperties properties = new DatabaseWorkloadProperties();
+
+        HikariDataSource pool = DatabaseWorkloadDataSourceConfig.workloadPool(
+                base,
+                DatabaseWorkload.BACKGROUND,
+                properties.getBackground()
+        );
+
+        assertThat(pool.getJdbcUrl()).isEqualTo(base.getJdbcUrl());
+        assertThat(pool.getUsername()).isEqualTo("uniauth");
+        assertThat(pool.getPassword()).isEqualTo("secret");
+        assertThat(pool.getMaxLifetime()).isEqualTo(1_800_000);
+        assertThat(pool.getPoolName()).isEqualTo("uniauth-background");
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(8);
+        assertThat(pool.getMinimumIdle()).isEqualTo(2);
+        assertThat(pool.getConnectionTimeout()).isEqualTo(30_000);
+        assertThat(pool.getDataSourceProperties())
+                .containsEntry("ApplicationName", "uniauth-background")
+                .isNotSameAs(base.getDataSourceProperties());
+        assertThat(base.getDataSourceProperties()).doesNotContainKey("ApplicationName");
+    }
+
+    private Connection connection() {
+        try {
+            return routing.getConnection();
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static DataSource pool() {
+        DataSource pool = mock(
+                DataSource.class,
+                withSettings().extraInterfaces(AutoCloseable.class)
+        );
+        Connection connection = mock(Connection.class);
+        try {
+            when(pool.getConnection()).thenReturn(connection);
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,254 @@
+package org.dddml.uniauth.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.dddml.uniauth.config.EncryptedCookieOAuth2AuthorizationRequestRepository;
+import org.dddml.uniauth.dto.RegisterRequest;
+import org.dddml.uniauth.dto.UserDto;
+import org.dddml.uniauth.entity.UserLoginMethod;
+import org.dddml.uniauth.repository.UserLoginMethodRepository;
+import org.dddml.uniauth.service.TokenIssuanceFacade;
+import org.dddml.uniauth.service.TokenSessionTransactionService;
+import org.dddml.uniauth.service.UserService;
+import org.dddml.uniauth.support.PostgreSqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dddml.uniauth.support.AuthIntegrationTestSupport.issueTokens;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {
+        "app.oauth2.authorization-request.store=cookie",
+        "app.oauth2.authorization-request.cookie-secret="
+                + "oauth2-cookie-integration-secret-0123456789"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OAuth2CookieAuthorizationRequestIntegrationTest extends PostgreSqlIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserLoginMethodRepository loginMethodRepository;
+
+    @Autowired
+    private TokenSessionTransactionService tokenSessionTransactionService;
+
+    @Autowired
+    private TokenIssuanceFacade tokenIssuanceFacade;
+
+    @MockBean
+    private OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest>
+            tokenResponseClient;
+
+    @MockBean(name = "oauth2UserService")
+    private OAuth2UserService<OAuth2UserRequest, OAuth2User> oauth2UserService;
+
+    @BeforeEach
+    void stubProvider() {
+        given(tokenResponseClient.getTokenResponse(any())).willReturn(
+                OAuth2AccessTokenResponse.withToken("provider-access-token")
+                        .tokenType(OAuth2AccessToken.TokenType.BEARER)
+                        .expiresIn(300)
+                        .build()
+        );
+    }
+
+    @Test
+    void loginRoundTripUsesTheCookieInsteadOfASession() throws Exception {
+        String subject = "github-cookie-login-" + UUID.randomUUID();
+        given(oauth2UserService.loadUser(any())).willReturn(githubUser(subject));
+        int sessions = sessionCount();
+
+        MvcResult authorization = authorize("/oauth2/authorization/github");
+        Cookie sealed = authorization.getResponse().getCookie(
+                EncryptedCookieOAuth2AuthorizationRequestRepository.COOKIE_NAME
+        );
+        assertThat(sealed).isNotNull();
+        assertThat(authorization.getResponse().getCookie("JSESSIONID")).isNull();
+
+        MvcResult callback = callback(authorization, liveCookies(authorization));
+
+        JsonNode body = objectMapper.readTree(
+                callback.getResponse().getContentAsByteArray()
+        );
+        assertThat(body.path("message").asText()).isEqualTo("Login successful");
+        assertThat(callback.getResponse().getCookie(
+                EncryptedCookieOAuth2AuthorizationRequestRepository.COOKIE_NAME
+        ).getMaxAge()).isZero();
+        assertThat(callback.getResponse().getCookie("JSESSIONID")).isNull();
+        assertThat(sessionCount()).isEqualTo(sessions);
+    }
+
+    @Test
+    void bindingIntentIsBoundToTheSealedCookie() throws Exception {
+        UserDto localUser = registerLocalUser("oauth-cookie-binding");
+        String subject = "github-cookie-binding-" + UUID.randomUUID();
+        given(oauth2UserService.loadUser(any())).willReturn(githubUser(subject));
+        int sessions = sessionCount();
+
+        MvcResult authorization = authorize(
+                "/oauth2/bind/github",
+                new Cookie("accessToken", accessToken(localUser))
+        );
+        MvcResult callback = callback(authorization, liveCookies(authorization));
+
+        JsonNode body = objectMapper.readTree(
+                callback.getResponse().getContentAsByteArray()
+        );
+        assertThat(body.path("message").asText()).isEqualTo("Binding successful");
+        assertThat(body.path("user").path("id").asText()).isEqualTo(localUser.getId());
+        assertThat(loginMethodRepository.findByAuthProviderAndProviderUserId(
+                UserLoginMethod.AuthProvider.GITHUB,
+                subject
+        )).get().extracting(method -> method.getUser().getId())
+                .isEqualTo(localUser.getId());
+        assertThat(sessionCount()).isEqualTo(sessions);
+    }
+
+    @Test
+    void bindingCallbackWithAnotherAuthorizationsCookieIsRejected() throws Exception {
+        UserDto localUser = registerLocalUser("oauth-cookie-swap");
+        String subject = "github-cookie-swap-" + UUID.randomUUID();
+        given(oauth2UserService.loadUser(any())).willReturn(githubUser(subject));
+        Cookie accessToken = new Cookie("accessToken", accessToken(localUser));
+
+        MvcResult first = authorize("/oauth2/bind/github", accessToken);
+        MvcResult second = authorize("/oauth2/bind/github", accessToken);
+        MvcResult callback = callback(first, liveCookies(second));
+
+        assertThat(callback.getResponse().getRedirectedUrl())
+                .contains("error=oauth2_failed");
+        assertThat(loginMethodRepository.findByAuthProviderAndProviderUserId(
+                UserLoginMethod.AuthProvider.GITHUB,
+                subject
+        )).isEmpty();
+        assertThat(jdbcTemplate.queryForObject(
+                """
+                SELECT count(*)
+                FROM oauth2_binding_intents
+                WHERE user_id = ?
+                  AND consumed_at IS NULL
+                """,
+                Integer.class,
+                localUser.getId()
+        )).isEqualTo(2);
+    }
+
+    private MvcResult authorize(String path, Cookie... cookies) throws Exception {
+        MockHttpServletRequestBuilder request = get(path);
+        if (cookies.length > 0) {
+            request.cookie(cookies);
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(302);
+        return result;
+    }
+
+    private MvcResult callback(MvcResult authorization, Cookie[] cookies) throws Exception {
+        MultiValueMap<String, String> parameters = UriComponentsBuilder
+                .fromUriString(authorization.getResponse().getRedirectedUrl())
+                .build()
+                .getQueryParams();
+        MockHttpServletRequestBuilder request = get(decode(parameters.getFirst("redirect_uri")))
+                .param("code", "provider-code")
+                .param("state", decode(parameters.getFirst("state")))
+                .accept(MediaType.APPLICATION_JSON);
+        if (cookies.length > 0) {
+            request.cookie(cookies);
+        }
+        return mockMvc.perform(request).andReturn();
+    }
+
+    private Cookie[] liveCookies(MvcResult result) {
+        return Arrays.stream(result.getResponse().getCookies())
+                .filter(cookie -> cookie.getMaxAge() != 0)
+                .toArray(Cookie[]::new);
+    }
+
+    private int sessionCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM spring_session",
+                Integer.class
+        );
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static OAuth2User githubUser(String subject) {
+        return new DefaultOAuth2User(
+                Set.of(new SimpleGrantedAuthority("ROLE_USER")),
+                Map.of(
+                        "id", subject,
+                        "login", "github-" + subject,
+                        "email", subject + "@example.invalid",
+                        "avatar_url", "https://example.invalid/avatar.png"
+                ),
+                "login"
+        );
+    }
+
+    private String accessToken(UserDto user) {
+        return issueTokens(
+                tokenSessionTransactionService,
+                tokenIssuanceFacade,
+                user.getId()
+        ).accessToken();
+    }
+
+    private UserDto registerLocalUser(String prefix) {
+        String username = prefix + "-" + UUID.randomUUID();
+        return userService.register(new RegisterRequest(
+                username,
+                username + "@example.invalid",
+                "integration-password",
+                "OAuth Cookie User",
+                null,
+                null
+        ));
+    }
+}
@@ -0,0 +1,262 @@
+package org.dddml.uniauth.controller;
+
+import jakarta.servlet.http.Cookie;
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.support.Benchmark;
+import org.dddml.uniauth.support.PostgreSqlIntegrationTest;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.NestedTestConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Row writes per OAuth2 login round trip (authorization redirect plus
+ * callback for an existing account), with the authorization request kept in
+ * the JDBC session and in the encrypted cookie. Every public table gets a
+ * counting row trigger for the duration of the run.
+ */
+@Slf4j
+@Benchmark
+class OAuth2LoginDatabaseWritesBenchmarkTest {
+
+    private static final int WARMUP_LOGINS = 5;
+    private static final int LOGINS = 50;
+
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    @SpringBootTest(properties = "app.oauth2.authorization-request.store=session")
+    @AutoConfigureMockMvc
+    @ActiveProfiles("test")
+    class SessionStore extends LoginWrites {
+
+        SessionStore() {
+            super("session");
+        }
+    }
+
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    @SpringBootTest(properties = {
+        "app.oauth2.authorization-request.store=cookie",
+        "app.oauth2.authorization-request.cookie-secret="
+                + "oauth2-cookie-benchmark-secret-0123456789"
+    })
+    @AutoConfigureMockMvc
+    @ActiveProfiles("test")
+    class CookieStore extends LoginWrites {
+
+        CookieStore() {
+            super("cookie");
+        }
+    }
+
+    abstract static class LoginWrites extends PostgreSqlIntegrationTest {
+
+        private final String store;
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @MockBean
+        private OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest>
+                tokenResponseClient;
+
+        @MockBean(name = "oauth2UserService")
+        private OAuth2UserService<OAuth2UserRequest, OAuth2User> oauth2UserService;
+
+        LoginWrites(String store) {
+            this.store = store;
+        }
+
+        @Test
+        void countRowWritesPerLogin() throws Exception {
+            String subject = "github-benchmark-" + UUID.randomUUID();
+            given(tokenResponseClient.getTokenResponse(any())).willReturn(
+                    OAuth2AccessTokenResponse.withToken("provider-access-token")
+                            .tokenType(OAuth2AccessToken.TokenType.BEARER)
+                            .expiresIn(300)
+                            .build()
+            );
+            given(oauth2UserService.loadUser(any())).willReturn(new DefaultOAuth2User(
+                    Set.of(new SimpleGrantedAuthority("ROLE_USER")),
+                    Map.of(
+                            "id", subject,
+                            "login", "github-" + subject,
+                            "email", subject + "@example.invalid"
+                    ),
+                    "login"
+            ));
+
+            installWriteCounters();
+            try {
+                for (int login = 0; login < WARMUP_LOGINS; login++) {
+                    login();
+                }
+                jdbcTemplate.execute("TRUNCATE benchmark_write_counts");
+                for (int login = 0; login < LOGINS; login++) {
+                    login();
+                }
+
+                Map<String, Double> perLogin = new LinkedHashMap<>();
+                jdbcTemplate.query(
+                        "SELECT table_name, writes FROM benchmark_write_counts ORDER BY table_name",
+                        resultSet -> {
+                            perLogin.put(
+                                    resultSet.getString("table_name"),
+                                    resultSet.getLong("writes") / (double) LOGINS
+                            );
+                        }
+                );
+                double total = perLogin.values().stream().mapToDouble(Double::doubleValue).sum();
+                double session = perLogin.entrySet().stream()
+                        .filter(entry -> entry.getKey().startsWith("spring_session"))
+                        .mapToDouble(Map.Entry::getValue)
+                        .sum();
+
+                log.info(
+                        "OAuth2 login row writes [store={}, logins={}, total={}/login, "
+                                + "spring_session={}/login, tables={}]",
+                        store,
+                        LOGINS,
+                        String.format("%.1f", total),
+                        String.format("%.1f", session),
+                        perLogin
+                );
+                if ("cookie".equals(store)) {
+                    assertThat(session).isZero();
+                }
+            } finally {
+                removeWriteCounters();
+            }
+        }
+
+        private void login() throws Exception {
+            MvcResult authorization = mockMvc.perform(get("/oauth2/authorization/github"))
+                    .andReturn();
+            assertThat(authorization.getResponse().getStatus()).isEqualTo(302);
+            MultiValueMap<String, String> parameters = UriComponentsBuilder
+                    .fromUriString(authorization.getResponse().getRedirectedUrl())
+                    .build()
+                    .getQueryParams();
+            Cookie[] cookies = Arrays.stream(authorization.getResponse().getCookies())
+                    .filter(cookie -> cookie.getMaxAge() != 0)
+                    .toArray(Cookie[]::new);
+
+            MvcResult callback = mockMvc.perform(get(decode(parameters.getFirst("redirect_uri")))
+                            .param("code", "provider-code")
+                            .param("state", decode(parameters.getFirst("state")))
+                            .accept(MediaType.APPLICATION_JSON)
+                            .cookie(cookies))
+                    .andReturn();
+            assertThat(callback.getResponse().getStatus()).isEqualTo(200);
+        }
+
+        private void installWriteCounters() {
+            jdbcTemplate.execute(
+                    """
+                    CREATE TABLE benchmark_write_counts (
+                        table_name TEXT PRIMARY KEY,
+                        writes BIGINT NOT NULL
+                    )
+                    """
+            );
+            jdbcTemplate.execute(
+                    """
+                    CREATE FUNCTION benchmark_count_write() RETURNS trigger AS $$
+                    BEGIN
+                        INSERT INTO benchmark_write_counts (table_name, writes)
+                        VALUES (TG_TABLE_NAME, 1)
+                        ON CONFLICT (table_name)
+                        DO UPDATE SET writes = benchmark_write_counts.writes + 1;
+                        RETURN NULL;
+                    END
+                    $$ LANGUAGE plpgsql
+                    """
+            );
+            jdbcTemplate.execute(
+                    """
+                    DO $$
+                    DECLARE
+                        target TEXT;
+                    BEGIN
+                        FOR target IN
+                            SELECT tablename FROM pg_tables
+                            WHERE schemaname = 'public'
+                              AND tablename <> 'benchmark_write_counts'
+                        LOOP
+                            EXECUTE format(
+                                'CREATE TRIGGER benchmark_count_write '
+                                    || 'AFTER INSERT OR UPDATE OR DELETE ON %I '
+                                    || 'FOR EACH ROW EXECUTE FUNCTION benchmark_count_write()',
+                                target
+                            );
+                        END LOOP;
+                    END
+                    $$
+                    """
+            );
+        }
+
+        private void removeWriteCounters() {
+            jdbcTemplate.execute(
+                    """
+                    DO $$
+                    DECLARE
+                        target TEXT;
+                    BEGIN
+                        FOR target IN
+                            SELECT tablename FROM pg_tables WHERE schemaname = 'public'
+                        LOOP
+                            EXECUTE format(
+                                'DROP TRIGGER IF EXISTS benchmark_count_write ON %I',
+                                target
+                            );
+                        END LOOP;
+                    END
+                    $$
+                    """
+            );
+            jdbcTemplate.execute("DROP FUNCTION IF EXISTS benchmark_count_write()");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS benchmark_write_counts");
+        }
+
+        private static String decode(String value) {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        }
+    }
+}
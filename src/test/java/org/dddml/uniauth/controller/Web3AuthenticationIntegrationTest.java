@@ -8,6 +8,8 @@ import org.dddml.uniauth.entity.UserLoginMethod;
 import org.dddml.uniauth.repository.UserLoginMethodRepository;
 import org.dddml.uniauth.repository.UserRepository;
 import org.dddml.uniauth.repository.Web3NonceRepository;
+import org.dddml.uniauth.service.AuthRateLimiter;
+import org.dddml.uniauth.service.RetentionEngine;
 import org.dddml.uniauth.service.Web3NonceService;
 import org.dddml.uniauth.support.PostgreSqlIntegrationTest;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -43,7 +46,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.retention.enabled=false")
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
 class Web3AuthenticationIntegrationTest extends PostgreSqlIntegrationTest {
@@ -69,6 +72,15 @@ class Web3AuthenticationIntegrationTest extends PostgreSqlIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RetentionEngine retentionEngine;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void signedNonceCreatesOneWeb3UserAndCannotBeReplayed() throws Exception {
         ECKeyPair keyPair = Keys.createEcKeyPair();
@@ -477,6 +489,39 @@ class Web3AuthenticationIntegrationTest extends PostgreSqlIntegrationTest {
         assertThat(web3NonceRepository.findByWalletAddress(walletAddress)).isEmpty();
     }
 
+    @Test
+    void retentionSweepsExpiredChallengesAndReleasesTheirCounters() {
+        String source = "198.51.100.45";
+        String sourceBucket = "source:" + authRateLimiter.protectedKey(
+                "web3-challenge-source",
+                source
+        );
+        for (int index = 0; index < 3; index++) {
+            web3NonceService.saveNonce(
+                    "0x00000000000000000000000000000000000045" + index + "0",
+                    "SweptNonceValue" + index,
+                    "swept-message-" + index,
+                    source,
+                    Instant.now().minusSeconds(1)
+            );
+        }
+        Integer globalBefore = activeCount("global");
+        assertThat(activeCount(sourceBucket)).isEqualTo(3);
+
+        long swept = retentionEngine.run("web3-challenges");
+
+        assertThat(swept).isGreaterThanOrEqualTo(3);
+        assertThat(activeCount(sourceBucket)).isZero();
+        assertThat(activeCount("global")).isEqualTo(globalBefore - (int) swept);
+        assertThat(web3NonceRepository.findByWalletAddress(
+                "0x0000000000000000000000000000000000004500"
+        )).isEmpty();
+
+        retentionEngine.run("web3-challenge-counters");
+
+        assertThat(activeCount(sourceBucket)).isNull();
+    }
+
     @Test
     void expiredNonceIsRejectedAndRemoved() throws Exception {
         ECKeyPair keyPair = Keys.createEcKeyPair();
@@ -621,4 +666,12 @@ class Web3AuthenticationIntegrationTest extends PostgreSqlIntegrationTest {
             Integer chainId
     ) {
     }
+
+    private Integer activeCount(String bucketKey) {
+        return jdbcTemplate.query(
+                "SELECT active_count FROM web3_challenge_counters WHERE bucket_key = ?",
+                (resultSet, rowNumber) -> resultSet.getInt(1),
+                bucketKey
+        ).stream().findFirst().orElse(null);
+    }
 }
@@ -0,0 +1,475 @@
+package org.dddml.uniauth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dddml.uniauth.config.EmailDeliveryProperties;
+import org.dddml.uniauth.config.EmailServiceLimiterProperties;
+import org.dddml.uniauth.entity.EmailVerificationCode;
+import org.dddml.uniauth.service.EmailDeliveryOutboxStateService.DeliveryWork;
+import org.dddml.uniauth.service.email.AsyncEmailService;
+import org.dddml.uniauth.service.email.EmailBatchResult;
+import org.dddml.uniauth.service.email.EmailDeliveryClientException;
+import org.dddml.uniauth.service.email.EmailDeliveryReceipt;
+import org.dddml.uniauth.service.email.EmailService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailDeliveryOutboxProcessorTest {
+
+    private final EmailDeliveryOutboxStateService stateService =
+            mock(EmailDeliveryOutboxStateService.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmailServiceLimiterProperties limiterProperties =
+            disabledLimiter();
+    private EmailServiceLimiter limiter =
+            new EmailServiceLimiter(limiterProperties, meterRegistry);
+    private EmailDeliveryOutboxProcessor processor;
+
+    @AfterEach
+    void shutdown() {
+        if (processor != null) {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    void deliversAClaimedBatchConcurrently() {
+        processor = processor(4, 4);
+        when(stateService.claimBatch(any(Instant.class), eq(4)))
+                .thenReturn(batch(4), List.of());
+        CountDownLatch allStarted = new CountDownLatch(4);
+        when(emailService.enqueueTemplateEmail(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        )).thenAnswer(invocation -> {
+            allStarted.countDown();
+            // Only completes if all four calls overlap.
+            assertThat(allStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return new EmailDeliveryReceipt(
+                    "delivery-" + invocation.getArgument(5),
+                    EmailDeliveryReceipt.DeliveryState.PENDING
+            );
+        });
+
+        int processed = processor.processAvailable();
+
+        assertThat(processed).isEqualTo(4);
+        verify(stateService, times(4)).accept(
+                any(DeliveryWork.class),
+                anyString(),
+                any(Instant.class)
+        );
+        assertThat(meterRegistry.get("uniauth.email.outbox.delivery")
+                .tag("outcome", "accepted")
+                .timer()
+                .count()).isEqualTo(4);
+        assertThat(meterRegistry.get("uniauth.email.outbox.claimed")
+                .counter()
+                .count()).isEqualTo(4.0);
+    }
+
+    @Test
+    void keepsClaimingWhileBatchesComeBackFull() {
+        processor = processor(2, 3);
+        when(stateService.claimBatch(any(Instant.class), eq(3)))
+                .thenReturn(batch(3), batch(3), batch(1));
+        when(emailService.enqueueTemplateEmail(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        )).thenReturn(new EmailDeliveryReceipt(
+                "delivery",
+                EmailDeliveryReceipt.DeliveryState.PENDING
+        ));
+
+        assertThat(processor.processAvailable()).isEqualTo(7);
+        verify(stateService, times(3)).claimBatch(any(Instant.class), eq(3));
+    }
+
+    @Test
+    void failsExpiredWorkWithoutCallingTheProvider() {
+        processor = processor(1, 5);
+        DeliveryWork expired = work(
+                "outbox-expired",
+                Instant.now().minus(1, ChronoUnit.MINUTES)
+        );
+        when(stateService.claimBatch(any(Instant.class), eq(5)))
+                .thenReturn(List.of(expired));
+
+        assertThat(processor.processAvailable()).isEqualTo(1);
+        verify(stateService).fail(
+                eq(expired),
+                eq("DELIVERY_DEADLINE_EXCEEDED"),
+                any(Instant.class)
+        );
+        verify(emailService, never()).enqueueTemplateEmail(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        );
+        assertThat(meterRegistry.get("uniauth.email.outbox.delivery")
+                .tag("outcome", "failed")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void sendsChunksInOneCallAndSettlesEachRowFromItsResult() {
+        processor = processor(2, 5, 3);
+        List<DeliveryWork> batch = batch(5);
+        when(stateService.claimBatch(any(Instant.class), eq(5)))
+                .thenReturn(batch, List.of());
+        when(emailService.enqueueTemplateEmails(anyList())).thenAnswer(invocation -> {
+            List<?> requests = invocation.getArgument(0);
+            if (requests.size() == 2) {
+                throw new EmailDeliveryClientException(
+                        "EMAIL_SERVICE_UNAVAILABLE",
+                        true
+                );
+            }
+            return List.of(
+                    EmailBatchResult.delivered(new EmailDeliveryReceipt(
+                            "delivery-0",
+                            EmailDeliveryReceipt.DeliveryState.PENDING
+                    )),
+                    EmailBatchResult.failed(new EmailDeliveryClientException(
+                            "EMAIL_SERVICE_REJECTED",
+                            false
+                    )),
+                    EmailBatchResult.delivered(new EmailDeliveryReceipt(
+                            "delivery-2",
+                            EmailDeliveryReceipt.DeliveryState.FAILED
+                    ))
+            );
+        });
+
+        assertThat(processor.processAvailable()).isEqualTo(5);
+        verify(emailService, times(2)).enqueueTemplateEmails(anyList());
+        verify(stateService).accept(
+                eq(batch.get(0)),
+                eq("delivery-0"),
+                any(Instant.class)
+        );
+        verify(stateService).fail(
+                eq(batch.get(1)),
+                eq("EMAIL_SERVICE_REJECTED"),
+                any(Instant.class)
+        );
+        verify(stateService).fail(
+                eq(batch.get(2)),
+                eq("PROVIDER_DELIVERY_FAILED"),
+                any(Instant.class)
+        );
+        verify(stateService).retryOrFail(
+                eq(batch.get(3)),
+                eq("EMAIL_SERVICE_UNAVAILABLE"),
+                any(Instant.class)
+        );
+        verify(stateService).retryOrFail(
+                eq(batch.get(4)),
+                eq("EMAIL_SERVICE_UNAVAILABLE"),
+                any(Instant.class)
+        );
+        verify(emailService, never()).enqueueTemplateEmail(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        );
+    }
+
+    @Test
+    void pipelinesAsyncRequestsUpToTheInFlightLimit() {
+        AsyncEmailService asyncService = mock(AsyncEmailService.class);
+        EmailDeliveryProperties properties = properties(1, 6, 1);
+        properties.setMaxInFlight(2);
+        processor = new EmailDeliveryOutboxProcessor(
+                stateService,
+                mock(EmailVerificationCodeProtector.class),
+                asyncService,
+                limiter,
+                properties,
+                meterRegistry
+        );
+        when(stateService.claimBatch(any(Instant.class), eq(6)))
+                .thenReturn(batch(5));
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(asyncService.enqueueTemplateEmailAsync(any())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                outstanding.decrementAndGet();
+                return new EmailDeliveryReceipt(
+                        "delivery",
+                        EmailDeliveryReceipt.DeliveryState.PENDING
+                );
+            });
+        });
+
+        assertThat(processor.processAvailable()).isEqualTo(5);
+        assertThat(peak.get()).isEqualTo(2);
+        verify(stateService, times(5)).accept(
+                any(DeliveryWork.class),
+                eq("delivery"),
+                any(Instant.class)
+        );
+        verify(asyncService, never()).enqueueTemplateEmail(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        );
+        assertThat(meterRegistry.get("uniauth.email.outbox.inflight")
+                .gauge()
+                .value()).isZero();
+    }
+
+    @Test
+    void defersClaimsWhileTheBreakerIsOpen() {
+        limiterProperties.setEnabled(true);
+        limiterProperties.setFailureThreshold(1);
+        limiter.complete(
+                limiter.start(),
+                new EmailDeliveryClientException("EMAIL_SERVICE_UNAVAILABLE", true)
+        );
+        processor = processor(2, 5);
+
+        assertThat(processor.processAvailable()).isZero();
+        verify(stateService, never()).claimBatch(any(Instant.class), any(Integer.class));
+        assertThat(meterRegistry.get("uniauth.email.outbox.deferred")
+                .counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void claimsNoMoreRowsThanTheLimiterAdmits() {
+        limiterProperties.setEnabled(true);
+        limiterProperties.setInitialLimit(2);
+        limiter = new EmailServiceLimiter(limiterProperties, new SimpleMeterRegistry());
+        processor = processor(4, 5);
+        when(stateService.claimBatch(any(Instant.class), eq(2)))
+                .thenReturn(batch(1));
+        when(emailService.enqueueTemplateEmail(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        )).thenReturn(new EmailDeliveryReceipt(
+                "delivery",
+                EmailDeliveryReceipt.DeliveryState.PENDING
+        ));
+
+        assertThat(processor.processAvailable()).isEqualTo(1);
+        verify(stateService).claimBatch(any(Instant.class), eq(2));
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void admitsEnqueueCallsAndClaimsTheirRows() {
+        limiterProperties.setEnabled(true);
+        limiterProperties.setInitialLimit(2);
+        limiter = new EmailServiceLimiter(limiterProperties, new SimpleMeterRegistry());
+        processor = processor(4, 10, 3);
+        when(stateService.claimBatch(any(Instant.class), eq(6)))
+                .thenReturn(batch(6), List.of());
+        when(emailService.enqueueTemplateEmails(anyList())).thenAnswer(invocation -> {
+            List<EmailBatchResult> results = new ArrayList<>();
+            for (Object ignored : (List<?>) invocation.getArgument(0)) {
+                results.add(EmailBatchResult.delivered(new EmailDeliveryReceipt(
+                        "delivery",
+                        EmailDeliveryReceipt.DeliveryState.PENDING
+                )));
+            }
+            return results;
+        });
+
+        assertThat(processor.processAvailable()).isEqualTo(6);
+        verify(stateService, times(2)).claimBatch(any(Instant.class), eq(6));
+        verify(emailService, times(2)).enqueueTemplateEmails(anyList());
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    private EmailDeliveryOutboxProcessor processor(
+            int concurrency,
+            int batchSize) {
+        return processor(concurrency, batchSize, 1);
+    }
+
+    private EmailDeliveryOutboxProcessor processor(
+            int concurrency,
+            int batchSize,
+            int enqueueBatchSize) {
+        return new EmailDeliveryOutboxProcessor(
+                stateService,
+                mock(EmailVerificationCodeProtector.class),
+                emailService,
+                limiter,
+                properties(concurrency, batchSize, enqueueBatchSize),
+                meterRegistry
+        );
+    }
+
+    @Test
+    void expiryMinutesIsTheTimeLeftOnTheStoredExpiry() {
+        Instant deadline = Instant.parse("2026-01-01T00:05:00Z");
+        DeliveryWork work = work("outbox-expiry", deadline);
+
+        assertThat(EmailDeliveryOutboxProcessor.expiryMinutes(
+                work,
+                work.issuedAt()
+        )).isEqualTo(15);
+        assertThat(EmailDeliveryOutboxProcessor.expiryMinutes(
+                work,
+                work.issuedAt().plus(4, ChronoUnit.MINUTES).plusSeconds(30)
+        )).isEqualTo(10);
+        assertThat(EmailDeliveryOutboxProcessor.expiryMinutes(
+                work,
+                work.totalExpiresAt().minusSeconds(20)
+        )).isEqualTo(1);
+    }
+
+    @Test
+    void retryAdoptsTheEarlierAttemptWhenOnlyTheRenderedWindowChanged() {
+        processor = processor(1, 1);
+        DeliveryWork first = work(
+                "outbox-rerendered",
+                Instant.now().plus(5, ChronoUnit.MINUTES)
+        );
+        DeliveryWork retry = new DeliveryWork(
+                first.outboxId(),
+                first.challengeId(),
+                first.idempotencyKey(),
+                3,
+                first.email(),
+                first.purpose(),
+                first.codeKeyId(),
+                first.issuedAt(),
+                first.deliveryDeadline(),
+                first.totalExpiresAt(),
+                first.usageStatus(),
+                first.dueAt()
+        );
+        when(stateService.claim(eq(first.outboxId()), any(Instant.class)))
+                .thenReturn(Optional.of(first), Optional.of(retry));
+        when(emailService.enqueueTemplateEmail(
+                anyString(),
+                anyString(),
+                anyString(),
+                anyMap(),
+                anyString(),
+                anyString()
+        )).thenThrow(new EmailDeliveryClientException(
+                "EMAIL_SERVICE_HTTP_409",
+                false
+        ));
+        when(emailService.findDeliveryByIdempotencyKey(first.idempotencyKey()))
+                .thenReturn(Optional.of(new EmailDeliveryReceipt(
+                        "delivery-earlier",
+                        EmailDeliveryReceipt.DeliveryState.PENDING
+                )));
+
+        assertThat(processor.processOne(first.outboxId())).isTrue();
+        verify(stateService).fail(
+                eq(first),
+                eq("EMAIL_SERVICE_HTTP_409"),
+                any(Instant.class)
+        );
+
+        assertThat(processor.processOne(first.outboxId())).isTrue();
+        verify(stateService).accept(
+                eq(retry),
+                eq("delivery-earlier"),
+                any(Instant.class)
+        );
+        verify(emailService).findDeliveryByIdempotencyKey(first.idempotencyKey());
+    }
+
+    private static EmailDeliveryProperties properties(
+            int concurrency,
+            int batchSize,
+            int enqueueBatchSize) {
+        EmailDeliveryProperties properties = new EmailDeliveryProperties();
+        properties.setWorkerConcurrency(concurrency);
+        properties.setBatchSize(batchSize);
+        properties.setEnqueueBatchSize(enqueueBatchSize);
+        properties.setWorkerVirtualThreads(false);
+        return properties;
+    }
+
+    private static EmailServiceLimiterProperties disabledLimiter() {
+        EmailServiceLimiterProperties properties = new EmailServiceLimiterProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
+    private static List<DeliveryWork> batch(int size) {
+        List<DeliveryWork> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(work(
+                    "outbox-" + i,
+                    Instant.now().plus(5, ChronoUnit.MINUTES)
+            ));
+        }
+        return batch;
+    }
+
+    private static DeliveryWork work(String outboxId, Instant deadline) {
+        return new DeliveryWork(
+                outboxId,
+                "challenge-" + outboxId,
+                "idempotency-" + outboxId,
+                1,
+                "user@example.com",
+                EmailVerificationCode.VerificationPurpose.REGISTRATION,
+                "key-1",
+                deadline.minus(5, ChronoUnit.MINUTES),
+                deadline,
+                deadline.plus(10, ChronoUnit.MINUTES),
+                EmailVerificationCode.UsageStatus.UNUSED,
+                Instant.now().minusSeconds(2)
+        );
+    }
+}
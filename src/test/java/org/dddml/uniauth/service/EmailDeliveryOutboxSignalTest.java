@@ -0,0 +1,79 @@
+package org.dddml.uniauth.service;
+
+import org.dddml.uniauth.config.EmailDeliveryProperties;
+import org.dddml.uniauth.service.EmailDeliveryOutboxSignal.Trigger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class EmailDeliveryOutboxSignalTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EmailDeliveryProperties properties = new EmailDeliveryProperties();
+    private final EmailDeliveryOutboxSignal signal =
+            new EmailDeliveryOutboxSignal(jdbcTemplate, properties);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void notifiesOtherNodesAndWakesLocallyOnlyAfterCommit()
+            throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        signal.enqueued();
+
+        verify(jdbcTemplate).query(
+                eq("SELECT pg_notify(?, '')"),
+                any(ResultSetExtractor.class),
+                eq(EmailDeliveryOutboxSignal.CHANNEL)
+        );
+        assertThat(signal.await(Duration.ZERO)).isEqualTo(Trigger.TIMER);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(signal.await(Duration.ZERO)).isEqualTo(Trigger.LOCAL);
+    }
+
+    @Test
+    void coalescesWakeupsWhileOneIsPending() throws InterruptedException {
+        signal.wake(Trigger.NOTIFY);
+        signal.wake(Trigger.LOCAL);
+        signal.wake(Trigger.NOTIFY);
+
+        assertThat(signal.await(Duration.ZERO)).isEqualTo(Trigger.NOTIFY);
+        assertThat(signal.await(Duration.ofMillis(10))).isEqualTo(Trigger.TIMER);
+    }
+
+    @Test
+    void staysSilentWhenWakeupsAreDisabled() throws InterruptedException {
+        properties.setWorkerWakeupEnabled(false);
+
+        signal.enqueued();
+
+        verify(jdbcTemplate, never()).query(
+                anyString(),
+                any(ResultSetExtractor.class),
+                any(Object[].class)
+        );
+        assertThat(signal.await(Duration.ZERO)).isEqualTo(Trigger.TIMER);
+    }
+}
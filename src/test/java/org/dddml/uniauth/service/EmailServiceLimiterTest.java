@@ -0,0 +1,145 @@
+package org.dddml.uniauth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dddml.uniauth.config.EmailServiceLimiterProperties;
+import org.dddml.uniauth.service.EmailServiceLimiter.State;
+import org.dddml.uniauth.service.email.EmailDeliveryClientException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailServiceLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private final EmailServiceLimiterProperties properties =
+            new EmailServiceLimiterProperties();
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void growsAdditivelyWhileResponsesStayFast() {
+        EmailServiceLimiter limiter = limiter();
+
+        for (int i = 0; i < 4; i++) {
+            limiter.complete(limiter.start(), FAST, null);
+        }
+
+        assertThat(limiter.limit()).isGreaterThan(4.9).isLessThan(5.0);
+        assertThat(limiter.admit(20)).isEqualTo(4);
+        assertThat(meterRegistry.get("uniauth.email.client.limit").gauge().value())
+                .isEqualTo(limiter.limit());
+    }
+
+    @Test
+    void backsOffOncePerRoundTripOnSlowOrFailedCalls() {
+        properties.setInitialLimit(16);
+        EmailServiceLimiter limiter = limiter();
+        long first = limiter.start();
+        long second = limiter.start();
+
+        limiter.complete(first, 0, retryable());
+        limiter.complete(second, 0, retryable());
+
+        assertThat(limiter.limit()).isEqualTo(8.0);
+
+        limiter.complete(limiter.start(), SLOW, null);
+
+        assertThat(limiter.limit()).isEqualTo(7.2);
+    }
+
+    @Test
+    void permanentRejectionsDoNotCountAgainstTheService() {
+        properties.setFailureThreshold(1);
+        EmailServiceLimiter limiter = limiter();
+
+        limiter.complete(
+                limiter.start(),
+                FAST,
+                new EmailDeliveryClientException("EMAIL_SERVICE_HTTP_400", false)
+        );
+
+        assertThat(limiter.state()).isEqualTo(State.CLOSED);
+        assertThat(limiter.limit()).isGreaterThan(4.0);
+    }
+
+    @Test
+    void opensOnSustainedFailuresAndClosesAfterASuccessfulTrial() {
+        properties.setFailureThreshold(3);
+        properties.setOpenDurationMs(30000);
+        EmailServiceLimiter limiter = limiter();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.complete(limiter.start(), FAST, retryable());
+        }
+
+        assertThat(limiter.state()).isEqualTo(State.OPEN);
+        assertThat(limiter.admit(10)).isZero();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertThat(limiter.admit(10)).isEqualTo(1);
+        assertThat(limiter.state()).isEqualTo(State.HALF_OPEN);
+        long trial = limiter.start();
+        assertThat(limiter.admit(10)).isZero();
+
+        limiter.complete(trial, FAST, null);
+
+        assertThat(limiter.state()).isEqualTo(State.CLOSED);
+        assertThat(limiter.admit(10)).isPositive();
+        assertThat(meterRegistry.get("uniauth.email.client.breaker.state").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void aFailedTrialReopensTheBreaker() {
+        properties.setFailureThreshold(1);
+        EmailServiceLimiter limiter = limiter();
+        limiter.complete(limiter.start(), FAST, retryable());
+        clock.advance(Duration.ofMillis(properties.getOpenDurationMs()));
+        assertThat(limiter.admit(1)).isEqualTo(1);
+
+        limiter.complete(limiter.start(), FAST, retryable());
+
+        assertThat(limiter.state()).isEqualTo(State.OPEN);
+        assertThat(limiter.admit(1)).isZero();
+    }
+
+    private EmailServiceLimiter limiter() {
+        return new EmailServiceLimiter(properties, meterRegistry, clock);
+    }
+
+    private static EmailDeliveryClientException retryable() {
+        return new EmailDeliveryClientException("EMAIL_SERVICE_UNAVAILABLE", true);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -23,7 +23,6 @@ import org.springframework.test.context.ActiveProfiles;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
@@ -36,6 +35,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -91,8 +91,6 @@ class F1DurabilityIntegrationTest extends PostgreSqlIntegrationTest {
     void resetBoundary() {
         reset(emailService);
         jdbcTemplate.update("DELETE FROM auth_rate_limits");
-        when(emailService.findDeliveryByIdempotencyKey(anyString()))
-                .thenReturn(Optional.empty());
         when(emailService.enqueueTemplateEmail(
                 anyString(),
                 anyString(),
@@ -156,7 +154,7 @@ class F1DurabilityIntegrationTest extends PostgreSqlIntegrationTest {
     }
 
     @Test
-    void reconciliationUsesExistingProviderIdentityWithoutReenqueueing() {
+    void reconciliationAdoptsExistingProviderIdentityFromOneEnqueueCall() {
         EmailVerificationCodeService.ChallengeDispatch dispatch =
                 challengeService.sendVerificationCode(
                         uniqueEmail("reconcile"),
@@ -165,23 +163,21 @@ class F1DurabilityIntegrationTest extends PostgreSqlIntegrationTest {
         EmailDeliveryOutbox outbox = outboxRepository.findByChallengeId(
                 dispatch.challengeHandle()
         ).orElseThrow();
-        when(emailService.findDeliveryByIdempotencyKey(
-                outbox.getIdempotencyKey()
-        )).thenReturn(Optional.of(new EmailDeliveryReceipt(
-                "provider-existing-1",
-                EmailDeliveryReceipt.DeliveryState.PROCESSING
-        )));
-
-        assertThat(outboxProcessor.processOne(outbox.getId())).isTrue();
-
-        verify(emailService, never()).enqueueTemplateEmail(
+        when(emailService.enqueueTemplateEmail(
                 anyString(),
                 anyString(),
                 anyString(),
                 any(),
                 anyString(),
-                anyString()
-        );
+                eq(outbox.getIdempotencyKey())
+        )).thenReturn(new EmailDeliveryReceipt(
+                "provider-existing-1",
+                EmailDeliveryReceipt.DeliveryState.PROCESSING
+        ));
+
+        assertThat(outboxProcessor.processOne(outbox.getId())).isTrue();
+
+        verify(emailService, never()).findDeliveryByIdempotencyKey(anyString());
         assertThat(challengeRepository.findById(dispatch.challengeHandle()))
                 .get()
                 .extracting(EmailVerificationCode::getProviderDeliveryId)
@@ -0,0 +1,209 @@
+package org.dddml.uniauth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetentionEngineTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void deletesInSkipLockedBatchesUntilAShortBatch() {
+        RetentionPolicy policy = policy("token-families", null, 100);
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class), eq(100)))
+                .thenReturn(100, 100, 7);
+        RetentionEngine engine = engine(policy);
+
+        long removed = engine.run("token-families");
+
+        assertThat(removed).isEqualTo(207);
+        verify(jdbcTemplate, times(3)).update(
+                eq("DELETE FROM token_families WHERE ctid = ANY(ARRAY("
+                        + "SELECT ctid FROM token_families WHERE expires_at < ?"
+                        + " LIMIT ? FOR UPDATE SKIP LOCKED))"),
+                eq(Timestamp.from(NOW.minus(Duration.ofDays(7)))),
+                eq(100)
+        );
+        assertThat(meterRegistry.get("uniauth.retention.rows")
+                .tag("policy", "token-families")
+                .counter()
+                .count()).isEqualTo(207.0);
+        assertThat(meterRegistry.get("uniauth.retention.backlog")
+                .tag("policy", "token-families")
+                .gauge()
+                .value()).isZero();
+    }
+
+    @Test
+    void updatingPoliciesExpireRowsInsteadOfDeletingThem() {
+        RetentionPolicy policy = policy(
+                "challenges",
+                "usage_status = 'EXPIRED'",
+                10
+        );
+
+        assertThat(policy.batchSql()).isEqualTo(
+                "UPDATE token_families SET usage_status = 'EXPIRED'"
+                        + " WHERE ctid = ANY(ARRAY(SELECT ctid FROM token_families"
+                        + " WHERE expires_at < ? LIMIT ? FOR UPDATE SKIP LOCKED))"
+        );
+    }
+
+    @Test
+    void onDeleteCtesRunWithEachBatchAndTheDeletedRowsAreCounted() {
+        RetentionPolicy policy = new RetentionPolicy(
+                "web3-challenges",
+                "web3_nonces",
+                "expires_at <= ?",
+                null,
+                Duration.ZERO,
+                Duration.ofMinutes(1),
+                100,
+                Duration.ZERO,
+                Duration.ofSeconds(30),
+                "released AS (SELECT count(*) FROM removed)"
+        );
+        when(jdbcTemplate.queryForObject(
+                anyString(),
+                eq(Integer.class),
+                any(Timestamp.class),
+                eq(100)
+        )).thenReturn(100, 3);
+        RetentionEngine engine = engine(policy);
+
+        long removed = engine.run("web3-challenges");
+
+        assertThat(removed).isEqualTo(103);
+        verify(jdbcTemplate, times(2)).queryForObject(
+                eq("WITH removed AS (DELETE FROM web3_nonces WHERE ctid = ANY(ARRAY("
+                        + "SELECT ctid FROM web3_nonces WHERE expires_at <= ?"
+                        + " LIMIT ? FOR UPDATE SKIP LOCKED)) RETURNING *), "
+                        + "released AS (SELECT count(*) FROM removed)"
+                        + " SELECT count(*) FROM removed"),
+                eq(Integer.class),
+                eq(Timestamp.from(NOW)),
+                eq(100)
+        );
+        verify(jdbcTemplate, never()).update(anyString(), any(Timestamp.class), eq(100));
+    }
+
+    @Test
+    void stopsAtMaxRuntimeAndReportsRemainingBacklog() {
+        RetentionPolicy policy = new RetentionPolicy(
+                "auth-rate-limits",
+                "auth_rate_limits",
+                "expires_at <= ?",
+                null,
+                Duration.ZERO,
+                Duration.ofMinutes(1),
+                50,
+                Duration.ZERO,
+                Duration.ofMillis(1)
+        );
+        Clock ticking = mock(Clock.class);
+        when(ticking.instant()).thenReturn(NOW, NOW, NOW.plusSeconds(1));
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class), eq(50)))
+                .thenReturn(50);
+        RetentionEngine engine = new RetentionEngine(
+                jdbcTemplate,
+                List.of(policy),
+                meterRegistry,
+                ticking
+        );
+
+        long removed = engine.run("auth-rate-limits");
+
+        assertThat(removed).isEqualTo(50);
+        assertThat(meterRegistry.get("uniauth.retention.backlog")
+                .tag("policy", "auth-rate-limits")
+                .gauge()
+                .value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void runDueSkipsPoliciesWhoseIntervalHasNotElapsed() {
+        RetentionPolicy policy = policy("token-families", null, 100);
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class), eq(100)))
+                .thenReturn(0);
+        RetentionEngine engine = engine(policy);
+
+        engine.runDue();
+        engine.runDue();
+
+        verify(jdbcTemplate, times(1))
+                .update(anyString(), any(Timestamp.class), eq(100));
+    }
+
+    @Test
+    void rejectsInvalidPolicyDefinitions() {
+        assertThatThrownBy(() -> new RetentionPolicy(
+                "broken",
+                "token_families",
+                "expires_at < now()",
+                null,
+                Duration.ZERO,
+                Duration.ofMinutes(1),
+                10,
+                Duration.ZERO,
+                Duration.ofSeconds(1)
+        )).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetentionPolicy(
+                "broken",
+                "token_families",
+                "expires_at < ?",
+                "usage_status = 'EXPIRED'",
+                Duration.ZERO,
+                Duration.ofMinutes(1),
+                10,
+                Duration.ZERO,
+                Duration.ofSeconds(1),
+                "released AS (SELECT count(*) FROM removed)"
+        )).isInstanceOf(IllegalArgumentException.class);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    private RetentionEngine engine(RetentionPolicy policy) {
+        return new RetentionEngine(
+                jdbcTemplate,
+                List.of(policy),
+                meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+    }
+
+    private RetentionPolicy policy(String name, String setClause, int batchSize) {
+        return new RetentionPolicy(
+                name,
+                "token_families",
+                "expires_at < ?",
+                setClause,
+                Duration.ofDays(7),
+                Duration.ofHours(1),
+                batchSize,
+                Duration.ZERO,
+                Duration.ofSeconds(30)
+        );
+    }
+}
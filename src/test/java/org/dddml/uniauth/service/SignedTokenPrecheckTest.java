@@ -0,0 +1,103 @@
+package org.dddml.uniauth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignedTokenPrecheckTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static KeyPair keyPair;
+    private static KeyPair otherKeyPair;
+    private static SignedTokenPrecheck precheck;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        otherKeyPair = generator.generateKeyPair();
+        precheck = new SignedTokenPrecheck(
+                (RSAPublicKey) keyPair.getPublic(),
+                new ObjectMapper()
+        );
+    }
+
+    @Test
+    void tokenSignedWithTheKeyGoesOnToFullValidation() {
+        assertThat(precheck.check(token(keyPair, NOW.plusSeconds(300)), NOW))
+                .isNull();
+        assertThat(precheck.check(token(keyPair, null), NOW)).isNull();
+    }
+
+    @Test
+    void brokenOrForeignSignaturesAreRejected() {
+        String token = token(keyPair, NOW.plusSeconds(300));
+        int signature = token.lastIndexOf('.') + 1;
+        String flipped = token.substring(0, signature)
+                + (token.charAt(signature) == 'A' ? 'B' : 'A')
+                + token.substring(signature + 1);
+
+        assertThat(precheck.check(flipped, NOW))
+                .isEqualTo(TokenRejectionReason.MALFORMED);
+        assertThat(precheck.check(token(otherKeyPair, NOW.plusSeconds(300)), NOW))
+                .isEqualTo(TokenRejectionReason.MALFORMED);
+        assertThat(precheck.check(token.substring(0, token.length() - 4), NOW))
+                .isEqualTo(TokenRejectionReason.MALFORMED);
+    }
+
+    @Test
+    void expiryAllowsTheSameSkewAsTheNimbusValidator() {
+        assertThat(precheck.check(token(keyPair, NOW.minusSeconds(30)), NOW))
+                .isNull();
+        assertThat(precheck.check(token(keyPair, NOW.minusSeconds(61)), NOW))
+                .isEqualTo(TokenRejectionReason.MALFORMED);
+    }
+
+    @Test
+    void malformedShapesAreRejectedWithoutDecoding() {
+        String token = token(keyPair, NOW.plusSeconds(300));
+        String[] malformed = {
+                null,
+                "",
+                "not-a-token",
+                "a.b",
+                ".b.c",
+                "a..c",
+                "a.b.",
+                token + ".extra",
+                token.replaceFirst("\\.", ".%"),
+                "a.b.cdefg"
+        };
+
+        for (String value : malformed) {
+            assertThat(precheck.check(value, NOW))
+                    .as(String.valueOf(value))
+                    .isEqualTo(TokenRejectionReason.MALFORMED);
+        }
+    }
+
+    private static String token(KeyPair signingKey, Instant expiresAt) {
+        var builder = Jwts.builder()
+                .setHeaderParam("kid", "test")
+                .setSubject("user")
+                .setIssuedAt(Date.from(NOW.minusSeconds(60)));
+        if (expiresAt != null) {
+            builder.setExpiration(Date.from(expiresAt));
+        }
+        return builder
+                .signWith(signingKey.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+}
@@ -0,0 +1,202 @@
+package org.dddml.uniauth.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.support.Benchmark;
+import org.dddml.uniauth.support.PostgreSqlIntegrationTest;
+import org.dddml.uniauth.support.Throughput;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Single-thread (one core) rejection rate for forged and expired tokens.
+ * <p>
+ * Measures the refresh path (result value and the stackless exception
+ * callers get from it), the access-token decoder the resource server uses,
+ * and the full {@code /api/user} filter chain through MockMvc. The same
+ * tokens are also fed straight to jjwt and Nimbus, which is what rejection
+ * cost before the exception-free precheck. The service-level paths must
+ * reject at least 10k tokens per second per core; the MockMvc figure
+ * includes the servlet stack and is only reported.
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Benchmark
+class TokenRejectionBenchmarkTest extends PostgreSqlIntegrationTest {
+
+    private static final int TOKENS = 1024;
+    private static final int ROUNDS = 50_000;
+    private static final int WARMUP_ROUNDS = 10_000;
+    private static final int REQUEST_ROUNDS = 10_000;
+    private static final int WARMUP_REQUEST_ROUNDS = 2_000;
+    private static final double TARGET_PER_SECOND = 10_000;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private TokenValidationService tokenValidationService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void measureInvalidTokenRejectionRate() throws Exception {
+        List<String> refreshTokens = new ArrayList<>(TOKENS);
+        List<String> accessTokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            String userId = UUID.randomUUID().toString();
+            if (i % 2 == 0) {
+                refreshTokens.add(brokenSignature(jwtTokenService
+                        .generateRefreshToken("benchmark-" + i, userId)));
+                accessTokens.add(brokenSignature(jwtTokenService
+                        .generateAccessToken(
+                                "benchmark-" + i,
+                                "benchmark-" + i + "@example.com",
+                                userId,
+                                Set.of("ROLE_USER")
+                        )));
+            } else {
+                refreshTokens.add(expired("refresh", userId));
+                accessTokens.add(expired("access", userId));
+            }
+        }
+        Predicate<String> refreshValue = token ->
+                !tokenValidationService.checkRefreshToken(token).isValid();
+        Predicate<String> refreshStackless = token -> {
+            try {
+                tokenValidationService.decodeRefreshToken(token);
+                return false;
+            } catch (InvalidTokenException rejected) {
+                return true;
+            }
+        };
+        Predicate<String> accessDecoder = token -> {
+            try {
+                tokenValidationService.accessTokenDecoder().decode(token);
+                return false;
+            } catch (JwtException rejected) {
+                return true;
+            }
+        };
+        Predicate<String> jjwt = token -> {
+            try {
+                jwtTokenService.parseSignedToken(token);
+                return false;
+            } catch (io.jsonwebtoken.JwtException rejected) {
+                return true;
+            }
+        };
+        var nimbusDecoder = jwtTokenService.jwtDecoder();
+        Predicate<String> nimbus = token -> {
+            try {
+                nimbusDecoder.decode(token);
+                return false;
+            } catch (JwtException rejected) {
+                return true;
+            }
+        };
+        Predicate<String> filterChain = token -> {
+            try {
+                return mockMvc.perform(get("/api/user")
+                                .header("Authorization", "Bearer " + token))
+                        .andReturn()
+                        .getResponse()
+                        .getStatus() == 401;
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            }
+        };
+
+        double refreshValuePerSecond =
+                rejectionRate(refreshTokens, refreshValue, WARMUP_ROUNDS, ROUNDS);
+        double refreshStacklessPerSecond =
+                rejectionRate(refreshTokens, refreshStackless, WARMUP_ROUNDS, ROUNDS);
+        double accessDecoderPerSecond =
+                rejectionRate(accessTokens, accessDecoder, WARMUP_ROUNDS, ROUNDS);
+        double jjwtPerSecond =
+                rejectionRate(refreshTokens, jjwt, WARMUP_ROUNDS, ROUNDS);
+        double nimbusPerSecond =
+                rejectionRate(accessTokens, nimbus, WARMUP_ROUNDS, ROUNDS);
+        double filterChainPerSecond = rejectionRate(
+                accessTokens,
+                filterChain,
+                WARMUP_REQUEST_ROUNDS,
+                REQUEST_ROUNDS
+        );
+
+        log.info(
+                "Invalid token rejection per core [rounds={}, refresh-value={}/s, refresh-stackless={}/s, access-decoder={}/s, jjwt={}/s, nimbus={}/s, filter-chain={}/s, target={}/s]",
+                ROUNDS,
+                Math.round(refreshValuePerSecond),
+                Math.round(refreshStacklessPerSecond),
+                Math.round(accessDecoderPerSecond),
+                Math.round(jjwtPerSecond),
+                Math.round(nimbusPerSecond),
+                Math.round(filterChainPerSecond),
+                Math.round(TARGET_PER_SECOND)
+        );
+        assertThat(refreshValuePerSecond).isGreaterThanOrEqualTo(TARGET_PER_SECOND);
+        assertThat(refreshStacklessPerSecond).isGreaterThanOrEqualTo(TARGET_PER_SECOND);
+        assertThat(accessDecoderPerSecond).isGreaterThanOrEqualTo(TARGET_PER_SECOND);
+    }
+
+    private static double rejectionRate(
+            List<String> tokens,
+            Predicate<String> reject,
+            int warmup,
+            int rounds) {
+        return Throughput.perSecond(
+                warmup,
+                rounds,
+                round -> reject.test(tokens.get(round % tokens.size()))
+        );
+    }
+
+    private String expired(String type, String userId) {
+        Instant issuedAt = Instant.now().minusSeconds(7200);
+        return Jwts.builder()
+                .setClaims(Map.of(
+                        "userId", userId,
+                        "username", "benchmark-" + userId,
+                        "type", type,
+                        "jti", UUID.randomUUID().toString()
+                ))
+                .setSubject(userId)
+                .setIssuer(jwtTokenService.getToken().getIssuer())
+                .setAudience(jwtTokenService.getToken().getAudience())
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plusSeconds(3600)))
+                .setHeaderParam("kid", jwtTokenService.getToken().getKid())
+                .signWith(jwtTokenService.getPrivateKey(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private static String brokenSignature(String token) {
+        int signature = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signature);
+        return token.substring(0, signature)
+                + (first == 'A' ? 'B' : 'A')
+                + token.substring(signature + 1);
+    }
+}
@@ -0,0 +1,113 @@
+package org.dddml.uniauth.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenValidationContextTest {
+
+    private final TokenValidationContext context = new TokenValidationContext();
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void reusesSuccessfulAndRejectedOutcomesWithinOneRequest() {
+        bindRequest();
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = context.memoize(
+                TokenValidationContext.Kind.SIGNED_ACCESS,
+                "token-a",
+                () -> "decoded-" + loads.incrementAndGet()
+        );
+        String second = context.memoize(
+                TokenValidationContext.Kind.SIGNED_ACCESS,
+                "token-a",
+                () -> "decoded-" + loads.incrementAndGet()
+        );
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThatThrownBy(() -> context.memoize(
+                    TokenValidationContext.Kind.ACTIVE_ACCESS,
+                    "token-b",
+                    () -> {
+                        loads.incrementAndGet();
+                        throw new JwtException("rejected");
+                    }
+            )).isInstanceOf(JwtException.class);
+        }
+
+        assertThat(first).isEqualTo("decoded-1");
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(2);
+        assertThat(context.<String>peek(
+                TokenValidationContext.Kind.SIGNED_ACCESS,
+                "token-a"
+        )).contains("decoded-1");
+        assertThat(context.peek(
+                TokenValidationContext.Kind.ACTIVE_ACCESS,
+                "token-b"
+        )).isEmpty();
+    }
+
+    @Test
+    void sessionStateInvalidationKeepsSignatureOutcomes() {
+        bindRequest();
+        AtomicInteger loads = new AtomicInteger();
+        context.memoize(
+                TokenValidationContext.Kind.ACTIVE_REFRESH,
+                "refresh",
+                loads::incrementAndGet
+        );
+        context.memoize(
+                TokenValidationContext.Kind.SIGNED_REFRESH,
+                "refresh",
+                loads::incrementAndGet
+        );
+
+        context.invalidateSessionState();
+
+        assertThat(context.peek(
+                TokenValidationContext.Kind.ACTIVE_REFRESH,
+                "refresh"
+        )).isEmpty();
+        assertThat(context.<Integer>peek(
+                TokenValidationContext.Kind.SIGNED_REFRESH,
+                "refresh"
+        )).contains(2);
+    }
+
+    @Test
+    void loadsEveryTimeWithoutABoundRequest() {
+        AtomicInteger loads = new AtomicInteger();
+
+        context.memoize(
+                TokenValidationContext.Kind.SIGNED_ACCESS,
+                "token",
+                loads::incrementAndGet
+        );
+        context.memoize(
+                TokenValidationContext.Kind.SIGNED_ACCESS,
+                "token",
+                loads::incrementAndGet
+        );
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private void bindRequest() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest())
+        );
+    }
+}
@@ -0,0 +1,55 @@
+package org.dddml.uniauth.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenValidationResultTest {
+
+    @Test
+    void rejectedResultsAreSharedAndThrowTheirReason() {
+        TokenValidationResult first = TokenValidationResult.rejected(
+                TokenRejectionReason.REVOKED
+        );
+        TokenValidationResult second = TokenValidationResult.rejected(
+                TokenRejectionReason.REVOKED
+        );
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.isValid()).isFalse();
+        assertThat(first.token()).isEmpty();
+        assertThatThrownBy(first::orElseThrow)
+                .isInstanceOfSatisfying(
+                        InvalidTokenException.class,
+                        exception -> assertThat(exception.reason())
+                                .isEqualTo(TokenRejectionReason.REVOKED)
+                )
+                .hasMessage("Token has been revoked");
+    }
+
+    @Test
+    void rejectionsCarryNoStackTrace() {
+        for (TokenRejectionReason reason : TokenRejectionReason.values()) {
+            InvalidTokenException exception = reason.exception();
+            exception.setStackTrace(new Throwable().getStackTrace());
+
+            assertThat(exception.reason()).isEqualTo(reason);
+            assertThat(exception.getStackTrace()).isEmpty();
+            assertThat(exception.fillInStackTrace()).isSameAs(exception);
+        }
+    }
+
+    @Test
+    void rejectionsDoNotShareSuppressedExceptionsOrCauses() {
+        InvalidTokenException first = TokenRejectionReason.REVOKED.exception();
+        first.addSuppressed(new IllegalStateException("close failed"));
+        first.initCause(new IllegalStateException("wrapped"));
+
+        InvalidTokenException second = TokenRejectionReason.REVOKED.exception();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getSuppressed()).isEmpty();
+        assertThat(second.getCause()).isNull();
+    }
+}
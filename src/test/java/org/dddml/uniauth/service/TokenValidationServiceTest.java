@@ -0,0 +1,93 @@
+package org.dddml.uniauth.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TokenValidationServiceTest {
+
+    private final EntityManagerFactory entityManagerFactory =
+            mock(EntityManagerFactory.class);
+
+    @AfterEach
+    void unbind() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void sessionReadsDoNotUseTheRequestEntityManager() {
+        EntityManagerHolder requestEntityManager =
+                new EntityManagerHolder(mock(EntityManager.class));
+        TransactionSynchronizationManager.bindResource(
+                entityManagerFactory,
+                requestEntityManager
+        );
+
+        boolean boundDuringRead = TokenValidationService.outsideRequestEntityManager(
+                entityManagerFactory,
+                () -> TransactionSynchronizationManager.hasResource(entityManagerFactory)
+        );
+
+        assertThat(boundDuringRead).isFalse();
+        assertThat(TransactionSynchronizationManager.getResource(entityManagerFactory))
+                .isSameAs(requestEntityManager);
+    }
+
+    @Test
+    void requestEntityManagerIsRestoredWhenTheReadFails() {
+        EntityManagerHolder requestEntityManager =
+                new EntityManagerHolder(mock(EntityManager.class));
+        TransactionSynchronizationManager.bindResource(
+                entityManagerFactory,
+                requestEntityManager
+        );
+
+        assertThatThrownBy(() -> TokenValidationService.outsideRequestEntityManager(
+                entityManagerFactory,
+                () -> {
+                    throw new IllegalStateException("replica down");
+                }
+        )).isInstanceOf(IllegalStateException.class);
+
+        assertThat(TransactionSynchronizationManager.getResource(entityManagerFactory))
+                .isSameAs(requestEntityManager);
+    }
+
+    @Test
+    void readsInsideATransactionKeepItsEntityManager() {
+        EntityManagerHolder transactionEntityManager =
+                new EntityManagerHolder(mock(EntityManager.class));
+        TransactionSynchronizationManager.bindResource(
+                entityManagerFactory,
+                transactionEntityManager
+        );
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        Object boundDuringRead = TokenValidationService.outsideRequestEntityManager(
+                entityManagerFactory,
+                () -> TransactionSynchronizationManager.getResource(entityManagerFactory)
+        );
+
+        assertThat(boundDuringRead).isSameAs(transactionEntityManager);
+    }
+
+    @Test
+    void readsWithoutARequestEntityManagerRunAsIs() {
+        String result = TokenValidationService.outsideRequestEntityManager(
+                entityManagerFactory,
+                () -> "active"
+        );
+
+        assertThat(result).isEqualTo("active");
+        assertThat(TransactionSynchronizationManager.hasResource(entityManagerFactory))
+                .isFalse();
+    }
+}
@@ -0,0 +1,223 @@
+package org.dddml.uniauth.service.email;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.dddml.uniauth.config.EmailServiceClientProperties;
+import org.dddml.uniauth.service.email.impl.HttpClientEmailServiceImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpClientEmailServiceImplTest {
+
+    private static final long LATENCY_MS = 200;
+    private static final AtomicInteger CONCURRENT = new AtomicInteger();
+    private static final AtomicInteger PEAK_CONCURRENT = new AtomicInteger();
+
+    private static ExecutorService serverThreads;
+    private static HttpServer server;
+    private static HttpClientEmailServiceImpl emailService;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/mail/api/email/template", HttpClientEmailServiceImplTest::template);
+        server.createContext("/moved/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set(
+                    "Location",
+                    "/mail/" + exchange.getRequestURI().getPath().substring("/moved/".length())
+            );
+            exchange.sendResponseHeaders(307, -1);
+            exchange.close();
+        });
+        server.createContext("/mail/api/email/delivery/status", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, 404, "{\"success\":false}");
+        });
+        server.createContext("/mail/api/email/health", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            String key = exchange.getRequestHeaders().getFirst("X-Email-Service-Key");
+            respond(exchange, 200, "client-secret".equals(key)
+                    ? "{\"status\":\"UP\"}"
+                    : "{\"status\":\"DOWN\"}");
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+
+        EmailServiceClientProperties properties = new EmailServiceClientProperties();
+        properties.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/mail/");
+        properties.setTimeout(1000);
+        properties.setApiKey("client-secret");
+        properties.setClient("http-client");
+        emailService = new HttpClientEmailServiceImpl(properties, new ObjectMapper());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void keepsManyRequestsInFlightFromOneThread() {
+        int requests = 8;
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<EmailDeliveryReceipt>> pending = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            pending.add(emailService.enqueueTemplateEmailAsync(
+                    request("user" + i + "@example.test", "pipelined-" + i)
+            ));
+        }
+
+        List<EmailDeliveryReceipt> receipts = pending.stream()
+                .map(CompletableFuture::join)
+                .toList();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        assertThat(receipts).hasSize(requests)
+                .allMatch(receipt -> receipt.state()
+                        == EmailDeliveryReceipt.DeliveryState.PENDING);
+        assertThat(PEAK_CONCURRENT.get()).isGreaterThan(1);
+        assertThat(elapsed).isLessThan(Duration.ofMillis(LATENCY_MS * requests / 2));
+    }
+
+    @Test
+    void mapsErrorsExactlyLikeTheBlockingClient() {
+        assertFailure("rate-limited@example.test", "EMAIL_SERVICE_RATE_LIMITED", true);
+        assertFailure("unavailable@example.test", "EMAIL_SERVICE_HTTP_503", true);
+        assertFailure("bad-request@example.test", "EMAIL_SERVICE_HTTP_400", false);
+        assertFailure("conflict@example.test", "EMAIL_SERVICE_HTTP_409", false);
+        assertFailure("rejected@example.test", "EMAIL_SERVICE_REJECTED", false);
+        assertFailure("slow@example.test", "EMAIL_SERVICE_UNAVAILABLE", true);
+        assertFailure("not-an-email", "INVALID_EMAIL", false);
+    }
+
+    @Test
+    void redirectsAreFollowedAndOtherRedirectStatusesAreNotErrors() {
+        EmailServiceClientProperties properties = new EmailServiceClientProperties();
+        properties.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/moved/");
+        properties.setTimeout(1000);
+        properties.setApiKey("client-secret");
+        properties.setClient("http-client");
+        HttpClientEmailServiceImpl movedService =
+                new HttpClientEmailServiceImpl(properties, new ObjectMapper());
+
+        assertThat(movedService.enqueueTemplateEmail(
+                "user@example.test",
+                "Verify",
+                "email/email-verify",
+                Map.of("verificationCode", "123456"),
+                "VERIFICATION",
+                "email-challenge:moved"
+        ).state()).isEqualTo(EmailDeliveryReceipt.DeliveryState.PENDING);
+        // RestTemplate raises only for 4xx and 5xx, so an unfollowed 3xx
+        // body is read like a 2xx one.
+        assertFailure("multiple-choices@example.test", "EMAIL_SERVICE_REJECTED", false);
+    }
+
+    @Test
+    void conflictIsPermanentWhateverTheResponseBodyCarries() {
+        assertFailure("replayed@example.test", "EMAIL_SERVICE_HTTP_409", false);
+    }
+
+    @Test
+    void statusLookupAndHealthUseTheSameTransport() {
+        assertThat(emailService.findDeliveryByIdempotencyKey("email-challenge:missing"))
+                .isEmpty();
+        assertThat(emailService.isAvailable()).isTrue();
+    }
+
+    private static void assertFailure(String to, String errorCode, boolean retryable) {
+        assertThatThrownBy(() -> emailService.enqueueTemplateEmail(
+                to,
+                "Verify",
+                "email/email-verify",
+                Map.of("verificationCode", "123456"),
+                "VERIFICATION",
+                "email-challenge:" + errorCode
+        ))
+                .isInstanceOfSatisfying(
+                        EmailDeliveryClientException.class,
+                        exception -> {
+                            assertThat(exception.getErrorCode()).isEqualTo(errorCode);
+                            assertThat(exception.isRetryable()).isEqualTo(retryable);
+                        }
+                );
+    }
+
+    private static EmailTemplateRequest request(String to, String idempotencyKey) {
+        return new EmailTemplateRequest(
+                to,
+                "Verify",
+                "email/email-verify",
+                Map.of("verificationCode", "123456"),
+                "VERIFICATION",
+                idempotencyKey
+        );
+    }
+
+    private static void template(HttpExchange exchange) throws IOException {
+        String body = new String(
+                exchange.getRequestBody().readAllBytes(),
+                StandardCharsets.UTF_8
+        );
+        int concurrent = CONCURRENT.incrementAndGet();
+        PEAK_CONCURRENT.accumulateAndGet(concurrent, Math::max);
+        try {
+            sleep(body.contains("slow@example.test") ? 1500 : LATENCY_MS);
+        } finally {
+            CONCURRENT.decrementAndGet();
+        }
+        if (body.contains("rate-limited@example.test")) {
+            respond(exchange, 429, "{\"success\":false}");
+        } else if (body.contains("unavailable@example.test")) {
+            respond(exchange, 503, "{\"success\":false}");
+        } else if (body.contains("bad-request@example.test")) {
+            respond(exchange, 400, "{\"success\":false}");
+        } else if (body.contains("conflict@example.test")) {
+            respond(exchange, 409, "{\"success\":false}");
+        } else if (body.contains("replayed@example.test")) {
+            respond(exchange, 409, "{\"success\":false,\"queueId\":9,\"status\":\"COMPLETED\"}");
+        } else if (body.contains("multiple-choices@example.test")) {
+            respond(exchange, 300, "{\"success\":false}");
+        } else if (body.contains("rejected@example.test")) {
+            respond(exchange, 200, "{\"success\":false}");
+        } else {
+            respond(exchange, 200, "{\"success\":true,\"queueId\":1,\"status\":\"PENDING\"}");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -14,11 +14,13 @@ import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringJUnitConfig({
     RestTemplateAutoConfiguration.class,
@@ -122,6 +124,86 @@ class RestTemplateEmailServiceIntegrationTest {
         ));
     }
 
+    @Test
+    void conflictIsPermanentWhateverTheResponseBodyCarries() {
+        assertThatThrownBy(() -> emailService.enqueueTemplateEmail(
+            "replayed@example.test",
+            "Verify",
+            "email/email-verify",
+            Map.of("verificationCode", "123456"),
+            "VERIFICATION",
+            "email-challenge:replayed-test"
+        ))
+            .isInstanceOfSatisfying(
+                EmailDeliveryClientException.class,
+                exception -> {
+                    assertThat(exception.getErrorCode())
+                        .isEqualTo("EMAIL_SERVICE_HTTP_409");
+                    assertThat(exception.isRetryable()).isFalse();
+                }
+            );
+    }
+
+    @Test
+    void conflictWithoutAnExistingDeliveryIsPermanent() {
+        assertThatThrownBy(() -> emailService.enqueueTemplateEmail(
+            "conflict@example.test",
+            "Verify",
+            "email/email-verify",
+            Map.of("verificationCode", "123456"),
+            "VERIFICATION",
+            "email-challenge:conflict-test"
+        ))
+            .isInstanceOfSatisfying(
+                EmailDeliveryClientException.class,
+                exception -> {
+                    assertThat(exception.getErrorCode())
+                        .isEqualTo("EMAIL_SERVICE_HTTP_409");
+                    assertThat(exception.isRetryable()).isFalse();
+                }
+            );
+    }
+
+    @Test
+    void batchEnqueueMapsEveryItemFromOneCall() {
+        List<EmailBatchResult> results = emailService.enqueueTemplateEmails(List.of(
+            batchRequest("first@example.test", "batch-1"),
+            batchRequest("not-an-email", "batch-2"),
+            batchRequest("second@example.test", "batch-3"),
+            batchRequest("third@example.test", "batch-4"),
+            batchRequest("fourth@example.test", "batch-5")
+        ));
+
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0).receipt()).isEqualTo(new EmailDeliveryReceipt(
+            "11",
+            EmailDeliveryReceipt.DeliveryState.PENDING
+        ));
+        assertThat(results.get(1).error().getErrorCode()).isEqualTo("INVALID_EMAIL");
+        assertThat(results.get(2).error().getErrorCode())
+            .isEqualTo("EMAIL_SERVICE_HTTP_409");
+        assertThat(results.get(2).error().isRetryable()).isFalse();
+        assertThat(results.get(3).error().getErrorCode())
+            .isEqualTo("EMAIL_SERVICE_REJECTED");
+        assertThat(results.get(3).error().isRetryable()).isFalse();
+        assertThat(results.get(4).error().getErrorCode())
+            .isEqualTo("EMAIL_SERVICE_HTTP_409");
+        assertThat(LAST_REQUEST_BODY.get())
+            .contains("\"idempotencyKey\":\"batch-5\"")
+            .doesNotContain("not-an-email");
+    }
+
+    private static EmailTemplateRequest batchRequest(String to, String idempotencyKey) {
+        return new EmailTemplateRequest(
+            to,
+            "Verify",
+            "email/email-verify",
+            Map.of("verificationCode", "123456"),
+            "VERIFICATION",
+            idempotencyKey
+        );
+    }
+
     private static HttpServer startServer() {
         try {
             HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
@@ -131,12 +213,37 @@ class RestTemplateEmailServiceIntegrationTest {
                     respond(exchange, 429, "{\"success\":false}");
                     return;
                 }
+                if (LAST_REQUEST_BODY.get().contains("replayed@example.test")) {
+                    respond(
+                        exchange,
+                        409,
+                        "{\"success\":false,\"queueId\":9,\"status\":\"COMPLETED\"}"
+                    );
+                    return;
+                }
+                if (LAST_REQUEST_BODY.get().contains("conflict@example.test")) {
+                    respond(exchange, 409, "{\"success\":false}");
+                    return;
+                }
                 respond(
                     exchange,
                     200,
                     "{\"success\":true,\"queueId\":1,\"status\":\"PENDING\"}"
                 );
             });
+            server.createContext("/mail/api/email/template/batch", exchange -> {
+                capture(exchange);
+                respond(
+                    exchange,
+                    200,
+                    "{\"success\":false,\"results\":["
+                        + "{\"index\":0,\"success\":true,\"queueId\":11,\"status\":\"PENDING\"},"
+                        + "{\"index\":1,\"success\":false,\"error\":\"IDEMPOTENCY_CONFLICT\"},"
+                        + "{\"index\":2,\"success\":false,\"error\":\"INVALID_REQUEST\"},"
+                        + "{\"index\":3,\"success\":false,\"error\":\"IDEMPOTENCY_CONFLICT\"}"
+                        + "]}"
+                );
+            });
             server.createContext("/mail/api/email/delivery/status", exchange -> {
                 capture(exchange);
                 respond(
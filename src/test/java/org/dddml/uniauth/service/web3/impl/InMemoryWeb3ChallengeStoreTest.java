@@ -0,0 +1,152 @@
+package org.dddml.uniauth.service.web3.impl;
+
+import org.dddml.uniauth.service.Web3ChallengeCapacityExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryWeb3ChallengeStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void challengeIsConsumedOnceAndOnlyWithMatchingFields() {
+        InMemoryWeb3ChallengeStore store = new InMemoryWeb3ChallengeStore(10, 10, clock);
+        String handle = issue(store, "0xabc", "source-a");
+
+        assertThat(store.activeNonce("0xabc")).isEqualTo("nonce-0xabc");
+        assertThat(store.consume(handle, "0xabc", "other", "message-0xabc")).isFalse();
+        assertThat(store.consume(handle, "0xdef", "nonce-0xabc", "message-0xabc")).isFalse();
+        assertThat(store.consume(handle, "0xabc", "nonce-0xabc", "message-0xabc")).isTrue();
+        assertThat(store.consume(handle, "0xabc", "nonce-0xabc", "message-0xabc")).isFalse();
+        assertThat(store.activeNonce("0xabc")).isNull();
+        assertThat(store.activeCount()).isZero();
+    }
+
+    @Test
+    void walletHasOneActiveChallengeUntilItExpires() {
+        InMemoryWeb3ChallengeStore store = new InMemoryWeb3ChallengeStore(10, 10, clock);
+        issue(store, "0xabc", "source-a");
+
+        assertThatThrownBy(() -> issue(store, "0xabc", "source-b"))
+                .isInstanceOf(Web3ChallengeCapacityExceededException.class);
+
+        clock.advance(TTL);
+        String handle = issue(store, "0xabc", "source-b");
+
+        assertThat(store.consume(handle, "0xabc", "nonce-0xabc", "message-0xabc")).isTrue();
+    }
+
+    @Test
+    void sourceAndGlobalCapsAreReleasedByConsumeAndExpiry() {
+        InMemoryWeb3ChallengeStore store = new InMemoryWeb3ChallengeStore(3, 2, clock);
+        String first = issue(store, "0x1", "source-a");
+        issue(store, "0x2", "source-a");
+
+        assertThatThrownBy(() -> issue(store, "0x3", "source-a"))
+                .isInstanceOf(Web3ChallengeCapacityExceededException.class);
+
+        issue(store, "0x3", "source-b");
+        assertThatThrownBy(() -> issue(store, "0x4", "source-c"))
+                .isInstanceOf(Web3ChallengeCapacityExceededException.class);
+
+        assertThat(store.consume(first, "0x1", "nonce-0x1", "message-0x1")).isTrue();
+        issue(store, "0x4", "source-a");
+
+        clock.advance(TTL.plusSeconds(1));
+        issue(store, "0x5", "source-a");
+        issue(store, "0x6", "source-a");
+        assertThat(store.activeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void wheelRemovesChallengesOnceTheirExpirySecondHasPassed() {
+        InMemoryWeb3ChallengeStore store = new InMemoryWeb3ChallengeStore(10, 10, clock);
+        issue(store, "0x1", "source-a");
+        clock.advance(Duration.ofSeconds(2));
+        issue(store, "0x2", "source-a");
+
+        clock.advance(TTL.minusSeconds(2));
+        assertThat(store.removeExpired()).isZero();
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(store.removeExpired()).isEqualTo(1);
+        assertThat(store.activeNonce("0x2")).isEqualTo("nonce-0x2");
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(store.removeExpired()).isEqualTo(1);
+        assertThat(store.activeCount()).isZero();
+    }
+
+    @Test
+    void challengeOutlivingOneRevolutionStaysUntilItExpires() {
+        InMemoryWeb3ChallengeStore store = new InMemoryWeb3ChallengeStore(10, 10, clock);
+        store.issue("0x1", "nonce-0x1", "message-0x1", "source-a",
+                clock.instant().plus(Duration.ofMinutes(20)));
+
+        for (int minute = 0; minute < 19; minute++) {
+            clock.advance(Duration.ofMinutes(1));
+            store.removeExpired();
+        }
+        assertThat(store.activeNonce("0x1")).isEqualTo("nonce-0x1");
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(store.removeExpired()).isEqualTo(1);
+        assertThat(store.activeCount()).isZero();
+    }
+
+    @Test
+    void challengeExpiredByTheTimeItIsInsertedDoesNotHoldCapacity() {
+        InMemoryWeb3ChallengeStore store = new InMemoryWeb3ChallengeStore(1, 1, clock);
+        String handle = store.issue("0x1", "nonce-0x1", "message-0x1", "source-a",
+                clock.instant().minusSeconds(3));
+
+        assertThat(store.activeCount()).isZero();
+        assertThat(store.consume(handle, "0x1", "nonce-0x1", "message-0x1")).isFalse();
+        issue(store, "0x2", "source-a");
+        assertThat(store.activeNonce("0x2")).isEqualTo("nonce-0x2");
+    }
+
+    private String issue(InMemoryWeb3ChallengeStore store, String wallet, String source) {
+        return store.issue(
+                wallet,
+                "nonce-" + wallet,
+                "message-" + wallet,
+                source,
+                clock.instant().plus(TTL)
+        );
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00.250Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
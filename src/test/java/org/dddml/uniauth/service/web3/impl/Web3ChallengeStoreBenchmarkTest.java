@@ -0,0 +1,77 @@
+package org.dddml.uniauth.service.web3.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.service.web3.Web3ChallengeStore;
+import org.dddml.uniauth.support.Benchmark;
+import org.dddml.uniauth.support.PostgreSqlIntegrationTest;
+import org.dddml.uniauth.support.Throughput;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Issue-then-consume throughput of the JDBC and in-memory challenge stores
+ * under the same concurrency.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+    "app.web3.max-active-global=100000",
+    "app.web3.max-active-source=100000"
+})
+@ActiveProfiles("test")
+@Benchmark
+class Web3ChallengeStoreBenchmarkTest extends PostgreSqlIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS_PER_THREAD = 500;
+    private static final int WARMUP_ROUNDS_PER_THREAD = 50;
+
+    @Autowired
+    private JdbcWeb3ChallengeStore jdbcStore;
+
+    @Test
+    void compareIssueAndConsumeThroughput() throws Exception {
+        InMemoryWeb3ChallengeStore memoryStore =
+                new InMemoryWeb3ChallengeStore(100000, 100000);
+
+        double jdbcPerSecond = issueAndConsumeRate(jdbcStore);
+        double memoryPerSecond = issueAndConsumeRate(memoryStore);
+
+        log.info(
+                "Web3 challenge store throughput [threads={}, rounds={}, jdbc={}/s, memory={}/s]",
+                THREADS,
+                THREADS * ROUNDS_PER_THREAD,
+                Math.round(jdbcPerSecond),
+                Math.round(memoryPerSecond)
+        );
+        assertThat(memoryStore.activeCount()).isZero();
+    }
+
+    private static double issueAndConsumeRate(Web3ChallengeStore store)
+            throws Exception {
+        return Throughput.perSecond(
+                THREADS,
+                WARMUP_ROUNDS_PER_THREAD,
+                ROUNDS_PER_THREAD,
+                (thread, round) -> {
+                    String wallet = "0x" + UUID.randomUUID().toString().replace("-", "");
+                    String nonce = UUID.randomUUID().toString();
+                    String message = "benchmark " + nonce;
+                    String handle = store.issue(
+                            wallet,
+                            nonce,
+                            message,
+                            "benchmark-source-" + thread,
+                            Instant.now().plusSeconds(300)
+                    );
+                    return store.consume(handle, wallet, nonce, message);
+                }
+        );
+    }
+}
@@ -0,0 +1,210 @@
+package org.dddml.uniauth.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dddml.uniauth.support.Benchmark;
+import org.dddml.uniauth.support.Throughput;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.ECDSASignature;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class Web3SignatureUtilsTest {
+
+    private static final int SIGNED_CASES = 2000;
+    private static final int RANDOM_CASES = 1000;
+
+    @Test
+    void recoveryMatchesWeb3jOnARandomizedCorpus() {
+        Random random = new Random(20261019L);
+        int recovered = 0;
+        for (int index = 0; index < SIGNED_CASES; index++) {
+            ECKeyPair keyPair = ECKeyPair.create(new BigInteger(255, random).add(BigInteger.ONE));
+            String message = randomMessage(random);
+            Sign.SignatureData signature = Sign.signPrefixedMessage(
+                    message.getBytes(StandardCharsets.UTF_8),
+                    keyPair
+            );
+            byte[] bytes = new byte[65];
+            System.arraycopy(signature.getR(), 0, bytes, 0, 32);
+            System.arraycopy(signature.getS(), 0, bytes, 32, 32);
+            for (int v = 27; v <= 30; v++) {
+                bytes[64] = (byte) (index % 2 == 0 ? v : v - 27);
+                String hex = Numeric.toHexString(bytes);
+                String expected = web3jOutcome(message, hex);
+
+                assertThat(outcome(message, hex)).as("case %d v %d", index, v).isEqualTo(expected);
+                if (("0x" + Keys.getAddress(keyPair)).equals(expected)) {
+                    recovered++;
+                }
+            }
+        }
+        for (int index = 0; index < RANDOM_CASES; index++) {
+            byte[] bytes = new byte[65];
+            random.nextBytes(bytes);
+            bytes[64] = (byte) (25 + random.nextInt(6));
+            String message = randomMessage(random);
+            String hex = Numeric.toHexString(bytes);
+
+            assertThat(outcome(message, hex)).as("random case %d", index)
+                    .isEqualTo(web3jOutcome(message, hex));
+        }
+        assertThat(recovered).isEqualTo(SIGNED_CASES);
+    }
+
+    @Test
+    void verifiesOnlyTheSigningAddress() {
+        ECKeyPair keyPair = ECKeyPair.create(BigInteger.valueOf(123456789L));
+        String message = "uniauth.example wants you to sign in";
+        Sign.SignatureData signature = Sign.signPrefixedMessage(
+                message.getBytes(StandardCharsets.UTF_8),
+                keyPair
+        );
+        String hex = Numeric.toHexString(signature.getR())
+                + Numeric.toHexStringNoPrefix(signature.getS())
+                + Numeric.toHexStringNoPrefix(signature.getV());
+        String address = "0x" + Keys.getAddress(keyPair);
+
+        assertThat(Web3SignatureUtils.verifySignature(message, hex, address.toUpperCase().replace("0X", "0x")))
+                .isTrue();
+        assertThat(Web3SignatureUtils.verifySignature(message + ".", hex, address)).isFalse();
+        assertThat(Web3SignatureUtils.verifySignature(message, hex.substring(0, 100), address)).isFalse();
+        assertThat(Web3SignatureUtils.verifySignatureStructure(hex)).isTrue();
+        assertThat(Web3SignatureUtils.verifySignatureStructure(hex.substring(0, 129) + "z")).isFalse();
+        assertThatThrownBy(() -> Web3SignatureUtils.recoverAddress(message, "0x" + "zz".repeat(65)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void validatesAddressFormat() {
+        assertThat(Web3SignatureUtils.isValidAddress("0x52908400098527886E0F7030069857D2E4169EE7")).isTrue();
+        assertThat(Web3SignatureUtils.isValidAddress("0x52908400098527886e0f7030069857d2e4169ee7")).isTrue();
+        assertThat(Web3SignatureUtils.isValidAddress("52908400098527886e0f7030069857d2e4169ee7")).isFalse();
+        assertThat(Web3SignatureUtils.isValidAddress("0x52908400098527886e0f7030069857d2e4169ee")).isFalse();
+        assertThat(Web3SignatureUtils.isValidAddress("0x52908400098527886e0f7030069857d2e4169eg7")).isFalse();
+        assertThat(Web3SignatureUtils.isValidAddress(null)).isFalse();
+    }
+
+    /**
+     * Time per recovery for the web3j path and for
+     * {@link Web3SignatureUtils#recoverAddress}.
+     */
+    @Test
+    @Benchmark
+    void compareRecoveryThroughput() {
+        Random random = new Random(42L);
+        List<String[]> corpus = new ArrayList<>();
+        for (int index = 0; index < 2000; index++) {
+            ECKeyPair keyPair = ECKeyPair.create(new BigInteger(255, random).add(BigInteger.ONE));
+            String message = randomMessage(random);
+            Sign.SignatureData signature = Sign.signPrefixedMessage(
+                    message.getBytes(StandardCharsets.UTF_8),
+                    keyPair
+            );
+            corpus.add(new String[] {
+                message,
+                Numeric.toHexString(signature.getR())
+                        + Numeric.toHexStringNoPrefix(signature.getS())
+                        + Numeric.toHexStringNoPrefix(signature.getV())
+            });
+        }
+        int recoveries = 10 * corpus.size();
+        double web3jMicros = 1_000_000 / Throughput.perSecond(
+                corpus.size(),
+                recoveries,
+                i -> recovers(Web3SignatureUtilsTest::web3jOutcome, corpus.get(i % corpus.size()))
+        );
+        double currentMicros = 1_000_000 / Throughput.perSecond(
+                corpus.size(),
+                recoveries,
+                i -> recovers(Web3SignatureUtilsTest::outcome, corpus.get(i % corpus.size()))
+        );
+
+        log.info(
+                "recoverAddress us/op [web3j={}, current={}]",
+                String.format("%.1f", web3jMicros),
+                String.format("%.1f", currentMicros)
+        );
+        assertThat(currentMicros).isPositive();
+    }
+
+    private static String randomMessage(Random random) {
+        StringBuilder message = new StringBuilder();
+        int length = random.nextInt(400);
+        for (int index = 0; index < length; index++) {
+            message.append((char) (random.nextInt(8) == 0 ? 0x4e00 + random.nextInt(500) : 32 + random.nextInt(95)));
+        }
+        return message.toString();
+    }
+
+    private static boolean recovers(
+            BinaryOperator<String> recovery,
+            String[] sample) {
+        return !"rejected".equals(recovery.apply(sample[0], sample[1]));
+    }
+
+    private static String outcome(String message, String signature) {
+        try {
+            return Web3SignatureUtils.recoverAddress(message, signature);
+        } catch (Exception exception) {
+            return "rejected";
+        }
+    }
+
+    private static String web3jOutcome(String message, String signature) {
+        try {
+            return web3jRecoverAddress(message, signature);
+        } catch (Exception exception) {
+            return "rejected";
+        }
+    }
+
+    /**
+     * The recovery path Web3SignatureUtils used before it had its own.
+     */
+    private static String web3jRecoverAddress(String message, String signature) throws Exception {
+        byte[] signatureBytes = Numeric.hexStringToByteArray(signature);
+        if (signatureBytes.length != 65) {
+            throw new IllegalArgumentException("length");
+        }
+        byte v = signatureBytes[64];
+        if (v < 27) {
+            v += 27;
+        }
+        int recId = v - 27;
+        if (recId < 0 || recId > 3) {
+            throw new IllegalArgumentException("recovery id");
+        }
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        byte[] prefix = ("\u0019Ethereum Signed Message:\n" + messageBytes.length)
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] payload = Arrays.copyOf(prefix, prefix.length + messageBytes.length);
+        System.arraycopy(messageBytes, 0, payload, prefix.length, messageBytes.length);
+        BigInteger publicKey = Sign.recoverFromSignature(
+                recId,
+                new ECDSASignature(
+                        new BigInteger(1, Arrays.copyOfRange(signatureBytes, 0, 32)),
+                        new BigInteger(1, Arrays.copyOfRange(signatureBytes, 32, 64))
+                ),
+                Hash.sha3(payload)
+        );
+        if (publicKey == null) {
+            throw new IllegalArgumentException("no key");
+        }
+        return "0x" + Keys.getAddress(publicKey);
+    }
+}